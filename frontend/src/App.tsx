@@ -38,15 +38,73 @@ interface Message {
   bookingStatus?: 'pending' | 'success' | 'error';
 }
 
+interface SagaStatus {
+  sagaId: string;
+  state: string;
+  orderId?: string;
+  message?: string;
+}
+
 type Page = 'home' | 'my-trips';
 
 const CURRENT_USER_ID = "user-" + Math.floor(Math.random() * 10000);
 
+const TERMINAL_SAGA_STATES = ['CONFIRMED', 'COMPENSATED', 'FAILED'];
+
+// The backend answers bookings with 202 Accepted; poll the saga until it settles.
+const waitForSaga = async (sagaId: string): Promise<SagaStatus> => {
+  for (;;) {
+    await new Promise(resolve => setTimeout(resolve, 500));
+    const res = await fetch(`/api/order/${sagaId}`);
+    if (!res.ok) throw new Error('Lost track of booking ' + sagaId);
+    const status: SagaStatus = await res.json();
+    if (TERMINAL_SAGA_STATES.includes(status.state)) return status;
+  }
+};
+
+// Streams an assistant reply (Server-Sent Events); onText gets the text so far.
+const streamChat = async (question: string, onText: (text: string) => void): Promise<BookingData | null> => {
+  const response = await fetch('/api/assistant/chat/stream', {
+    method: 'POST',
+    headers: { 'Content-Type': 'text/plain', 'Accept': 'text/event-stream' },
+    body: question,
+  });
+  if (!response.ok || !response.body) throw new Error('Network response was not ok');
+
+  const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+  let buffer = '';
+  let text = '';
+  let booking: BookingData | null = null;
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) return booking;
+    buffer += value;
+    let end;
+    while ((end = buffer.indexOf('\n\n')) >= 0) {
+      const frame = buffer.slice(0, end);
+      buffer = buffer.slice(end + 2);
+      const event = frame.match(/^event:(.*)$/m)?.[1].trim();
+      const data = frame.split('\n').filter(line => line.startsWith('data:')).map(line => line.slice(5)).join('\n');
+      if (event === 'token') {
+        text += JSON.parse(data).text;
+        onText(text);
+      } else if (event === 'booking') {
+        booking = JSON.parse(data);
+      } else if (event === 'error') {
+        throw new Error(JSON.parse(data).message);
+      } else if (event === 'done') {
+        return booking;
+      }
+    }
+  }
+};
+
 function App() {
   // State
   const [messages, setMessages] = useState<Message[]>([]);
   const [input, setInput] = useState('');
   const [isTyping, setIsTyping] = useState(false);
+  const [isStreaming, setIsStreaming] = useState(false);
   const [bookingInProgress, setBookingInProgress] = useState(false);
   const [hasSearched, setHasSearched] = useState(false);
   const [currentPage, setCurrentPage] = useState<Page>('home');
@@ -92,6 +150,36 @@ function App() {
 
   useEffect(scrollToBottom, [messages, isTyping]);
 
+  // Streams the assistant's reply into a new message while it is generated.
+  const askAssistant = async (question: string, bookingIntro: string) => {
+    let started = false;
+    const update = (change: (msg: Message) => Message) => {
+      if (!started) {
+        started = true;
+        setIsTyping(false);
+        setMessages(prev => [...prev, change({ role: 'assistant', content: '' })]);
+      } else {
+        setMessages(prev => prev.map((msg, idx) => idx === prev.length - 1 ? change(msg) : msg));
+      }
+    };
+
+    setIsStreaming(true);
+    try {
+      const booking = await streamChat(question, text => update(msg => ({ ...msg, content: text })));
+      if (booking?.flightId && booking.hotelId) {
+        update(msg => ({
+          ...msg,
+          content: msg.content.trim() || bookingIntro,
+          isBookingOffer: true,
+          bookingData: { ...booking, destination },
+          bookingStatus: 'pending'
+        }));
+      }
+    } finally {
+      setIsStreaming(false);
+    }
+  };
+
   const handleSearch = async () => {
     if (!destination.trim()) return;
     
@@ -107,39 +195,7 @@ function App() {
     }, 100);
 
     try {
-      const response = await fetch('/api/assistant/chat', {
-        method: 'POST',
-        headers: { 'Content-Type': 'text/plain' },
-        body: searchQuery,
-      });
-
-      if (!response.ok) throw new Error('Network response was not ok');
-      const text = await response.text();
-
-      let isBooking = false;
-      let bookingData = null;
-      let displayContent = text;
-
-      try {
-          const jsonMatch = text.match(/\{[\s\S]*\}/);
-          if (jsonMatch) {
-              const potentialJson = JSON.parse(jsonMatch[0]);
-              if (potentialJson.flightId && potentialJson.hotelId) {
-                  isBooking = true;
-                  bookingData = { ...potentialJson, destination };
-                  displayContent = text.replace(jsonMatch[0], '').trim() || "I've found a fantastic option for you:";
-              }
-          }
-      } catch { /* Not JSON */ }
-
-      setMessages(prev => [...prev, { 
-        role: 'assistant', 
-        content: displayContent, 
-        isBookingOffer: isBooking,
-        bookingData: bookingData,
-        bookingStatus: 'pending'
-      }]);
-
+      await askAssistant(searchQuery, "I've found a fantastic option for you:");
     } catch {
       setMessages(prev => [...prev, { role: 'assistant', content: "I apologize, but I'm having trouble connecting to our travel network. Please try again." }]);
     } finally {
@@ -148,7 +204,7 @@ function App() {
   };
 
   const handleSend = async () => {
-    if (!input.trim()) return;
+    if (!input.trim() || isStreaming) return;
 
     const userMsg: Message = { role: 'user', content: input };
     setMessages(prev => [...prev, userMsg]);
@@ -156,39 +212,7 @@ function App() {
     setIsTyping(true);
 
     try {
-      const response = await fetch('/api/assistant/chat', {
-        method: 'POST',
-        headers: { 'Content-Type': 'text/plain' },
-        body: userMsg.content,
-      });
-
-      if (!response.ok) throw new Error('Network response was not ok');
-      const text = await response.text();
-
-      let isBooking = false;
-      let bookingData = null;
-      let displayContent = text;
-
-      try {
-          const jsonMatch = text.match(/\{[\s\S]*\}/);
-          if (jsonMatch) {
-              const potentialJson = JSON.parse(jsonMatch[0]);
-              if (potentialJson.flightId && potentialJson.hotelId) {
-                  isBooking = true;
-                  bookingData = { ...potentialJson, destination };
-                  displayContent = text.replace(jsonMatch[0], '').trim() || "Here's another great option:";
-              }
-          }
-      } catch { /* Not JSON */ }
-
-      setMessages(prev => [...prev, { 
-        role: 'assistant', 
-        content: displayContent, 
-        isBookingOffer: isBooking,
-        bookingData: bookingData,
-        bookingStatus: 'pending'
-      }]);
-
+      await askAssistant(userMsg.content, "Here's another great option:");
     } catch {
       setMessages(prev => [...prev, { role: 'assistant', content: "Connection issue. Please retry." }]);
     } finally {
@@ -215,7 +239,18 @@ function App() {
         })
       });
       
-      if (res.ok) {
+      let booked = res.ok;
+      let errMsg = '';
+      if (res.status === 202) {
+        const accepted: SagaStatus = await res.json();
+        const outcome = await waitForSaga(accepted.sagaId);
+        booked = outcome.state === 'CONFIRMED';
+        errMsg = outcome.message ?? outcome.state;
+      } else if (!res.ok) {
+        errMsg = await res.text();
+      }
+
+      if (booked) {
         setMessages(prev => prev.map((msg, idx) => 
           idx === messageIndex ? { ...msg, bookingStatus: 'success' } : msg
         ));
@@ -227,7 +262,6 @@ function App() {
           message: `Your trip to ${data.destination} has been successfully booked.`
         });
       } else {
-        const errMsg = await res.text();
         setMessages(prev => prev.map((msg, idx) => 
           idx === messageIndex ? { ...msg, bookingStatus: 'error' } : msg
         ));
@@ -378,7 +412,7 @@ function App() {
                     />
                     <Button 
                       onClick={handleSend}
-                      disabled={!input.trim() || isTyping}
+                      disabled={!input.trim() || isTyping || isStreaming}
                       style={{
                         height: '48px',
                         padding: '0 24px',
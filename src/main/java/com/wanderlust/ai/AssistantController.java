@@ -1,51 +1,102 @@
 package com.wanderlust.ai;
 
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.ChatClient.ChatClientRequestSpec;
 import org.springframework.ai.chat.client.advisor.QuestionAnswerAdvisor;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/assistant")
 public class AssistantController {
 
     private final ChatClient chatClient;
+    private final SemanticCache semanticCache;
+    private final ChatStreamer chatStreamer;
+    private final AssistantTools assistantTools;
 
     /**
      * EXT: END-TO-END FLOW - AI & RAG
      * This controller handles the chat interactions. It uses Spring AI to retrieve
      * documents from the Vector Store (PGVector) and augment the prompt (RAG).
+     * Flights, hotels and weather are looked up by the model itself through
+     * {@link AssistantTools}.
      */
-    public AssistantController(ChatClient.Builder builder, VectorStore vectorStore) {
-        this.chatClient = builder
+    public AssistantController(ChatClient.Builder builder, VectorStore vectorStore, SemanticCache semanticCache,
+            ChatStreamer chatStreamer, AssistantTools assistantTools) {
+        this.semanticCache = semanticCache;
+        this.chatStreamer = chatStreamer;
+        this.assistantTools = assistantTools;
+        builder
                 // FLOW: System Prompt for Generative UI
                 // We instruct the AI to output specific JSON when a booking intent is found.
                 // The frontend detects this JSON to show the "Book Now" button.
                 .defaultSystem("You are WanderLust AI, a helpful travel concierge. " +
+                        "Use the tools to look up real flights, hotels and weather; when you need several " +
+                        "lookups, request them together (searchTrip). Never make up flights, hotels or prices. " +
                         "If you find a suitable flight and hotel option for the user, or if the user asks to book something specific, "
                         +
                         "ALWAYS output a JSON block at the end of your response in this exact format: " +
-                        "{\"flightId\": \"F123\", \"hotelId\": \"H456\", \"amount\": 1200.0, \"destination\": \"Paris\"}. "
+                        "{\"flightId\": \"F123\", \"hotelId\": \"H456\", \"amount\": 1200.0, \"destination\": \"Paris\"}, " +
+                        "with the flightId and hotelId of offers returned by the tools and amount = flight price + " +
+                        "hotel price per night x nights. "
                         +
                         "Do not use markdown code blocks for the JSON, just raw JSON text at the end.")
 
                 // FLOW: RAG Advisor
                 // This automatically looks up relevant docs in the vector store and adds them
                 // to context.
-                .defaultAdvisors(new QuestionAnswerAdvisor(vectorStore, SearchRequest.defaults()))
-                .build();
+                .defaultAdvisors(new QuestionAnswerAdvisor(vectorStore, SearchRequest.defaults()));
+        this.chatClient = builder.build();
     }
 
     @PostMapping("/chat")
     public String chat(@RequestBody String userQuery) {
-        // FLOW: Call the LLM
-        return chatClient.prompt()
-                .user(userQuery)
+        AssistantTools.ToolUse use = new AssistantTools.ToolUse();
+        // FLOW: Answer near-duplicates from the cache, call the LLM otherwise;
+        // a reply built on live searches is not cached
+        return semanticCache.answer(userQuery, () -> prompt(userQuery, use)
                 .call()
-                .content();
+                .content(), use::none);
+    }
+
+    /**
+     * EXT: STREAMING CHAT
+     * Same answer as {@link #chat}, sent as Server-Sent Events while the model
+     * generates it (see {@link ChatStreamer} for the events). The body type
+     * must stay {@code SseEmitter}: MVC only streams a {@code ResponseEntity}
+     * whose declared body is an emitter, anything else is written as JSON.
+     */
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> chatStream(@RequestBody String userQuery) {
+        AssistantTools.ToolUse use = new AssistantTools.ToolUse();
+        return chatStreamer.stream(userQuery, () -> prompt(userQuery, use)
+                .stream()
+                .content(), use::none)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+    }
+
+    /**
+     * FLOW: Tools - searches the model may call, answered in-process. They are
+     * registered per request so that {@code use} sees this request's rounds only.
+     */
+    private ChatClientRequestSpec prompt(String userQuery, AssistantTools.ToolUse use) {
+        ChatClientRequestSpec prompt = chatClient.prompt().user(userQuery);
+        for (AssistantTools.Tool tool : assistantTools.tools(use)) {
+            prompt = prompt.function(tool.name(), tool.description(), tool.function());
+        }
+        return prompt;
     }
 }
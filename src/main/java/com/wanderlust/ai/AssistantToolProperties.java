@@ -0,0 +1,22 @@
+package com.wanderlust.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CONFIG: Searches the assistant can run itself ({@code wanderlust.assistant.tools.*}).
+ *
+ * @param budget     How long one round of tool calls may take; searches not
+ *                   done by then are cancelled and reported to the model as
+ *                   timed out.
+ * @param maxResults Offers per flight / hotel search handed to the model.
+ * @param maxCalls   Searches per {@code searchTrip} call; more are refused.
+ */
+@ConfigurationProperties(prefix = "wanderlust.assistant.tools")
+public record AssistantToolProperties(
+        @DefaultValue("3s") Duration budget,
+        @DefaultValue("5") int maxResults,
+        @DefaultValue("8") int maxCalls) {
+}
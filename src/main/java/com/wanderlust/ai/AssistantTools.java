@@ -0,0 +1,350 @@
+package com.wanderlust.ai;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wanderlust.flight.FlightController;
+import com.wanderlust.hotel.HotelController;
+import com.wanderlust.shared.Page;
+import com.wanderlust.weather.WeatherService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * EXT: ASSISTANT TOOLS
+ * Flight, hotel and weather searches the model can call while answering, so
+ * the {@code flightId}/{@code hotelId} of its booking suggestion are real
+ * offers instead of made-up ones:
+ * <ul>
+ * <li>{@code searchFlights}, {@code searchHotels}, {@code getWeather}: one
+ * search each;</li>
+ * <li>{@code searchTrip}: any number of them (up to {@code max-calls}) in
+ * ONE tool call, run concurrently.</li>
+ * </ul>
+ * Searches call {@link FlightController}, {@link HotelController} and
+ * {@link WeatherService} in-process (same validation and defaults as the
+ * REST API, no HTTP loopback), each on its own virtual thread. A round of
+ * tool calls gets {@code budget}: whatever is not done by then is cancelled
+ * and reported to the model as timed out, so one slow upstream cannot hold
+ * up the answer.
+ * <p>
+ * The tools are handed out per chat request ({@link #tools(ToolUse)}), so
+ * each request knows whether its reply was built on live search results;
+ * such a reply must not be served to anyone else from the
+ * {@link SemanticCache}.
+ * </p>
+ * <p>
+ * Observations: {@code wanderlust.assistant.tools} per round and
+ * {@code wanderlust.assistant.tool} ({@code tool=...}) per search, i.e. a
+ * span each in the trace of the chat request and a timer each.
+ * </p>
+ */
+@Component
+@Slf4j
+public class AssistantTools {
+
+    private static final String TIMED_OUT = "timed-out";
+
+    private final FlightController flightController;
+    private final HotelController hotelController;
+    private final WeatherService weatherService;
+    private final ObjectMapper objectMapper;
+    private final ObservationRegistry observationRegistry;
+    private final AssistantToolProperties properties;
+    /** Searches block on the catalogs and Open-Meteo: one virtual thread each. */
+    private final ExecutorService searchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public AssistantTools(FlightController flightController, HotelController hotelController,
+            WeatherService weatherService, ObjectMapper objectMapper, ObservationRegistry observationRegistry,
+            AssistantToolProperties properties) {
+        this.flightController = flightController;
+        this.hotelController = hotelController;
+        this.weatherService = weatherService;
+        this.objectMapper = objectMapper;
+        this.observationRegistry = observationRegistry;
+        this.properties = properties;
+    }
+
+    /**
+     * The tools as the chat client registers them for one request. Each
+     * function is a class of its own: Spring AI derives the JSON schema of the
+     * arguments from its type parameter.
+     *
+     * @param use Counts the rounds the model runs with these tools.
+     */
+    public List<Tool> tools(ToolUse use) {
+        return List.of(
+                new Tool("searchFlights",
+                        "Searches bookable flights between two airports or cities on one date. "
+                                + "Returns offers with their flightId and price.",
+                        new FlightsTool(use)),
+                new Tool("searchHotels",
+                        "Searches hotels with free rooms in a destination for a stay. "
+                                + "Returns offers with their hotelId and pricePerNight.",
+                        new HotelsTool(use)),
+                new Tool("getWeather", "Current weather in one or more cities.", new WeatherTool(use)),
+                new Tool("searchTrip",
+                        "Runs several flight, hotel and weather searches at once, e.g. the outbound and return "
+                                + "flights, the hotel and the weather of a trip. Prefer it over separate calls.",
+                        new TripTool(use)));
+    }
+
+    /**
+     * Tool rounds of ONE chat request.
+     */
+    public static final class ToolUse {
+
+        private final AtomicInteger rounds = new AtomicInteger();
+
+        /**
+         * @return true while the model has not called any tool: the reply
+         *         depends on the question and the documents only.
+         */
+        public boolean none() {
+            return rounds.get() == 0;
+        }
+
+        public int rounds() {
+            return rounds.get();
+        }
+    }
+
+    /**
+     * @param name        Tool name given to the model.
+     * @param description When the model should use it.
+     * @param function    Arguments in, JSON for the model out.
+     */
+    public record Tool(String name, String description, Function<?, String> function) {
+    }
+
+    public record FlightSearch(
+            @JsonProperty(required = true) @JsonPropertyDescription("Airport code or city") String origin,
+            @JsonProperty(required = true) @JsonPropertyDescription("Airport code or city") String destination,
+            @JsonPropertyDescription("Departure date, yyyy-MM-dd") String date,
+            @JsonPropertyDescription("Travellers, default 1") Integer passengers,
+            @JsonPropertyDescription("Economy, Premium Economy, Business or First") String cabin,
+            @JsonPropertyDescription("Only flights with at most this many stops") Integer maxStops,
+            @JsonPropertyDescription("departure (default), price or duration") String sort) {
+    }
+
+    public record HotelSearch(
+            @JsonProperty(required = true) @JsonPropertyDescription("City or destination") String destination,
+            @JsonPropertyDescription("First night, yyyy-MM-dd") String checkIn,
+            @JsonPropertyDescription("Departure day, yyyy-MM-dd") String checkOut,
+            @JsonPropertyDescription("Rooms, default 1") Integer rooms,
+            @JsonPropertyDescription("Guests, default 2") Integer guests,
+            @JsonPropertyDescription("Minimum stars") Integer minStars,
+            @JsonPropertyDescription("Maximum price per night") Integer maxPrice,
+            @JsonPropertyDescription("price (cheapest first, default) or stars") String sort) {
+    }
+
+    public record WeatherRequest(
+            @JsonProperty(required = true) @JsonPropertyDescription("City names") List<String> cities) {
+    }
+
+    public record TripSearch(
+            @JsonPropertyDescription("Flight searches") List<FlightSearch> flights,
+            @JsonPropertyDescription("Hotel searches") List<HotelSearch> hotels,
+            @JsonPropertyDescription("Cities to get the weather of") List<String> weather) {
+    }
+
+    final class FlightsTool implements Function<FlightSearch, String> {
+        private final ToolUse use;
+
+        FlightsTool(ToolUse use) {
+            this.use = use;
+        }
+
+        @Override
+        public String apply(FlightSearch search) {
+            return json(run(List.of(flights(search)), use).get(0));
+        }
+    }
+
+    final class HotelsTool implements Function<HotelSearch, String> {
+        private final ToolUse use;
+
+        HotelsTool(ToolUse use) {
+            this.use = use;
+        }
+
+        @Override
+        public String apply(HotelSearch search) {
+            return json(run(List.of(hotels(search)), use).get(0));
+        }
+    }
+
+    final class WeatherTool implements Function<WeatherRequest, String> {
+        private final ToolUse use;
+
+        WeatherTool(ToolUse use) {
+            this.use = use;
+        }
+
+        @Override
+        public String apply(WeatherRequest request) {
+            return json(run(List.of(weather(request.cities() != null ? request.cities() : List.of())), use)
+                    .get(0));
+        }
+    }
+
+    final class TripTool implements Function<TripSearch, String> {
+        private final ToolUse use;
+
+        TripTool(ToolUse use) {
+            this.use = use;
+        }
+
+        @Override
+        public String apply(TripSearch trip) {
+            List<Search> searches = new ArrayList<>();
+            List<FlightSearch> flights = trip.flights() != null ? trip.flights() : List.of();
+            List<HotelSearch> hotels = trip.hotels() != null ? trip.hotels() : List.of();
+            flights.forEach(search -> searches.add(flights(search)));
+            hotels.forEach(search -> searches.add(hotels(search)));
+            if (trip.weather() != null && !trip.weather().isEmpty()) {
+                searches.add(weather(trip.weather()));
+            }
+            if (searches.size() > properties.maxCalls()) {
+                return json(Map.of("error", "At most " + properties.maxCalls() + " searches per call"));
+            }
+
+            List<Object> results = run(searches, use);
+            Map<String, Object> answer = new LinkedHashMap<>();
+            answer.put("flights", results.subList(0, flights.size()));
+            answer.put("hotels", results.subList(flights.size(), flights.size() + hotels.size()));
+            if (searches.size() > flights.size() + hotels.size()) {
+                answer.put("weather", results.get(results.size() - 1));
+            }
+            return json(answer);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        searchExecutor.shutdownNow();
+    }
+
+    /**
+     * Runs one round of searches concurrently within the budget.
+     *
+     * @param use Of the chat request the round belongs to.
+     * @return the result of each search, in order; a search that failed or
+     *         timed out gives {@code {"error": ...}}.
+     */
+    List<Object> run(List<Search> searches, ToolUse use) {
+        // Counted up front: even a failed round may have told the model something live
+        use.rounds.incrementAndGet();
+        Observation round = Observation.createNotStarted("wanderlust.assistant.tools", observationRegistry)
+                .contextualName("assistant tools")
+                .highCardinalityKeyValue("tools", String.join(",", searches.stream().map(Search::tool).toList()))
+                .start();
+        try {
+            List<Callable<Object>> calls = searches.stream()
+                    .<Callable<Object>>map(search -> () -> Observation
+                            .createNotStarted("wanderlust.assistant.tool", observationRegistry)
+                            .contextualName(search.tool())
+                            .parentObservation(round)
+                            .lowCardinalityKeyValue("tool", search.tool())
+                            .observe(search.call()))
+                    .toList();
+            // FLOW: All searches start at once; invokeAll cancels what is still running at the deadline
+            List<Future<Object>> futures = searchExecutor.invokeAll(calls, properties.budget().toMillis(),
+                    TimeUnit.MILLISECONDS);
+
+            List<Object> results = new ArrayList<>(futures.size());
+            boolean timedOut = false;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(Objects.requireNonNullElse(futures.get(i).get(), Map.of()));
+                } catch (CancellationException e) {
+                    timedOut = true;
+                    log.warn("⚠️ Assistant tool {} took longer than {}", searches.get(i).tool(),
+                            properties.budget());
+                    results.add(Map.of("error", "No answer within " + properties.budget().toMillis() + " ms"));
+                } catch (ExecutionException e) {
+                    log.warn("⚠️ Assistant tool {} failed: {}", searches.get(i).tool(), e.getCause().getMessage());
+                    results.add(Map.of("error", String.valueOf(e.getCause().getMessage())));
+                }
+            }
+            round.lowCardinalityKeyValue(TIMED_OUT, String.valueOf(timedOut));
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            round.error(e);
+            throw new IllegalStateException("Interrupted while waiting for the assistant tools", e);
+        } finally {
+            round.stop();
+        }
+    }
+
+    private Search flights(FlightSearch search) {
+        return new Search("searchFlights", () -> offers(flightController.searchFlights(
+                search.origin(), search.destination(), search.date(),
+                search.passengers() != null ? search.passengers() : 1,
+                search.maxStops(), search.cabin(), null,
+                search.sort() != null ? search.sort() : "departure", null,
+                properties.maxResults())));
+    }
+
+    private Search hotels(HotelSearch search) {
+        return new Search("searchHotels", () -> offers(hotelController.searchHotels(
+                search.destination(), search.checkIn(), search.checkOut(),
+                search.rooms() != null ? search.rooms() : 1,
+                search.guests() != null ? search.guests() : 2,
+                null, search.minStars(), search.maxPrice(),
+                search.sort() != null ? search.sort() : "price", null,
+                properties.maxResults())));
+    }
+
+    private Search weather(List<String> cities) {
+        return new Search("getWeather", () -> cities.size() == 1
+                ? weatherService.getWeather(cities.get(0))
+                : weatherService.getWeather(cities));
+    }
+
+    /**
+     * @return the offers of a search response, or its validation message.
+     */
+    private static Object offers(ResponseEntity<?> response) {
+        if (response.getBody() instanceof Page<?> page) {
+            return page.items();
+        }
+        return Map.of("error", String.valueOf(response.getBody()));
+    }
+
+    private String json(Object result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Tool result is not serializable", e);
+        }
+    }
+
+    /**
+     * One search of a round.
+     */
+    record Search(String tool, Supplier<Object> call) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.wanderlust.ai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Splits a streamed assistant reply into the text for the user and the
+ * booking-intent JSON block the system prompt asks for
+ * ({@code {"flightId": ..., "hotelId": ...}}).
+ * <p>
+ * Text is passed on as it arrives. From a {@code '{'} on, characters are held
+ * back until the braces balance: a booking block is kept aside, anything else
+ * is passed on after all. A block that never closes is released after
+ * {@link #MAX_HELD} characters, so a stray brace cannot hold back the reply.
+ * Not thread-safe: one filter per reply, fed in order.
+ * </p>
+ */
+final class BookingIntentFilter {
+
+    static final int MAX_HELD = 2048;
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final Consumer<String> text;
+    private final StringBuilder held = new StringBuilder();
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private Map<String, Object> booking;
+
+    BookingIntentFilter(ObjectMapper objectMapper, Consumer<String> text) {
+        this.objectMapper = objectMapper;
+        this.text = text;
+    }
+
+    void accept(String chunk) {
+        StringBuilder out = new StringBuilder(chunk.length());
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (depth == 0) {
+                if (c == '{') {
+                    depth = 1;
+                    held.append(c);
+                } else {
+                    out.append(c);
+                }
+                continue;
+            }
+            held.append(c);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                Optional<Map<String, Object>> block = booking == null ? parseBooking(held) : Optional.empty();
+                if (block.isPresent()) {
+                    booking = block.get();
+                } else {
+                    out.append(held);
+                }
+                reset();
+            }
+            if (held.length() > MAX_HELD) {
+                out.append(held);
+                reset();
+            }
+        }
+        if (!out.isEmpty()) {
+            text.accept(out.toString());
+        }
+    }
+
+    /**
+     * End of the reply: passes on whatever is still held back.
+     */
+    void finish() {
+        if (!held.isEmpty()) {
+            text.accept(held.toString());
+            reset();
+        }
+    }
+
+    /**
+     * @return the first booking block of the reply, if any.
+     */
+    Optional<Map<String, Object>> booking() {
+        return Optional.ofNullable(booking);
+    }
+
+    private Optional<Map<String, Object>> parseBooking(CharSequence json) {
+        try {
+            Map<String, Object> block = objectMapper.readValue(json.toString(), JSON_OBJECT);
+            return block.containsKey("flightId") && block.containsKey("hotelId") ? Optional.of(block)
+                    : Optional.empty();
+        } catch (JsonProcessingException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void reset() {
+        held.setLength(0);
+        depth = 0;
+        inString = false;
+        escaped = false;
+    }
+}
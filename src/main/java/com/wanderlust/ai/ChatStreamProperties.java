@@ -0,0 +1,18 @@
+package com.wanderlust.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CONFIG: Streaming assistant replies ({@code wanderlust.assistant.stream.*}).
+ *
+ * @param timeout    A stream still open after this long is closed.
+ * @param maxStreams Streams open at the same time; more are refused with 503.
+ */
+@ConfigurationProperties(prefix = "wanderlust.assistant.stream")
+public record ChatStreamProperties(
+        @DefaultValue("2m") Duration timeout,
+        @DefaultValue("1000") int maxStreams) {
+}
@@ -0,0 +1,212 @@
+package com.wanderlust.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * EXT: STREAMING ASSISTANT
+ * Sends an assistant reply to the browser token by token as Server-Sent
+ * Events instead of after the whole generation:
+ * <ul>
+ * <li>{@code token}: {@code {"text": ...}}, a piece of the reply;</li>
+ * <li>{@code booking}: the booking-intent JSON block, kept out of the text
+ * ({@link BookingIntentFilter});</li>
+ * <li>{@code done}: {@code {"cached": ...}}, end of the reply;</li>
+ * <li>{@code error}: {@code {"message": ...}}, the model failed midway.</li>
+ * </ul>
+ * No thread waits for the model: the request thread returns right after
+ * subscribing, and each batch of tokens is written by a short-lived virtual
+ * thread. Answers go through the {@link SemanticCache} like the blocking
+ * endpoint (a hit is sent as one token).
+ * <p>
+ * Metrics: {@code wanderlust.assistant.stream.first-token} (time to first
+ * token), {@code wanderlust.assistant.stream.active} (open streams) and
+ * {@code wanderlust.assistant.stream.duration}.
+ * </p>
+ */
+@Component
+@Slf4j
+public class ChatStreamer {
+
+    private final SemanticCache semanticCache;
+    private final ObjectMapper objectMapper;
+    private final ChatStreamProperties properties;
+    private final Semaphore streams;
+    /** Token writes block on the client socket: one virtual thread each. */
+    private final Scheduler writers = Schedulers.fromExecutorService(
+            Executors.newVirtualThreadPerTaskExecutor(), "assistant-stream");
+    private final Timer firstToken;
+    private final Timer duration;
+
+    public ChatStreamer(SemanticCache semanticCache, ObjectMapper objectMapper, ChatStreamProperties properties,
+            MeterRegistry meterRegistry) {
+        this.semanticCache = semanticCache;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.streams = new Semaphore(properties.maxStreams());
+        this.firstToken = Timer.builder("wanderlust.assistant.stream.first-token")
+                .description("Time from the question to the first token sent")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.duration = Timer.builder("wanderlust.assistant.stream.duration")
+                .description("Time an assistant stream was open")
+                .register(meterRegistry);
+        Gauge.builder("wanderlust.assistant.stream.active", streams,
+                s -> properties.maxStreams() - s.availablePermits())
+                .description("Assistant streams currently open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param question The user's question.
+     * @param model    Starts the model's token stream; only called on a
+     *                 cache miss.
+     * @return the open stream; empty when {@code max-streams} are open.
+     */
+    public Optional<SseEmitter> stream(String question, Supplier<Flux<String>> model) {
+        return stream(question, model, () -> true);
+    }
+
+    /**
+     * @param question The user's question.
+     * @param model    Starts the model's token stream; only called on a
+     *                 cache miss.
+     * @param reusable Asked once the model is done: false keeps the reply
+     *                 out of the {@link SemanticCache}.
+     * @return the open stream; empty when {@code max-streams} are open.
+     */
+    public Optional<SseEmitter> stream(String question, Supplier<Flux<String>> model, BooleanSupplier reusable) {
+        if (!streams.tryAcquire()) {
+            return Optional.empty();
+        }
+        Reply reply = new Reply(new SseEmitter(properties.timeout().toMillis()), System.nanoTime());
+        try {
+            SemanticCache.Lookup lookup = semanticCache.lookup(question);
+            Flux<String> tokens = lookup.answer() != null ? Flux.just(lookup.answer()) : Flux.defer(model);
+
+            // FLOW: Tokens are written on virtual threads, in order, as they arrive
+            reply.subscription.update(tokens
+                    .publishOn(writers)
+                    .subscribe(reply::token, reply::fail, () -> reply.complete(lookup, reusable)));
+        } catch (RuntimeException e) {
+            reply.close();
+            throw e;
+        }
+        return Optional.of(reply.emitter);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writers.dispose();
+    }
+
+    /**
+     * One open stream.
+     */
+    private final class Reply {
+
+        private final SseEmitter emitter;
+        private final long started;
+        private final BookingIntentFilter filter;
+        private final StringBuilder answer = new StringBuilder();
+        private final Disposable.Swap subscription = Disposables.swap();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private boolean firstSent;
+
+        Reply(SseEmitter emitter, long started) {
+            this.emitter = emitter;
+            this.started = started;
+            this.filter = new BookingIntentFilter(objectMapper, text -> send("token", Map.of("text", text)));
+            // Client gone, timed out or done: stop the model and free the slot
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(e -> close());
+        }
+
+        void token(String chunk) {
+            if (chunk == null || chunk.isEmpty()) {
+                return;
+            }
+            answer.append(chunk);
+            filter.accept(chunk);
+        }
+
+        void complete(SemanticCache.Lookup lookup, BooleanSupplier reusable) {
+            // Before "done": a question asked right after this one already hits
+            if (lookup.answer() == null && reusable.getAsBoolean()) {
+                semanticCache.remember(lookup, answer.toString(), System.nanoTime() - started);
+            }
+            try {
+                filter.finish();
+                filter.booking().ifPresent(booking -> send("booking", booking));
+                send("done", Map.of("cached", lookup.answer() != null));
+                emitter.complete();
+            } catch (UncheckedIOException e) {
+                emitter.completeWithError(e);
+            } finally {
+                // The emitter's own callbacks are not called when it ended before MVC picked it up
+                close();
+            }
+        }
+
+        void fail(Throwable error) {
+            try {
+                if (closed.get() || error instanceof UncheckedIOException) {
+                    // The client went away; nothing left to tell it.
+                    emitter.completeWithError(error);
+                    return;
+                }
+                log.warn("⚠️ Assistant stream failed after {} chars: {}", answer.length(), error.getMessage());
+                send("error", Map.of("message", "The assistant is unavailable right now, please retry."));
+                emitter.complete();
+            } catch (UncheckedIOException e) {
+                emitter.completeWithError(e);
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscription.dispose();
+                streams.release();
+                duration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void send(String event, Object data) {
+            try {
+                emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!firstSent && event.equals("token")) {
+                firstSent = true;
+                firstToken.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
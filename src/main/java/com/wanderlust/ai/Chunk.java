@@ -0,0 +1,14 @@
+package com.wanderlust.ai;
+
+import java.util.Map;
+
+/**
+ * A piece of a RAG document, as embedded and stored.
+ *
+ * @param id       Derived from the content hash: the same text always gets
+ *                 the same id, whichever file it is in.
+ * @param hash     SHA-256 of the text.
+ * @param metadata {@code type}, {@code source} and {@code contentHash}.
+ */
+record Chunk(String id, String hash, String text, Map<String, Object> metadata) {
+}
@@ -0,0 +1,28 @@
+package com.wanderlust.ai;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Where {@link RagDataLoader} keeps the chunks it embedded: the table behind
+ * the assistant's {@code VectorStore}, written with embeddings computed by the
+ * loader (so unchanged chunks are never embedded again).
+ */
+interface ChunkStore {
+
+    /**
+     * @return ids of all chunks stored by earlier ingestions. Anything else in
+     *         the store was not written by the loader and may be dropped.
+     */
+    Set<String> ingestedIds();
+
+    /**
+     * Inserts or replaces the chunks, in one batch.
+     *
+     * @param embeddings One per chunk, in the same order.
+     */
+    void upsert(List<Chunk> chunks, List<float[]> embeddings);
+
+    void delete(Collection<String> ids);
+}
@@ -0,0 +1,524 @@
+package com.wanderlust.ai;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical Navigable Small World graph (Malkov & Yashunin) over the unit
+ * vectors of a {@link MappedVectors} file: approximate nearest neighbours by
+ * cosine similarity in roughly logarithmic time instead of a full scan.
+ * <p>
+ * Inserts are serialized; searches take no lock and run during inserts. A
+ * node is linked completely before it is published (by the volatile
+ * {@link #size}), so a search only ever follows links to finished nodes.
+ * Neighbour lists are replaced, never modified in place.
+ * </p>
+ */
+final class HnswIndex {
+
+    private static final int GRAPH_MAGIC = 0x57484e53; // "WHNS"
+
+    private final MappedVectors vectors;
+    /** Max neighbours per node above layer 0 (layer 0 allows twice as many). */
+    private final int m;
+    private final int efConstruction;
+    private final double levelFactor;
+    private final ReentrantLock insertLock = new ReentrantLock();
+    private final ConcurrentLinkedQueue<Visited> visitedPool = new ConcurrentLinkedQueue<>();
+
+    private volatile Node[] nodes = new Node[1024];
+    private volatile int size;
+    private volatile int entryPoint = -1;
+
+    HnswIndex(MappedVectors vectors, int m, int efConstruction) {
+        this.vectors = vectors;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.levelFactor = 1 / Math.log(m);
+    }
+
+    int size() {
+        return size;
+    }
+
+    float[] vector(int node) {
+        return vectors.get(node);
+    }
+
+    /**
+     * Stores the vector and links it into the graph.
+     *
+     * @param vector Unit length.
+     * @return the node.
+     */
+    int add(float[] vector) {
+        insertLock.lock();
+        try {
+            int node = vectors.append(vector);
+            link(node, vector);
+            return node;
+        } finally {
+            insertLock.unlock();
+        }
+    }
+
+    /**
+     * @param accept Nodes that may be returned (the graph is still walked
+     *               through the others).
+     * @return up to {@code k} nodes, most similar first.
+     */
+    List<Neighbor> search(float[] query, int k, int ef, IntPredicate accept) {
+        int entry = entryPoint;
+        if (entry < 0) {
+            return List.of();
+        }
+        // Published in the reverse order: nodes, size, entryPoint
+        int published = size;
+        Node[] graph = nodes;
+        int current = entry;
+        float currentScore = vectors.dot(current, query);
+        for (int level = graph[entry].level(); level > 0; level--) {
+            boolean moved = true;
+            while (moved) {
+                moved = false;
+                for (int neighbor : graph[current].links(level)) {
+                    if (neighbor >= published) {
+                        continue;
+                    }
+                    float score = vectors.dot(neighbor, query);
+                    if (score > currentScore) {
+                        current = neighbor;
+                        currentScore = score;
+                        moved = true;
+                    }
+                }
+            }
+        }
+        Heap found = searchLayer(graph, published, query, current, currentScore, Math.max(ef, k), 0, accept);
+        return found.drainBest(k);
+    }
+
+    /**
+     * Writes the graph next to the vectors. Loading a snapshot older than
+     * the vectors links the newer vectors again ({@link #load}).
+     */
+    void save(Path file) throws IOException {
+        insertLock.lock();
+        try {
+            vectors.force();
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(GRAPH_MAGIC);
+                out.writeInt(size);
+                out.writeInt(entryPoint);
+                for (int node = 0; node < size; node++) {
+                    Node n = nodes[node];
+                    out.writeByte(n.level());
+                    for (int level = 0; level <= n.level(); level++) {
+                        int[] links = n.links(level);
+                        out.writeShort(links.length);
+                        for (int link : links) {
+                            out.writeInt(link);
+                        }
+                    }
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            insertLock.unlock();
+        }
+    }
+
+    /**
+     * Restores the graph saved by {@link #save} (if any) and links every
+     * vector it does not cover yet.
+     */
+    void load(Path file) throws IOException {
+        insertLock.lock();
+        try {
+            if (Files.exists(file)) {
+                try (DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                    int saved = in.readInt() == GRAPH_MAGIC ? in.readInt() : -1;
+                    if (saved >= 0 && saved <= vectors.count()) {
+                        int entry = in.readInt();
+                        Node[] graph = new Node[Math.max(1024, vectors.count())];
+                        for (int node = 0; node < saved; node++) {
+                            graph[node] = new Node(in.readByte());
+                            for (int level = 0; level <= graph[node].level(); level++) {
+                                int[] links = new int[in.readShort()];
+                                for (int i = 0; i < links.length; i++) {
+                                    links[i] = in.readInt();
+                                }
+                                graph[node].setLinks(level, links);
+                            }
+                        }
+                        nodes = graph;
+                        size = saved;
+                        entryPoint = entry;
+                    }
+                }
+            }
+            for (int node = size; node < vectors.count(); node++) {
+                link(node, vectors.get(node));
+            }
+        } finally {
+            insertLock.unlock();
+        }
+    }
+
+    private void link(int node, float[] vector) {
+        int level = randomLevel();
+        Node created = new Node(level);
+        Node[] graph = nodes;
+        int entry = entryPoint;
+        if (entry >= 0) {
+            int top = graph[entry].level();
+            int current = entry;
+            float currentScore = vectors.dot(current, vector);
+            for (int l = top; l > level; l--) {
+                Heap nearest = searchLayer(graph, size, vector, current, currentScore, 1, l, n -> true);
+                current = nearest.bestNode();
+                currentScore = nearest.bestScore();
+            }
+            for (int l = Math.min(top, level); l >= 0; l--) {
+                Heap candidates = searchLayer(graph, size, vector, current, currentScore, efConstruction, l,
+                        n -> true);
+                current = candidates.bestNode();
+                currentScore = candidates.bestScore();
+                created.setLinks(l, selectNeighbors(candidates.drainBest(Integer.MAX_VALUE), maxLinks(l)));
+            }
+        }
+
+        // FLOW: publish the finished node, then link its neighbours back to it
+        if (node == graph.length) {
+            graph = Arrays.copyOf(graph, graph.length * 2);
+        }
+        graph[node] = created;
+        nodes = graph;
+        size = node + 1;
+        for (int l = 0; l <= Math.min(level, entry >= 0 ? graph[entry].level() : -1); l++) {
+            for (int neighbor : created.links(l)) {
+                linkBack(graph, neighbor, node, l);
+            }
+        }
+        if (entry < 0 || level > graph[entry].level()) {
+            entryPoint = node;
+        }
+    }
+
+    private void linkBack(Node[] graph, int node, int newNeighbor, int level) {
+        int[] links = graph[node].links(level);
+        if (links.length < maxLinks(level)) {
+            int[] grown = Arrays.copyOf(links, links.length + 1);
+            grown[links.length] = newNeighbor;
+            graph[node].setLinks(level, grown);
+            return;
+        }
+        // Full: drop the least similar link that is NOT diverse (more similar
+        // to a better link than to the node). Dropping the least similar link
+        // outright cuts exactly the links between clusters and leaves whole
+        // clusters unreachable; the worst links usually fail the check after a
+        // few dot products, so this costs far less than selecting again.
+        float[] vector = vectors.get(node);
+        Neighbor[] candidates = new Neighbor[links.length + 1];
+        candidates[0] = new Neighbor(newNeighbor, vectors.dot(newNeighbor, vector));
+        for (int i = 0; i < links.length; i++) {
+            candidates[i + 1] = new Neighbor(links[i], vectors.dot(links[i], vector));
+        }
+        Arrays.sort(candidates, (a, b) -> Float.compare(b.score(), a.score()));
+        int dropped = -1;
+        for (int i = candidates.length - 1; i > 0 && dropped < 0; i--) {
+            float[] candidate = vectors.get(candidates[i].node());
+            for (int j = 0; j < i; j++) {
+                if (vectors.dot(candidates[j].node(), candidate) > candidates[i].score()) {
+                    dropped = i;
+                    break;
+                }
+            }
+        }
+        if (dropped < 0) {
+            dropped = candidates.length - 1;
+        }
+        int[] kept = new int[links.length];
+        for (int i = 0, k = 0; i < candidates.length; i++) {
+            if (i != dropped) {
+                kept[k++] = candidates[i].node();
+            }
+        }
+        graph[node].setLinks(level, kept);
+    }
+
+    /**
+     * Neighbour selection heuristic: a candidate is skipped when it is more
+     * similar to an already selected neighbour than to the node itself, so
+     * links point in different directions. Skipped ones fill up free slots.
+     *
+     * @param candidates Most similar first.
+     */
+    private int[] selectNeighbors(List<Neighbor> candidates, int max) {
+        int[] selected = new int[Math.min(max, candidates.size())];
+        int count = 0;
+        List<Neighbor> skipped = new ArrayList<>();
+        for (Neighbor candidate : candidates) {
+            if (count == selected.length) {
+                break;
+            }
+            float[] vector = vectors.get(candidate.node());
+            boolean diverse = true;
+            for (int i = 0; i < count && diverse; i++) {
+                diverse = vectors.dot(selected[i], vector) < candidate.score();
+            }
+            if (diverse) {
+                selected[count++] = candidate.node();
+            } else {
+                skipped.add(candidate);
+            }
+        }
+        for (int i = 0; count < selected.length && i < skipped.size(); i++) {
+            selected[count++] = skipped.get(i).node();
+        }
+        return selected;
+    }
+
+    private Heap searchLayer(Node[] graph, int published, float[] query, int entry, float entryScore, int ef,
+            int level, IntPredicate accept) {
+        Visited visited = visited(published);
+        try {
+            Heap candidates = new Heap(ef * 2, true);
+            Heap found = new Heap(ef + 1, false);
+            visited.add(entry);
+            candidates.push(entry, entryScore);
+            if (accept.test(entry)) {
+                found.push(entry, entryScore);
+            }
+            while (!candidates.isEmpty()) {
+                float score = candidates.topScore();
+                if (found.size() >= ef && score < found.topScore()) {
+                    break;
+                }
+                int current = candidates.pop();
+                for (int neighbor : graph[current].links(level)) {
+                    if (neighbor >= published || !visited.add(neighbor)) {
+                        continue;
+                    }
+                    float neighborScore = vectors.dot(neighbor, query);
+                    if (found.size() < ef || neighborScore > found.topScore()) {
+                        candidates.push(neighbor, neighborScore);
+                        if (accept.test(neighbor)) {
+                            found.push(neighbor, neighborScore);
+                            if (found.size() > ef) {
+                                found.pop();
+                            }
+                        }
+                    }
+                }
+            }
+            return found;
+        } finally {
+            visitedPool.offer(visited);
+        }
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? 2 * m : m;
+    }
+
+    private int randomLevel() {
+        double uniform = 1 - ThreadLocalRandom.current().nextDouble();
+        return Math.min(Byte.MAX_VALUE, (int) (-Math.log(uniform) * levelFactor));
+    }
+
+    private Visited visited(int capacity) {
+        Visited visited = visitedPool.poll();
+        if (visited == null) {
+            visited = new Visited();
+        }
+        visited.reset(capacity);
+        return visited;
+    }
+
+    /**
+     * @param score Cosine similarity to the query.
+     */
+    record Neighbor(int node, float score) {
+    }
+
+    /**
+     * One graph node: its top layer and a neighbour list per layer, each
+     * replaced as a whole so searches see either the old or the new list.
+     */
+    private static final class Node {
+
+        private static final int[] NONE = new int[0];
+
+        private final AtomicReferenceArray<int[]> links;
+
+        Node(int level) {
+            links = new AtomicReferenceArray<>(level + 1);
+            for (int l = 0; l <= level; l++) {
+                links.set(l, NONE);
+            }
+        }
+
+        int level() {
+            return links.length() - 1;
+        }
+
+        int[] links(int level) {
+            return links.get(level);
+        }
+
+        void setLinks(int level, int[] neighbors) {
+            links.set(level, neighbors);
+        }
+    }
+
+    /**
+     * Binary heap of (node, score): max-heap for the candidates to expand,
+     * min-heap (worst on top) for the results kept.
+     */
+    private static final class Heap {
+
+        private final boolean max;
+        private int[] heapNodes;
+        private float[] scores;
+        private int size;
+
+        Heap(int capacity, boolean max) {
+            this.max = max;
+            this.heapNodes = new int[Math.max(capacity, 4)];
+            this.scores = new float[heapNodes.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        float topScore() {
+            return scores[0];
+        }
+
+        void push(int node, float score) {
+            if (size == heapNodes.length) {
+                heapNodes = Arrays.copyOf(heapNodes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!above(score, scores[parent])) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            heapNodes[i] = node;
+            scores[i] = score;
+        }
+
+        int pop() {
+            int top = heapNodes[0];
+            int lastNode = heapNodes[--size];
+            float lastScore = scores[size];
+            int i = 0;
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && above(scores[child + 1], scores[child])) {
+                    child++;
+                }
+                if (!above(scores[child], lastScore)) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            heapNodes[i] = lastNode;
+            scores[i] = lastScore;
+            return top;
+        }
+
+        /** Min-heap only: the best entry (a scan, the heap is ef long). */
+        int bestNode() {
+            return heapNodes[best()];
+        }
+
+        float bestScore() {
+            return scores[best()];
+        }
+
+        /** Min-heap only: up to {@code k} entries, most similar first. */
+        List<Neighbor> drainBest(int k) {
+            Neighbor[] all = new Neighbor[size];
+            for (int i = size - 1; i >= 0; i--) {
+                float score = scores[0];
+                all[i] = new Neighbor(pop(), score);
+            }
+            return List.of(all).subList(0, Math.min(k, all.length));
+        }
+
+        private int best() {
+            int best = 0;
+            for (int i = 1; i < size; i++) {
+                if (scores[i] > scores[best]) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        private boolean above(float a, float b) {
+            return max ? a > b : a < b;
+        }
+    }
+
+    /**
+     * Visited set of one search, cleared in O(1) by bumping a stamp.
+     */
+    private static final class Visited {
+
+        private int[] stamps = new int[0];
+        private int stamp;
+
+        void reset(int capacity) {
+            if (stamps.length < capacity) {
+                stamps = new int[Math.max(capacity, stamps.length * 2)];
+                stamp = 0;
+            }
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+        }
+
+        /** @return false when already visited. */
+        boolean add(int node) {
+            if (stamps[node] == stamp) {
+                return false;
+            }
+            stamps[node] = stamp;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.wanderlust.ai;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * EXT: IN-PROCESS VECTOR STORE
+ * {@link VectorStore} kept in the JVM ({@code wanderlust.vector-store.type=hnsw}):
+ * RAG lookups of the {@code QuestionAnswerAdvisor} are an HNSW graph search
+ * ({@link HnswIndex}) instead of a round-trip to pgvector.
+ * <ul>
+ * <li>Vectors live off-heap in a memory-mapped file ({@link MappedVectors});
+ * documents (id, content, metadata) in an append-only journal; the graph is
+ * saved on shutdown and, after a crash, the vectors it misses are linked
+ * again on start.</li>
+ * <li>Searches run concurrently with inserts, without locking.</li>
+ * <li>Metadata filters ({@code type == 'policy'}) are evaluated during the
+ * graph walk.</li>
+ * <li>Replaced and deleted documents stay in the graph as waypoints and are
+ * never returned.</li>
+ * </ul>
+ * Also the {@link ChunkStore} of {@link RagDataLoader}, which writes
+ * pre-computed embeddings.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(prefix = "wanderlust.vector-store", name = "type", havingValue = "hnsw")
+@Slf4j
+public class HnswVectorStore implements VectorStore, ChunkStore {
+
+    private static final String DISTANCE = "distance";
+    private static final String CONTENT_HASH = "contentHash";
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final TypeReference<Map<String, Object>> METADATA = new TypeReference<>() {
+    };
+
+    private final EmbeddingModel embeddingModel;
+    private final ObjectMapper objectMapper;
+    private final VectorStoreProperties properties;
+    private final MappedVectors vectors;
+    private final HnswIndex index;
+    private final Path graphFile;
+    private final DataOutputStream journal;
+    /** Live documents by node. */
+    private final Map<Integer, Stored> documents = new ConcurrentHashMap<>();
+    private final Map<String, Integer> nodes = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Timer searches;
+
+    public HnswVectorStore(EmbeddingModel embeddingModel, ObjectMapper objectMapper,
+            VectorStoreProperties properties, MeterRegistry meterRegistry) throws IOException {
+        this.embeddingModel = embeddingModel;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        Path directory = Path.of(properties.path());
+        this.vectors = new MappedVectors(directory.resolve("vectors.bin"), properties.dimensions());
+        this.index = new HnswIndex(vectors, properties.m(), properties.efConstruction());
+        this.graphFile = directory.resolve("graph.bin");
+
+        long started = System.nanoTime();
+        index.load(graphFile);
+        Path journalFile = directory.resolve("documents.log");
+        replay(journalFile);
+        this.journal = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16));
+        log.info("HNSW vector store opened: {} documents, {} vectors in {} ms", documents.size(), index.size(),
+                (System.nanoTime() - started) / 1_000_000);
+
+        this.searches = Timer.builder("wanderlust.vector-store.search")
+                .tag("store", "hnsw")
+                .description("RAG similarity searches")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("wanderlust.vector-store.documents", documents, Map::size)
+                .tag("store", "hnsw")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void add(List<Document> batch) {
+        List<float[]> embeddings = batch.stream()
+                .map(document -> floats(document.getEmbedding() == null || document.getEmbedding().isEmpty()
+                        ? embeddingModel.embed(document)
+                        : document.getEmbedding()))
+                .toList();
+        put(batch.stream()
+                .map(document -> new Stored(document.getId(), document.getContent(), document.getMetadata()))
+                .toList(), embeddings);
+    }
+
+    @Override
+    public Optional<Boolean> delete(List<String> idList) {
+        delete((Collection<String>) idList);
+        return Optional.of(true);
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        return searches.record(() -> {
+            float[] query = unit(floats(embeddingModel.embed(request.getQuery())));
+            Predicate<Map<String, Object>> filter = request.hasFilterExpression()
+                    ? MetadataFilter.of(request.getFilterExpression())
+                    : metadata -> true;
+            return index.search(query, request.getTopK(), properties.efSearch(), node -> {
+                Stored stored = documents.get(node);
+                return stored != null && filter.test(stored.metadata());
+            }).stream()
+                    .filter(found -> found.score() >= request.getSimilarityThreshold())
+                    .map(found -> document(found.node(), found.score()))
+                    .filter(Objects::nonNull)
+                    .toList();
+        });
+    }
+
+    @Override
+    public Set<String> ingestedIds() {
+        return documents.values().stream()
+                .filter(stored -> stored.metadata().containsKey(CONTENT_HASH))
+                .map(Stored::id)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void upsert(List<Chunk> chunks, List<float[]> embeddings) {
+        put(chunks.stream().map(chunk -> new Stored(chunk.id(), chunk.text(), chunk.metadata())).toList(),
+                embeddings);
+    }
+
+    @Override
+    public void delete(Collection<String> ids) {
+        writeLock.lock();
+        try {
+            for (String id : ids) {
+                Integer node = nodes.remove(id);
+                if (node != null) {
+                    documents.remove(node);
+                    journal.writeByte(DELETE);
+                    journal.writeInt(node);
+                }
+            }
+            journal.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        writeLock.lock();
+        try {
+            journal.close();
+            index.save(graphFile);
+            vectors.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void put(List<Stored> batch, List<float[]> embeddings) {
+        writeLock.lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Stored stored = batch.get(i);
+                float[] vector = embeddings.get(i);
+                if (vector.length != properties.dimensions()) {
+                    throw new IllegalArgumentException("Embedding of " + stored.id() + " has " + vector.length
+                            + " dimensions, the store " + properties.dimensions());
+                }
+                // FLOW: graph first; the document makes the node visible to searches
+                int node = index.add(unit(vector));
+                journal.writeByte(PUT);
+                journal.writeInt(node);
+                write(stored.id().getBytes(StandardCharsets.UTF_8));
+                write(stored.content().getBytes(StandardCharsets.UTF_8));
+                write(objectMapper.writeValueAsBytes(stored.metadata()));
+                documents.put(node, stored);
+                Integer replaced = nodes.put(stored.id(), node);
+                if (replaced != null) {
+                    documents.remove(replaced);
+                }
+            }
+            journal.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void replay(Path journalFile) throws IOException {
+        if (!Files.exists(journalFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(journalFile), 1 << 16))) {
+            while (true) {
+                byte op = in.readByte();
+                int node = in.readInt();
+                if (op == DELETE) {
+                    Stored deleted = documents.remove(node);
+                    if (deleted != null) {
+                        nodes.remove(deleted.id());
+                    }
+                    continue;
+                }
+                Stored stored = new Stored(read(in), read(in),
+                        objectMapper.readValue(readBytes(in), METADATA));
+                if (node >= index.size()) {
+                    continue; // its vector never made it to disk
+                }
+                documents.put(node, stored);
+                Integer replaced = nodes.put(stored.id(), node);
+                if (replaced != null) {
+                    documents.remove(replaced);
+                }
+            }
+        } catch (EOFException e) {
+            // End of the journal (a torn last record is dropped)
+        }
+    }
+
+    private Document document(int node, float score) {
+        Stored stored = documents.get(node);
+        if (stored == null) {
+            return null; // deleted meanwhile
+        }
+        Map<String, Object> metadata = new HashMap<>(stored.metadata());
+        metadata.put(DISTANCE, 1 - score);
+        return new Document(stored.id(), stored.content(), metadata);
+    }
+
+    private void write(byte[] data) throws IOException {
+        journal.writeInt(data.length);
+        journal.write(data);
+    }
+
+    private static String read(DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        return data;
+    }
+
+    private static float[] floats(List<Double> embedding) {
+        float[] vector = new float[embedding.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = embedding.get(i).floatValue();
+        }
+        return vector;
+    }
+
+    private static float[] unit(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = norm == 0 ? 0 : (float) (vector[i] / norm);
+        }
+        return unit;
+    }
+
+    private record Stored(String id, String content, Map<String, Object> metadata) {
+    }
+}
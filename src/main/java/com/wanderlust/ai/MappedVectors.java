@@ -0,0 +1,141 @@
+package com.wanderlust.ai;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Fixed-dimension float vectors in a memory-mapped file, for
+ * {@link HnswIndex}: off the Java heap, paged in by the OS, and still there
+ * after a restart.
+ * <p>
+ * Layout: a 64-byte header (magic, dimensions, count), then the vectors back
+ * to back, little-endian. The file is mapped in segments of up to 1 GiB (one
+ * mapping cannot exceed 2 GiB), added as it grows. Vectors are written by ONE
+ * thread at a time and may be read concurrently; a vector is visible to
+ * readers once {@link #append} returned and the index published it.
+ * </p>
+ */
+final class MappedVectors implements AutoCloseable {
+
+    private static final int MAGIC = 0x57564543; // "WVEC"
+    private static final int HEADER_BYTES = 64;
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final int dimensions;
+    private final int perSegment;
+    private final IntBuffer header;
+    private volatile FloatBuffer[] segments = new FloatBuffer[0];
+    private int count;
+
+    MappedVectors(Path file, int dimensions) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.dimensions = dimensions;
+        this.perSegment = (int) Math.max(1, SEGMENT_BYTES / (4L * dimensions));
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        this.header = mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        if (header.get(0) == 0) {
+            header.put(0, MAGIC).put(1, dimensions).put(2, 0);
+        } else if (header.get(0) != MAGIC || header.get(1) != dimensions) {
+            throw new IllegalStateException(file + " is not a vector file of " + dimensions + " dimensions");
+        }
+        this.count = header.get(2);
+        for (int segment = 0; segment * (long) perSegment < count; segment++) {
+            addSegment();
+        }
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * @return vectors stored (by the writer).
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * @return the position of the vector, its id in the index.
+     */
+    int append(float[] vector) {
+        if (count / perSegment == segments.length) {
+            addSegment();
+        }
+        FloatBuffer segment = segments[count / perSegment];
+        segment.put((count % perSegment) * dimensions, vector);
+        header.put(2, ++count);
+        return count - 1;
+    }
+
+    float[] get(int position) {
+        float[] vector = new float[dimensions];
+        segments[position / perSegment].get((position % perSegment) * dimensions, vector);
+        return vector;
+    }
+
+    /**
+     * Dot product of the stored vector with {@code query}, read in place.
+     */
+    float dot(int position, float[] query) {
+        FloatBuffer segment = segments[position / perSegment];
+        int offset = (position % perSegment) * dimensions;
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (; i + 3 < dimensions; i += 4) {
+            s0 += segment.get(offset + i) * query[i];
+            s1 += segment.get(offset + i + 1) * query[i + 1];
+            s2 += segment.get(offset + i + 2) * query[i + 2];
+            s3 += segment.get(offset + i + 3) * query[i + 3];
+        }
+        for (; i < dimensions; i++) {
+            s0 += segment.get(offset + i) * query[i];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+
+    /**
+     * Writes the mapped pages to disk.
+     */
+    void force() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void addSegment() {
+        try {
+            long bytes = 4L * perSegment * dimensions;
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_BYTES + segments.length * bytes, bytes);
+            FloatBuffer[] grown = Arrays.copyOf(segments, segments.length + 1);
+            grown[segments.length] = mapped.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            segments = grown;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
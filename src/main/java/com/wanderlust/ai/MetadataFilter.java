@@ -0,0 +1,86 @@
+package com.wanderlust.ai;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates a Spring AI filter expression (e.g. {@code type == 'policy' &&
+ * year >= 2024}) against a document's metadata, in the JVM, for
+ * {@link HnswVectorStore}.
+ */
+final class MetadataFilter {
+
+    private MetadataFilter() {
+    }
+
+    static Predicate<Map<String, Object>> of(Filter.Expression expression) {
+        return metadata -> test(expression, metadata);
+    }
+
+    private static boolean test(Filter.Operand operand, Map<String, Object> metadata) {
+        if (operand instanceof Filter.Group group) {
+            return test(group.content(), metadata);
+        }
+        if (!(operand instanceof Filter.Expression expression)) {
+            throw new IllegalArgumentException("Not a filter expression: " + operand);
+        }
+        return switch (expression.type()) {
+            case AND -> test(expression.left(), metadata) && test(expression.right(), metadata);
+            case OR -> test(expression.left(), metadata) || test(expression.right(), metadata);
+            case NOT -> !test(expression.left(), metadata);
+            default -> compare(expression, metadata);
+        };
+    }
+
+    private static boolean compare(Filter.Expression expression, Map<String, Object> metadata) {
+        if (!(expression.left() instanceof Filter.Key key) || !(expression.right() instanceof Filter.Value value)) {
+            throw new IllegalArgumentException("Expected <key> <operator> <value>: " + expression);
+        }
+        Object actual = metadata.get(unquote(key.key()));
+        Object expected = value.value();
+        return switch (expression.type()) {
+            case EQ -> same(actual, expected);
+            case NE -> !same(actual, expected);
+            case GT -> actual != null && order(actual, expected) > 0;
+            case GTE -> actual != null && order(actual, expected) >= 0;
+            case LT -> actual != null && order(actual, expected) < 0;
+            case LTE -> actual != null && order(actual, expected) <= 0;
+            case IN -> values(expected).stream().anyMatch(v -> same(actual, v));
+            case NIN -> values(expected).stream().noneMatch(v -> same(actual, v));
+            default -> throw new IllegalArgumentException("Unsupported filter operator: " + expression.type());
+        };
+    }
+
+    private static boolean same(Object actual, Object expected) {
+        if (actual instanceof Number a && expected instanceof Number e) {
+            return Double.compare(a.doubleValue(), e.doubleValue()) == 0;
+        }
+        return Objects.equals(actual, expected);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int order(Object actual, Object expected) {
+        if (actual instanceof Number a && expected instanceof Number e) {
+            return Double.compare(a.doubleValue(), e.doubleValue());
+        }
+        if (actual instanceof Comparable a && actual.getClass().isInstance(expected)) {
+            return a.compareTo(expected);
+        }
+        return String.valueOf(actual).compareTo(String.valueOf(expected));
+    }
+
+    private static Collection<?> values(Object expected) {
+        return expected instanceof Collection<?> values ? values : List.of(expected);
+    }
+
+    private static String unquote(String key) {
+        return key.length() > 1 && (key.startsWith("'") || key.startsWith("\""))
+                ? key.substring(1, key.length() - 1)
+                : key;
+    }
+}
@@ -0,0 +1,96 @@
+package com.wanderlust.ai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * {@link ChunkStore} on Spring AI's pgvector table ({@code vector_store}:
+ * id, content, metadata, embedding), read by the {@code PgVectorStore} of
+ * the {@code QuestionAnswerAdvisor}. Written in SQL because
+ * {@code VectorStore.add} always embeds the documents again.
+ * <p>
+ * Rows without a {@code contentHash} were added by {@code VectorStore.add}
+ * before ingestion was incremental. Their text comes back as hashed chunks,
+ * so the first {@link #ingestedIds} deletes them; later ones find none.
+ * </p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "wanderlust.vector-store", name = "type", havingValue = "pgvector", matchIfMissing = true)
+class PgVectorChunkStore implements ChunkStore {
+
+    private static final String TABLE = "vector_store";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    PgVectorChunkStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Set<String> ingestedIds() {
+        Set<String> ingested = new HashSet<>();
+        List<String> legacy = new ArrayList<>();
+        jdbcTemplate.query("select id::text, metadata->>'contentHash' is not null from " + TABLE,
+                (RowCallbackHandler) row -> (row.getBoolean(2) ? ingested : legacy).add(row.getString(1)));
+        if (!legacy.isEmpty()) {
+            delete(legacy);
+            log.info("Deleted {} vector store rows written before incremental ingestion", legacy.size());
+        }
+        return ingested;
+    }
+
+    @Override
+    public void upsert(List<Chunk> chunks, List<float[]> embeddings) {
+        List<Object[]> rows = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            rows.add(new Object[] { UUID.fromString(chunk.id()), chunk.text(), json(chunk),
+                    vector(embeddings.get(i)) });
+        }
+        jdbcTemplate.batchUpdate("insert into " + TABLE + " (id, content, metadata, embedding) "
+                + "values (?, ?, ?::jsonb, ?::vector) on conflict (id) do update set "
+                + "content = excluded.content, metadata = excluded.metadata, embedding = excluded.embedding",
+                rows);
+    }
+
+    @Override
+    public void delete(Collection<String> ids) {
+        jdbcTemplate.batchUpdate("delete from " + TABLE + " where id = ?",
+                ids.stream().map(id -> new Object[] { UUID.fromString(id) }).toList());
+    }
+
+    private String json(Chunk chunk) {
+        try {
+            return objectMapper.writeValueAsString(chunk.metadata());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize metadata of chunk " + chunk.id(), e);
+        }
+    }
+
+    /** pgvector's text form: {@code [0.1,0.2,...]}. */
+    private static String vector(float[] embedding) {
+        StringBuilder text = new StringBuilder(embedding.length * 12).append('[');
+        for (int i = 0; i < embedding.length; i++) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(embedding[i]);
+        }
+        return text.append(']').toString();
+    }
+}
@@ -1,57 +1,239 @@
 package com.wanderlust.ai;
 
-import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.VectorStore;
+import com.wanderlust.shared.CatalogReloadedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class RagDataLoader implements CommandLineRunner {
 
-        private final VectorStore vectorStore;
+        /** Name of the RAG documents in {@link CatalogReloadedEvent}s. */
+        public static final String CORPUS = "rag-corpus";
+        private static final String[] DOCUMENT_PATTERNS = { "**/*.md", "**/*.txt" };
+        private static final String DEFAULT_TYPE = "info";
 
-        public RagDataLoader(VectorStore vectorStore) {
-                this.vectorStore = vectorStore;
+        private final EmbeddingModel embeddingModel;
+        private final ChunkStore chunkStore;
+        private final RagProperties properties;
+        private final ResourcePatternResolver resources;
+        private final ApplicationEventPublisher events;
+        private final Timer ingestion;
+
+        public RagDataLoader(EmbeddingModel embeddingModel, ChunkStore chunkStore, RagProperties properties,
+                        ResourcePatternResolver resources, ApplicationEventPublisher events,
+                        MeterRegistry meterRegistry) {
+                this.embeddingModel = embeddingModel;
+                this.chunkStore = chunkStore;
+                this.properties = properties;
+                this.resources = resources;
+                this.events = events;
+                this.ingestion = Timer.builder("wanderlust.rag.ingestion")
+                                .description("Time to bring the vector store in line with the RAG documents")
+                                .register(meterRegistry);
         }
 
         /**
          * EXT: STARTUP LOGIC (RAG)
-         * Loads sample documents into the PGVector database on startup.
-         * This ensures the AI has knowledge to answer user queries immediately.
+         * Loads the travel documents into the vector store in the BACKGROUND:
+         * startup does not wait for embeddings, the assistant answers from
+         * whatever is stored already (everything, after the first start).
          */
         @Override
-        public void run(String... args) throws Exception {
-                System.out.println("📄 Loading Travel Policy Documents into Vector Store for RAG...");
-
-                List<Document> documents = List.of(
-                                new Document(
-                                                "WanderLust Cancellation Policy: Flights are 100% refundable if cancelled 24h before departure. Hotels are non-refundable unless 'Flex' option is chosen.",
-                                                Map.of("type", "policy")),
-                                new Document(
-                                                "Baggage Allowance: Economy class passengers are allowed 1 carry-on (7kg) and 2 checked bags (23kg each). Business class gets double.",
-                                                Map.of("type", "policy")),
-                                new Document(
-                                                "Visa Requirements: Use our Visa Concierge tool to check requirements for Paris (Schengen) and Tokyo (Japan).",
-                                                Map.of("type", "info")),
-                                new Document("Payment Options: We accept Visa, Mastercard, and WanderPoints. Crypto is coming soon.",
-                                                Map.of("type", "policy")),
-                                // Add a document that triggers the Generative UI in our demo
-                                new Document(
-                                                "Special Offer: Book a trip to Paris with Flight F123 and Hotel H456 for a special price of $1200.",
-                                                Map.of("type", "promotion")));
+        public void run(String... args) {
+                Thread.ofVirtual().name("rag-ingestion").start(() -> {
+                        System.out.println("📄 Loading Travel Policy Documents into Vector Store for RAG...");
+                        try {
+                                ingest();
+                        } catch (Exception e) {
+                                System.out.println(
+                                                "⚠️ Warning: Could not load documents to Vector Store. Is Postgres (pgvector) running? "
+                                                                + e.getMessage());
+                        }
+                });
+        }
+
+        /**
+         * EXT: INCREMENTAL INGESTION
+         * Brings the vector store in line with the documents directory:
+         * <ul>
+         * <li>documents are split into chunks, each identified by the hash of
+         * its content (the same text twice is stored once, a chunk that only
+         * moved keeps its id);</li>
+         * <li>chunks already stored are skipped, chunks no longer in any
+         * document are deleted;</li>
+         * <li>the rest is embedded in batches, {@code parallelism} calls at a
+         * time, and each batch is upserted as soon as it is embedded, so an
+         * interrupted run resumes where it stopped.</li>
+         * </ul>
+         * Called once per start, from {@link #run}.
+         */
+        Ingestion ingest() throws IOException, InterruptedException, ExecutionException {
+                long started = System.nanoTime();
+                Map<String, Chunk> chunks = new LinkedHashMap<>();
+                int files = read(chunks);
+
+                Set<String> stored = chunkStore.ingestedIds();
+                List<Chunk> missing = chunks.values().stream()
+                                .filter(chunk -> !stored.contains(chunk.id()))
+                                .toList();
+                Set<String> stale = new HashSet<>(stored);
+                stale.removeAll(chunks.keySet());
+
+                // FLOW: Embed and Store (only what changed)
+                embedAndStore(missing);
+                if (!stale.isEmpty()) {
+                        chunkStore.delete(stale);
+                }
+                if (!missing.isEmpty() || !stale.isEmpty()) {
+                        // Answers cached from the old documents are now outdated
+                        events.publishEvent(new CatalogReloadedEvent(CORPUS, System.currentTimeMillis()));
+                }
+
+                long elapsed = System.nanoTime() - started;
+                ingestion.record(elapsed, TimeUnit.NANOSECONDS);
+                Ingestion result = new Ingestion(files, chunks.size(), missing.size(), chunks.size() - missing.size(),
+                                stale.size(), elapsed);
+                System.out.println("✅ Documents loaded into the Vector Store: " + result);
+                return result;
+        }
+
+        private void embedAndStore(List<Chunk> chunks) throws InterruptedException, ExecutionException {
+                try (ExecutorService embedders = Executors.newFixedThreadPool(properties.parallelism(),
+                                Thread.ofVirtual().name("rag-embed-", 0).factory())) {
+                        List<Future<?>> batches = new ArrayList<>();
+                        for (int from = 0; from < chunks.size(); from += properties.batchSize()) {
+                                List<Chunk> batch = chunks.subList(from,
+                                                Math.min(from + properties.batchSize(), chunks.size()));
+                                batches.add(embedders.submit(() -> embedAndStoreBatch(batch)));
+                        }
+                        for (Future<?> batch : batches) {
+                                batch.get();
+                        }
+                }
+        }
+
+        private void embedAndStoreBatch(List<Chunk> batch) {
+                List<List<Double>> embeddings = embeddingModel.embed(batch.stream().map(Chunk::text).toList());
+                chunkStore.upsert(batch, embeddings.stream().map(RagDataLoader::floats).toList());
+        }
+
+        /**
+         * Reads and chunks every document.
+         *
+         * @return the number of documents.
+         */
+        private int read(Map<String, Chunk> chunks) throws IOException {
+                String location = properties.documents().endsWith("/") ? properties.documents()
+                                : properties.documents() + "/";
+                String root = resources.getResource(location).getURL().toString();
+                int files = 0;
+                for (String pattern : DOCUMENT_PATTERNS) {
+                        for (Resource document : resources.getResources(location + pattern)) {
+                                files++;
+                                String source = document.getURL().toString().substring(root.length());
+                                int slash = source.indexOf('/');
+                                String type = slash > 0 ? source.substring(0, slash) : DEFAULT_TYPE;
+                                for (String text : split(document.getContentAsString(StandardCharsets.UTF_8),
+                                                properties.chunkSize())) {
+                                        Chunk chunk = chunk(text, type, source);
+                                        chunks.putIfAbsent(chunk.id(), chunk);
+                                }
+                        }
+                }
+                return files;
+        }
+
+        /**
+         * Splits at blank lines, packing paragraphs together up to
+         * {@code maxChars}; a longer paragraph is cut at a space.
+         */
+        static List<String> split(String text, int maxChars) {
+                List<String> pieces = new ArrayList<>();
+                StringBuilder piece = new StringBuilder();
+                for (String paragraph : text.split("\\n\\s*\\n")) {
+                        paragraph = paragraph.strip();
+                        if (paragraph.isEmpty()) {
+                                continue;
+                        }
+                        if (!piece.isEmpty() && piece.length() + 2 + paragraph.length() > maxChars) {
+                                pieces.add(piece.toString());
+                                piece.setLength(0);
+                        }
+                        while (paragraph.length() > maxChars) {
+                                int cut = paragraph.lastIndexOf(' ', maxChars);
+                                cut = cut > 0 ? cut : maxChars;
+                                pieces.add(paragraph.substring(0, cut).strip());
+                                paragraph = paragraph.substring(cut).strip();
+                        }
+                        if (!piece.isEmpty()) {
+                                piece.append("\n\n");
+                        }
+                        piece.append(paragraph);
+                }
+                if (!piece.isEmpty()) {
+                        pieces.add(piece.toString());
+                }
+                return pieces;
+        }
 
+        private static Chunk chunk(String text, String type, String source) {
                 try {
-                        // FLOW: Embed and Store
-                        // Spring AI converts these text docs into vectors and saves them in Postgres.
-                        vectorStore.add(documents);
-                        System.out.println("✅ Documents loaded successfully into PGVector.");
-                } catch (Exception e) {
-                        System.out.println(
-                                        "⚠️ Warning: Could not load documents to Vector Store. Is Postgres (pgvector) running? "
-                                                        + e.getMessage());
+                        byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+                        String hex = HexFormat.of().formatHex(hash);
+                        return new Chunk(UUID.nameUUIDFromBytes(hash).toString(), hex, text,
+                                        Map.of("type", type, "source", source, "contentHash", hex));
+                } catch (NoSuchAlgorithmException e) {
+                        throw new IllegalStateException(e);
+                }
+        }
+
+        private static float[] floats(List<Double> embedding) {
+                float[] vector = new float[embedding.size()];
+                for (int i = 0; i < vector.length; i++) {
+                        vector[i] = embedding.get(i).floatValue();
+                }
+                return vector;
+        }
+
+        /**
+         * Outcome of one {@link #ingest}.
+         *
+         * @param embedded  Chunks sent to the embedding model.
+         * @param unchanged Chunks already in the store.
+         * @param deleted   Chunks no longer in any document.
+         */
+        record Ingestion(int files, int chunks, int embedded, int unchanged, int deleted, long nanos) {
+
+                @Override
+                public String toString() {
+                        double seconds = nanos / 1e9;
+                        return String.format("%d files, %d chunks: %d embedded, %d unchanged, %d deleted "
+                                        + "in %.0f ms (%.0f chunks/s)", files, chunks, embedded, unchanged, deleted,
+                                        seconds * 1000, embedded / Math.max(seconds, 1e-9));
                 }
         }
 }
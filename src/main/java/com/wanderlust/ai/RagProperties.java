@@ -0,0 +1,23 @@
+package com.wanderlust.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * CONFIG: RAG document ingestion ({@code wanderlust.rag.*}).
+ *
+ * @param documents   Directory of the documents ({@code *.md},
+ *                    {@code *.txt}); the first sub-directory is the
+ *                    document type (e.g. {@code policy/baggage.md}).
+ * @param chunkSize   Max characters per chunk (paragraphs are kept
+ *                    together where they fit).
+ * @param batchSize   Chunks per embedding call and per upsert.
+ * @param parallelism Embedding calls in flight at the same time.
+ */
+@ConfigurationProperties(prefix = "wanderlust.rag")
+public record RagProperties(
+        @DefaultValue("classpath:rag/") String documents,
+        @DefaultValue("1000") int chunkSize,
+        @DefaultValue("64") int batchSize,
+        @DefaultValue("4") int parallelism) {
+}
@@ -0,0 +1,174 @@
+package com.wanderlust.ai;
+
+import com.wanderlust.shared.CatalogReloadedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * EXT: SEMANTIC CACHE
+ * Most assistant questions are near-duplicates ("baggage allowance?", "what
+ * is the cancellation policy"). Each question is embedded and looked up among
+ * the questions answered before; from {@code similarity-threshold} on, the
+ * stored answer is returned and the model is not called.
+ * <p>
+ * Answers live for {@code ttl} and are all dropped when the RAG corpus
+ * changes ({@link CatalogReloadedEvent} for {@link RagDataLoader#CORPUS}).
+ * Only answers that rest on the documents are stored: a reply built on
+ * flight, hotel or weather searches quotes offers and seats of that moment
+ * and is not remembered (see {@link AssistantTools.ToolUse}).
+ * Metrics: {@code wanderlust.assistant.cache} (hit/miss),
+ * {@code wanderlust.assistant.cache.saved} (model time a hit saved) and
+ * {@code wanderlust.assistant.model} (model time of a miss).
+ * </p>
+ */
+@Component
+@Slf4j
+public class SemanticCache {
+
+    private final EmbeddingModel embeddingModel;
+    private final SemanticCacheProperties properties;
+    private final SemanticIndex index;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer saved;
+    private final Timer model;
+
+    public SemanticCache(EmbeddingModel embeddingModel, SemanticCacheProperties properties,
+            MeterRegistry meterRegistry) {
+        this.embeddingModel = embeddingModel;
+        this.properties = properties;
+        this.index = new SemanticIndex(properties.maxEntries(), properties.ttl().toNanos());
+        this.hits = Counter.builder("wanderlust.assistant.cache")
+                .tag("result", "hit")
+                .description("Questions answered from the semantic cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("wanderlust.assistant.cache")
+                .tag("result", "miss")
+                .description("Questions that went to the model")
+                .register(meterRegistry);
+        this.saved = Timer.builder("wanderlust.assistant.cache.saved")
+                .description("Model time saved by a cache hit")
+                .register(meterRegistry);
+        this.model = Timer.builder("wanderlust.assistant.model")
+                .description("Model time of a question not in the cache")
+                .register(meterRegistry);
+        Gauge.builder("wanderlust.assistant.cache.size", index, SemanticIndex::size)
+                .description("Questions in the semantic cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param question The user's question.
+     * @param answer   Asks the model; only called on a miss.
+     * @return the stored answer of a similar question, or the model's.
+     */
+    public String answer(String question, Supplier<String> answer) {
+        return answer(question, answer, () -> true);
+    }
+
+    /**
+     * @param question The user's question.
+     * @param answer   Asks the model; only called on a miss.
+     * @param reusable Asked after the model answered: false keeps the answer
+     *                 out of the cache.
+     * @return the stored answer of a similar question, or the model's.
+     */
+    public String answer(String question, Supplier<String> answer, BooleanSupplier reusable) {
+        Lookup lookup = lookup(question);
+        if (lookup.answer() != null) {
+            return lookup.answer();
+        }
+
+        // FLOW: Miss - ask the model and remember the answer
+        long started = System.nanoTime();
+        String fresh = answer.get();
+        long costNanos = System.nanoTime() - started;
+        if (reusable.getAsBoolean()) {
+            remember(lookup, fresh, costNanos);
+        }
+        return fresh;
+    }
+
+    /**
+     * First half of {@link #answer}, for callers that produce the answer
+     * themselves (e.g. streamed): finish a miss with {@link #remember}.
+     */
+    Lookup lookup(String question) {
+        if (!properties.enabled()) {
+            return new Lookup(null, 0, null);
+        }
+        long generation = index.generation();
+        float[] embedding = embed(question).orElse(null);
+        if (embedding != null) {
+            Optional<SemanticIndex.Hit> hit = index.nearest(embedding, properties.similarityThreshold());
+            if (hit.isPresent()) {
+                hits.increment();
+                saved.record(hit.get().costNanos(), TimeUnit.NANOSECONDS);
+                log.debug("Semantic cache hit (similarity {})", hit.get().similarity());
+                return new Lookup(embedding, generation, hit.get().answer());
+            }
+        }
+        misses.increment();
+        return new Lookup(embedding, generation, null);
+    }
+
+    /**
+     * @param lookup    The miss the answer belongs to.
+     * @param costNanos How long the model took for it.
+     */
+    void remember(Lookup lookup, String answer, long costNanos) {
+        if (!properties.enabled()) {
+            return;
+        }
+        model.record(costNanos, TimeUnit.NANOSECONDS);
+        if (lookup.embedding() != null && answer != null && !answer.isBlank()) {
+            index.put(lookup.embedding(), answer, costNanos, lookup.generation());
+        }
+    }
+
+    @EventListener
+    public void onCorpusChanged(CatalogReloadedEvent event) {
+        if (RagDataLoader.CORPUS.equals(event.catalog())) {
+            index.clear();
+            log.info("Semantic cache cleared: RAG corpus changed (version {})", event.version());
+        }
+    }
+
+    /**
+     * @return the question's embedding; empty when the embedding model is not
+     *         reachable, in which case the question simply goes to the model.
+     */
+    private Optional<float[]> embed(String question) {
+        try {
+            List<Double> embedding = embeddingModel.embed(question.trim());
+            float[] vector = new float[embedding.size()];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = embedding.get(i).floatValue();
+            }
+            return Optional.of(vector);
+        } catch (RuntimeException e) {
+            log.warn("Semantic cache bypassed, embedding failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param embedding  Null when the question could not be embedded.
+     * @param generation Of the index, read before the lookup.
+     * @param answer     The cached answer; null on a miss.
+     */
+    record Lookup(float[] embedding, long generation, String answer) {
+    }
+}
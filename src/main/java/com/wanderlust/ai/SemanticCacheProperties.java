@@ -0,0 +1,26 @@
+package com.wanderlust.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CONFIG: Semantic answer cache of the assistant
+ * ({@code wanderlust.assistant.cache.*}).
+ *
+ * @param enabled             Off: every question goes to the model.
+ * @param similarityThreshold Cosine similarity from which a previous question
+ *                            counts as the same question.
+ * @param ttl                 How long an answer is reused; kept below
+ *                            {@code wanderlust.offers.ttl} so that no answer
+ *                            outlives the offers it was given next to.
+ * @param maxEntries          Questions remembered (oldest replaced first).
+ */
+@ConfigurationProperties(prefix = "wanderlust.assistant.cache")
+public record SemanticCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("0.95") double similarityThreshold,
+        @DefaultValue("10m") Duration ttl,
+        @DefaultValue("2000") int maxEntries) {
+}
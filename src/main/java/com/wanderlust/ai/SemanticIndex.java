@@ -0,0 +1,146 @@
+package com.wanderlust.ai;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process nearest-neighbour index of answered questions, for
+ * {@link SemanticCache}: a fixed number of slots, each holding the
+ * unit-length embedding of a question and its answer.
+ * <p>
+ * Lookups are an exact scan (cosine similarity is a dot product of unit
+ * vectors), which for a few thousand questions costs a few milliseconds,
+ * nothing next to a model call. When full, the oldest question is replaced.
+ * </p>
+ */
+final class SemanticIndex {
+
+    private final int capacity;
+    private final long ttlNanos;
+    private final float[][] vectors;
+    private final String[] answers;
+    private final long[] expiresAt;
+    /** How long the model took for the answer: what a hit saves. */
+    private final long[] costNanos;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int next;
+    private int size;
+    /** Bumped by {@link #clear}: answers computed before that are not stored. */
+    private long generation;
+
+    SemanticIndex(int capacity, long ttlNanos) {
+        this.capacity = capacity;
+        this.ttlNanos = ttlNanos;
+        this.vectors = new float[capacity][];
+        this.answers = new String[capacity];
+        this.expiresAt = new long[capacity];
+        this.costNanos = new long[capacity];
+    }
+
+    /**
+     * @return the stored answer of the most similar question, if it is at
+     *         least {@code threshold} similar and not expired.
+     */
+    Optional<Hit> nearest(float[] query, double threshold) {
+        float[] unit = unit(query);
+        long now = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            int best = -1;
+            double bestSimilarity = threshold;
+            for (int slot = 0; slot < size; slot++) {
+                if (now - expiresAt[slot] >= 0 || vectors[slot].length != unit.length) {
+                    continue;
+                }
+                double similarity = dot(vectors[slot], unit);
+                if (similarity >= bestSimilarity) {
+                    best = slot;
+                    bestSimilarity = similarity;
+                }
+            }
+            return best < 0
+                    ? Optional.empty()
+                    : Optional.of(new Hit(answers[best], bestSimilarity, costNanos[best]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores an answer, unless the index was cleared since
+     * {@code seenGeneration} was read (the answer may be based on old data).
+     */
+    void put(float[] question, String answer, long cost, long seenGeneration) {
+        float[] unit = unit(question);
+        lock.writeLock().lock();
+        try {
+            if (seenGeneration != generation) {
+                return;
+            }
+            vectors[next] = unit;
+            answers[next] = answer;
+            expiresAt[next] = System.nanoTime() + ttlNanos;
+            costNanos[next] = cost;
+            next = (next + 1) % capacity;
+            size = Math.max(size, next == 0 ? capacity : next);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long generation() {
+        lock.readLock().lock();
+        try {
+            return generation;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(vectors, null);
+            Arrays.fill(answers, null);
+            next = 0;
+            size = 0;
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static float[] unit(float[] vector) {
+        double norm = Math.sqrt(dot(vector, vector));
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = norm == 0 ? 0 : (float) (vector[i] / norm);
+        }
+        return unit;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @param costNanos What the model took to produce the answer originally.
+     */
+    record Hit(String answer, double similarity, long costNanos) {
+    }
+}
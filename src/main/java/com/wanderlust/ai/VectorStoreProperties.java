@@ -0,0 +1,26 @@
+package com.wanderlust.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * CONFIG: Vector store of the assistant ({@code wanderlust.vector-store.*}).
+ *
+ * @param type           {@code pgvector} (Spring AI's PgVectorStore) or
+ *                       {@code hnsw} ({@link HnswVectorStore}, in the JVM).
+ * @param path           Directory of the hnsw store's files.
+ * @param dimensions     Of the embedding model.
+ * @param m              HNSW links per node and layer (twice as many on
+ *                       layer 0): higher means better recall, more memory.
+ * @param efConstruction Candidates considered when linking a new vector.
+ * @param efSearch       Candidates kept while searching: recall vs. latency.
+ */
+@ConfigurationProperties(prefix = "wanderlust.vector-store")
+public record VectorStoreProperties(
+        @DefaultValue("pgvector") String type,
+        @DefaultValue("data/vector-store") String path,
+        @DefaultValue("1536") int dimensions,
+        @DefaultValue("16") int m,
+        @DefaultValue("100") int efConstruction,
+        @DefaultValue("100") int efSearch) {
+}
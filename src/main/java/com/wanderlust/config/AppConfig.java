@@ -1,14 +1,42 @@
 package com.wanderlust.config;
 
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+
 @Configuration
+@EnableScheduling
 public class AppConfig {
 
+    /** Idle timeout of the JDK connection pool, read once when the first client is built. */
+    private static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+    /**
+     * EXT: HTTP CLIENT
+     * The one client every outbound call goes through: the JDK
+     * {@link HttpClient} keeps connections alive in a pool and speaks HTTP/2
+     * where the server does (falls back to HTTP/1.1), and it has explicit
+     * connect and read timeouts. Built from Boot's {@link RestTemplateBuilder},
+     * so calls are observed as {@code http.client.requests}, tagged per host
+     * ({@code client.name}).
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder, HttpClientProperties properties) {
+        if (System.getProperty(KEEP_ALIVE_PROPERTY) == null) {
+            System.setProperty(KEEP_ALIVE_PROPERTY, String.valueOf(properties.keepAlive().toSeconds()));
+        }
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.connectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(properties.readTimeout());
+        return builder.requestFactory(() -> requestFactory).build();
     }
 }
@@ -0,0 +1,83 @@
+package com.wanderlust.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * EXT: EVENT DISPATCHER
+ * Enables {@code @Async} (and with it the asynchronous
+ * {@code @ApplicationModuleListener}s) on a dedicated, bounded dispatcher, so
+ * event listeners never run on a booking thread.
+ * <p>
+ * Deliveries are handed over after the publishing transaction committed. A
+ * delivery that does not fit into the dispatcher queue is NOT lost: its event
+ * is still incomplete in the outbox and {@link EventOutbox} redelivers it.
+ * </p>
+ */
+@Configuration
+@EnableAsync
+@RequiredArgsConstructor
+@Slf4j
+public class AsyncConfig implements AsyncConfigurer, DisposableBean {
+
+    private final EventProperties eventProperties;
+    private final MeterRegistry meterRegistry;
+
+    private ThreadPoolTaskExecutor dispatcher;
+
+    @Override
+    public synchronized Executor getAsyncExecutor() {
+        if (dispatcher == null) {
+            Counter rejected = Counter.builder("wanderlust.events.dispatch.rejected")
+                    .description("Deliveries left in the outbox because the dispatcher queue was full")
+                    .register(meterRegistry);
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadNamePrefix("event-dispatch-");
+            executor.setCorePoolSize(eventProperties.dispatcherThreads());
+            executor.setMaxPoolSize(eventProperties.dispatcherThreads());
+            executor.setQueueCapacity(eventProperties.dispatcherQueue());
+            // Never throw into (or block) the committing thread: redelivery catches up.
+            executor.setRejectedExecutionHandler((task, pool) -> rejected.increment());
+            executor.setWaitForTasksToCompleteOnShutdown(true);
+            executor.setAwaitTerminationSeconds(10);
+            executor.initialize();
+            ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), "eventDispatcher",
+                    List.of());
+            dispatcher = executor;
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Deliveries handed to the dispatcher that have not started yet.
+     */
+    public synchronized int waitingDeliveries() {
+        return dispatcher == null ? 0 : dispatcher.getThreadPoolExecutor().getQueue().size();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        // The publication stays incomplete, so the event is redelivered later.
+        return (error, method, params) -> log.warn("⚠️ Async listener {} failed: {}", method.getName(),
+                error.getMessage());
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+}
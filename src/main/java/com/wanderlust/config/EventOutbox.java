@@ -0,0 +1,135 @@
+package com.wanderlust.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.modulith.events.EventPublication;
+import org.springframework.modulith.events.IncompleteEventPublications;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EXT: TRANSACTIONAL OUTBOX
+ * Housekeeping of Spring Modulith's event publication registry
+ * ({@code event_publication}), which is our outbox: every event is stored there
+ * in the publishing transaction and marked complete once its listener returned.
+ * <ul>
+ * <li><b>Redelivery</b>: events still incomplete after
+ * {@code wanderlust.events.redelivery-age} (listener failed, dispatcher full,
+ * JVM died) are delivered again, in one pass per run. An event that may still
+ * be in flight - a listener is handling it ({@link InFlightEvents}), or
+ * deliveries are waiting in the dispatcher queue - is left alone until a later
+ * run. Listeners are idempotent per event anyway (the notification table and
+ * the itinerary view are keyed by booking id), as another node may still
+ * redeliver an event this node is handling.</li>
+ * <li><b>Cleanup</b>: delivered events are removed after
+ * {@code completed-retention}.</li>
+ * <li><b>Metrics</b>: {@code wanderlust.events.outbox.pending},
+ * {@code wanderlust.events.outbox.lag} (age of the oldest undelivered event,
+ * i.e. how far delivery trails publication) and
+ * {@code wanderlust.events.redeliveries}.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class EventOutbox {
+
+    private final IncompleteEventPublications incompletePublications;
+    private final InFlightEvents inFlightEvents;
+    private final AsyncConfig dispatcher;
+    private final JdbcTemplate jdbcTemplate;
+    private final EventProperties eventProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestPublishedAt = new AtomicLong();
+
+    public EventOutbox(IncompleteEventPublications incompletePublications, InFlightEvents inFlightEvents,
+            AsyncConfig dispatcher, JdbcTemplate jdbcTemplate, EventProperties eventProperties,
+            MeterRegistry meterRegistry) {
+        this.incompletePublications = incompletePublications;
+        this.inFlightEvents = inFlightEvents;
+        this.dispatcher = dispatcher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventProperties = eventProperties;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("wanderlust.events.outbox.pending", pending, AtomicLong::get)
+                .description("Event deliveries not completed yet")
+                .register(meterRegistry);
+        Gauge.builder("wanderlust.events.outbox.lag", oldestPublishedAt, EventOutbox::lagSeconds)
+                .description("Age of the oldest undelivered event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "PT10S", fixedDelayString = "${wanderlust.events.maintenance-interval:PT10S}")
+    void maintain() {
+        try {
+            redeliverStale();
+            deleteCompleted();
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Event outbox maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * ONE pass over the incomplete publications: the predicate sees every one of
+     * them, so it also feeds the gauges, and picks the stale ones for redelivery.
+     */
+    void redeliverStale() {
+        Instant cutoff = Instant.now().minus(eventProperties.redeliveryAge());
+        // A stale event may still wait for a dispatcher thread: redeliver only once the backlog is gone.
+        boolean backlog = dispatcher.waitingDeliveries() > 0;
+        AtomicLong count = new AtomicLong();
+        AtomicLong oldest = new AtomicLong(Long.MAX_VALUE);
+        incompletePublications.resubmitIncompletePublications(publication -> {
+            count.incrementAndGet();
+            oldest.accumulateAndGet(publication.getPublicationDate().toEpochMilli(), Math::min);
+            if (!publication.getPublicationDate().isBefore(cutoff)
+                    || backlog
+                    || inFlightEvents.contains(publication.getEvent())) {
+                return false;
+            }
+            redeliveries(publication).increment();
+            log.info("🔁 Redelivering {} published at {}", publication.getEvent().getClass().getSimpleName(),
+                    publication.getPublicationDate());
+            return true;
+        });
+        pending.set(count.get());
+        oldestPublishedAt.set(count.get() == 0 ? 0 : oldest.get());
+    }
+
+    /**
+     * Removes delivered events. Done in SQL on Modulith's documented
+     * {@code event_publication} table, because
+     * {@code CompletedEventPublications} of Spring Modulith 1.1.0 selects the
+     * INCOMPLETE publications for deletion.
+     */
+    private void deleteCompleted() {
+        Instant cutoff = Instant.now().minus(eventProperties.completedRetention());
+        int deleted = jdbcTemplate.update("delete from event_publication where completion_date < ?",
+                Timestamp.from(cutoff));
+        if (deleted > 0) {
+            log.debug("Removed {} delivered event publication(s)", deleted);
+        }
+    }
+
+    private Counter redeliveries(EventPublication publication) {
+        return Counter.builder("wanderlust.events.redeliveries")
+                .description("Events delivered again because they were not completed in time")
+                .tag("event", publication.getEvent().getClass().getSimpleName())
+                .register(meterRegistry);
+    }
+
+    private static double lagSeconds(AtomicLong oldestPublishedAt) {
+        long since = oldestPublishedAt.get();
+        return since == 0 ? 0 : Duration.ofMillis(System.currentTimeMillis() - since).toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.wanderlust.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CONFIG: Domain event delivery settings ({@code wanderlust.events.*}).
+ *
+ * @param dispatcherThreads    Threads delivering events to async listeners.
+ * @param dispatcherQueue      Deliveries that may wait for a dispatcher thread.
+ *                             Beyond that an event stays in the outbox and is
+ *                             picked up by redelivery.
+ * @param maintenanceInterval  How often the outbox is checked (metrics,
+ *                             redelivery, cleanup).
+ * @param redeliveryAge        An event not delivered after this long is
+ *                             delivered again.
+ * @param completedRetention   How long delivered events are kept in the
+ *                             outbox table.
+ */
+@ConfigurationProperties(prefix = "wanderlust.events")
+public record EventProperties(
+        @DefaultValue("8") int dispatcherThreads,
+        @DefaultValue("10000") int dispatcherQueue,
+        @DefaultValue("10s") Duration maintenanceInterval,
+        @DefaultValue("1m") Duration redeliveryAge,
+        @DefaultValue("1h") Duration completedRetention) {
+}
@@ -0,0 +1,20 @@
+package com.wanderlust.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CONFIG: Outbound HTTP settings ({@code wanderlust.http.*}).
+ *
+ * @param connectTimeout Time to establish a connection.
+ * @param readTimeout    Time to wait for a response.
+ * @param keepAlive      How long an idle pooled connection is kept open.
+ */
+@ConfigurationProperties(prefix = "wanderlust.http")
+public record HttpClientProperties(
+        @DefaultValue("2s") Duration connectTimeout,
+        @DefaultValue("5s") Duration readTimeout,
+        @DefaultValue("30s") Duration keepAlive) {
+}
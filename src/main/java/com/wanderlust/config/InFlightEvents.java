@@ -0,0 +1,41 @@
+package com.wanderlust.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * EXT: TRANSACTIONAL OUTBOX
+ * Knows which events an {@code @ApplicationModuleListener} is handling in this
+ * JVM right now, so {@link EventOutbox} does not deliver them a second time
+ * while the first delivery is still running.
+ * <p>
+ * Events are matched by equality (our events are records), because a
+ * redelivered event is a fresh copy deserialized from the outbox.
+ * </p>
+ */
+@Aspect
+@Component
+public class InFlightEvents {
+
+    /** Event -> number of listeners handling it. */
+    private final Map<Object, Integer> running = new ConcurrentHashMap<>();
+
+    @Around("@annotation(org.springframework.modulith.events.ApplicationModuleListener) && args(event)")
+    public Object track(ProceedingJoinPoint delivery, Object event) throws Throwable {
+        running.merge(event, 1, Integer::sum);
+        try {
+            return delivery.proceed();
+        } finally {
+            running.computeIfPresent(event, (e, listeners) -> listeners == 1 ? null : listeners - 1);
+        }
+    }
+
+    public boolean contains(Object event) {
+        return running.containsKey(event);
+    }
+}
@@ -0,0 +1,22 @@
+package com.wanderlust.destination;
+
+import java.util.List;
+
+/**
+ * A destination as shown on the home page and in search results.
+ *
+ * @param id Slug of the name ({@code new-york}).
+ */
+public record Destination(
+        String id,
+        String name,
+        String country,
+        String description,
+        int priceFrom,
+        String currency,
+        String image,
+        List<String> images,
+        List<String> tags,
+        double rating,
+        int reviewCount) {
+}
@@ -0,0 +1,215 @@
+package com.wanderlust.destination;
+
+import com.wanderlust.shared.CatalogReloadedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * EXT: DESTINATION CATALOG
+ * All destinations, loaded from {@code wanderlust.destinations.catalog} and
+ * kept most popular first. Search and typeahead go through a prebuilt
+ * {@link DestinationIndex} instead of scanning every name, country and tag.
+ * <p>
+ * The data is an immutable snapshot: when the file changes, a new snapshot is
+ * built next to the old one, swapped in with a single write and announced
+ * with a {@link CatalogReloadedEvent}.
+ * </p>
+ */
+@Component
+@Slf4j
+public class DestinationCatalog {
+
+    /** Catalog name in {@link CatalogReloadedEvent}s. */
+    public static final String NAME = "destinations";
+
+    private static final int COLUMNS = 9;
+    private static final String CURRENCY = "USD";
+
+    private final DestinationProperties properties;
+    private final Resource resource;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Timer suggestTimer;
+    private volatile Snapshot snapshot;
+    /** Modification time of a file that failed to load, not retried. */
+    private volatile long rejected;
+
+    public DestinationCatalog(DestinationProperties properties, ResourceLoader resourceLoader,
+            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) throws IOException {
+        this.properties = properties;
+        this.resource = resourceLoader.getResource(properties.catalog());
+        this.eventPublisher = eventPublisher;
+        this.suggestTimer = Timer.builder("wanderlust.destinations.suggest")
+                .description("Destination typeahead lookups")
+                .register(meterRegistry);
+        this.snapshot = load(1);
+    }
+
+    /**
+     * Version of the data currently served, starting at 1.
+     */
+    public long version() {
+        return snapshot.version();
+    }
+
+    /**
+     * @return the most popular destinations, for the home page.
+     */
+    public List<Destination> featured() {
+        List<Destination> destinations = snapshot.destinations();
+        return destinations.subList(0, Math.min(properties.featured(), destinations.size()));
+    }
+
+    public Optional<Destination> find(String id) {
+        return Optional.ofNullable(snapshot.byId().get(id));
+    }
+
+    /**
+     * Destinations whose name, country or a tag has a word starting with the
+     * query, most popular first.
+     */
+    public List<Destination> search(String query, int limit) {
+        Snapshot current = snapshot;
+        return Arrays.stream(current.index().lookup(query, clamp(limit)))
+                .mapToObj(current.destinations()::get)
+                .toList();
+    }
+
+    /**
+     * Same as {@link #search}, trimmed down for a typeahead dropdown.
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        return suggestTimer.record(() -> search(query, limit).stream()
+                .map(d -> new Suggestion(d.id(), d.name(), d.country()))
+                .toList());
+    }
+
+    /**
+     * Reloads the catalog when its file changed since it was last loaded. A
+     * broken file is logged once and the current data kept.
+     */
+    @Scheduled(initialDelayString = "${wanderlust.destinations.reload-interval:PT30S}",
+            fixedDelayString = "${wanderlust.destinations.reload-interval:PT30S}")
+    public void reloadIfChanged() {
+        long lastModified = lastModified();
+        if (lastModified <= snapshot.lastModified() || lastModified == rejected) {
+            return;
+        }
+        try {
+            reload();
+        } catch (IOException | RuntimeException e) {
+            rejected = lastModified;
+            log.error("Destination catalog {} could not be reloaded, keeping version {}", properties.catalog(),
+                    snapshot.version(), e);
+        }
+    }
+
+    /**
+     * Builds a new snapshot from the file and swaps it in.
+     */
+    public synchronized void reload() throws IOException {
+        Snapshot reloaded = load(snapshot.version() + 1);
+        snapshot = reloaded;
+        eventPublisher.publishEvent(new CatalogReloadedEvent(NAME, reloaded.version()));
+    }
+
+    private Snapshot load(long version) throws IOException {
+        long started = System.nanoTime();
+        long lastModified = lastModified();
+        List<String[]> rows = read(resource);
+        // Most popular first, name as tie-breaker so the order is stable
+        rows.sort(Comparator.<String[]>comparingLong(r -> -Long.parseLong(r[5])).thenComparing(r -> r[0]));
+
+        List<Destination> destinations = rows.stream().map(DestinationCatalog::destination).toList();
+        Map<String, Destination> byId = new HashMap<>();
+        for (Destination destination : destinations) {
+            if (byId.put(destination.id(), destination) != null) {
+                throw new IllegalStateException("Duplicate destination in catalog: " + destination.name());
+            }
+        }
+        DestinationIndex index = new DestinationIndex(destinations);
+
+        log.info("Destination catalog v{}: {} destinations, {} index entries, built in {} ms",
+                version, destinations.size(), index.size(), (System.nanoTime() - started) / 1_000_000);
+        return new Snapshot(version, lastModified, destinations, byId, index);
+    }
+
+    /**
+     * @return when the file was last modified, or 0 if that is unknown (e.g.
+     *         inside a jar, which never changes anyway).
+     */
+    private long lastModified() {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private int clamp(int limit) {
+        return Math.clamp(limit, 1, properties.maxResults());
+    }
+
+    private static Destination destination(String[] r) {
+        String name = r[0];
+        String image = r[7];
+        return new Destination(
+                name.toLowerCase().replace(" ", "-"),
+                name,
+                r[1],
+                r[8],
+                Integer.parseInt(r[2]),
+                CURRENCY,
+                image,
+                List.of(image, image.replace("w=800", "w=600").replace("h=600", "h=400")),
+                List.of(r[6].split("\\|")),
+                Double.parseDouble(r[3]),
+                Integer.parseInt(r[4]));
+    }
+
+    private static List<String[]> read(Resource resource) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                // The description is last and may contain commas
+                String[] values = line.split(",", COLUMNS);
+                if (values.length != COLUMNS) {
+                    throw new IllegalStateException(
+                            "Expected " + COLUMNS + " columns in " + resource.getFilename() + ": " + line);
+                }
+                rows.add(values);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @param destinations Most popular first: the position is what the index
+     *                     returns.
+     */
+    private record Snapshot(long version, long lastModified, List<Destination> destinations,
+            Map<String, Destination> byId, DestinationIndex index) {
+    }
+}
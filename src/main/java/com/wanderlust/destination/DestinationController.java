@@ -0,0 +1,68 @@
+package com.wanderlust.destination;
+
+import com.wanderlust.shared.ResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/destinations")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class DestinationController {
+
+    private final DestinationCatalog destinationCatalog;
+    private final DestinationProperties destinationProperties;
+    private final ResponseCache responseCache;
+
+    /**
+     * Home page traffic: served as pre-encoded JSON with an ETag (304 when
+     * unchanged) until the catalog reloads.
+     */
+    @GetMapping
+    public ResponseEntity<byte[]> getFeaturedDestinations(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        long version = destinationCatalog.version();
+        return responseCache.respond(DestinationCatalog.NAME, version, "featured", acceptEncoding,
+                destinationCatalog::featured);
+    }
+
+    @GetMapping("/{destinationId}")
+    public ResponseEntity<byte[]> getDestinationDetails(
+            @PathVariable String destinationId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        long version = destinationCatalog.version();
+        return destinationCatalog.find(destinationId)
+                .map(destination -> responseCache.respond(DestinationCatalog.NAME, version,
+                        "destination:" + destinationId, acceptEncoding, () -> destination))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Destinations with a name, country or tag word starting with the query,
+     * most popular first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Destination>> searchDestinations(
+            @RequestParam String query,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(destinationCatalog.search(query,
+                limit != null ? limit : destinationProperties.maxResults()));
+    }
+
+    /**
+     * EXT: TYPEAHEAD
+     * Called on every keystroke of the destination box: prefix match, most
+     * popular first, answered from the prebuilt index.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(destinationCatalog.suggest(q,
+                limit != null ? limit : destinationProperties.suggestLimit()));
+    }
+}
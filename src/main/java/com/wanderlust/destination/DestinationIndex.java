@@ -0,0 +1,204 @@
+package com.wanderlust.destination;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Prefix index for the destination typeahead. Built once per catalog, never
+ * modified.
+ * <p>
+ * Every destination is filed under a few pre-normalized keys (full name,
+ * every word of it, country, "name country" and its tags). The keys are
+ * sorted, so everything starting with a prefix is ONE contiguous range of
+ * entries, found with two binary searches. Destinations are numbered by
+ * popularity (0 = most popular), so "the k most popular in the range" are
+ * the k smallest numbers in it; a segment tree over the entries answers
+ * that in O(k log n) no matter how many destinations share the prefix.
+ * </p>
+ */
+final class DestinationIndex {
+
+    /** Sorted, distinct keys. */
+    private final String[] keys;
+    /** Entries of {@code keys[k]} are {@code entries[keyStart[k] .. keyStart[k + 1])}. */
+    private final int[] keyStart;
+    /** Destination numbers, grouped by key. */
+    private final int[] entries;
+    /** Segment tree: position of the smallest entry in each node's span, -1 for padding. */
+    private final int[] tree;
+    private final int leaves;
+
+    /**
+     * @param destinations In popularity order, most popular first.
+     */
+    DestinationIndex(List<Destination> destinations) {
+        List<Key> all = new ArrayList<>();
+        for (int d = 0; d < destinations.size(); d++) {
+            for (String key : keysOf(destinations.get(d))) {
+                all.add(new Key(key, d));
+            }
+        }
+        all.sort(Comparator.comparing(Key::key).thenComparingInt(Key::destination));
+
+        entries = new int[all.size()];
+        List<String> distinct = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        for (int e = 0; e < all.size(); e++) {
+            entries[e] = all.get(e).destination();
+            if (e == 0 || !all.get(e).key().equals(all.get(e - 1).key())) {
+                distinct.add(all.get(e).key());
+                starts.add(e);
+            }
+        }
+        starts.add(entries.length);
+        keys = distinct.toArray(String[]::new);
+        keyStart = starts.stream().mapToInt(Integer::intValue).toArray();
+
+        leaves = Integer.highestOneBit(Math.max(1, entries.length - 1)) << 1;
+        tree = new int[2 * leaves];
+        Arrays.fill(tree, -1);
+        for (int e = 0; e < entries.length; e++) {
+            tree[leaves + e] = e;
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = smaller(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * @return the numbers of the (at most) {@code limit} most popular
+     *         destinations with a key starting with the normalized query, most
+     *         popular first.
+     */
+    int[] lookup(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        int from = keyStart[lowerBound(prefix)];
+        int to = keyStart[lowerBound(prefix + Character.MAX_VALUE)];
+        if (from == to) {
+            return new int[0];
+        }
+
+        // FLOW: Best-first over the range: take its smallest entry, split the
+        // range around it, repeat. Pops come out in popularity order, so the
+        // same destination filed under two matching keys pops twice in a row.
+        int[] found = new int[limit];
+        int count = 0;
+        PriorityQueue<int[]> ranges = new PriorityQueue<>(Comparator.comparingInt(r -> entries[r[0]]));
+        ranges.add(new int[] { smallest(from, to), from, to });
+        while (count < limit && !ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            int at = range[0];
+            if (count == 0 || found[count - 1] != entries[at]) {
+                found[count++] = entries[at];
+            }
+            if (range[1] < at) {
+                ranges.add(new int[] { smallest(range[1], at), range[1], at });
+            }
+            if (at + 1 < range[2]) {
+                ranges.add(new int[] { smallest(at + 1, range[2]), at + 1, range[2] });
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    /**
+     * Lowercase, accents stripped, anything but letters and digits collapsed
+     * into single spaces: {@code "  Zürich, CH"} becomes {@code "zurich ch"}.
+     */
+    static String normalize(String text) {
+        String decomposed = text.chars().allMatch(c -> c < 128)
+                ? text
+                : Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        boolean gap = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && !out.isEmpty()) {
+                    out.append(' ');
+                }
+                gap = false;
+                out.append(Character.toLowerCase(c));
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                gap = true;
+            }
+        }
+        return out.toString();
+    }
+
+    private static Set<String> keysOf(Destination destination) {
+        Set<String> keys = new LinkedHashSet<>();
+        String name = normalize(destination.name());
+        String country = normalize(destination.country());
+        keys.add(name);
+        keys.addAll(List.of(name.split(" ")));
+        keys.add(country);
+        keys.addAll(List.of(country.split(" ")));
+        keys.add(name + " " + country);
+        for (String tag : destination.tags()) {
+            keys.add(normalize(tag));
+        }
+        keys.remove("");
+        return keys;
+    }
+
+    /**
+     * @return the first key not smaller than {@code key}.
+     */
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return the position of the smallest entry in [from, to), which must not
+     *         be empty.
+     */
+    private int smallest(int from, int to) {
+        int best = -1;
+        for (int lo = from + leaves, hi = to + leaves; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                best = smaller(best, tree[lo++]);
+            }
+            if ((hi & 1) == 1) {
+                best = smaller(best, tree[--hi]);
+            }
+        }
+        return best;
+    }
+
+    private int smaller(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        return entries[b] < entries[a] ? b : a;
+    }
+
+    private record Key(String key, int destination) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.wanderlust.destination;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * CONFIG: Destination catalog settings ({@code wanderlust.destinations.*}).
+ *
+ * @param catalog      CSV file with one destination per line.
+ * @param featured     How many of the most popular destinations the home
+ *                     page shows.
+ * @param suggestLimit Suggestions returned when the caller gives no limit.
+ * @param maxResults   Upper bound of suggestions and search results.
+ */
+@ConfigurationProperties(prefix = "wanderlust.destinations")
+public record DestinationProperties(
+        @DefaultValue("classpath:destinations/destinations.csv") String catalog,
+        @DefaultValue("8") int featured,
+        @DefaultValue("8") int suggestLimit,
+        @DefaultValue("50") int maxResults) {
+}
@@ -0,0 +1,8 @@
+package com.wanderlust.destination;
+
+/**
+ * One typeahead suggestion: just enough to render the dropdown and look the
+ * destination up with {@code GET /api/destinations/{id}}.
+ */
+public record Suggestion(String id, String name, String country) {
+}
@@ -0,0 +1,55 @@
+package com.wanderlust.flight;
+
+/**
+ * Travel class of a flight offer, with its one-letter booking code as used in
+ * the schedule file and in flight ids.
+ */
+public enum Cabin {
+    ECONOMY('Y', "Economy", "23 kg"),
+    PREMIUM_ECONOMY('W', "Premium Economy", "2 x 23 kg"),
+    BUSINESS('J', "Business", "2 x 32 kg"),
+    FIRST('F', "First", "3 x 32 kg");
+
+    private static final Cabin[] VALUES = values();
+
+    private final char code;
+    private final String label;
+    private final String checkedBaggage;
+
+    Cabin(char code, String label, String checkedBaggage) {
+        this.code = code;
+        this.label = label;
+        this.checkedBaggage = checkedBaggage;
+    }
+
+    public char code() {
+        return code;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public String checkedBaggage() {
+        return checkedBaggage;
+    }
+
+    static Cabin of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Accepts the booking code ({@code J}), the name ({@code BUSINESS}) or the
+     * label ({@code Business}).
+     */
+    public static Cabin parse(String value) {
+        for (Cabin cabin : VALUES) {
+            if ((value.length() == 1 && Character.toUpperCase(value.charAt(0)) == cabin.code)
+                    || cabin.name().equalsIgnoreCase(value.replace(' ', '_'))
+                    || cabin.label.equalsIgnoreCase(value)) {
+                return cabin;
+            }
+        }
+        throw new IllegalArgumentException("Unknown cabin: " + value);
+    }
+}
@@ -1,32 +1,150 @@
 package com.wanderlust.flight;
 
 import com.wanderlust.shared.BookingResult;
+import com.wanderlust.shared.GatewayCallException;
+import com.wanderlust.shared.GatewayGuard;
+import com.wanderlust.shared.IdGenerator;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 
 public interface FlightGateway {
     BookingResult reserve(String flightId);
 
     void cancel(String bookingId);
+
+    /**
+     * Reserves several flights in ONE round-trip to the supplier.
+     * Every flight succeeds or fails on its own.
+     *
+     * @return one result per flight id, in the same order.
+     */
+    default List<BookingResult> reserveAll(List<String> flightIds) {
+        return flightIds.stream().map(this::reserve).toList();
+    }
+
+    /**
+     * Cancels several bookings in ONE round-trip to the supplier. Cancelling is
+     * idempotent, so a batch that failed can simply be sent again.
+     */
+    default void cancelAll(List<String> bookingIds) {
+        bookingIds.forEach(this::cancel);
+    }
+
+    /**
+     * The booking's Saga is confirmed and will not cancel it anymore: whatever
+     * was kept to undo it can go.
+     */
+    default void confirmed(String bookingId) {
+    }
 }
 
 @Component
+@RequiredArgsConstructor
 class FlightGatewayImpl implements FlightGateway {
 
+    /** Resilience4j bulkhead / time limiter instance name. */
+    private static final String GATEWAY = "flightGateway";
+
+    private final GatewayGuard gatewayGuard;
+    private final FlightOffers flightOffers;
+    private final FlightInventory flightInventory;
+    private final IdGenerator idGenerator;
+
+    /** Booking id -> flight whose seat it holds, so a cancel gives it back exactly once. */
+    private final Map<String, String> heldSeats = new ConcurrentHashMap<>();
+
     /**
      * EXT: END-TO-END FLOW - STEP 2a (Backend)
      * Requesting a flight reservation from the external system.
      */
     @Override
     public BookingResult reserve(String flightId) {
-        // FLOW: Simulate Network Latency (500ms)
+        // FLOW: Bulkhead + Time Limiter, hedged when enabled (reserving is idempotent
+        // for us: a duplicate reservation is simply cancelled again).
         try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            return gatewayGuard.hedged(GATEWAY, "reserve", () -> {
+                // FLOW: Simulate Network Latency (500ms)
+                simulateRoundTrip();
+                return book(flightId);
+            }, this::release);
+        } catch (GatewayCallException e) {
+            System.out.println("❌ Flight reservation failed for: " + flightId + " (" + e.getMessage() + ")");
+            return BookingResult.failed(e.getMessage());
         }
+    }
 
+    /**
+     * EXT: BULK BOOKING
+     * The whole batch travels in a single request, so the latency is paid once.
+     */
+    @Override
+    public List<BookingResult> reserveAll(List<String> flightIds) {
+        return gatewayGuard.call(GATEWAY, "reserveAll", () -> {
+            // FLOW: Simulate Network Latency (500ms) - once for the whole batch
+            simulateRoundTrip();
+            return flightIds.stream().map(this::book).toList();
+        }, this::releaseAll);
+    }
+
+    /**
+     * EXT: END-TO-END FLOW - COMPENSATING TRANSACTION
+     * If functionality downstream fails (e.g., Hotel or Payment), the Saga calls
+     * this
+     * to undo the flight reservation.
+     */
+    @Override
+    public void cancel(String bookingId) {
+        gatewayGuard.run(GATEWAY, "cancel", () -> unbook(bookingId));
+    }
+
+    /**
+     * EXT: COMPENSATION QUEUE
+     * The whole batch of cancellations travels in a single request.
+     */
+    @Override
+    public void cancelAll(List<String> bookingIds) {
+        gatewayGuard.run(GATEWAY, "cancelAll", () -> bookingIds.forEach(this::unbook));
+    }
+
+    /**
+     * The seat stays taken; only the note of which flight it belongs to goes,
+     * so {@code heldSeats} holds the bookings still in flight and no more.
+     */
+    @Override
+    public void confirmed(String bookingId) {
+        heldSeats.remove(bookingId);
+    }
+
+    /**
+     * Undoes the reservation of a hedged attempt that lost the race, or of an
+     * attempt that answered after the time limiter gave up on it.
+     */
+    private void release(BookingResult duplicate) {
+        if (duplicate.isSuccess()) {
+            cancel(duplicate.bookingId());
+        }
+    }
+
+    /**
+     * Undoes the reservations of a batch that answered after the time limiter
+     * gave up on it: the Saga already failed those trips.
+     */
+    private void releaseAll(List<BookingResult> late) {
+        List<String> bookingIds = late.stream()
+                .filter(BookingResult::isSuccess)
+                .map(BookingResult::bookingId)
+                .toList();
+        if (!bookingIds.isEmpty()) {
+            cancelAll(bookingIds);
+        }
+    }
+
+    private BookingResult book(String flightId) {
         // FLOW: Failure Simulation
         // If the ID starts with 'FAIL', we simulate an external reject.
         if (flightId.toUpperCase().startsWith("FAIL")) {
@@ -34,20 +152,45 @@ class FlightGatewayImpl implements FlightGateway {
             return BookingResult.failed("Simulated Failure");
         }
 
+        // FLOW: Seat Inventory
+        // Lock-free decrement of the flight's seat counter: never oversells. Ids from
+        // outside the inventory (e.g. proposed by the assistant) are passed to the
+        // supplier as they are.
+        FlightInventory.SeatResult seat = flightInventory.takeSeats(flightId, 1);
+        if (seat == FlightInventory.SeatResult.SOLD_OUT) {
+            System.out.println("❌ Flight reservation failed for: " + flightId + " (sold out)");
+            return BookingResult.failed("Sold out");
+        }
+
         // FLOW: Success
-        String bookingId = UUID.randomUUID().toString();
-        System.out.println("✅ Flight reserved: " + flightId + " (Booking ID: " + bookingId + ")");
+        String flight = flightOffers.find(flightId)
+                .map(f -> f.flightNumber() + " " + f.origin().code() + "-" + f.destination().code() + " "
+                        + f.departure().date() + " " + f.departure().time() + " " + f.cabin())
+                .orElse(flightId);
+        String bookingId = idGenerator.newId();
+        if (seat == FlightInventory.SeatResult.TAKEN) {
+            heldSeats.put(bookingId, flightId);
+        }
+        System.out.println("✅ Flight reserved: " + flight + " (Booking ID: " + bookingId + ")");
         return BookingResult.success(bookingId);
     }
 
-    /**
-     * EXT: END-TO-END FLOW - COMPENSATING TRANSACTION
-     * If functionality downstream fails (e.g., Hotel or Payment), the Saga calls
-     * this
-     * to undo the flight reservation.
-     */
-    @Override
-    public void cancel(String bookingId) {
+    private void unbook(String bookingId) {
+        // Cancelling is idempotent: only the first cancel gives the seat back.
+        String flightId = heldSeats.remove(bookingId);
+        if (flightId != null) {
+            flightInventory.returnSeats(flightId, 1);
+        }
         System.out.println("⚠️ Compensating Transaction: Cancelled flight booking: " + bookingId);
     }
+
+    private static void simulateRoundTrip() {
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            // Interrupted (shutdown, or a caller that gave up): do NOT go on and book anything.
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Supplier call abandoned");
+        }
+    }
 }
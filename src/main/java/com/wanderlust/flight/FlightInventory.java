@@ -0,0 +1,489 @@
+package com.wanderlust.flight;
+
+import com.wanderlust.shared.Page;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * EXT: FLIGHT INVENTORY
+ * Every bookable flight (schedule line x date x cabin) for the next
+ * {@code horizon-days}, held in memory in <b>columnar</b> form: one primitive
+ * array per attribute instead of one object per flight, so a million rows take
+ * about 15 MB and scanning them touches only the columns a filter needs.
+ * <ul>
+ * <li>Rows are laid out sorted by (origin, destination, day, departure), so
+ * all flights of a route on a day are ONE contiguous range. The index is just
+ * the sorted list of those (route, day) keys with the first row of each,
+ * looked up by binary search.</li>
+ * <li>A day is a slot of a ring of whole weeks (epoch day modulo the cycle),
+ * so a slot always falls on the same weekday and holds the same rows. When a
+ * date is over, {@link #roll} refills its slot with the date one cycle later
+ * (fresh seats and prices) and the window moves on; every other row, with
+ * the seats already sold on it, stays where it is.</li>
+ * <li>A search scans only its range(s), packs (sort value, row) into a
+ * {@code long[]}, sorts that primitive array and pages through it with a
+ * keyset cursor.</li>
+ * <li>Flight ids ({@code EK204-20261025-J}) encode flight number, date and
+ * cabin, so they resolve back to their row without an id map.</li>
+ * <li>Seats are one lock-free counter per row: {@link #takeSeats} is a
+ * compare-and-set loop that never goes below zero, so thousands of concurrent
+ * bookings on a hot flight neither oversell nor queue on a lock, and bookings
+ * on different flights never touch the same counter.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class FlightInventory {
+
+    private static final String CURRENCY = "USD";
+    private static final DateTimeFormatter ID_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final FlightSchedule schedule;
+    /** Days in the ring: {@code horizon} rounded up to whole weeks. */
+    private final int cycle;
+    private final int horizon;
+    private final int maxPageSize;
+    private final FlightOffer.Airline[] airlines;
+    private final FlightOffer.Endpoint[] airports;
+
+    // Columns, one entry per row
+    private final int[] rowLine;
+    /** Slot in the ring: epoch day modulo {@link #cycle}. */
+    private final short[] rowDay;
+    private final byte[] rowCabin;
+    private final int[] rowPrice;
+    /** Seats left; changed only by CAS, so concurrent bookings never oversell. */
+    private final AtomicIntegerArray rowSeats;
+
+    // Index: rows of keys[i] are [keyStart[i], keyStart[i + 1])
+    private final long[] keys;
+    private final int[] keyStart;
+
+    /** Epoch day of today's slot; searchable are [firstDay, firstDay + horizon). */
+    private volatile long firstDay;
+
+    private final Timer searchTimer;
+
+    public FlightInventory(FlightProperties properties, ResourceLoader resourceLoader, MeterRegistry meterRegistry)
+            throws IOException {
+        long started = System.nanoTime();
+        this.schedule = FlightSchedule.read(resourceLoader, properties.dataLocation());
+        this.horizon = properties.horizonDays();
+        this.cycle = (horizon + 6) / 7 * 7;
+        this.firstDay = LocalDate.now().toEpochDay();
+        this.maxPageSize = properties.maxPageSize();
+        this.airlines = IntStream.range(0, schedule.airlineCodes.length)
+                .mapToObj(a -> new FlightOffer.Airline(schedule.airlineCodes[a], schedule.airlineNames[a],
+                        schedule.airlineLogos[a]))
+                .toArray(FlightOffer.Airline[]::new);
+        this.airports = IntStream.range(0, schedule.airportCodes.length)
+                .mapToObj(a -> new FlightOffer.Endpoint(schedule.airportCodes[a], schedule.airportCities[a],
+                        schedule.airportTerminals[a]))
+                .toArray(FlightOffer.Endpoint[]::new);
+
+        // FLOW: Lines in (origin, destination, departure) order, so rows come out sorted.
+        int[] lines = IntStream.range(0, schedule.lines).boxed()
+                .sorted((a, b) -> Long.compare(lineOrder(a), lineOrder(b)))
+                .mapToInt(Integer::intValue).toArray();
+
+        int rows = 0;
+        for (int line : lines) {
+            rows += operatingDays(line) * offeredCabins(line);
+        }
+        rowLine = new int[rows];
+        rowDay = new short[rows];
+        rowCabin = new byte[rows];
+        rowPrice = new int[rows];
+        rowSeats = new AtomicIntegerArray(rows);
+        long[] keyBuffer = new long[Math.max(16, rows / 8)];
+        int[] startBuffer = new int[keyBuffer.length + 1];
+
+        int row = 0;
+        int keyCount = 0;
+        for (int first = 0; first < lines.length; ) {
+            int route = route(lines[first]);
+            int end = first;
+            while (end < lines.length && route(lines[end]) == route) {
+                end++;
+            }
+            for (int day = 0; day < cycle; day++) {
+                int dayStart = row;
+                long epochDay = epochDayOf(day);
+                DayOfWeek dow = LocalDate.ofEpochDay(epochDay).getDayOfWeek();
+                for (int i = first; i < end; i++) {
+                    int line = lines[i];
+                    if ((schedule.daysOfWeek[line] & (1 << (dow.getValue() - 1))) == 0) {
+                        continue;
+                    }
+                    for (int cabin = 0; cabin < FlightSchedule.CABINS; cabin++) {
+                        int slot = line * FlightSchedule.CABINS + cabin;
+                        if (schedule.fares[slot] == 0) {
+                            continue;
+                        }
+                        rowLine[row] = line;
+                        rowDay[row] = (short) day;
+                        rowCabin[row] = (byte) cabin;
+                        rowPrice[row] = price(line, slot, epochDay, dow);
+                        rowSeats.set(row, schedule.seats[slot]);
+                        row++;
+                    }
+                }
+                if (row > dayStart) {
+                    if (keyCount == keyBuffer.length) {
+                        keyBuffer = Arrays.copyOf(keyBuffer, keyCount * 2);
+                        startBuffer = Arrays.copyOf(startBuffer, keyCount * 2 + 1);
+                    }
+                    keyBuffer[keyCount] = key(route, day);
+                    startBuffer[keyCount++] = dayStart;
+                }
+            }
+            first = end;
+        }
+        startBuffer[keyCount] = row;
+        keys = Arrays.copyOf(keyBuffer, keyCount);
+        keyStart = Arrays.copyOf(startBuffer, keyCount + 1);
+
+        searchTimer = Timer.builder("wanderlust.flights.search")
+                .description("Latency of a flight inventory search")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("wanderlust.flights.inventory.rows", this, FlightInventory::size)
+                .description("Dated flight offers held in memory")
+                .register(meterRegistry);
+        Gauge.builder("wanderlust.flights.inventory.bytes", this, FlightInventory::footprintBytes)
+                .description("Heap taken by the inventory columns and index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        log.info("Flight inventory: {} flights on {} route-days from {} schedule lines ({} to {}), {} KB, built in {} ms",
+                size(), keys.length, schedule.lines, LocalDate.ofEpochDay(firstDay),
+                LocalDate.ofEpochDay(firstDay + horizon - 1),
+                footprintBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Moves the window to today once the date changed.
+     */
+    @Scheduled(fixedDelayString = "PT1M", initialDelayString = "PT1M")
+    void roll() {
+        roll(LocalDate.now());
+    }
+
+    /**
+     * Moves the window forward to {@code today}: the slot of every day that is
+     * over is refilled with the date one cycle later (all seats free, its own
+     * prices) before the window passes it, so a search never sees a half
+     * refilled day.
+     */
+    synchronized void roll(LocalDate today) {
+        long target = today.toEpochDay();
+        for (long day = Math.max(firstDay, target - cycle); day < target; day++) {
+            refill(day + cycle);
+            firstDay = day + 1;
+        }
+    }
+
+    /**
+     * @return one page of the flights matching {@code query}.
+     * @throws IllegalArgumentException if the cursor is not one this search
+     *                                  handed out.
+     */
+    public Page<FlightOffer> search(FlightQuery query) {
+        return searchTimer.record(() -> {
+            int day = dayOf(query.date());
+            int[] origins = schedule.airports(query.origin());
+            int[] destinations = schedule.airports(query.destination());
+            long after = Page.decodeCursor(query.cursor(), query.sort());
+            int limit = Math.clamp(query.limit(), 1, maxPageSize);
+            if (day < 0) {
+                return new Page<>(List.of(), null);
+            }
+
+            // FLOW: Scan the contiguous range of every (origin, destination) pair on that day.
+            long[] hits = new long[64];
+            int found = 0;
+            for (int origin : origins) {
+                for (int destination : destinations) {
+                    int k = Arrays.binarySearch(keys, key(origin * airports.length + destination, day));
+                    if (k < 0) {
+                        continue;
+                    }
+                    for (int row = keyStart[k]; row < keyStart[k + 1]; row++) {
+                        if (!matches(row, query)) {
+                            continue;
+                        }
+                        if (found == hits.length) {
+                            hits = Arrays.copyOf(hits, found * 2);
+                        }
+                        hits[found++] = ((long) sortValue(row, query.sort()) << 32) | row;
+                    }
+                }
+            }
+
+            // FLOW: Order, then continue right after the last row of the previous page.
+            Arrays.sort(hits, 0, found);
+            int from = 0;
+            if (after != Page.FIRST) {
+                int at = Arrays.binarySearch(hits, 0, found, after);
+                from = at >= 0 ? at + 1 : -at - 1;
+            }
+            int to = Math.min(found, from + limit);
+            List<FlightOffer> page = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                page.add(offer((int) hits[i]));
+            }
+            return new Page<>(page, to < found ? Page.encodeCursor(query.sort(), hits[to - 1]) : null);
+        });
+    }
+
+    /**
+     * Resolves a flight id handed out by {@link #search}.
+     */
+    public Optional<FlightOffer> find(String flightId) {
+        int row = rowOf(flightId);
+        return row < 0 ? Optional.empty() : Optional.of(offer(row));
+    }
+
+    /**
+     * Atomically takes {@code seats} seats of a flight.
+     */
+    public SeatResult takeSeats(String flightId, int seats) {
+        int row = rowOf(flightId);
+        if (row < 0) {
+            return SeatResult.UNKNOWN_FLIGHT;
+        }
+        while (true) {
+            int left = rowSeats.get(row);
+            if (left < seats) {
+                return SeatResult.SOLD_OUT;
+            }
+            if (rowSeats.weakCompareAndSetVolatile(row, left, left - seats)) {
+                return SeatResult.TAKEN;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Gives back seats taken by {@link #takeSeats}, never beyond the cabin's
+     * capacity: a cancel that arrives after {@link #roll} refilled the row
+     * must not add seats the aircraft does not have.
+     */
+    public void returnSeats(String flightId, int seats) {
+        int row = rowOf(flightId);
+        if (row < 0) {
+            return;
+        }
+        int capacity = schedule.seats[rowLine[row] * FlightSchedule.CABINS + rowCabin[row]];
+        while (true) {
+            int left = rowSeats.get(row);
+            int returned = Math.min(left + seats, capacity);
+            if (returned <= left || rowSeats.weakCompareAndSetVolatile(row, left, returned)) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return seats left on a flight, or -1 if there is no such flight.
+     */
+    public int seatsLeft(String flightId) {
+        int row = rowOf(flightId);
+        return row < 0 ? -1 : rowSeats.get(row);
+    }
+
+    /**
+     * @return number of rows (dated flight offers) in memory.
+     */
+    public int size() {
+        return rowLine.length;
+    }
+
+    /**
+     * @return approximate heap taken by the row columns and the index.
+     */
+    public long footprintBytes() {
+        long perRow = Integer.BYTES + Short.BYTES + Byte.BYTES + Integer.BYTES + Integer.BYTES;
+        return perRow * size() + (long) keys.length * Long.BYTES + (long) keyStart.length * Integer.BYTES;
+    }
+
+    private int rowOf(String flightId) {
+        // <flightNumber>-<yyyyMMdd>-<cabin code>
+        int cabinAt = flightId.lastIndexOf('-');
+        int dateAt = cabinAt > 0 ? flightId.lastIndexOf('-', cabinAt - 1) : -1;
+        if (dateAt <= 0 || cabinAt != flightId.length() - 2) {
+            return -1;
+        }
+        int line = schedule.line(flightId.substring(0, dateAt));
+        if (line < 0) {
+            return -1;
+        }
+        int day;
+        Cabin cabin;
+        try {
+            day = dayOf(LocalDate.parse(flightId.substring(dateAt + 1, cabinAt), ID_DATE));
+            cabin = Cabin.parse(flightId.substring(cabinAt + 1));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return -1;
+        }
+        int k = day < 0 ? -1 : Arrays.binarySearch(keys, key(route(line), day));
+        if (k < 0) {
+            return -1;
+        }
+        for (int row = keyStart[k]; row < keyStart[k + 1]; row++) {
+            if (rowLine[row] == line && rowCabin[row] == cabin.ordinal()) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private void refill(long epochDay) {
+        int day = (int) Math.floorMod(epochDay, cycle);
+        DayOfWeek dow = LocalDate.ofEpochDay(epochDay).getDayOfWeek();
+        for (int k = 0; k < keys.length; k++) {
+            if (keys[k] % cycle != day) {
+                continue;
+            }
+            for (int row = keyStart[k]; row < keyStart[k + 1]; row++) {
+                int line = rowLine[row];
+                int slot = line * FlightSchedule.CABINS + rowCabin[row];
+                rowPrice[row] = price(line, slot, epochDay, dow);
+                rowSeats.set(row, schedule.seats[slot]);
+            }
+        }
+    }
+
+    private boolean matches(int row, FlightQuery query) {
+        int line = rowLine[row];
+        int slot = line * FlightSchedule.CABINS + rowCabin[row];
+        return rowSeats.get(row) >= query.passengers()
+                && (query.cabin() == null || rowCabin[row] == query.cabin().ordinal())
+                && (query.maxStops() == null || schedule.stops[line] <= query.maxStops())
+                && (!Boolean.TRUE.equals(query.refundable()) || schedule.refundable[slot]);
+    }
+
+    /**
+     * Non-negative and below 2^31, with the departure time as tie breaker.
+     */
+    private int sortValue(int row, FlightSort sort) {
+        int line = rowLine[row];
+        int departure = schedule.departureMinute[line];
+        return switch (sort) {
+            case DEPARTURE -> departure;
+            case PRICE -> rowPrice[row] * 1440 + departure;
+            case DURATION -> schedule.durationMinutes[line] * 1440 + departure;
+        };
+    }
+
+    private FlightOffer offer(int row) {
+        int line = rowLine[row];
+        Cabin cabin = Cabin.of(rowCabin[row]);
+        LocalDateTime departure = LocalDate.ofEpochDay(epochDayOf(rowDay[row])).atStartOfDay()
+                .plusMinutes(schedule.departureMinute[line]);
+        LocalDateTime arrival = departure.plusMinutes(schedule.durationMinutes[line]);
+        int duration = schedule.durationMinutes[line];
+        return new FlightOffer(
+                schedule.flightNumbers[line] + "-" + departure.format(ID_DATE) + "-" + cabin.code(),
+                airlines[schedule.airline[line]],
+                schedule.flightNumbers[line],
+                airports[schedule.origin[line]],
+                airports[schedule.destination[line]],
+                new FlightOffer.Schedule(departure.toLocalDate().toString(), departure.toLocalTime().toString()),
+                new FlightOffer.Schedule(arrival.toLocalDate().toString(), arrival.toLocalTime().toString()),
+                String.format("%dh %dm", duration / 60, duration % 60),
+                duration,
+                schedule.stops[line],
+                cabin.label(),
+                rowPrice[row],
+                CURRENCY,
+                rowSeats.get(row),
+                schedule.refundable[line * FlightSchedule.CABINS + cabin.ordinal()],
+                schedule.aircraft[line],
+                new FlightOffer.Baggage("7 kg", cabin.checkedBaggage()));
+    }
+
+    /**
+     * Base fare adjusted per date: weekend departures cost more, and every
+     * flight/date gets its own deterministic +/-10% so prices are stable across
+     * restarts.
+     */
+    private int price(int line, int slot, long epochDay, DayOfWeek dow) {
+        double demand = dow == DayOfWeek.FRIDAY || dow == DayOfWeek.SUNDAY ? 1.12 : 1.0;
+        int hash = Long.hashCode((slot * 0x9E3779B97F4A7C15L) ^ (epochDay * 0xC2B2AE3D27D4EB4FL));
+        double noise = 0.9 + ((hash >>> 8) & 0x3FF) / 1023.0 * 0.2;
+        return (int) Math.round(schedule.fares[slot] * demand * noise);
+    }
+
+    /**
+     * @return the slot of {@code date}, or -1 if it is outside the window.
+     */
+    private int dayOf(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        long first = firstDay;
+        return epochDay < first || epochDay >= first + horizon ? -1 : (int) Math.floorMod(epochDay, cycle);
+    }
+
+    /**
+     * @return the date a slot currently holds: the one within a cycle from today.
+     */
+    private long epochDayOf(int day) {
+        long first = firstDay;
+        return first + Math.floorMod(day - first, cycle);
+    }
+
+    private int route(int line) {
+        return schedule.origin[line] * airports.length + schedule.destination[line];
+    }
+
+    private long key(int route, int day) {
+        return (long) route * cycle + day;
+    }
+
+    private long lineOrder(int line) {
+        return (long) route(line) * 1440 + schedule.departureMinute[line];
+    }
+
+    private int operatingDays(int line) {
+        // Whole weeks: every weekday comes up cycle / 7 times.
+        return Integer.bitCount(schedule.daysOfWeek[line] & 0x7F) * (cycle / 7);
+    }
+
+    private int offeredCabins(int line) {
+        int cabins = 0;
+        for (int cabin = 0; cabin < FlightSchedule.CABINS; cabin++) {
+            if (schedule.fares[line * FlightSchedule.CABINS + cabin] > 0) {
+                cabins++;
+            }
+        }
+        return cabins;
+    }
+
+    /**
+     * Outcome of {@link #takeSeats}.
+     */
+    public enum SeatResult {
+        TAKEN,
+        SOLD_OUT,
+        UNKNOWN_FLIGHT
+    }
+}
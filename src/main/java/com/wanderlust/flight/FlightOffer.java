@@ -0,0 +1,40 @@
+package com.wanderlust.flight;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One bookable flight in one cabin on one date, as returned by the search.
+ * {@link #flightId()} is stable ({@code EK204-20261025-J}) and is what
+ * {@link FlightGateway#reserve} books.
+ */
+public record FlightOffer(
+        String flightId,
+        Airline airline,
+        String flightNumber,
+        Endpoint origin,
+        Endpoint destination,
+        Schedule departure,
+        Schedule arrival,
+        String duration,
+        int durationMinutes,
+        int stops,
+        @JsonProperty("class") String cabin,
+        int price,
+        String currency,
+        int seatsAvailable,
+        boolean refundable,
+        String aircraft,
+        Baggage baggage) {
+
+    public record Airline(String code, String name, String logo) {
+    }
+
+    public record Endpoint(String code, String city, String terminal) {
+    }
+
+    public record Schedule(String date, String time) {
+    }
+
+    public record Baggage(String cabin, String checkin) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.wanderlust.flight;
+
+import com.wanderlust.shared.OfferCache;
+import com.wanderlust.shared.OfferProperties;
+import com.wanderlust.shared.Page;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Flight search as the API and the booking side see it: the
+ * {@link FlightInventory} behind an {@link OfferCache}, so a repeated search
+ * returns the very same offers and a {@code flightId} from a search is found
+ * again in O(1) when it is booked.
+ */
+@Component
+public class FlightOffers {
+
+    private final FlightInventory flightInventory;
+    private final OfferCache<FlightQuery, Page<FlightOffer>, FlightOffer> cache;
+
+    public FlightOffers(FlightInventory flightInventory, OfferProperties offerProperties,
+            MeterRegistry meterRegistry) {
+        this.flightInventory = flightInventory;
+        this.cache = new OfferCache<>("flights", offerProperties, meterRegistry, Page::items,
+                FlightOffer::flightId);
+    }
+
+    public Page<FlightOffer> search(FlightQuery query) {
+        return cache.search(query.normalized(), flightInventory::search);
+    }
+
+    /**
+     * Looks a flight id up among recently searched offers first, then in the
+     * inventory.
+     */
+    public Optional<FlightOffer> find(String flightId) {
+        return cache.find(flightId).or(() -> flightInventory.find(flightId));
+    }
+}
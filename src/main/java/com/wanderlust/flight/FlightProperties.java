@@ -0,0 +1,23 @@
+package com.wanderlust.flight;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * CONFIG: Flight inventory settings ({@code wanderlust.flights.*}).
+ *
+ * @param dataLocation    Directory holding {@code airports.csv},
+ *                        {@code airlines.csv} and {@code schedule.csv}.
+ * @param horizonDays     How many days, starting today, the weekly schedule
+ *                        is rolled out into dated flights; the window moves
+ *                        on at midnight.
+ * @param defaultPageSize Results per page when the caller gives no limit.
+ * @param maxPageSize     Upper bound of the page size.
+ */
+@ConfigurationProperties(prefix = "wanderlust.flights")
+public record FlightProperties(
+        @DefaultValue("classpath:flights/") String dataLocation,
+        @DefaultValue("180") int horizonDays,
+        @DefaultValue("20") int defaultPageSize,
+        @DefaultValue("100") int maxPageSize) {
+}
@@ -0,0 +1,37 @@
+package com.wanderlust.flight;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * A flight search.
+ *
+ * @param origin      Airport code or city name.
+ * @param destination Airport code or city name.
+ * @param date        Departure date.
+ * @param passengers  Seats needed in the same cabin.
+ * @param maxStops    Only flights with at most this many stops (null = any).
+ * @param cabin       Only this cabin (null = any).
+ * @param refundable  Only refundable fares (null/false = any).
+ * @param sort        Result order.
+ * @param cursor      {@link com.wanderlust.shared.Page#nextCursor()} of the
+ *                    previous page, or null for the first page.
+ * @param limit       Page size.
+ */
+public record FlightQuery(String origin, String destination, LocalDate date, int passengers, Integer maxStops,
+        Cabin cabin, Boolean refundable, FlightSort sort, String cursor, int limit) {
+
+    /**
+     * The same search spelled one way ({@code "Paris, France"} and
+     * {@code "paris"} are one query), used as cache key.
+     */
+    public FlightQuery normalized() {
+        return new FlightQuery(place(origin), place(destination), date, passengers, maxStops, cabin,
+                Boolean.TRUE.equals(refundable) ? Boolean.TRUE : null, sort,
+                cursor == null || cursor.isBlank() ? null : cursor, limit);
+    }
+
+    private static String place(String name) {
+        return name.toLowerCase(Locale.ROOT).split(",")[0].trim();
+    }
+}
@@ -0,0 +1,180 @@
+package com.wanderlust.flight;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The weekly schedule as read from the data files: airports, airlines and one
+ * line per scheduled flight. Small (thousands of lines), so it is kept as
+ * plain parallel arrays; {@link FlightInventory} rolls it out into dated rows.
+ */
+final class FlightSchedule {
+
+    static final int CABINS = Cabin.values().length;
+
+    // Airports
+    final String[] airportCodes;
+    final String[] airportCities;
+    final String[] airportTerminals;
+    private final Map<String, int[]> airportsByName;
+
+    // Airlines
+    final String[] airlineCodes;
+    final String[] airlineNames;
+    final String[] airlineLogos;
+
+    // Schedule lines
+    final int lines;
+    final String[] flightNumbers;
+    final short[] airline;
+    final short[] origin;
+    final short[] destination;
+    final short[] departureMinute;
+    final short[] durationMinutes;
+    final byte[] stops;
+    /** Bit {@code d} set = operates on ISO day-of-week {@code d + 1}. */
+    final byte[] daysOfWeek;
+    final String[] aircraft;
+    /** Fare in USD per {@code line * CABINS + cabin}; 0 = cabin not offered. */
+    final int[] fares;
+    final short[] seats;
+    final boolean[] refundable;
+    private final Map<String, Integer> lineByFlightNumber;
+
+    private FlightSchedule(List<String[]> airports, List<String[]> airlines, List<String[]> schedule) {
+        airportCodes = new String[airports.size()];
+        airportCities = new String[airports.size()];
+        airportTerminals = new String[airports.size()];
+        Map<String, List<Integer>> byName = new HashMap<>();
+        Map<String, Integer> airportIndex = new HashMap<>();
+        for (int i = 0; i < airports.size(); i++) {
+            String[] a = airports.get(i);
+            airportCodes[i] = a[0];
+            airportCities[i] = a[1];
+            airportTerminals[i] = a[3];
+            airportIndex.put(a[0], i);
+            byName.computeIfAbsent(a[0].toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(i);
+            byName.computeIfAbsent(a[1].toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(i);
+        }
+        airportsByName = new HashMap<>();
+        byName.forEach((name, ids) -> airportsByName.put(name, ids.stream().mapToInt(Integer::intValue).toArray()));
+
+        airlineCodes = new String[airlines.size()];
+        airlineNames = new String[airlines.size()];
+        airlineLogos = new String[airlines.size()];
+        Map<String, Integer> airlineIndex = new HashMap<>();
+        for (int i = 0; i < airlines.size(); i++) {
+            String[] a = airlines.get(i);
+            airlineCodes[i] = a[0];
+            airlineNames[i] = a[1];
+            airlineLogos[i] = a[2];
+            airlineIndex.put(a[0], i);
+        }
+
+        lines = schedule.size();
+        flightNumbers = new String[lines];
+        airline = new short[lines];
+        origin = new short[lines];
+        destination = new short[lines];
+        departureMinute = new short[lines];
+        durationMinutes = new short[lines];
+        stops = new byte[lines];
+        daysOfWeek = new byte[lines];
+        aircraft = new String[lines];
+        fares = new int[lines * CABINS];
+        seats = new short[lines * CABINS];
+        refundable = new boolean[lines * CABINS];
+        lineByFlightNumber = new HashMap<>();
+        Map<String, String> aircraftNames = new HashMap<>();
+        for (int i = 0; i < lines; i++) {
+            String[] s = schedule.get(i);
+            flightNumbers[i] = s[0] + s[1];
+            if (lineByFlightNumber.put(flightNumbers[i], i) != null) {
+                throw new IllegalStateException("Duplicate flight number in schedule: " + flightNumbers[i]);
+            }
+            airline[i] = (short) lookup(airlineIndex, s[0], "airline");
+            origin[i] = (short) lookup(airportIndex, s[2], "airport");
+            destination[i] = (short) lookup(airportIndex, s[3], "airport");
+            String[] hhmm = s[4].split(":");
+            departureMinute[i] = (short) (Integer.parseInt(hhmm[0]) * 60 + Integer.parseInt(hhmm[1]));
+            durationMinutes[i] = Short.parseShort(s[5]);
+            stops[i] = Byte.parseByte(s[6]);
+            for (char day : s[7].toCharArray()) {
+                daysOfWeek[i] |= (byte) (1 << (day - '1'));
+            }
+            aircraft[i] = aircraftNames.computeIfAbsent(s[8], name -> name);
+            for (String offer : s[9].split(" ")) {
+                String[] f = offer.split(":");
+                int slot = i * CABINS + Cabin.parse(f[0]).ordinal();
+                fares[slot] = Integer.parseInt(f[1]);
+                seats[slot] = Short.parseShort(f[2]);
+                refundable[slot] = f.length > 3 && f[3].equals("R");
+            }
+        }
+    }
+
+    /**
+     * Reads {@code airports.csv}, {@code airlines.csv} and {@code schedule.csv}
+     * from {@code location}.
+     */
+    static FlightSchedule read(ResourceLoader resourceLoader, String location) throws IOException {
+        String base = location.endsWith("/") ? location : location + "/";
+        List<String[]> airports = new ArrayList<>();
+        List<String[]> airlines = new ArrayList<>();
+        List<String[]> schedule = new ArrayList<>();
+        readCsv(resourceLoader.getResource(base + "airports.csv"), 4, airports::add);
+        readCsv(resourceLoader.getResource(base + "airlines.csv"), 3, airlines::add);
+        readCsv(resourceLoader.getResource(base + "schedule.csv"), 10, schedule::add);
+        return new FlightSchedule(airports, airlines, schedule);
+    }
+
+    /**
+     * @return the airports matching a code ({@code NRT}) or a city
+     *         ({@code Tokyo, Japan}); empty if none.
+     */
+    int[] airports(String name) {
+        String key = name.toLowerCase(Locale.ROOT).split(",")[0].trim();
+        return airportsByName.getOrDefault(key, new int[0]);
+    }
+
+    int line(String flightNumber) {
+        return lineByFlightNumber.getOrDefault(flightNumber, -1);
+    }
+
+    private static int lookup(Map<String, Integer> index, String code, String what) {
+        Integer i = index.get(code);
+        if (i == null) {
+            throw new IllegalStateException("Schedule refers to unknown " + what + ": " + code);
+        }
+        return i;
+    }
+
+    private static void readCsv(Resource resource, int columns, Consumer<String[]> row) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] values = line.split(",", -1);
+                if (values.length != columns) {
+                    throw new IllegalStateException("Expected " + columns + " columns in "
+                            + resource.getFilename() + ": " + line);
+                }
+                row.accept(values);
+            }
+        }
+    }
+}
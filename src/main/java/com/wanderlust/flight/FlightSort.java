@@ -0,0 +1,10 @@
+package com.wanderlust.flight;
+
+/**
+ * Orders of the flight search results. Ties are always broken by departure.
+ */
+public enum FlightSort {
+    DEPARTURE,
+    PRICE,
+    DURATION
+}
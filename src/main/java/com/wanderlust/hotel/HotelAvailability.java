@@ -0,0 +1,241 @@
+package com.wanderlust.hotel;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * EXT: ROOM-NIGHT CALENDAR
+ * Rooms left per hotel per night, as ONE flat run of lock-free counters laid
+ * out hotel by hotel ({@code hotel * cycle + slot}), so the nights of a stay
+ * are adjacent in memory and a range check is a short sequential scan.
+ * <p>
+ * Counters are 16 bits, four to a {@code long}: a year of nights costs a hotel
+ * 730 bytes instead of 1460 with one {@code int} each, and a week-long stay
+ * usually sits in two words.
+ * </p>
+ * <p>
+ * A night is a slot of a ring one longer than the horizon (epoch day modulo
+ * the cycle). When a night is over, {@link #roll} closes it, resets the slots
+ * of the nights coming into the window to every room free while they are not
+ * bookable yet, and only then opens them. Every other night, with the rooms
+ * already taken on it, stays where it is.
+ * </p>
+ * <p>
+ * {@link #take} decrements every night of the stay with compare-and-set on its
+ * word and never goes below zero; if one night is full, the nights already
+ * taken are given back. A concurrent booking may therefore briefly see a room
+ * as taken that is then released, but a night is never oversold.
+ * </p>
+ */
+final class HotelAvailability {
+
+    /** Most rooms a counter holds. */
+    static final int MAX_ROOMS = 0xFFFF;
+    private static final int BITS = 16;
+    private static final int PER_WORD = Long.SIZE / BITS;
+
+    private final int horizon;
+    /** Slots per hotel: one more than the horizon, so an opening night's slot is never bookable. */
+    private final int cycle;
+    private final int[] totalRooms;
+    /** Counter {@code i} is bits {@code [16 * (i % 4), 16 * (i % 4) + 16)} of word {@code i / 4}. */
+    private final AtomicLongArray nights;
+    /** Bookable nights; replaced as a whole, so a reader sees both ends of the same window. */
+    private volatile Window window;
+
+    /**
+     * @param totalRooms Rooms of each hotel, by hotel index.
+     * @throws IllegalArgumentException if a hotel has more than
+     *                                  {@link #MAX_ROOMS} rooms.
+     */
+    HotelAvailability(int[] totalRooms, LocalDate firstNight, int horizon) {
+        this.horizon = horizon;
+        this.cycle = horizon + 1;
+        this.totalRooms = totalRooms.clone();
+        this.window = new Window(firstNight.toEpochDay(), firstNight.toEpochDay() + horizon);
+        long[] words = new long[(totalRooms.length * cycle + PER_WORD - 1) / PER_WORD];
+        for (int hotel = 0; hotel < totalRooms.length; hotel++) {
+            if (totalRooms[hotel] < 0 || totalRooms[hotel] > MAX_ROOMS) {
+                throw new IllegalArgumentException("Hotel " + hotel + " has " + totalRooms[hotel]
+                        + " rooms, at most " + MAX_ROOMS + " are supported");
+            }
+            for (int slot = 0; slot < cycle; slot++) {
+                int i = hotel * cycle + slot;
+                words[i / PER_WORD] |= (long) totalRooms[hotel] << shift(i);
+            }
+        }
+        this.nights = new AtomicLongArray(words);
+    }
+
+    /**
+     * @return rooms free on EVERY night of the stay; 0 if the stay is not
+     *         within the calendar.
+     */
+    int roomsLeft(int hotel, LocalDate checkIn, LocalDate checkOut) {
+        return roomsLeft(new int[] { hotel }, checkIn, checkOut)[0];
+    }
+
+    /**
+     * {@link #roomsLeft(int, LocalDate, LocalDate)} for many hotels at once.
+     * Reads are plain: a search is a snapshot, {@link #take} re-checks every
+     * night atomically.
+     */
+    int[] roomsLeft(int[] hotels, LocalDate checkIn, LocalDate checkOut) {
+        int[] left = new int[hotels.length];
+        long from = checkIn.toEpochDay();
+        long to = checkOut.toEpochDay();
+        if (!window.contains(from, to)) {
+            return left;
+        }
+        int start = slot(from);
+        int stay = (int) (to - from);
+        for (int h = 0; h < hotels.length; h++) {
+            int base = hotels[h] * cycle;
+            int min = Integer.MAX_VALUE;
+            for (int n = 0; n < stay; n++) {
+                int i = base + (start + n) % cycle;
+                min = Math.min(min, counter(nights.getPlain(i / PER_WORD), i));
+            }
+            left[h] = min;
+        }
+        return left;
+    }
+
+    /**
+     * Takes {@code rooms} rooms on every night of the stay, or nothing at all.
+     *
+     * @return false if a night has not enough rooms left.
+     */
+    boolean take(int hotel, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        long from = checkIn.toEpochDay();
+        long to = checkOut.toEpochDay();
+        if (!window.contains(from, to)) {
+            return false;
+        }
+        int start = slot(from);
+        int stay = (int) (to - from);
+        int base = hotel * cycle;
+        for (int n = 0; n < stay; n++) {
+            if (!decrement(base + (start + n) % cycle, rooms)) {
+                for (int m = 0; m < n; m++) {
+                    increment(base + (start + m) % cycle, rooms, totalRooms[hotel]);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gives back rooms taken by {@link #take}, never beyond the hotel's total
+     * (a counter that overflowed would spill into its neighbour). Nights that
+     * are over are skipped: their slots have been reset already.
+     */
+    void giveBack(int hotel, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        Window open = window;
+        long from = Math.max(checkIn.toEpochDay(), open.first());
+        long to = Math.min(checkOut.toEpochDay(), open.end());
+        int base = hotel * cycle;
+        for (long night = from; night < to; night++) {
+            increment(base + slot(night), rooms, totalRooms[hotel]);
+        }
+    }
+
+    /**
+     * Moves the calendar forward to {@code today}: the nights that are over
+     * are closed first, then the slots of the nights coming into the window are
+     * reset to every room free, and only then are those nights opened.
+     */
+    synchronized void roll(LocalDate today) {
+        Window open = window;
+        long first = today.toEpochDay();
+        if (first <= open.first()) {
+            return;
+        }
+        long end = first + horizon;
+        window = new Window(first, Math.max(first, open.end()));
+        // The slots of [first, first + horizon) that are not bookable right now
+        for (long night = Math.max(first, open.end()); night < end; night++) {
+            int slot = slot(night);
+            for (int hotel = 0; hotel < totalRooms.length; hotel++) {
+                reset(hotel * cycle + slot, totalRooms[hotel]);
+            }
+        }
+        window = new Window(first, end);
+    }
+
+    /**
+     * @return the first bookable night.
+     */
+    LocalDate firstNight() {
+        return LocalDate.ofEpochDay(window.first());
+    }
+
+    /**
+     * @return heap taken by the counters.
+     */
+    long footprintBytes() {
+        return (long) nights.length() * Long.BYTES;
+    }
+
+    private boolean decrement(int i, int rooms) {
+        int word = i / PER_WORD;
+        while (true) {
+            long current = nights.get(word);
+            if (counter(current, i) < rooms) {
+                return false;
+            }
+            if (nights.weakCompareAndSetVolatile(word, current, current - ((long) rooms << shift(i)))) {
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void increment(int i, int rooms, int total) {
+        int word = i / PER_WORD;
+        while (true) {
+            long current = nights.get(word);
+            int added = Math.min(rooms, total - counter(current, i));
+            if (added <= 0
+                    || nights.weakCompareAndSetVolatile(word, current, current + ((long) added << shift(i)))) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void reset(int i, int rooms) {
+        int word = i / PER_WORD;
+        long mask = (long) MAX_ROOMS << shift(i);
+        while (true) {
+            long current = nights.get(word);
+            if (nights.weakCompareAndSetVolatile(word, current, current & ~mask | (long) rooms << shift(i))) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static int counter(long word, int i) {
+        return (int) (word >>> shift(i)) & MAX_ROOMS;
+    }
+
+    private static int shift(int i) {
+        return i % PER_WORD * BITS;
+    }
+
+    private int slot(long epochDay) {
+        return (int) Math.floorMod(epochDay, cycle);
+    }
+
+    /**
+     * Bookable nights {@code [first, end)}, as epoch days.
+     */
+    private record Window(long first, long end) {
+
+        boolean contains(long checkIn, long checkOut) {
+            return checkIn >= first && checkOut <= end && checkOut > checkIn;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.wanderlust.hotel;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * EXT: HOTEL CATALOG
+ * All hotels, loaded once from {@code wanderlust.hotels.catalog} and indexed
+ * for filtering without touching the hotels themselves:
+ * <ul>
+ * <li>Hotels are numbered destination by destination, cheapest first, so a
+ * destination is ONE index range and a price limit cuts it short by binary
+ * search.</li>
+ * <li>Every amenity and every star level ("at least n stars") is a
+ * {@link BitSet} over hotel numbers: "Pool AND Spa, 4+ stars" is a couple of
+ * word-wise ANDs.</li>
+ * <li>A second order per destination (most stars first) is kept as a
+ * pre-sorted array, so both sort orders are just a walk.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class HotelCatalog {
+
+    /** Destination whose hotels are offered where there are none of its own. */
+    static final String FALLBACK = "*";
+
+    private static final int MAX_STARS = 5;
+
+    // Columns, one entry per hotel
+    private final String[] names;
+    private final String[] slugs;
+    private final String[] images;
+    private final List<List<String>> amenities;
+    private final byte[] stars;
+    private final int[] prices;
+    private final int[] totalRooms;
+
+    private final Map<String, Integer> bySlug = new HashMap<>();
+    /** Destination -> {first hotel, end}. */
+    private final Map<String, int[]> destinations = new HashMap<>();
+    private final Map<String, BitSet> amenityBits = new HashMap<>();
+    private final BitSet[] atLeastStars = new BitSet[MAX_STARS + 1];
+    /** Per destination range: hotel numbers with the most stars first. */
+    private final int[] starOrder;
+    /** Inverse of {@link #starOrder}: position of a hotel in it. */
+    private final int[] starRank;
+
+    public HotelCatalog(HotelProperties properties, ResourceLoader resourceLoader) throws IOException {
+        long started = System.nanoTime();
+        List<String[]> rows = read(resourceLoader.getResource(properties.catalog()));
+        rows.sort(Comparator.<String[], String>comparing(r -> r[0].toLowerCase(Locale.ROOT))
+                .thenComparingInt(r -> Integer.parseInt(r[3]))
+                .thenComparing(r -> r[1]));
+
+        int n = rows.size();
+        names = new String[n];
+        slugs = new String[n];
+        images = new String[n];
+        amenities = new ArrayList<>(n);
+        stars = new byte[n];
+        prices = new int[n];
+        totalRooms = new int[n];
+        starOrder = new int[n];
+        starRank = new int[n];
+        for (int s = 0; s <= MAX_STARS; s++) {
+            atLeastStars[s] = new BitSet(n);
+        }
+        Map<String, List<String>> amenityLists = new HashMap<>();
+
+        for (int h = 0; h < n; h++) {
+            String[] r = rows.get(h);
+            names[h] = r[1];
+            slugs[h] = slug(r[1]);
+            if (bySlug.put(slugs[h], h) != null) {
+                throw new IllegalStateException("Duplicate hotel in catalog: " + r[1]);
+            }
+            stars[h] = Byte.parseByte(r[2]);
+            prices[h] = Integer.parseInt(r[3]);
+            totalRooms[h] = Integer.parseInt(r[4]);
+            images[h] = r[5];
+            List<String> hotelAmenities = amenityLists.computeIfAbsent(r[6], a -> List.of(a.split("\\|")));
+            amenities.add(hotelAmenities);
+            for (String amenity : hotelAmenities) {
+                amenityBits.computeIfAbsent(amenity.toLowerCase(Locale.ROOT), a -> new BitSet(n)).set(h);
+            }
+            for (int s = 0; s <= Math.min(stars[h], MAX_STARS); s++) {
+                atLeastStars[s].set(h);
+            }
+        }
+
+        // FLOW: Destination ranges, and the most-stars-first order inside each.
+        int start = 0;
+        for (int h = 1; h <= n; h++) {
+            if (h == n || !rows.get(h)[0].equalsIgnoreCase(rows.get(start)[0])) {
+                destinations.put(rows.get(start)[0].toLowerCase(Locale.ROOT).trim(), new int[] { start, h });
+                Integer[] byStars = new Integer[h - start];
+                for (int i = 0; i < byStars.length; i++) {
+                    byStars[i] = start + i;
+                }
+                // Stable: equal stars keep the price order.
+                Arrays.sort(byStars, Comparator.comparingInt(i -> -stars[i]));
+                for (int i = 0; i < byStars.length; i++) {
+                    starOrder[start + i] = byStars[i];
+                    starRank[byStars[i]] = start + i;
+                }
+                start = h;
+            }
+        }
+
+        log.info("Hotel catalog: {} hotels in {} destinations, {} amenities, built in {} ms",
+                n, destinations.size(), amenityBits.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * @return the hotels of the query's destination with all its amenities, at
+     *         least its stars and at most its price, in the query's order.
+     *         Availability is not checked here.
+     */
+    int[] matching(HotelQuery query) {
+        int[] range = destinations.getOrDefault(query.destination(), destinations.get(FALLBACK));
+        if (range == null) {
+            return new int[0];
+        }
+        int from = range[0];
+        int to = query.maxPrice() == null ? range[1] : upperBound(from, range[1], query.maxPrice());
+
+        BitSet hits = new BitSet(to);
+        hits.set(from, to);
+        for (String amenity : query.amenities()) {
+            BitSet having = amenityBits.get(amenity);
+            if (having == null) {
+                return new int[0];
+            }
+            hits.and(having);
+        }
+        if (query.minStars() != null && query.minStars() > 0) {
+            if (query.minStars() > MAX_STARS) {
+                return new int[0];
+            }
+            hits.and(atLeastStars[query.minStars()]);
+        }
+
+        return switch (query.sort()) {
+            case PRICE -> hits.stream().toArray();
+            case STARS -> Arrays.stream(starOrder, range[0], range[1]).filter(hits::get).toArray();
+        };
+    }
+
+    /**
+     * Position of a hotel in {@code sort} order, increasing along
+     * {@link #matching}'s result.
+     */
+    int rank(int hotel, HotelSort sort) {
+        return sort == HotelSort.PRICE ? hotel : starRank[hotel];
+    }
+
+    /**
+     * @return the hotel with this slug, or -1.
+     */
+    int hotel(String slug) {
+        return bySlug.getOrDefault(slug, -1);
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String slug(int hotel) {
+        return slugs[hotel];
+    }
+
+    String name(int hotel) {
+        return names[hotel];
+    }
+
+    String image(int hotel) {
+        return images[hotel];
+    }
+
+    List<String> amenities(int hotel) {
+        return amenities.get(hotel);
+    }
+
+    int stars(int hotel) {
+        return stars[hotel];
+    }
+
+    int price(int hotel) {
+        return prices[hotel];
+    }
+
+    int totalRooms(int hotel) {
+        return totalRooms[hotel];
+    }
+
+    /**
+     * @return the first hotel in [from, to) that costs more than
+     *         {@code maxPrice}, or {@code to}.
+     */
+    private int upperBound(int from, int to, int maxPrice) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] <= maxPrice) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static String slug(String name) {
+        return Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+    }
+
+    private static List<String[]> read(Resource resource) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] values = line.split(",", -1);
+                if (values.length != 7) {
+                    throw new IllegalStateException("Expected 7 columns in " + resource.getFilename() + ": " + line);
+                }
+                rows.add(values);
+            }
+        }
+        return rows;
+    }
+}
@@ -1,32 +1,147 @@
 package com.wanderlust.hotel;
 
 import com.wanderlust.shared.BookingResult;
+import com.wanderlust.shared.GatewayCallException;
+import com.wanderlust.shared.GatewayGuard;
+import com.wanderlust.shared.IdGenerator;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 
 public interface HotelGateway {
     BookingResult reserve(String hotelId);
 
     void cancel(String bookingId);
+
+    /**
+     * Reserves several hotels in ONE round-trip to the supplier.
+     * Every hotel succeeds or fails on its own.
+     *
+     * @return one result per hotel id, in the same order.
+     */
+    default List<BookingResult> reserveAll(List<String> hotelIds) {
+        return hotelIds.stream().map(this::reserve).toList();
+    }
+
+    /**
+     * Cancels several bookings in ONE round-trip to the supplier. Cancelling is
+     * idempotent, so a batch that failed can simply be sent again.
+     */
+    default void cancelAll(List<String> bookingIds) {
+        bookingIds.forEach(this::cancel);
+    }
+
+    /**
+     * The booking's Saga is confirmed and will not cancel it anymore: whatever
+     * was kept to undo it can go.
+     */
+    default void confirmed(String bookingId) {
+    }
 }
 
 @Component
+@RequiredArgsConstructor
 class HotelGatewayImpl implements HotelGateway {
 
+    /** Resilience4j bulkhead / time limiter instance name. */
+    private static final String GATEWAY = "hotelGateway";
+
+    private final GatewayGuard gatewayGuard;
+    private final HotelOffers hotelOffers;
+    private final IdGenerator idGenerator;
+
+    /** Booking id -> offer whose room-nights it holds, so a cancel gives them back exactly once. */
+    private final Map<String, String> heldRooms = new ConcurrentHashMap<>();
+
     /**
      * EXT: END-TO-END FLOW - STEP 2b (Backend)
      * Requesting a hotel reservation.
      */
     @Override
     public BookingResult reserve(String hotelId) {
-        // FLOW: Simulate Network Latency (500ms)
+        // FLOW: Bulkhead + Time Limiter, hedged when enabled (reserving is idempotent
+        // for us: a duplicate reservation is simply cancelled again).
         try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            return gatewayGuard.hedged(GATEWAY, "reserve", () -> {
+                // FLOW: Simulate Network Latency (500ms)
+                simulateRoundTrip();
+                return book(hotelId);
+            }, this::release);
+        } catch (GatewayCallException e) {
+            System.out.println("❌ Hotel reservation failed for: " + hotelId + " (" + e.getMessage() + ")");
+            return BookingResult.failed(e.getMessage());
         }
+    }
 
+    /**
+     * EXT: BULK BOOKING
+     * The whole batch travels in a single request, so the latency is paid once.
+     */
+    @Override
+    public List<BookingResult> reserveAll(List<String> hotelIds) {
+        return gatewayGuard.call(GATEWAY, "reserveAll", () -> {
+            // FLOW: Simulate Network Latency (500ms) - once for the whole batch
+            simulateRoundTrip();
+            return hotelIds.stream().map(this::book).toList();
+        }, this::releaseAll);
+    }
+
+    /**
+     * EXT: END-TO-END FLOW - COMPENSATING TRANSACTION
+     * If Payment fails, the Saga calls this to undo the hotel reservation.
+     */
+    @Override
+    public void cancel(String bookingId) {
+        gatewayGuard.run(GATEWAY, "cancel", () -> unbook(bookingId));
+    }
+
+    /**
+     * EXT: COMPENSATION QUEUE
+     * The whole batch of cancellations travels in a single request.
+     */
+    @Override
+    public void cancelAll(List<String> bookingIds) {
+        gatewayGuard.run(GATEWAY, "cancelAll", () -> bookingIds.forEach(this::unbook));
+    }
+
+    /**
+     * The rooms stay taken; only the note of which offer they belong to goes,
+     * so {@code heldRooms} holds the bookings still in flight and no more.
+     */
+    @Override
+    public void confirmed(String bookingId) {
+        heldRooms.remove(bookingId);
+    }
+
+    /**
+     * Undoes the reservation of a hedged attempt that lost the race, or of an
+     * attempt that answered after the time limiter gave up on it.
+     */
+    private void release(BookingResult duplicate) {
+        if (duplicate.isSuccess()) {
+            cancel(duplicate.bookingId());
+        }
+    }
+
+    /**
+     * Undoes the reservations of a batch that answered after the time limiter
+     * gave up on it: the Saga already failed those trips.
+     */
+    private void releaseAll(List<BookingResult> late) {
+        List<String> bookingIds = late.stream()
+                .filter(BookingResult::isSuccess)
+                .map(BookingResult::bookingId)
+                .toList();
+        if (!bookingIds.isEmpty()) {
+            cancelAll(bookingIds);
+        }
+    }
+
+    private BookingResult book(String hotelId) {
         // FLOW: Failure Simulation
         // If the ID starts with 'FAIL', we simulate outage.
         if (hotelId.toUpperCase().startsWith("FAIL")) {
@@ -34,18 +149,43 @@ class HotelGatewayImpl implements HotelGateway {
             return BookingResult.failed("Simulated Failure");
         }
 
+        // FLOW: Room-Night Inventory
+        // Takes the rooms on every night of the stay, or none. Ids from outside the
+        // catalog (e.g. proposed by the assistant) are passed to the supplier as they are.
+        HotelOffers.HoldResult hold = hotelOffers.hold(hotelId);
+        if (hold == HotelOffers.HoldResult.SOLD_OUT) {
+            System.out.println("❌ Hotel reservation failed for: " + hotelId + " (no rooms left)");
+            return BookingResult.failed("No rooms left");
+        }
+
         // FLOW: Success
-        String bookingId = UUID.randomUUID().toString();
-        System.out.println("✅ Hotel reserved: " + hotelId + " (Booking ID: " + bookingId + ")");
+        String hotel = hotelOffers.find(hotelId)
+                .map(h -> h.name() + " " + h.checkIn() + " to " + h.checkOut() + ", " + h.rooms() + " room(s)")
+                .orElse(hotelId);
+        String bookingId = idGenerator.newId();
+        if (hold == HotelOffers.HoldResult.HELD) {
+            heldRooms.put(bookingId, hotelId);
+        }
+        System.out.println("✅ Hotel reserved: " + hotel + " (Booking ID: " + bookingId + ")");
         return BookingResult.success(bookingId);
     }
 
-    /**
-     * EXT: END-TO-END FLOW - COMPENSATING TRANSACTION
-     * If Payment fails, the Saga calls this to undo the hotel reservation.
-     */
-    @Override
-    public void cancel(String bookingId) {
+    private void unbook(String bookingId) {
+        // Cancelling is idempotent: only the first cancel gives the rooms back.
+        String hotelId = heldRooms.remove(bookingId);
+        if (hotelId != null) {
+            hotelOffers.release(hotelId);
+        }
         System.out.println("⚠️ Compensating Transaction: Cancelled hotel booking: " + bookingId);
     }
+
+    private static void simulateRoundTrip() {
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            // Interrupted (shutdown, or a caller that gave up): do NOT go on and book anything.
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Supplier call abandoned");
+        }
+    }
 }
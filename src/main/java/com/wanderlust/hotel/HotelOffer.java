@@ -0,0 +1,29 @@
+package com.wanderlust.hotel;
+
+import java.util.List;
+
+/**
+ * One hotel for one stay, as returned by the search. {@link #hotelId()} is
+ * stable ({@code park-hyatt-tokyo-20261025-20261028-1}: hotel, check-in,
+ * check-out, rooms) and is what {@link HotelGateway#reserve} books.
+ *
+ * @param roomsLeft Rooms free on every night of the stay when searched.
+ */
+public record HotelOffer(
+        String hotelId,
+        String name,
+        int stars,
+        int pricePerNight,
+        String currency,
+        String image,
+        List<String> images,
+        List<String> amenities,
+        double reviewScore,
+        int reviewCount,
+        String destination,
+        String checkIn,
+        String checkOut,
+        int rooms,
+        int guests,
+        int roomsLeft) {
+}
@@ -0,0 +1,204 @@
+package com.wanderlust.hotel;
+
+import com.wanderlust.shared.OfferCache;
+import com.wanderlust.shared.OfferProperties;
+import com.wanderlust.shared.Page;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Hotel search as the API and the booking side see it. Every offer is one
+ * hotel for one stay, with a stable id
+ * ({@code park-hyatt-tokyo-20261025-20261028-1}: hotel, check-in, check-out,
+ * rooms), and search results go through an {@link OfferCache}, so a repeated
+ * search returns the very same offers and a {@code hotelId} from a search is
+ * found again in O(1) when it is booked.
+ * <p>
+ * Filtering is done on the {@link HotelCatalog} indexes; rooms are tracked per
+ * night in a {@link HotelAvailability} calendar: search only offers hotels
+ * with enough rooms on every night of the stay, and {@link #hold}/
+ * {@link #release} take and give back each night of it.
+ * </p>
+ */
+@Component
+public class HotelOffers {
+
+    private static final DateTimeFormatter ID_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String CURRENCY = "USD";
+
+    private final HotelCatalog catalog;
+    private final int maxPageSize;
+    private final OfferCache<HotelQuery, Page<HotelOffer>, HotelOffer> cache;
+    private final HotelAvailability availability;
+
+    public HotelOffers(HotelCatalog catalog, HotelProperties hotelProperties, OfferProperties offerProperties,
+            MeterRegistry meterRegistry) {
+        this.catalog = catalog;
+        this.maxPageSize = hotelProperties.maxPageSize();
+        this.cache = new OfferCache<>("hotels", offerProperties, meterRegistry, Page::items,
+                HotelOffer::hotelId);
+        int[] totalRooms = new int[catalog.size()];
+        Arrays.setAll(totalRooms, catalog::totalRooms);
+        this.availability = new HotelAvailability(totalRooms, LocalDate.now(), hotelProperties.horizonDays());
+    }
+
+    /**
+     * @return one page of the hotels matching the query that have enough rooms
+     *         free on every night of the stay.
+     * @throws IllegalArgumentException if the cursor is not one this search
+     *                                  handed out.
+     */
+    public Page<HotelOffer> search(HotelQuery query) {
+        return cache.search(query.normalized(), this::find);
+    }
+
+    /**
+     * Looks a hotel id up among recently searched offers first, then rebuilds
+     * the offer from the id.
+     */
+    public Optional<HotelOffer> find(String hotelId) {
+        return cache.find(hotelId).or(() -> stay(hotelId).map(stay -> offer(stay.hotel(),
+                new HotelQuery(null, stay.checkIn(), stay.checkOut(), stay.rooms(), 2 * stay.rooms(), List.of(),
+                        null, null, HotelSort.PRICE, null, 1),
+                availability.roomsLeft(stay.hotel(), stay.checkIn(), stay.checkOut()))));
+    }
+
+    /**
+     * Atomically takes the rooms of an offer on every night of its stay.
+     */
+    public HoldResult hold(String hotelId) {
+        return stay(hotelId)
+                .map(s -> availability.take(s.hotel(), s.checkIn(), s.checkOut(), s.rooms())
+                        ? HoldResult.HELD
+                        : HoldResult.SOLD_OUT)
+                .orElse(HoldResult.UNKNOWN_HOTEL);
+    }
+
+    /**
+     * Gives back the rooms taken by {@link #hold}.
+     */
+    public void release(String hotelId) {
+        stay(hotelId).ifPresent(s -> availability.giveBack(s.hotel(), s.checkIn(), s.checkOut(), s.rooms()));
+    }
+
+    /**
+     * Moves the room calendar to tonight once the date changed.
+     */
+    @Scheduled(fixedDelayString = "PT1M", initialDelayString = "PT1M")
+    void roll() {
+        availability.roll(LocalDate.now());
+    }
+
+    private Page<HotelOffer> find(HotelQuery query) {
+        // FLOW: Index lookup (destination range, price cut, amenity/star bitsets)
+        int[] matches = catalog.matching(query);
+        long after = Page.decodeCursor(query.cursor(), query.sort());
+        int limit = Math.clamp(query.limit(), 1, maxPageSize);
+
+        // FLOW: Continue after the cursor, keeping hotels with rooms on every night.
+        int i = firstAfter(matches, after, query.sort());
+        List<HotelOffer> page = new ArrayList<>(limit);
+        int last = -1;
+        while (i < matches.length) {
+            int[] batch = Arrays.copyOfRange(matches, i, Math.min(matches.length, i + limit + 1));
+            int[] roomsLeft = availability.roomsLeft(batch, query.checkIn(), query.checkOut());
+            for (int b = 0; b < batch.length; b++) {
+                if (roomsLeft[b] < query.rooms()) {
+                    continue;
+                }
+                if (page.size() == limit) {
+                    // There is at least one more: hand out a cursor to the last one on this page.
+                    return new Page<>(page, Page.encodeCursor(query.sort(), catalog.rank(last, query.sort())));
+                }
+                page.add(offer(batch[b], query, roomsLeft[b]));
+                last = batch[b];
+            }
+            i += batch.length;
+        }
+        return new Page<>(page, null);
+    }
+
+    private int firstAfter(int[] matches, long after, HotelSort sort) {
+        int lo = 0;
+        int hi = matches.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (catalog.rank(matches[mid], sort) <= after) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private HotelOffer offer(int hotel, HotelQuery query, int roomsLeft) {
+        String name = catalog.name(hotel);
+        String image = catalog.image(hotel);
+        // Stable per hotel instead of random per request
+        int hash = name.hashCode() & 0x7fffffff;
+        return new HotelOffer(
+                catalog.slug(hotel) + "-" + query.checkIn().format(ID_DATE) + "-"
+                        + query.checkOut().format(ID_DATE) + "-" + query.rooms(),
+                name,
+                catalog.stars(hotel),
+                catalog.price(hotel),
+                CURRENCY,
+                image,
+                List.of(image, image.replace("w=800", "w=400"), image.replace("h=600", "h=400")),
+                catalog.amenities(hotel),
+                4.5 + (hash % 50) / 100.0,
+                100 + (hash / 50) % 900,
+                query.destination(),
+                query.checkIn().toString(),
+                query.checkOut().toString(),
+                query.rooms(),
+                query.guests(),
+                roomsLeft);
+    }
+
+    /**
+     * Parses {@code <slug>-<checkIn yyyyMMdd>-<checkOut yyyyMMdd>-<rooms>}.
+     */
+    private Optional<Stay> stay(String hotelId) {
+        String[] parts = hotelId.split("-");
+        if (parts.length < 4) {
+            return Optional.empty();
+        }
+        int hotel = catalog.hotel(String.join("-", Arrays.copyOf(parts, parts.length - 3)));
+        if (hotel < 0) {
+            return Optional.empty();
+        }
+        try {
+            LocalDate checkIn = LocalDate.parse(parts[parts.length - 3], ID_DATE);
+            LocalDate checkOut = LocalDate.parse(parts[parts.length - 2], ID_DATE);
+            int rooms = Integer.parseInt(parts[parts.length - 1]);
+            return rooms > 0 && checkOut.isAfter(checkIn)
+                    ? Optional.of(new Stay(hotel, checkIn, checkOut, rooms))
+                    : Optional.empty();
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Outcome of {@link #hold}.
+     */
+    public enum HoldResult {
+        HELD,
+        SOLD_OUT,
+        UNKNOWN_HOTEL
+    }
+
+    private record Stay(int hotel, LocalDate checkIn, LocalDate checkOut, int rooms) {
+    }
+}
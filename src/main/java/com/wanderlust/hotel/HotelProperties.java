@@ -0,0 +1,22 @@
+package com.wanderlust.hotel;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * CONFIG: Hotel inventory settings ({@code wanderlust.hotels.*}).
+ *
+ * @param catalog         CSV file with one hotel per line.
+ * @param horizonDays     Nights, starting tonight, the availability calendar
+ *                        covers; it moves forward every night. Stays beyond
+ *                        it are not bookable.
+ * @param defaultPageSize Results per page when the caller gives no limit.
+ * @param maxPageSize     Upper bound of the page size.
+ */
+@ConfigurationProperties(prefix = "wanderlust.hotels")
+public record HotelProperties(
+        @DefaultValue("classpath:hotels/hotels.csv") String catalog,
+        @DefaultValue("365") int horizonDays,
+        @DefaultValue("20") int defaultPageSize,
+        @DefaultValue("100") int maxPageSize) {
+}
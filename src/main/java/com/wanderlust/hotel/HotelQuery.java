@@ -0,0 +1,34 @@
+package com.wanderlust.hotel;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A hotel search.
+ *
+ * @param destination City (anything after a comma is ignored).
+ * @param checkIn     First night.
+ * @param checkOut    Departure day (exclusive).
+ * @param rooms       Rooms needed.
+ * @param guests      Guests in total.
+ * @param amenities   Hotels must have ALL of these (case-insensitive).
+ * @param minStars    Only hotels with at least this many stars (null = any).
+ * @param maxPrice    Only hotels at most this expensive per night (null = any).
+ * @param sort        Result order.
+ * @param cursor      {@link com.wanderlust.shared.Page#nextCursor()} of the
+ *                    previous page, or null for the first page.
+ * @param limit       Page size.
+ */
+public record HotelQuery(String destination, LocalDate checkIn, LocalDate checkOut, int rooms, int guests,
+        List<String> amenities, Integer minStars, Integer maxPrice, HotelSort sort, String cursor, int limit) {
+
+    /**
+     * The same search spelled one way, used as cache key.
+     */
+    public HotelQuery normalized() {
+        return new HotelQuery(destination.toLowerCase(Locale.ROOT).split(",")[0].trim(), checkIn, checkOut, rooms,
+                guests, amenities.stream().map(a -> a.trim().toLowerCase(Locale.ROOT)).distinct().sorted().toList(),
+                minStars, maxPrice, sort, cursor == null || cursor.isBlank() ? null : cursor, limit);
+    }
+}
@@ -0,0 +1,11 @@
+package com.wanderlust.hotel;
+
+/**
+ * Orders of the hotel search results.
+ */
+public enum HotelSort {
+    /** Cheapest first. */
+    PRICE,
+    /** Most stars first, then cheapest. */
+    STARS
+}
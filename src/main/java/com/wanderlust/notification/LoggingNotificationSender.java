@@ -0,0 +1,23 @@
+package com.wanderlust.notification;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Default sender for local development: prints the messages instead of mailing
+ * them.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wanderlust.notification", name = "sender", havingValue = "log", matchIfMissing = true)
+class LoggingNotificationSender implements NotificationSender {
+
+    @Override
+    public void send(List<Notification> notifications) {
+        for (Notification n : notifications) {
+            System.out.println("📧 Sending confirmation email to user " + n.userId() +
+                    " for " + n.bookings().size() + " booking(s): " + n.subject());
+        }
+    }
+}
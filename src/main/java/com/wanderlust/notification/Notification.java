@@ -0,0 +1,26 @@
+package com.wanderlust.notification;
+
+import com.wanderlust.order.BookingConfirmedEvent;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * One outgoing message: every confirmation of one user that arrived within the
+ * same coalescing window.
+ */
+public record Notification(String userId, List<BookingConfirmedEvent> bookings) {
+
+    public String subject() {
+        return bookings.size() == 1
+                ? "Your trip is booked: " + bookings.get(0).bookingId()
+                : "Your " + bookings.size() + " trips are booked";
+    }
+
+    public String body() {
+        return bookings.stream()
+                .map(b -> "Booking " + b.bookingId() + " - Flight: " + b.flightId() + " (" + b.flightBookingId()
+                        + "), Hotel: " + b.hotelId() + " (" + b.hotelBookingId() + "), Total: $" + b.amount())
+                .collect(Collectors.joining("\n", "Hi " + userId + ",\n\n", "\n\nHave a great trip!\nWanderLust"));
+    }
+}
@@ -0,0 +1,332 @@
+package com.wanderlust.notification;
+
+import com.wanderlust.order.BookingConfirmedEvent;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EXT: BATCHED NOTIFICATIONS
+ * Durable queue ({@code notification_pending}) in front of the
+ * {@link NotificationSender}, with a bounded in-memory queue as its fast path.
+ * <ul>
+ * <li>Listeners only {@link #enqueue} - one INSERT - and return, so the outbox
+ * can complete the event. The row is marked sent only after the provider took
+ * the message: neither a crash nor a provider outage loses a confirmation.</li>
+ * <li>After the commit the confirmation is also put on the in-memory queue. If
+ * that is full, the row simply waits for the next scan (backpressure without
+ * unbounded memory). The scan also picks up rows of a node that died, and rows
+ * whose send attempts ran out, after {@code retry-delay}.</li>
+ * <li>A single sender thread waits for the first confirmation, keeps collecting
+ * for the coalescing window, and folds all confirmations of the same user into
+ * ONE message.</li>
+ * <li>Messages are handed to the provider in batches, throttled by the
+ * {@code notificationProvider} rate limiter (messages per period), and retried
+ * with backoff if the provider fails.</li>
+ * </ul>
+ * Rows waiting in memory are leased like compensation tasks, so several nodes
+ * can share the table. Delivery is at-least-once: a node that dies between the
+ * provider's answer and marking the row sent mails that confirmation again.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    /** Resilience4j rate limiter instance name. */
+    static final String PROVIDER = "notificationProvider";
+
+    private final NotificationSender sender;
+    private final NotificationProperties properties;
+    private final PendingNotificationRepository notifications;
+    private final TransactionTemplate transactionTemplate;
+    private final RateLimiter rateLimiter;
+    private final BlockingQueue<BookingConfirmedEvent> queue;
+    /** Booking ids in the queue or in the batch being sent, so a scan does not queue them twice. */
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private final AtomicLong pending = new AtomicLong();
+    private final DistributionSummary batchSizes;
+    private final Timer deliveryLatency;
+    private final Counter coalesced;
+    private final Counter duplicates;
+    private final Counter deferred;
+    private final Counter delivered;
+    private final Counter failed;
+
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public NotificationDispatcher(NotificationSender sender, NotificationProperties properties,
+            PendingNotificationRepository notifications, PlatformTransactionManager transactionManager,
+            RateLimiterRegistry rateLimiterRegistry, MeterRegistry meterRegistry) {
+        this.sender = sender;
+        this.properties = properties;
+        this.notifications = notifications;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rateLimiter = rateLimiterRegistry.rateLimiter(PROVIDER);
+        this.queue = new LinkedBlockingQueue<>(properties.queueCapacity());
+        Gauge.builder("wanderlust.notification.queue.depth", queue, BlockingQueue::size)
+                .description("Confirmations waiting in memory to be sent")
+                .register(meterRegistry);
+        Gauge.builder("wanderlust.notification.pending", pending, AtomicLong::get)
+                .description("Confirmations not accepted by the provider yet")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("wanderlust.notification.batch.size")
+                .description("Messages handed to the provider per send")
+                .register(meterRegistry);
+        this.deliveryLatency = Timer.builder("wanderlust.notification.delivery.latency")
+                .description("Time from booking confirmation to email delivery")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("wanderlust.notification.coalesced")
+                .description("Confirmations merged into another message of the same user")
+                .register(meterRegistry);
+        this.duplicates = Counter.builder("wanderlust.notification.duplicates")
+                .description("Confirmations delivered again and ignored because they were already accepted")
+                .register(meterRegistry);
+        this.deferred = Counter.builder("wanderlust.notification.deferred")
+                .description("Confirmations left to the next scan because the queue was full")
+                .register(meterRegistry);
+        this.delivered = Counter.builder("wanderlust.notification.delivered")
+                .description("Messages accepted by the provider")
+                .register(meterRegistry);
+        this.failed = Counter.builder("wanderlust.notification.failed")
+                .description("Messages whose send attempts ran out; they are retried after the retry delay")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startWorker() {
+        worker = Thread.ofPlatform().daemon().name("notification-sender").start(this::sendLoop);
+    }
+
+    @PreDestroy
+    void stopWorker() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(5_000);
+        // Whatever is still queued is durable: hand it to the other nodes right away
+        // instead of letting it wait for the lease.
+        if (!queued.isEmpty()) {
+            try {
+                notifications.release(List.copyOf(queued), Instant.now());
+            } catch (RuntimeException e) {
+                log.warn("⚠️ {} queued notifications wait for their lease to run out: {}", queued.size(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Accepts a confirmation for sending: stores it and, once that committed,
+     * queues it. A confirmation that was accepted before is ignored.
+     * <p>
+     * Meant to run inside the listener's transaction, so the outbox completes
+     * the event only together with the stored row.
+     * </p>
+     */
+    public void enqueue(BookingConfirmedEvent event) {
+        if (notifications.existsById(event.bookingId())) {
+            duplicates.increment();
+            return;
+        }
+        Instant now = Instant.now();
+        notifications.save(new PendingNotification(event, now, now.plus(properties.lease())));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(event, true);
+                }
+            });
+        } else {
+            offer(event, true);
+        }
+    }
+
+    /**
+     * Puts pending rows back on the queue: rows of a node that died, rows that
+     * did not fit into the queue, and rows whose attempts ran out. Also removes
+     * old sent rows.
+     */
+    @Scheduled(initialDelayString = "PT10S", fixedDelayString = "${wanderlust.notification.poll-interval:PT10S}")
+    void requeueDue() {
+        try {
+            int room = queue.remainingCapacity();
+            if (room > 0) {
+                Instant now = Instant.now();
+                List<BookingConfirmedEvent> due = transactionTemplate.execute(status -> {
+                    List<PendingNotification> rows = notifications.lockDue(now, Limit.of(room));
+                    // Rows still in our own queue only get their lease renewed.
+                    rows.forEach(row -> row.lease(now.plus(properties.lease())));
+                    return rows.stream()
+                            .filter(row -> !queued.contains(row.getBookingId()))
+                            .map(PendingNotification::toEvent)
+                            .toList();
+                });
+                due.forEach(event -> offer(event, false));
+            }
+            notifications.deleteSentBefore(Instant.now().minus(properties.sentRetention()));
+            pending.set(notifications.countBySentAtIsNull());
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Notification scan failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param release Make the row due at once if it does not fit (it was leased
+     *                for the queue on insert).
+     */
+    private void offer(BookingConfirmedEvent event, boolean release) {
+        if (!queued.add(event.bookingId())) {
+            return;
+        }
+        if (queue.offer(event)) {
+            return;
+        }
+        queued.remove(event.bookingId());
+        deferred.increment();
+        if (release) {
+            try {
+                notifications.release(List.of(event.bookingId()), Instant.now());
+            } catch (RuntimeException e) {
+                log.debug("Deferred notification {} waits for its lease: {}", event.bookingId(), e.getMessage());
+            }
+        }
+    }
+
+    private void sendLoop() {
+        List<BookingConfirmedEvent> window = new ArrayList<>(properties.maxBatchSize());
+        while (running) {
+            try {
+                collect(window);
+                dispatch(coalesce(window));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The rows stay pending and are picked up again once their lease ran out.
+                log.error("Notification batch of {} confirmations failed: {}", window.size(), e.getMessage());
+            } finally {
+                if (running) {
+                    // On shutdown they stay marked, so stopWorker releases them.
+                    window.forEach(event -> queued.remove(event.bookingId()));
+                }
+                window.clear();
+            }
+        }
+    }
+
+    /**
+     * Waits for the first confirmation, then keeps taking more until the
+     * coalescing window closes or the batch is full.
+     */
+    private void collect(List<BookingConfirmedEvent> window) throws InterruptedException {
+        window.add(queue.take());
+        long deadline = System.nanoTime() + properties.coalesceWindow().toNanos();
+        while (window.size() < properties.maxBatchSize()) {
+            queue.drainTo(window, properties.maxBatchSize() - window.size());
+            long left = deadline - System.nanoTime();
+            if (left <= 0 || window.size() >= properties.maxBatchSize()) {
+                return;
+            }
+            BookingConfirmedEvent next = queue.poll(left, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            window.add(next);
+        }
+    }
+
+    /**
+     * One message per user, in order of first appearance.
+     */
+    private List<Notification> coalesce(List<BookingConfirmedEvent> window) {
+        Map<String, List<BookingConfirmedEvent>> byUser = new LinkedHashMap<>();
+        for (BookingConfirmedEvent event : window) {
+            byUser.computeIfAbsent(event.userId(), u -> new ArrayList<>()).add(event);
+        }
+        coalesced.increment(window.size() - byUser.size());
+        return byUser.entrySet().stream()
+                .map(e -> new Notification(e.getKey(), List.copyOf(e.getValue())))
+                .toList();
+    }
+
+    /**
+     * Sends in chunks of at most one rate limiter period, waiting for permits
+     * before each chunk.
+     */
+    private void dispatch(List<Notification> messages) throws InterruptedException {
+        int chunkSize = Math.max(1, rateLimiter.getRateLimiterConfig().getLimitForPeriod());
+        for (int from = 0; from < messages.size(); from += chunkSize) {
+            List<Notification> chunk = messages.subList(from, Math.min(from + chunkSize, messages.size()));
+            while (!rateLimiter.acquirePermission(chunk.size())) {
+                if (!running) {
+                    throw new InterruptedException("Notification dispatcher is shutting down");
+                }
+            }
+            sendWithRetry(chunk);
+        }
+    }
+
+    private void sendWithRetry(List<Notification> chunk) throws InterruptedException {
+        List<String> bookingIds = chunk.stream()
+                .flatMap(n -> n.bookings().stream())
+                .map(BookingConfirmedEvent::bookingId)
+                .toList();
+        Duration backoff = properties.retryBackoff();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sender.send(chunk);
+            } catch (RuntimeException e) {
+                if (attempt >= properties.maxAttempts()) {
+                    failed.increment(chunk.size());
+                    log.error("Sending {} notifications failed {} times, retrying in {}: {}", chunk.size(),
+                            attempt, properties.retryDelay(), e.getMessage());
+                    // Not given up: the rows stay pending and the scan queues them again.
+                    notifications.retryAt(bookingIds, Instant.now().plus(properties.retryDelay()), attempt,
+                            PendingNotification.truncate(e.getMessage()));
+                    return;
+                }
+                log.warn("Sending {} notifications failed (attempt {}), retrying in {}: {}",
+                        chunk.size(), attempt, backoff, e.getMessage());
+                Thread.sleep(backoff);
+                backoff = backoff.multipliedBy(2);
+                continue;
+            }
+            batchSizes.record(chunk.size());
+            delivered.increment(chunk.size());
+            Instant now = Instant.now();
+            chunk.forEach(n -> n.bookings().forEach(b -> deliveryLatency.record(Duration.between(b.confirmedAt(), now))));
+            // If this fails the rows are sent again once their lease ran out (at-least-once).
+            notifications.markSent(bookingIds, now);
+            return;
+        }
+    }
+}
@@ -1,27 +1,34 @@
 package com.wanderlust.notification;
 
 import com.wanderlust.order.BookingConfirmedEvent;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
+import lombok.RequiredArgsConstructor;
+import org.springframework.modulith.events.ApplicationModuleListener;
 import org.springframework.stereotype.Component;
 
 @Component
+@RequiredArgsConstructor
 public class NotificationListener {
 
+    private final NotificationDispatcher dispatcher;
+
     /**
      * EXT: END-TO-END FLOW - STEP 5 (Backend)
      * Event Driven Architecture (EDA): This component listens for the
      * 'BookingConfirmedEvent'.
      * Ideally, this module could be in a separate microservice listening to
      * Kafka/RabbitMQ.
+     * <p>
+     * Delivered from the event publication registry (outbox) after the booking
+     * committed, on the event dispatcher. Until this method returns normally the
+     * publication stays incomplete and is redelivered, so delivery is
+     * at-least-once.
+     * </p>
      */
-    @EventListener
-    @Async
+    @ApplicationModuleListener
     public void handleBookingConfirmed(BookingConfirmedEvent event) {
-        // FLOW: Asynchronous Notification
-        // We simulate sending an email here without blocking the main Order response.
-        System.out.println("📧 Sending confirmation email to user " + event.userId() +
-                " for Booking " + event.bookingId() +
-                " (Flight: " + event.flightId() + ", Hotel: " + event.hotelId() + ")");
+        // FLOW: Hand the confirmation to the batching dispatcher. It is stored in
+        // this listener's transaction, so once the outbox completes the event the
+        // email is no longer lost, even if it is sent much later.
+        dispatcher.enqueue(event);
     }
 }
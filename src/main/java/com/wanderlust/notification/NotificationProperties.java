@@ -0,0 +1,48 @@
+package com.wanderlust.notification;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CONFIG: Confirmation email settings ({@code wanderlust.notification.*}).
+ *
+ * @param sender          {@code log} (print the message) or {@code smtp} (send
+ *                        it through {@code spring.mail.*}).
+ * @param queueCapacity   Confirmations that may wait in memory for the sender.
+ *                        Beyond that they wait in {@code notification_pending}
+ *                        for the next scan.
+ * @param coalesceWindow  How long the sender waits for more confirmations
+ *                        after the first one, so several bookings of the same
+ *                        user go out as ONE message.
+ * @param maxBatchSize    Max confirmations taken per window.
+ * @param maxAttempts     Send attempts per batch in a row.
+ * @param retryBackoff    Delay before the second attempt, doubled per attempt.
+ * @param retryDelay      How long a confirmation whose attempts ran out waits
+ *                        before it is queued again. It is never given up.
+ * @param pollInterval    How often {@code notification_pending} is scanned for
+ *                        confirmations to queue (again).
+ * @param lease           How long a queued confirmation is hidden from the
+ *                        other nodes. Must exceed the time it may wait in the
+ *                        queue plus a send.
+ * @param sentRetention   How long sent confirmations are kept, so a
+ *                        redelivered event is recognised and not mailed twice.
+ * @param from            Sender address.
+ * @param recipientDomain Appended to user ids that are not email addresses.
+ */
+@ConfigurationProperties(prefix = "wanderlust.notification")
+public record NotificationProperties(
+        @DefaultValue("log") String sender,
+        @DefaultValue("1000") int queueCapacity,
+        @DefaultValue("2s") Duration coalesceWindow,
+        @DefaultValue("100") int maxBatchSize,
+        @DefaultValue("3") int maxAttempts,
+        @DefaultValue("1s") Duration retryBackoff,
+        @DefaultValue("5m") Duration retryDelay,
+        @DefaultValue("10s") Duration pollInterval,
+        @DefaultValue("5m") Duration lease,
+        @DefaultValue("1d") Duration sentRetention,
+        @DefaultValue("WanderLust <bookings@wanderlust.example>") String from,
+        @DefaultValue("wanderlust.example") String recipientDomain) {
+}
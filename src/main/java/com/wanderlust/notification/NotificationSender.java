@@ -0,0 +1,12 @@
+package com.wanderlust.notification;
+
+import java.util.List;
+
+/**
+ * The email provider. Receives a whole batch at once, so an implementation can
+ * deliver it over a single connection. Throws if the batch was not delivered.
+ */
+public interface NotificationSender {
+
+    void send(List<Notification> notifications);
+}
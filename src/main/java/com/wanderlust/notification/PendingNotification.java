@@ -0,0 +1,109 @@
+package com.wanderlust.notification;
+
+import com.wanderlust.order.BookingConfirmedEvent;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * PERSISTENT MODEL: One booking confirmation to be mailed, keyed by its booking.
+ * <p>
+ * The row is written when the confirmation is accepted and only marked sent once
+ * the provider took the message, so a confirmation survives a restart and a
+ * provider outage. The key makes accepting the same event twice (outbox
+ * redelivery) a no-op.
+ * </p>
+ */
+@Entity
+@Table(name = "notification_pending",
+        indexes = @Index(name = "idx_notification_pending_due", columnList = "sentAt, nextAttemptAt"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class PendingNotification implements Persistable<String> {
+
+    /** Long enough for a provider's error line; longer messages are cut. */
+    static final int MAX_ERROR_LENGTH = 255;
+
+    @Id
+    private String bookingId;
+
+    private String userId;
+    private String flightId;
+    private String hotelId;
+    private String flightBookingId;
+    private String hotelBookingId;
+    private double amount;
+    private Instant confirmedAt;
+
+    private Instant createdAt;
+    /** When the row may be taken (again): after a lease, or after a backoff. */
+    private Instant nextAttemptAt;
+    /** Null until the provider accepted the message. */
+    private Instant sentAt;
+    private int attempts;
+    @Column(length = MAX_ERROR_LENGTH)
+    private String lastError;
+
+    /** Lets {@code save()} INSERT straight away; a duplicate then fails on the key. */
+    @Transient
+    private boolean isNew = true;
+
+    PendingNotification(BookingConfirmedEvent event, Instant createdAt, Instant leasedUntil) {
+        this.bookingId = event.bookingId();
+        this.userId = event.userId();
+        this.flightId = event.flightId();
+        this.hotelId = event.hotelId();
+        this.flightBookingId = event.flightBookingId();
+        this.hotelBookingId = event.hotelBookingId();
+        this.amount = event.amount();
+        this.confirmedAt = event.confirmedAt();
+        this.createdAt = createdAt;
+        this.nextAttemptAt = leasedUntil;
+    }
+
+    BookingConfirmedEvent toEvent() {
+        return new BookingConfirmedEvent(bookingId, userId, flightId, hotelId, flightBookingId, hotelBookingId,
+                amount, confirmedAt);
+    }
+
+    /**
+     * Hides the row from the other nodes while it waits in our queue. If we die,
+     * it becomes due again once the lease ran out.
+     */
+    void lease(Instant until) {
+        this.nextAttemptAt = until;
+    }
+
+    static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH
+                ? error.substring(0, MAX_ERROR_LENGTH - 1) + "…"
+                : error;
+    }
+
+    @Override
+    public String getId() {
+        return bookingId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
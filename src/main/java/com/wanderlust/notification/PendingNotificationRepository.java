@@ -0,0 +1,59 @@
+package com.wanderlust.notification;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+interface PendingNotificationRepository extends JpaRepository<PendingNotification, String> {
+
+    /**
+     * Locks the oldest unsent rows that are due. Rows locked by another node are
+     * skipped ({@code FOR UPDATE SKIP LOCKED}).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select n from PendingNotification n where n.sentAt is null and n.nextAttemptAt <= :now "
+            + "order by n.nextAttemptAt")
+    List<PendingNotification> lockDue(Instant now, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("update PendingNotification n set n.sentAt = :now where n.bookingId in :bookingIds")
+    int markSent(Collection<String> bookingIds, Instant now);
+
+    /**
+     * Every send attempt failed: the rows stay unsent and become due again at
+     * {@code at}.
+     */
+    @Modifying
+    @Transactional
+    @Query("update PendingNotification n set n.nextAttemptAt = :at, n.attempts = n.attempts + :attempts, "
+            + "n.lastError = :error where n.bookingId in :bookingIds and n.sentAt is null")
+    int retryAt(Collection<String> bookingIds, Instant at, int attempts, String error);
+
+    /**
+     * Makes leased rows due right away, e.g. for another node when we shut down.
+     */
+    @Modifying
+    @Transactional
+    @Query("update PendingNotification n set n.nextAttemptAt = :now where n.bookingId in :bookingIds "
+            + "and n.sentAt is null")
+    int release(Collection<String> bookingIds, Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PendingNotification n where n.sentAt < :cutoff")
+    int deleteSentBefore(Instant cutoff);
+
+    long countBySentAtIsNull();
+}
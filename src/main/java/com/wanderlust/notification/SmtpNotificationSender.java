@@ -0,0 +1,40 @@
+package com.wanderlust.notification;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sends through the SMTP server configured under {@code spring.mail.*}. The
+ * whole batch goes out over ONE connection instead of one round-trip per
+ * message.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wanderlust.notification", name = "sender", havingValue = "smtp")
+@RequiredArgsConstructor
+class SmtpNotificationSender implements NotificationSender {
+
+    private final JavaMailSender mailSender;
+    private final NotificationProperties properties;
+
+    @Override
+    public void send(List<Notification> notifications) {
+        SimpleMailMessage[] messages = notifications.stream().map(n -> {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(properties.from());
+            message.setTo(recipient(n.userId()));
+            message.setSubject(n.subject());
+            message.setText(n.body());
+            return message;
+        }).toArray(SimpleMailMessage[]::new);
+        mailSender.send(messages);
+    }
+
+    private String recipient(String userId) {
+        return userId.contains("@") ? userId : userId + "@" + properties.recipientDomain();
+    }
+}
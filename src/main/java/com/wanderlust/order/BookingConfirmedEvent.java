@@ -1,9 +1,16 @@
 package com.wanderlust.order;
 
+import java.time.Instant;
+
 /**
  * DOMAIN EVENT
  * Published when a trip is successfully booked and paid for.
- * Listened to by the Notification service.
+ * Listened to by the Notification service and the itinerary read model
+ * ({@link ItineraryProjection}), so it carries everything the itinerary shows.
+ *
+ * @param confirmedAt When the write side confirmed the booking (used to
+ *                    measure how far the read side trails behind).
  */
-public record BookingConfirmedEvent(String bookingId, String userId, String flightId, String hotelId) {
+public record BookingConfirmedEvent(String bookingId, String userId, String flightId, String hotelId,
+        String flightBookingId, String hotelBookingId, double amount, Instant confirmedAt) {
 }
@@ -0,0 +1,28 @@
+package com.wanderlust.order;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CONFIG: Compensation queue settings ({@code wanderlust.compensation.*}).
+ *
+ * @param pollInterval   How often the worker looks for due cancellations.
+ * @param batchSize      Max cancellations taken per poll (they are sent as one
+ *                       batch per gateway).
+ * @param initialBackoff Delay before the first retry of a failed cancellation;
+ *                       doubled on every further attempt.
+ * @param maxBackoff     Upper bound of the retry delay. Cancellations are
+ *                       retried forever, at most this far apart.
+ * @param lease          How long a task taken by a worker is hidden from the
+ *                       other workers. Must exceed a gateway round-trip.
+ */
+@ConfigurationProperties(prefix = "wanderlust.compensation")
+public record CompensationProperties(
+        @DefaultValue("500ms") Duration pollInterval,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("1s") Duration initialBackoff,
+        @DefaultValue("5m") Duration maxBackoff,
+        @DefaultValue("1m") Duration lease) {
+}
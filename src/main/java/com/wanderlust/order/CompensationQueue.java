@@ -0,0 +1,156 @@
+package com.wanderlust.order;
+
+import com.wanderlust.payment.Refund;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * EXT: COMPENSATION QUEUE
+ * Durable queue of cancellations ({@code compensation_task}) that the
+ * {@link CompensationWorker} drains off the booking path.
+ * <p>
+ * A failed Saga only has to <b>enqueue</b> its cancellations (one INSERT) before
+ * it answers the user; the supplier calls happen in the background and are
+ * retried with exponential backoff and jitter until they succeed. Tasks are
+ * taken with {@code SKIP LOCKED} plus a lease, so several nodes can drain the
+ * queue side by side and a task held by a dead node is picked up again.
+ * </p>
+ * Metrics: {@code wanderlust.compensation.queue.depth},
+ * {@code wanderlust.compensation.queue.oldest.age} (seconds),
+ * {@code wanderlust.compensation.completed} and
+ * {@code wanderlust.compensation.retries}.
+ */
+@Component
+@Slf4j
+public class CompensationQueue {
+
+    private final CompensationTaskRepository tasks;
+    private final TransactionTemplate transactionTemplate;
+    private final CompensationProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicReference<Instant> oldest = new AtomicReference<>();
+
+    public CompensationQueue(CompensationTaskRepository tasks, PlatformTransactionManager transactionManager,
+            CompensationProperties properties, MeterRegistry meterRegistry) {
+        this.tasks = tasks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("wanderlust.compensation.queue.depth", depth, AtomicLong::get)
+                .description("Cancellations waiting to be confirmed by a supplier")
+                .register(meterRegistry);
+        Gauge.builder("wanderlust.compensation.queue.oldest.age", oldest, CompensationQueue::ageSeconds)
+                .description("Age of the oldest pending cancellation")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Durably records the cancellations of a Saga. Null booking ids (legs that
+     * were never reserved) are skipped.
+     */
+    public void enqueue(String sagaId, String flightBookingId, String hotelBookingId) {
+        enqueue(sagaId, flightBookingId, hotelBookingId, null);
+    }
+
+    /**
+     * Same, plus the refund of a charge that must not stand (null: nothing was
+     * charged). All of it is recorded in one transaction.
+     */
+    public void enqueue(String sagaId, String flightBookingId, String hotelBookingId, Refund refund) {
+        Instant now = Instant.now();
+        List<CompensationTask> pending = new ArrayList<>(3);
+        if (refund != null) {
+            pending.add(new CompensationTask(sagaId, refund, now));
+        }
+        if (hotelBookingId != null) {
+            pending.add(new CompensationTask(sagaId, CompensationTask.Leg.HOTEL, hotelBookingId, now));
+        }
+        if (flightBookingId != null) {
+            pending.add(new CompensationTask(sagaId, CompensationTask.Leg.FLIGHT, flightBookingId, now));
+        }
+        if (!pending.isEmpty()) {
+            tasks.saveAll(pending);
+        }
+    }
+
+    /**
+     * Takes up to {@code batch-size} due tasks and leases them to the caller.
+     */
+    List<CompensationTask> take() {
+        Instant now = Instant.now();
+        return transactionTemplate.execute(status -> {
+            List<CompensationTask> due = tasks.lockDue(now, Limit.of(properties.batchSize()));
+            due.forEach(task -> task.lease(now.plus(properties.lease())));
+            return due;
+        });
+    }
+
+    /**
+     * The supplier confirmed the cancellations: remove them from the queue.
+     */
+    void complete(CompensationTask.Leg leg, List<CompensationTask> done) {
+        tasks.deleteAllByIdInBatch(done.stream().map(CompensationTask::getId).toList());
+        counter("wanderlust.compensation.completed", leg).increment(done.size());
+    }
+
+    /**
+     * The supplier call failed: schedule the next attempt of every task with
+     * exponential backoff and jitter.
+     */
+    void retry(CompensationTask.Leg leg, List<CompensationTask> failed, String error) {
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (CompensationTask task : tasks.findAllById(failed.stream().map(CompensationTask::getId).toList())) {
+                task.retryAt(now.plus(backoff(task.getAttempts())), error);
+            }
+        });
+        counter("wanderlust.compensation.retries", leg).increment(failed.size());
+    }
+
+    /**
+     * Re-reads depth and age of the queue for the gauges.
+     */
+    void refreshMetrics() {
+        depth.set(tasks.count());
+        oldest.set(tasks.findOldestCreatedAt().orElse(null));
+    }
+
+    /**
+     * "Equal jitter": half of the exponential delay is fixed, the other half is
+     * random, so retries of a batch that failed together spread out.
+     */
+    private Duration backoff(int previousAttempts) {
+        double exponential = properties.initialBackoff().toMillis() * Math.pow(2, previousAttempts);
+        long delay = (long) Math.min(properties.maxBackoff().toMillis(), exponential);
+        long half = delay / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private Counter counter(String name, CompensationTask.Leg leg) {
+        return Counter.builder(name)
+                .tag("leg", leg.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    private static double ageSeconds(AtomicReference<Instant> oldest) {
+        Instant since = oldest.get();
+        return since == null ? 0 : Duration.between(since, Instant.now()).toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.wanderlust.order;
+
+import com.wanderlust.payment.Refund;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * PERSISTENT MODEL: One pending cancellation of a reserved leg, or refund of
+ * a charge.
+ * <p>
+ * The row exists until the supplier confirmed the cancellation, so a
+ * compensation survives failures of the supplier and restarts of the JVM.
+ * </p>
+ */
+@Entity
+@Table(name = "compensation_task", indexes = @Index(name = "idx_compensation_task_due", columnList = "nextAttemptAt"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class CompensationTask {
+
+    /**
+     * Supplier error messages can be arbitrarily long (HTML error pages, nested
+     * causes). 255 is also what existing tables have: {@code ddl-auto: update}
+     * never widens a column.
+     */
+    static final int MAX_ERROR_LENGTH = 255;
+
+    /** Which gateway has to undo the step. */
+    public enum Leg {
+        FLIGHT, HOTEL, PAYMENT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "compensation_task_seq")
+    @SequenceGenerator(name = "compensation_task_seq", sequenceName = "compensation_task_seq", allocationSize = 50)
+    private Long id;
+
+    private String sagaId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private Leg leg;
+
+    /** Booking to cancel; for PAYMENT the refund reference. */
+    private String bookingId;
+    /** PAYMENT only: who gets how much back. */
+    private String userId;
+    private Double amount;
+    private int attempts;
+    @Column(length = MAX_ERROR_LENGTH)
+    private String lastError;
+
+    private Instant createdAt;
+    /** When the task may be picked up (again): now, after a backoff, or after a lease. */
+    private Instant nextAttemptAt;
+
+    CompensationTask(String sagaId, Leg leg, String bookingId, Instant createdAt) {
+        this.sagaId = sagaId;
+        this.leg = leg;
+        this.bookingId = bookingId;
+        this.createdAt = createdAt;
+        this.nextAttemptAt = createdAt;
+    }
+
+    CompensationTask(String sagaId, Refund refund, Instant createdAt) {
+        this(sagaId, Leg.PAYMENT, refund.reference(), createdAt);
+        this.userId = refund.userId();
+        this.amount = refund.amount();
+    }
+
+    Refund toRefund() {
+        return new Refund(bookingId, userId, amount);
+    }
+
+    /**
+     * Hides the task from other workers while we process it. If we die, it
+     * becomes due again once the lease ran out.
+     */
+    void lease(Instant until) {
+        this.nextAttemptAt = until;
+    }
+
+    void retryAt(Instant at, String error) {
+        this.attempts++;
+        this.lastError = error != null && error.length() > MAX_ERROR_LENGTH
+                ? error.substring(0, MAX_ERROR_LENGTH - 1) + "…"
+                : error;
+        this.nextAttemptAt = at;
+    }
+}
@@ -0,0 +1,28 @@
+package com.wanderlust.order;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+interface CompensationTaskRepository extends JpaRepository<CompensationTask, Long> {
+
+    /**
+     * Locks the oldest due tasks. Rows locked by another node are skipped
+     * ({@code FOR UPDATE SKIP LOCKED}), so workers never wait on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select t from CompensationTask t where t.nextAttemptAt <= :now order by t.nextAttemptAt")
+    List<CompensationTask> lockDue(Instant now, Limit limit);
+
+    @Query("select min(t.createdAt) from CompensationTask t")
+    Optional<Instant> findOldestCreatedAt();
+}
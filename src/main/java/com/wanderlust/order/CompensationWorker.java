@@ -0,0 +1,80 @@
+package com.wanderlust.order;
+
+import com.wanderlust.flight.FlightGateway;
+import com.wanderlust.hotel.HotelGateway;
+import com.wanderlust.payment.PaymentGateway;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * EXT: COMPENSATION QUEUE
+ * Background worker that drains the {@link CompensationQueue}: due
+ * cancellations are grouped per gateway and sent as ONE {@code cancelAll}
+ * round-trip per gateway (flight and hotel concurrently; refunds as one
+ * {@code refundAll}). A failed batch is rescheduled with backoff; nothing is
+ * ever dropped.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CompensationWorker {
+
+    private final CompensationQueue compensationQueue;
+    private final CompensationProperties compensationProperties;
+    private final FlightGateway flightGateway;
+    private final HotelGateway hotelGateway;
+    private final PaymentGateway paymentGateway;
+
+    @Scheduled(initialDelayString = "PT5S", fixedDelayString = "${wanderlust.compensation.poll-interval:PT0.5S}")
+    void drain() {
+        try {
+            List<CompensationTask> due;
+            do {
+                due = compensationQueue.take();
+                Map<CompensationTask.Leg, List<CompensationTask>> byLeg = due.stream()
+                        .collect(Collectors.groupingBy(CompensationTask::getLeg));
+                try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+                    byLeg.forEach((leg, batch) -> scope.execute(() -> cancel(leg, batch)));
+                }
+            } while (due.size() == compensationProperties.batchSize());
+        } catch (RuntimeException e) {
+            // Leased tasks become due again once the lease runs out.
+            log.warn("⚠️ Compensation queue poll failed: {}", e.getMessage());
+        } finally {
+            refreshMetrics();
+        }
+    }
+
+    private void cancel(CompensationTask.Leg leg, List<CompensationTask> batch) {
+        List<String> bookingIds = batch.stream().map(CompensationTask::getBookingId).toList();
+        try {
+            switch (leg) {
+                case FLIGHT -> flightGateway.cancelAll(bookingIds);
+                case HOTEL -> hotelGateway.cancelAll(bookingIds);
+                case PAYMENT -> paymentGateway.refundAll(batch.stream().map(CompensationTask::toRefund).toList());
+            }
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Cancelling {} {} booking(s) failed, retrying later: {}", batch.size(), leg, e.getMessage());
+            compensationQueue.retry(leg, batch, e.getMessage());
+            return;
+        }
+        // If this fails the lease expires and the (idempotent) cancellations are simply sent again.
+        compensationQueue.complete(leg, batch);
+    }
+
+    private void refreshMetrics() {
+        try {
+            compensationQueue.refreshMetrics();
+        } catch (RuntimeException e) {
+            log.debug("Could not refresh compensation queue metrics: {}", e.getMessage());
+        }
+    }
+}
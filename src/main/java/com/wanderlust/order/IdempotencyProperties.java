@@ -0,0 +1,20 @@
+package com.wanderlust.order;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CONFIG: Idempotency-Key handling ({@code wanderlust.idempotency.*}).
+ *
+ * @param ttl           How long a key (and its stored response) lives in Redis.
+ * @param nearCacheSize How many completed keys are also kept in-process.
+ * @param nearCacheTtl  How long a completed key stays in the in-process cache.
+ */
+@ConfigurationProperties(prefix = "wanderlust.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("10m") Duration ttl,
+        @DefaultValue("10000") int nearCacheSize,
+        @DefaultValue("1m") Duration nearCacheTtl) {
+}
@@ -0,0 +1,231 @@
+package com.wanderlust.order;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wanderlust.shared.IdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * EXT: IDEMPOTENCY (Redis)
+ * Exactly-once handling of the booking endpoint, keyed by the Idempotency-Key
+ * header.
+ * <ul>
+ * <li>{@link #claim} is ONE atomic round-trip: a Lua script either claims the
+ * key ({@code SET NX PX}) or returns what is already stored under it, so two
+ * concurrent clicks can never both get through.</li>
+ * <li>{@link #complete} stores the final response under the key, so a retry
+ * gets the original answer replayed instead of an error.</li>
+ * <li>Completed keys are also kept in a small in-process near-cache, so a fast
+ * double-click is answered without going to Redis at all.</li>
+ * </ul>
+ * Every claim gets a token, stored in front of the value ({@code <token> PROCESSING},
+ * later {@code <token> <response>}). {@link #complete} and {@link #release}
+ * only touch the key while it still carries their token (compare-and-set /
+ * compare-and-delete in Lua), so a late write of one request can never
+ * overwrite or delete what a later claim of the same key stored.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    static final String PROCESSING = "PROCESSING";
+
+    /** Returns nil if we claimed the key, otherwise the value already stored. */
+    private static final RedisScript<String> CLAIM_SCRIPT = RedisScript.of("""
+            if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+              return nil
+            end
+            return redis.call('GET', KEYS[1])
+            """, String.class);
+
+    /** Replaces the value if it still starts with our token (ARGV[1]); returns 1 if it did. */
+    private static final RedisScript<Long> COMPLETE_SCRIPT = RedisScript.of("""
+            local current = redis.call('GET', KEYS[1])
+            if current and string.sub(current, 1, string.len(ARGV[1])) == ARGV[1] then
+              redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+              return 1
+            end
+            return 0
+            """, Long.class);
+
+    /** Deletes the key if its value still starts with our token (ARGV[1]); returns 1 if it did. */
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of("""
+            local current = redis.call('GET', KEYS[1])
+            if current and string.sub(current, 1, string.len(ARGV[1])) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+    private final IdGenerator idGenerator;
+    private final Cache<String, StoredResponse> nearCache;
+
+    public IdempotencyStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+            IdempotencyProperties properties, IdGenerator idGenerator) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.idGenerator = idGenerator;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(properties.nearCacheSize())
+                .expireAfterWrite(properties.nearCacheTtl())
+                .build();
+    }
+
+    /**
+     * Tries to claim the key for a new request.
+     */
+    public Claim claim(String key) {
+        StoredResponse cached = nearCache.getIfPresent(key);
+        if (cached != null) {
+            return Claim.completed(cached);
+        }
+
+        String token = idGenerator.newId();
+        String existing = redisTemplate.execute(CLAIM_SCRIPT, List.of(key),
+                tagged(token, PROCESSING), String.valueOf(properties.ttl().toMillis()));
+        if (existing == null) {
+            return Claim.acquired(token);
+        }
+        String value = untagged(existing);
+        if (PROCESSING.equals(value)) {
+            return Claim.inProgress();
+        }
+
+        StoredResponse stored = decode(key, value);
+        if (stored == null) {
+            return Claim.inProgress();
+        }
+        if (isFinal(stored)) {
+            nearCache.put(key, stored);
+        }
+        return Claim.completed(stored);
+    }
+
+    /**
+     * Stores the response of a claimed key so duplicates can replay it. Does
+     * nothing if the key no longer belongs to this claim (released or expired
+     * in the meantime).
+     *
+     * @param token The token of the {@link Claim} that acquired the key.
+     */
+    public void complete(String key, String token, ResponseEntity<?> response) {
+        StoredResponse stored = encode(response);
+        String value;
+        try {
+            value = tagged(token, objectMapper.writeValueAsString(stored));
+        } catch (JsonProcessingException e) {
+            // Leave the key in PROCESSING: duplicates get a 409 until it expires.
+            log.warn("Could not store idempotent response for key {}: {}", key, e.getMessage());
+            return;
+        }
+        Long replaced = redisTemplate.execute(COMPLETE_SCRIPT, List.of(key),
+                tagged(token, ""), value, String.valueOf(properties.ttl().toMillis()));
+        if (!Long.valueOf(1).equals(replaced)) {
+            log.warn("⚠️ Idempotency key {} is no longer ours, response not stored", key);
+            return;
+        }
+        if (isFinal(stored)) {
+            nearCache.put(key, stored);
+        }
+    }
+
+    /**
+     * Gives the key up again (the request failed, the user may retry it), as
+     * long as it still belongs to this claim: PROCESSING, or the 202 this claim
+     * stored.
+     *
+     * @param token The token of the {@link Claim} that acquired the key.
+     */
+    public void release(String key, String token) {
+        nearCache.invalidate(key);
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(key), tagged(token, ""));
+    }
+
+    /**
+     * A 202 Accepted may still be released when the work behind it fails. It is
+     * kept out of the near-cache, because a release cannot invalidate the
+     * near-caches of other nodes.
+     */
+    private static boolean isFinal(StoredResponse stored) {
+        return stored.status() != HttpStatus.ACCEPTED.value();
+    }
+
+    private static String tagged(String token, String value) {
+        return token + " " + value;
+    }
+
+    private static String untagged(String value) {
+        return value.substring(value.indexOf(' ') + 1);
+    }
+
+    private StoredResponse encode(ResponseEntity<?> response) {
+        Object body = response.getBody();
+        String location = response.getHeaders().getFirst(HttpHeaders.LOCATION);
+        if (body == null || body instanceof String) {
+            return new StoredResponse(response.getStatusCode().value(), MediaType.TEXT_PLAIN_VALUE,
+                    body == null ? "" : (String) body, location);
+        }
+        try {
+            return new StoredResponse(response.getStatusCode().value(), MediaType.APPLICATION_JSON_VALUE,
+                    objectMapper.writeValueAsString(body), location);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response body is not serializable", e);
+        }
+    }
+
+    private StoredResponse decode(String key, String value) {
+        try {
+            return objectMapper.readValue(value, StoredResponse.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable idempotent response for key {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Outcome of {@link #claim}.
+     *
+     * @param outcome  What happened.
+     * @param response The stored response, for {@link Outcome#COMPLETED} only.
+     * @param token    Proof of ownership for {@link #complete} / {@link #release},
+     *                 for {@link Outcome#ACQUIRED} only.
+     */
+    public record Claim(Outcome outcome, StoredResponse response, String token) {
+
+        public enum Outcome {
+            /** The key is ours, go ahead and process the request. */
+            ACQUIRED,
+            /** Another request with this key is still being processed. */
+            IN_PROGRESS,
+            /** The key was already processed, replay {@link #response()}. */
+            COMPLETED
+        }
+
+        static Claim acquired(String token) {
+            return new Claim(Outcome.ACQUIRED, null, token);
+        }
+
+        static Claim inProgress() {
+            return new Claim(Outcome.IN_PROGRESS, null, null);
+        }
+
+        static Claim completed(StoredResponse response) {
+            return new Claim(Outcome.COMPLETED, response, null);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.wanderlust.order;
+
+import java.time.Instant;
+
+/**
+ * READ MODEL: What {@code GET /api/itinerary/{bookingId}} returns.
+ */
+public record Itinerary(
+        String bookingId,
+        String userId,
+        String status,
+        String flightId,
+        String flightBookingId,
+        String hotelId,
+        String hotelBookingId,
+        double amount,
+        Instant confirmedAt,
+        String details) {
+}
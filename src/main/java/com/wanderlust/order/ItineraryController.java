@@ -1,7 +1,11 @@
 package com.wanderlust.order;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -9,24 +13,37 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/api/itinerary")
+@RequiredArgsConstructor
 public class ItineraryController {
 
+    private final ItineraryProjection itineraryProjection;
+
     /**
      * EXT: END-TO-END FLOW - CQRS (Read Model)
      * This controller represents the "Query" side of CQRS.
      * Unlike the "Order" side which handles complex transactions and sagas,
      * this side is optimized purely for reading data quickly.
+     * <p>
+     * The response carries an ETag; a client sending it back in
+     * {@code If-None-Match} gets an empty 304 (Spring compares it for us).
+     * </p>
      */
     @GetMapping("/{bookingId}")
-    public Map<String, Object> getItinerary(@PathVariable String bookingId) {
+    public ResponseEntity<Itinerary> getItinerary(@PathVariable String bookingId) {
+        // FLOW: Read Model Access (in-memory cache, then the itinerary_view table)
+        return itineraryProjection.find(bookingId)
+                .map(entry -> ResponseEntity.ok()
+                        .eTag(entry.etag())
+                        .cacheControl(CacheControl.noCache())
+                        .body(entry.itinerary()))
+                .orElse(ResponseEntity.notFound().build());
+    }
 
-        // FLOW: Mock Read Database Access
-        // In a real system, the 'BookingConfirmedEvent' would have populated a
-        // specialized 'ItineraryView' table (e.g., in Mongo or Elastic).
-        // Here we just return mocked data.
-        return Map.of(
-                "bookingId", bookingId,
-                "status", "CONFIRMED",
-                "details", "Your trip to Paris includes flight F123 and Hotel H456.");
+    /**
+     * Rebuilds the read model from the journal of confirmed bookings.
+     */
+    @PostMapping("/rebuild")
+    public Map<String, Long> rebuild() {
+        return Map.of("projected", itineraryProjection.rebuild());
     }
 }
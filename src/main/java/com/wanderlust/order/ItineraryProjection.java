@@ -0,0 +1,145 @@
+package com.wanderlust.order;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * EXT: CQRS (Read Model)
+ * Projects {@link BookingConfirmedEvent}s into the itinerary read model, which
+ * has two tiers:
+ * <ol>
+ * <li>the {@code itinerary_view} table - the durable copy, and</li>
+ * <li>a bounded in-memory cache (Caffeine, W-TinyLFU eviction) in front of it,
+ * so hot itineraries are served without touching the database.</li>
+ * </ol>
+ * The read model can be thrown away and {@link #rebuild() rebuilt} from the
+ * journal of confirmed Sagas at any time.
+ * <p>
+ * {@code wanderlust.itinerary.projection.lag} measures how long after the
+ * confirmation an itinerary became readable.
+ * </p>
+ */
+@Component
+@Slf4j
+public class ItineraryProjection {
+
+    private final ItineraryViewRepository views;
+    private final SagaInstanceRepository sagas;
+    private final TransactionTemplate transactionTemplate;
+    private final ItineraryProperties properties;
+    private final Cache<String, Entry> cache;
+    private final Timer lag;
+
+    public ItineraryProjection(ItineraryViewRepository views, SagaInstanceRepository sagas,
+            PlatformTransactionManager transactionManager, ItineraryProperties properties,
+            MeterRegistry meterRegistry) {
+        this.views = views;
+        this.sagas = sagas;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.cacheSize())
+                .expireAfterAccess(properties.cacheTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "itinerary");
+        this.lag = Timer.builder("wanderlust.itinerary.projection.lag")
+                .description("Time from booking confirmation until the itinerary is readable")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * EXT: END-TO-END FLOW - STEP 5b (Backend)
+     * Keeps the read model up to date with the write side. Delivered from the
+     * outbox at least once; projecting the same booking twice is harmless.
+     */
+    @ApplicationModuleListener
+    public void on(BookingConfirmedEvent event) {
+        ItineraryView view = views.save(new ItineraryView(event, Instant.now()));
+        cache.put(view.getBookingId(), Entry.of(view));
+        lag.record(Duration.between(event.confirmedAt(), view.getProjectedAt()));
+    }
+
+    /**
+     * Reads an itinerary: from memory if we can, from the table otherwise.
+     */
+    public Optional<Entry> find(String bookingId) {
+        Entry cached = cache.getIfPresent(bookingId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // Misses are not cached, so a booking projected a moment later is found.
+        return views.findById(bookingId).map(view -> cache.get(bookingId, id -> Entry.of(view)));
+    }
+
+    /**
+     * Replays every confirmed Saga from the journal into the read model, page by
+     * page. Safe to run while new bookings are projected: both only ever write
+     * the same, immutable facts.
+     *
+     * @return the number of itineraries projected.
+     */
+    public long rebuild() {
+        long projected = 0;
+        Pageable page = PageRequest.of(0, properties.rebuildPageSize(), Sort.by("id"));
+        Slice<SagaInstance> confirmed;
+        do {
+            Pageable current = page;
+            confirmed = transactionTemplate.execute(status -> {
+                Slice<SagaInstance> slice = sagas.findByState(SagaState.CONFIRMED, current);
+                Instant now = Instant.now();
+                views.saveAll(slice.map(saga -> new ItineraryView(saga.toConfirmedEvent(), now)).toList());
+                return slice;
+            });
+            projected += confirmed.getNumberOfElements();
+            page = confirmed.nextPageable();
+        } while (confirmed.hasNext());
+
+        cache.invalidateAll();
+        log.info("📚 Itinerary read model rebuilt from {} confirmed saga(s)", projected);
+        return projected;
+    }
+
+    /**
+     * A cached itinerary together with its ETag.
+     * <p>
+     * The ETag is a hash of the itinerary itself, not of when it was projected:
+     * a rebuild or a redelivered event re-projects the same booking, and the
+     * copies clients already hold must stay valid.
+     * </p>
+     */
+    public record Entry(Itinerary itinerary, String etag) {
+
+        static Entry of(ItineraryView view) {
+            Itinerary itinerary = view.toItinerary();
+            return new Entry(itinerary, etag(itinerary));
+        }
+
+        static String etag(Itinerary itinerary) {
+            String content = String.join("\n", itinerary.bookingId(), itinerary.userId(), itinerary.status(),
+                    itinerary.flightId(), itinerary.flightBookingId(), itinerary.hotelId(),
+                    itinerary.hotelBookingId(), Double.toString(itinerary.amount()),
+                    String.valueOf(itinerary.confirmedAt()), itinerary.details());
+            return DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
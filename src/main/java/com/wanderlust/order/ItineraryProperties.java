@@ -0,0 +1,21 @@
+package com.wanderlust.order;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CONFIG: Itinerary read model settings ({@code wanderlust.itinerary.*}).
+ *
+ * @param cacheSize       Max itineraries kept in memory (least valuable ones
+ *                        are evicted first).
+ * @param cacheTtl        Itineraries not read for this long are evicted.
+ * @param rebuildPageSize Confirmed Sagas replayed per transaction by a rebuild.
+ */
+@ConfigurationProperties(prefix = "wanderlust.itinerary")
+public record ItineraryProperties(
+        @DefaultValue("10000") int cacheSize,
+        @DefaultValue("30m") Duration cacheTtl,
+        @DefaultValue("500") int rebuildPageSize) {
+}
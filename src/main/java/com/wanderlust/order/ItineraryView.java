@@ -0,0 +1,58 @@
+package com.wanderlust.order;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * PERSISTENT MODEL: Denormalized itinerary, one row per confirmed booking.
+ * <p>
+ * Written only by the {@link ItineraryProjection}; never joined, never updated
+ * by the write side. Everything a reader needs is on the row.
+ * </p>
+ */
+@Entity
+@Table(name = "itinerary_view", indexes = @Index(name = "idx_itinerary_view_user", columnList = "userId"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ItineraryView {
+
+    @Id
+    private String bookingId;
+
+    private String userId;
+    private String flightId;
+    private String flightBookingId;
+    private String hotelId;
+    private String hotelBookingId;
+    private double amount;
+    private Instant confirmedAt;
+    /** When this row was (re)projected. */
+    private Instant projectedAt;
+
+    ItineraryView(BookingConfirmedEvent event, Instant projectedAt) {
+        this.bookingId = event.bookingId();
+        this.userId = event.userId();
+        this.flightId = event.flightId();
+        this.flightBookingId = event.flightBookingId();
+        this.hotelId = event.hotelId();
+        this.hotelBookingId = event.hotelBookingId();
+        this.amount = event.amount();
+        // Stored with microsecond precision: the cached copy must not differ from the row.
+        this.confirmedAt = event.confirmedAt().truncatedTo(ChronoUnit.MICROS);
+        this.projectedAt = projectedAt;
+    }
+
+    Itinerary toItinerary() {
+        return new Itinerary(bookingId, userId, SagaState.CONFIRMED.name(), flightId, flightBookingId,
+                hotelId, hotelBookingId, amount, confirmedAt,
+                "Your trip includes flight " + flightId + " and hotel " + hotelId + ".");
+    }
+}
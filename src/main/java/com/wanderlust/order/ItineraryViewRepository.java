@@ -0,0 +1,6 @@
+package com.wanderlust.order;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+interface ItineraryViewRepository extends JpaRepository<ItineraryView, String> {
+}
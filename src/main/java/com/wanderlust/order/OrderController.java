@@ -1,25 +1,39 @@
 package com.wanderlust.order;
 
+import com.wanderlust.shared.IdGenerator;
 import com.wanderlust.shared.TripRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.concurrent.TimeUnit;
+import java.net.URI;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/order")
 @RequiredArgsConstructor
 public class OrderController {
 
-    private final StringRedisTemplate redisTemplate;
+    private final IdempotencyStore idempotencyStore;
     private final OrderSaga orderSaga;
+    private final SagaExecutor sagaExecutor;
+    private final SagaTracker sagaTracker;
+    private final SagaProperties sagaProperties;
+    private final IdGenerator idGenerator;
 
     /**
      * EXT: END-TO-END FLOW - STEP 1 (Backend)
      * Receive the Booking Request from the Frontend.
-     * 
+     * <p>
+     * In async mode (default) the Saga is queued on the {@link SagaExecutor} and we
+     * answer 202 Accepted with the Saga id right away; the client follows the
+     * booking via {@code GET /api/order/{sagaId}} or the SSE stream.
+     * </p>
+     *
      * @param key     The unique Idempotency-Key header generated by the frontend.
      * @param request The booking details (flightId, hotelId, etc.).
      */
@@ -31,28 +45,155 @@ public class OrderController {
         }
 
         // FLOW: Idempotency Check (Redis)
-        // If this key exists, it means we are already processing this click. Block it!
-        if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
-            System.out.println("🛑 Duplicate request blocked for key: " + key);
-            return ResponseEntity.status(409).body("Already processing this request");
+        IdempotencyStore.Claim claim = idempotencyStore.claim(key);
+        ResponseEntity<?> duplicate = replay(key, claim);
+        if (duplicate != null) {
+            return duplicate;
         }
+        String token = claim.token();
 
-        // Mark as processing for 10 minutes
-        redisTemplate.opsForValue().set(key, "PROCESSING", 10, TimeUnit.MINUTES);
+        if (!sagaProperties.asyncBooking()) {
+            return bookSynchronously(key, token, request);
+        }
+
+        // FLOW: Hand the Saga to the bounded executor and release the request.
+        String sagaId = idGenerator.newId();
+        SagaStatus accepted;
+        try {
+            accepted = sagaTracker.start(sagaId, request);
+        } catch (RuntimeException e) {
+            // Not journaled, so not started: the user may retry with the same key.
+            idempotencyStore.release(key, token);
+            throw e;
+        }
+
+        // Stored BEFORE the Saga can run: a Saga that fails right away releases
+        // the key after this write, never before it.
+        ResponseEntity<SagaStatus> response = ResponseEntity.accepted()
+                .location(URI.create("/api/order/" + sagaId))
+                .body(accepted);
+        idempotencyStore.complete(key, token, response);
+        try {
+            System.out.println("🚀 Queueing Order Saga " + sagaId + " for User: " + request.userId());
+            sagaExecutor.submit(sagaId, () -> runSaga(key, token, sagaId, request));
+        } catch (SagaRejectedException e) {
+            // Back-pressure: let the client retry instead of queueing without bound.
+            idempotencyStore.release(key, token);
+            sagaTracker.fail(sagaId, SagaState.FAILED, e.getMessage());
+            sagaTracker.done(sagaId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * EXT: BULK BOOKING
+     * Books many trips in one call (corporate travel). Every trip is its own Saga
+     * and succeeds or compensates on its own, but the gateways are only called
+     * once per batch. Answers with the final status of each trip, in order.
+     */
+    @PostMapping("/book/batch")
+    public ResponseEntity<?> bookTrips(@RequestHeader("Idempotency-Key") String key,
+            @RequestBody List<TripRequest> requests) {
+        if (key == null || key.trim().isEmpty()) {
+            return ResponseEntity.badRequest().body("Idempotency-Key header is required");
+        }
+        if (requests == null || requests.isEmpty() || requests.size() > sagaProperties.maxBatchSize()) {
+            return ResponseEntity.badRequest()
+                    .body("A batch must contain between 1 and " + sagaProperties.maxBatchSize() + " trips");
+        }
+
+        IdempotencyStore.Claim claim = idempotencyStore.claim(key);
+        ResponseEntity<?> duplicate = replay(key, claim);
+        if (duplicate != null) {
+            return duplicate;
+        }
 
+        try {
+            System.out.println("🚀 Starting Bulk Order Saga for " + requests.size() + " trips");
+            ResponseEntity<List<SagaStatus>> response = ResponseEntity.ok(orderSaga.bookTrips(requests));
+            idempotencyStore.complete(key, claim.token(), response);
+            return response;
+        } catch (RuntimeException e) {
+            idempotencyStore.release(key, claim.token());
+            throw e;
+        }
+    }
+
+    /**
+     * Polls the progress of a booking Saga.
+     */
+    @GetMapping("/{sagaId}")
+    public ResponseEntity<SagaStatus> getStatus(@PathVariable String sagaId) {
+        return sagaTracker.find(sagaId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams the progress of a booking Saga as Server-Sent Events
+     * ({@code event: status}). The stream completes once the Saga reaches
+     * CONFIRMED, COMPENSATED or FAILED.
+     */
+    @GetMapping(value = "/{sagaId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStatus(@PathVariable String sagaId) {
+        if (sagaTracker.find(sagaId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(sagaTracker.subscribe(sagaId));
+    }
+
+    /**
+     * Outcome of the atomic claim: either this request owns the key (returns
+     * null), or someone else is processing it (block it!), or it already
+     * finished (replay the original answer).
+     */
+    private static ResponseEntity<?> replay(String key, IdempotencyStore.Claim claim) {
+        return switch (claim.outcome()) {
+            case IN_PROGRESS -> {
+                System.out.println("🛑 Duplicate request blocked for key: " + key);
+                yield ResponseEntity.status(409).body("Already processing this request");
+            }
+            case COMPLETED -> {
+                System.out.println("🔁 Replaying stored response for key: " + key);
+                yield claim.response().toResponseEntity();
+            }
+            case ACQUIRED -> null;
+        };
+    }
+
+    private ResponseEntity<?> bookSynchronously(String key, String token, TripRequest request) {
         try {
             // FLOW: Trigger the Saga Orchestrator
             System.out.println("🚀 Starting Order Saga for User: " + request.userId());
             orderSaga.bookTrip(request);
 
-            // In a real world scenario, you might update the key to 'COMPLETED' or store
-            // the result.
-            return ResponseEntity.ok("Booked!");
+            // Store the result, so a retry of this key gets the same answer.
+            ResponseEntity<String> response = ResponseEntity.ok("Booked!");
+            idempotencyStore.complete(key, token, response);
+            return response;
         } catch (Exception e) {
-            // On failure, we might want to allow retries or keep the key to prevent spam.
+            // On failure we release the key so the user can retry.
             // Here we simply re-throw for the Advice to handle or return error.
-            redisTemplate.delete(key);
+            idempotencyStore.release(key, token);
             throw e;
         }
     }
+
+    /**
+     * Body of a background Saga. Failures are already reported to the tracker by
+     * the Saga itself; we only release the idempotency key so the user can retry.
+     */
+    private void runSaga(String key, String token, String sagaId, TripRequest request) {
+        try {
+            orderSaga.bookTrip(sagaId, request);
+        } catch (Exception e) {
+            idempotencyStore.release(key, token);
+            sagaTracker.failIfActive(sagaId, e.getMessage());
+        } finally {
+            sagaTracker.done(sagaId);
+        }
+    }
 }
@@ -2,12 +2,27 @@ package com.wanderlust.order;
 
 import com.wanderlust.flight.FlightGateway;
 import com.wanderlust.hotel.HotelGateway;
+import com.wanderlust.payment.Charge;
 import com.wanderlust.payment.PaymentFailedException;
 import com.wanderlust.payment.PaymentGateway;
+import com.wanderlust.payment.Refund;
+import com.wanderlust.shared.BookingResult;
+import com.wanderlust.shared.IdGenerator;
+import com.wanderlust.shared.Status;
 import com.wanderlust.shared.TripRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -16,62 +31,502 @@ public class OrderSaga {
     private final FlightGateway flightGateway;
     private final HotelGateway hotelGateway;
     private final PaymentGateway paymentGateway;
-    private final org.springframework.context.ApplicationEventPublisher eventPublisher;
+    private final SagaProperties sagaProperties;
+    private final SagaTracker sagaTracker;
+    private final CompensationQueue compensationQueue;
+    private final IdGenerator idGenerator;
+
+    /**
+     * Synchronous entry point: runs a Saga under a fresh id.
+     *
+     * @param request The trip details.
+     * @return the confirmed order id.
+     */
+    public String bookTrip(TripRequest request) {
+        String sagaId = idGenerator.newId();
+        sagaTracker.start(sagaId, request);
+        try {
+            return bookTrip(sagaId, request);
+        } finally {
+            sagaTracker.done(sagaId);
+        }
+    }
 
     /**
      * EXT: END-TO-END FLOW - STEP 2 (Backend)
      * The Saga Orchestrator: Coordinates the booking process.
      * It ensures data consistency across Flight, Hotel, and Payment.
-     * 
+     * Every step is journaled through the {@link SagaTracker} (durably, see
+     * {@link SagaLog}) so clients can follow the booking via polling or SSE, and
+     * a Saga interrupted by a crash can be finished by {@link SagaRecovery}.
+     * <p>
+     * No {@code @Transactional} here on purpose: the Saga spends seconds waiting
+     * on gateways, and each journal write commits on its own.
+     * </p>
+     *
+     * @param sagaId  The id the Saga was registered under.
      * @param request The trip details.
+     * @return the confirmed order id.
      */
-    @Transactional
-    public void bookTrip(TripRequest request) {
+    public String bookTrip(String sagaId, TripRequest request) {
         System.out.println("🔄 SAGA STARTED: Booking trip for user " + request.userId());
 
-        // FLOW: Step 2a - Reserve Flight
+        // FLOW: Step 2a/2b - Reserve Flight & Hotel
+        // Either both legs are reserved, or every leg that did succeed has been
+        // compensated and an exception is thrown.
+        Reservations reservations = sagaProperties.parallelReservations()
+                ? reserveInParallel(sagaId, request)
+                : reserveSequentially(sagaId, request);
+
+        // FLOW: Step 2c - Process Payment
+        // The final step. If this fails, we undo EVERYTHING (Hotel + Flight).
+        try {
+            paymentGateway.charge(request.userId(), request.amount());
+        } catch (Exception e) {
+            throw compensatePayment(sagaId, reservations);
+        }
+        try {
+            sagaTracker.advance(sagaId, SagaState.CHARGED);
+        } catch (RuntimeException e) {
+            throw compensateCharge(sagaId, request, reservations, e);
+        }
+
+        return confirm(sagaId, request, reservations.flight().bookingId(), reservations.hotel().bookingId());
+    }
+
+    /**
+     * EXT: BULK BOOKING
+     * Books many trips at once. Each trip is still its own Saga (own id, own
+     * journal, own compensation), but every gateway is called ONCE for the whole
+     * batch, so N trips cost about as much gateway latency as a single one.
+     *
+     * @param requests The trips to book.
+     * @return the final status of every trip, in request order.
+     */
+    public List<SagaStatus> bookTrips(List<TripRequest> requests) {
+        int trips = requests.size();
+        List<String> sagaIds = Stream.generate(idGenerator::newId)
+                .limit(trips)
+                .toList();
+        System.out.println("🔄 BULK SAGA STARTED: Booking " + trips + " trips");
+        try {
+            return bookTrips(sagaIds, requests);
+        } finally {
+            sagaIds.forEach(sagaTracker::done);
+        }
+    }
+
+    private List<SagaStatus> bookTrips(List<String> sagaIds, List<TripRequest> requests) {
+        int trips = requests.size();
+
+        // Journal writes of concurrent trips share the same group commit.
+        forEachTrip(trips, i -> sagaTracker.start(sagaIds.get(i), requests.get(i)));
+
+        // FLOW: Step 2a/2b - Reserve all Flights & Hotels (one round-trip per gateway)
+        List<String> flightIds = requests.stream().map(TripRequest::flightId).toList();
+        List<BookingResult> flights;
+        List<BookingResult> hotels;
+        if (sagaProperties.parallelReservations()) {
+            Future<List<BookingResult>> flightBatch;
+            Future<List<BookingResult>> hotelBatch;
+            try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+                flightBatch = scope.submit(() -> flightGateway.reserveAll(flightIds));
+                hotelBatch = scope.submit(() -> hotelGateway.reserveAll(
+                        requests.stream().map(TripRequest::hotelId).toList()));
+            }
+            flights = batchOutcomeOf(flightBatch, trips, "Flight");
+            hotels = batchOutcomeOf(hotelBatch, trips, "Hotel");
+        } else {
+            flights = batchOutcomeOf(() -> flightGateway.reserveAll(flightIds), trips, "Flight");
+            // Hotels are only attempted for trips whose flight was reserved (null = not attempted).
+            List<Integer> withFlight = indicesWhere(trips, i -> flights.get(i).isSuccess());
+            List<BookingResult> booked = batchOutcomeOf(() -> hotelGateway.reserveAll(
+                    withFlight.stream().map(i -> requests.get(i).hotelId()).toList()), withFlight.size(), "Hotel");
+            hotels = new ArrayList<>(Collections.nCopies(trips, null));
+            for (int k = 0; k < withFlight.size(); k++) {
+                hotels.set(withFlight.get(k), booked.get(k));
+            }
+        }
+
+        // Per trip: journal the reserved legs, compensate the half-reserved ones.
+        // One trip's journal failure never aborts the others.
+        Reservations[] reserved = new Reservations[trips];
+        forEachTrip(trips, i -> {
+            String sagaId = sagaIds.get(i);
+            try {
+                BookingResult flight = journaledOrFailed(sagaId, SagaState.FLIGHT_RESERVED, flights.get(i));
+                BookingResult hotel = hotels.get(i);
+                if (hotel == null) {
+                    sagaTracker.fail(sagaId, SagaState.FAILED, "Flight unavailable");
+                    return;
+                }
+                reserved[i] = requireBoth(sagaId, flight,
+                        journaledOrFailed(sagaId, SagaState.HOTEL_RESERVED, hotel));
+            } catch (RuntimeException e) {
+                // Already compensated and reported by requireBoth, or left to recovery (journal down).
+            }
+        });
+
+        // FLOW: Step 2c - Charge every fully reserved trip (one round-trip)
+        List<Integer> payable = indicesWhere(trips, i -> reserved[i] != null);
+        List<Status> charges = batchOutcomeOf(() -> paymentGateway.chargeAll(payable.stream()
+                .map(i -> new Charge(requests.get(i).userId(), requests.get(i).amount()))
+                .toList()), payable.size());
+
+        forEachTrip(payable.size(), k -> {
+            int i = payable.get(k);
+            String sagaId = sagaIds.get(i);
+            if (!charges.get(k).isSuccess()) {
+                try {
+                    compensatePayment(sagaId, reserved[i]);
+                } catch (RuntimeException e) {
+                    // Legs are journaled as reserved: recovery cancels them.
+                }
+                return;
+            }
+            try {
+                sagaTracker.advance(sagaId, SagaState.CHARGED);
+            } catch (RuntimeException e) {
+                compensateCharge(sagaId, requests.get(i), reserved[i], e);
+                return;
+            }
+            try {
+                confirm(sagaId, requests.get(i), reserved[i].flight().bookingId(), reserved[i].hotel().bookingId());
+            } catch (RuntimeException e) {
+                // Journaled as CHARGED: recovery confirms it.
+                System.out.println("⚠️ Confirmation of saga " + sagaId + " not journaled, left to recovery.");
+            }
+        });
+
+        System.out.println("✅ BULK SAGA DONE: " + trips + " trips processed.");
+        return sagaIds.stream()
+                .map(sagaId -> sagaTracker.find(sagaId).orElseThrow())
+                .toList();
+    }
+
+    /**
+     * EXT: CRASH RECOVERY
+     * Finishes a Saga whose JVM died mid-flight, based on what the journal knows:
+     * a CHARGED Saga only lacks its confirmation, so it is resumed; anything
+     * earlier is compensated by queueing the cancellation of every leg with a
+     * recorded booking.
+     */
+    void recover(SagaInstance saga) {
+        String sagaId = saga.getId();
+        sagaTracker.resume(saga);
+        try {
+            resume(saga);
+        } finally {
+            sagaTracker.done(sagaId);
+        }
+    }
+
+    private void resume(SagaInstance saga) {
+        String sagaId = saga.getId();
+        if (saga.getState() == SagaState.CHARGED) {
+            System.out.println("🔁 SAGA RECOVERY: Resuming charged saga " + sagaId);
+            confirm(sagaId, saga.toRequest(), saga.getFlightBookingId(), saga.getHotelBookingId());
+            return;
+        }
+
+        if (saga.getFlightBookingId() == null && saga.getHotelBookingId() == null) {
+            System.out.println("🔁 SAGA RECOVERY: Nothing reserved for saga " + sagaId + ", marking failed.");
+            sagaTracker.fail(sagaId, SagaState.FAILED, "Interrupted before any reservation was made");
+            return;
+        }
+
+        System.out.println("🔁 SAGA RECOVERY: Compensating interrupted saga " + sagaId);
+        sagaTracker.advance(sagaId, SagaState.COMPENSATING);
+        compensationQueue.enqueue(sagaId, saga.getFlightBookingId(), saga.getHotelBookingId());
+        sagaTracker.fail(sagaId, SagaState.COMPENSATED, "Interrupted by a restart, reservations cancelled");
+    }
+
+    /**
+     * COMPENSATING TRANSACTION: Payment failed, undo Step 2 (Cancel Hotel) &
+     * Step 1 (Cancel Flight).
+     * <p>
+     * The cancellations are only queued (durably) here; the
+     * {@link CompensationWorker} sends them, so the user gets the failure right
+     * away instead of waiting for the suppliers.
+     * </p>
+     *
+     * @return the exception to abort the Saga with.
+     */
+    private PaymentFailedException compensatePayment(String sagaId, Reservations reservations) {
+        System.out.println("⚠️ SAGA COMPENSATE: Payment failed. Rolling back everything.");
+        sagaTracker.advance(sagaId, SagaState.COMPENSATING);
+
+        compensationQueue.enqueue(sagaId, reservations.flight().bookingId(), reservations.hotel().bookingId());
+        PaymentFailedException failure = new PaymentFailedException();
+        sagaTracker.fail(sagaId, SagaState.COMPENSATED, failure.getMessage());
+        return failure;
+    }
+
+    /**
+     * COMPENSATING TRANSACTION: The card was charged, but CHARGED could not be
+     * journaled. Recovery would only see the reservations and cancel them, so
+     * the charge has to be undone here as well: refund + both cancellations are
+     * queued together. If the queue (same database) is down too, the refund is
+     * sent right away; the legs are journaled as reserved, so recovery cancels
+     * them later.
+     *
+     * @return the exception to abort the Saga with.
+     */
+    private RuntimeException compensateCharge(String sagaId, TripRequest request, Reservations reservations,
+            RuntimeException cause) {
+        System.out.println("⚠️ SAGA COMPENSATE: Charge not journaled. Refunding and rolling back everything.");
+        Refund refund = new Refund(sagaId, request.userId(), request.amount());
+        try {
+            compensationQueue.enqueue(sagaId, reservations.flight().bookingId(), reservations.hotel().bookingId(),
+                    refund);
+        } catch (RuntimeException queueDown) {
+            cause.addSuppressed(queueDown);
+            try {
+                paymentGateway.refund(refund);
+            } catch (RuntimeException refundFailed) {
+                System.out.println("❌ SAGA REFUND FAILED: Saga " + sagaId + " charged user " + request.userId()
+                        + " $" + request.amount() + " without a booking.");
+                cause.addSuppressed(refundFailed);
+            }
+        }
+        try {
+            sagaTracker.fail(sagaId, SagaState.COMPENSATED, "Booking could not be recorded, payment refunded");
+        } catch (RuntimeException stillDown) {
+            cause.addSuppressed(stillDown);
+        }
+        return cause;
+    }
+
+    /**
+     * FLOW: Step 2d - Publish Event (EDA)
+     * If we reach here, the booking is CONFIRMED. We let the world know.
+     * This triggers the NotificationListener (Step 5) and the itinerary read
+     * model. The event goes through the outbox: it is stored together with the
+     * CONFIRMED journal entry and delivered asynchronously after that commit,
+     * so listeners never slow down the booking.
+     */
+    private String confirm(String sagaId, TripRequest request, String flightBookingId, String hotelBookingId) {
+        String orderId = idGenerator.newId();
+        System.out.println("✅ SAGA SUCCESS: Order " + orderId + " confirmed.");
+
+        sagaTracker.confirm(sagaId, new BookingConfirmedEvent(
+                orderId,
+                request.userId(),
+                request.flightId(),
+                request.hotelId(),
+                flightBookingId,
+                hotelBookingId,
+                request.amount(),
+                java.time.Instant.now()));
+        flightGateway.confirmed(flightBookingId);
+        hotelGateway.confirmed(hotelBookingId);
+        return orderId;
+    }
+
+    /**
+     * Classic mode: Flight first, then Hotel. If the flight fails the hotel is
+     * never attempted.
+     */
+    private Reservations reserveSequentially(String sagaId, TripRequest request) {
         // We call the Flight Module. If it fails, the Saga aborts immediately.
-        var flightResult = flightGateway.reserve(request.flightId());
+        var flightResult = reserveLeg(sagaId, SagaState.FLIGHT_RESERVED,
+                () -> flightGateway.reserve(request.flightId()));
         if (!flightResult.isSuccess()) {
             System.out.println("❌ SAGA ABORT: Flight unavailable.");
+            sagaTracker.fail(sagaId, SagaState.FAILED, "Flight unavailable");
             throw new RuntimeException("Flight unavailable");
         }
 
-        // FLOW: Step 2b - Reserve Hotel
-        // We call the Hotel Module. If it fails, we MUST undo the flight reservation.
-        var hotelResult = hotelGateway.reserve(request.hotelId());
-        if (!hotelResult.isSuccess()) {
-            System.out.println("⚠️ SAGA COMPENSATE: Hotel unavailable. Rolling back flight.");
+        // We call the Hotel Module. If it fails (or throws), we MUST undo the flight reservation.
+        BookingResult hotelResult;
+        try {
+            hotelResult = reserveLeg(sagaId, SagaState.HOTEL_RESERVED,
+                    () -> hotelGateway.reserve(request.hotelId()));
+        } catch (RuntimeException e) {
+            System.out.println("❌ Hotel leg failed: " + e.getMessage());
+            hotelResult = BookingResult.failed(e.getMessage());
+        }
+        return requireBoth(sagaId, flightResult, hotelResult);
+    }
 
-            // COMPENSATING TRANSACTION: Undo Step 1 (Cancel Flight)
-            flightGateway.cancel(flightResult.bookingId());
-            throw new RuntimeException("Hotel unavailable, flight cancelled");
+    /**
+     * Parallel mode: both legs are forked on virtual threads, so the reservation
+     * latency is max(flight, hotel) instead of flight + hotel.
+     * <p>
+     * The executor is used as a structured scope: closing it joins BOTH legs,
+     * even when one of them fails or the caller is interrupted. We only look at
+     * the results after that join, so a leg that is still in flight can never be
+     * left behind holding a live reservation.
+     * </p>
+     */
+    private Reservations reserveInParallel(String sagaId, TripRequest request) {
+        Future<BookingResult> flightLeg;
+        Future<BookingResult> hotelLeg;
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            flightLeg = scope.submit(() -> reserveLeg(sagaId, SagaState.FLIGHT_RESERVED,
+                    () -> flightGateway.reserve(request.flightId())));
+            hotelLeg = scope.submit(() -> reserveLeg(sagaId, SagaState.HOTEL_RESERVED,
+                    () -> hotelGateway.reserve(request.hotelId())));
         }
+        return requireBoth(sagaId, outcomeOf(flightLeg, "Flight"), outcomeOf(hotelLeg, "Hotel"));
+    }
 
-        // FLOW: Step 2c - Process Payment
-        // The final step. If this fails, we undo EVERYTHING (Hotel + Flight).
+    /**
+     * Reserves one leg and journals its booking reference right away, so the
+     * reservation can be compensated even if we crash before the other leg
+     * returns. In parallel mode both legs' journal writes share a group commit.
+     */
+    private BookingResult reserveLeg(String sagaId, SagaState leg, Supplier<BookingResult> reservation) {
+        BookingResult result = reservation.get();
+        journal(sagaId, leg, result);
+        return result;
+    }
+
+    /**
+     * Bulk variant: a leg whose journal entry failed is already queued for
+     * cancellation, so from here on it counts as not reserved.
+     */
+    private BookingResult journaledOrFailed(String sagaId, SagaState leg, BookingResult result) {
         try {
-            paymentGateway.charge(request.userId(), request.amount());
+            journal(sagaId, leg, result);
+            return result;
+        } catch (RuntimeException e) {
+            return BookingResult.failed(e.getMessage());
+        }
+    }
 
-            // FLOW: Step 2d - Publish Event (EDA)
-            // If we reach here, the booking is CONFIRMED. We let the world know.
-            // This triggers the NotificationListener (Step 5).
-            String orderId = java.util.UUID.randomUUID().toString();
-            System.out.println("✅ SAGA SUCCESS: Order " + orderId + " confirmed.");
+    /**
+     * Journals a reserved leg. If that fails, its cancellation is queued before
+     * the failure is rethrown.
+     */
+    private void journal(String sagaId, SagaState leg, BookingResult result) {
+        if (result.isSuccess()) {
+            try {
+                sagaTracker.reserved(sagaId, leg, result.bookingId());
+            } catch (RuntimeException e) {
+                // Not journaled, so neither requireBoth nor recovery knows this booking: undo it here.
+                System.out.println("⚠️ SAGA COMPENSATE: " + leg + " not journaled. Rolling back " + result.bookingId());
+                try {
+                    compensationQueue.enqueue(sagaId,
+                            leg == SagaState.FLIGHT_RESERVED ? result.bookingId() : null,
+                            leg == SagaState.HOTEL_RESERVED ? result.bookingId() : null);
+                } catch (RuntimeException enqueueFailure) {
+                    e.addSuppressed(enqueueFailure);
+                }
+                throw e;
+            }
+        }
+    }
 
-            eventPublisher.publishEvent(new BookingConfirmedEvent(
-                    orderId,
-                    request.userId(),
-                    request.flightId(),
-                    request.hotelId()));
+    /**
+     * Converts a joined leg into a {@link BookingResult}. A leg that threw or was
+     * cancelled never handed us a booking reference, so there is nothing to undo.
+     */
+    private static BookingResult outcomeOf(Future<BookingResult> leg, String name) {
+        return switch (leg.state()) {
+            case SUCCESS -> leg.resultNow();
+            case FAILED -> {
+                System.out.println("❌ " + name + " leg failed: " + leg.exceptionNow().getMessage());
+                yield BookingResult.failed(leg.exceptionNow().getMessage());
+            }
+            default -> BookingResult.failed(name + " leg did not complete");
+        };
+    }
 
-        } catch (Exception e) {
-            System.out.println("⚠️ SAGA COMPENSATE: Payment failed. Rolling back everything.");
+    /**
+     * Passes both results through when they succeeded. Otherwise compensates
+     * whichever leg did succeed and aborts the Saga.
+     */
+    private Reservations requireBoth(String sagaId, BookingResult flightResult, BookingResult hotelResult) {
+        if (flightResult.isSuccess() && hotelResult.isSuccess()) {
+            return new Reservations(flightResult, hotelResult);
+        }
+
+        if (flightResult.isSuccess()) {
+            System.out.println("⚠️ SAGA COMPENSATE: Hotel unavailable. Rolling back flight.");
+            sagaTracker.advance(sagaId, SagaState.COMPENSATING);
+            // COMPENSATING TRANSACTION: Undo the Flight leg
+            compensationQueue.enqueue(sagaId, flightResult.bookingId(), null);
+            throw compensated(sagaId, "Hotel unavailable, flight cancelled");
+        }
+
+        if (hotelResult.isSuccess()) {
+            System.out.println("⚠️ SAGA COMPENSATE: Flight unavailable. Rolling back hotel.");
+            sagaTracker.advance(sagaId, SagaState.COMPENSATING);
+            // COMPENSATING TRANSACTION: Undo the Hotel leg
+            compensationQueue.enqueue(sagaId, null, hotelResult.bookingId());
+            throw compensated(sagaId, "Flight unavailable, hotel cancelled");
+        }
+
+        System.out.println("❌ SAGA ABORT: Flight and hotel unavailable.");
+        sagaTracker.fail(sagaId, SagaState.FAILED, "Flight and hotel unavailable");
+        throw new RuntimeException("Flight and hotel unavailable");
+    }
 
-            // COMPENSATING TRANSACTION: Undo Step 2 (Cancel Hotel) & Step 1 (Cancel Flight)
-            hotelGateway.cancel(hotelResult.bookingId());
-            flightGateway.cancel(flightResult.bookingId());
-            throw new PaymentFailedException();
+    /**
+     * A batch call that blew up as a whole failed every item in it.
+     */
+    private static List<BookingResult> batchOutcomeOf(Future<List<BookingResult>> batch, int size, String name) {
+        if (batch.state() == Future.State.SUCCESS) {
+            return batch.resultNow();
+        }
+        System.out.println("❌ " + name + " batch failed as a whole.");
+        return Collections.nCopies(size, BookingResult.failed(name + " batch failed"));
+    }
+
+    private static List<BookingResult> batchOutcomeOf(Supplier<List<BookingResult>> batch, int size, String name) {
+        try {
+            return size == 0 ? List.of() : batch.get();
+        } catch (RuntimeException e) {
+            System.out.println("❌ " + name + " batch failed as a whole: " + e.getMessage());
+            return Collections.nCopies(size, BookingResult.failed(e.getMessage()));
         }
     }
+
+    private static List<Status> batchOutcomeOf(Supplier<List<Status>> batch, int size) {
+        try {
+            return size == 0 ? List.of() : batch.get();
+        } catch (RuntimeException e) {
+            System.out.println("❌ Payment batch failed as a whole: " + e.getMessage());
+            return Collections.nCopies(size, Status.FAILED);
+        }
+    }
+
+    private static List<Integer> indicesWhere(int size, IntPredicate predicate) {
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (predicate.test(i)) {
+                indices.add(i);
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Runs one step for every trip of a batch concurrently on virtual threads and
+     * waits for all of them. The first failure, if any, is rethrown.
+     */
+    private static void forEachTrip(int trips, IntConsumer step) {
+        List<Future<?>> running = new ArrayList<>(trips);
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < trips; i++) {
+                int trip = i;
+                running.add(scope.submit(() -> step.accept(trip)));
+            }
+        }
+        for (Future<?> trip : running) {
+            if (trip.state() == Future.State.FAILED && trip.exceptionNow() instanceof RuntimeException e) {
+                throw e;
+            }
+        }
+    }
+
+    private RuntimeException compensated(String sagaId, String reason) {
+        sagaTracker.fail(sagaId, SagaState.COMPENSATED, reason);
+        return new RuntimeException(reason);
+    }
+
+    /** The two reserved legs of a trip. */
+    private record Reservations(BookingResult flight, BookingResult hotel) {
+    }
 }
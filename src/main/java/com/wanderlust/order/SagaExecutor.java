@@ -0,0 +1,86 @@
+package com.wanderlust.order;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounded executor for asynchronous booking Sagas.
+ * <p>
+ * Every Saga runs on its own virtual thread, but only
+ * {@code max-concurrent-sagas} of them may talk to the gateways at once; the
+ * rest wait in line. At most {@code queue-capacity} Sagas may be waiting, beyond
+ * that new bookings are rejected straight away instead of piling up.
+ * </p>
+ */
+@Component
+@Slf4j
+public class SagaExecutor {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("saga-", 0).factory());
+
+    /** Permits for running + waiting Sagas (admission control). */
+    private final Semaphore admission;
+    /** Permits for Sagas actually running. */
+    private final Semaphore running;
+    private final int maxConcurrent;
+    private final int capacity;
+    private final Counter rejected;
+
+    public SagaExecutor(SagaProperties sagaProperties, MeterRegistry meterRegistry) {
+        this.maxConcurrent = sagaProperties.maxConcurrentSagas();
+        this.capacity = sagaProperties.maxConcurrentSagas() + sagaProperties.queueCapacity();
+        this.admission = new Semaphore(capacity);
+        this.running = new Semaphore(maxConcurrent, true);
+
+        Gauge.builder("wanderlust.saga.running", this, e -> e.maxConcurrent - e.running.availablePermits())
+                .description("Sagas currently executing")
+                .register(meterRegistry);
+        Gauge.builder("wanderlust.saga.queued", this, SagaExecutor::queued)
+                .description("Sagas accepted but waiting for an execution slot")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("wanderlust.saga.rejected")
+                .description("Bookings rejected because the Saga queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the Saga for execution.
+     *
+     * @throws SagaRejectedException if the queue is full.
+     */
+    public void submit(String sagaId, Runnable saga) {
+        if (!admission.tryAcquire()) {
+            rejected.increment();
+            throw new SagaRejectedException(sagaId);
+        }
+        executor.execute(() -> {
+            try {
+                running.acquire();
+                try {
+                    saga.run();
+                } finally {
+                    running.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Saga {} interrupted before it could start", sagaId);
+            } finally {
+                admission.release();
+            }
+        });
+    }
+
+    private double queued() {
+        int inFlight = capacity - admission.availablePermits();
+        int executing = maxConcurrent - running.availablePermits();
+        return Math.max(0, inFlight - executing);
+    }
+}
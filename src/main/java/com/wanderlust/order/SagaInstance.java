@@ -0,0 +1,118 @@
+package com.wanderlust.order;
+
+import com.wanderlust.shared.TripRequest;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * PERSISTENT MODEL: One row per booking Saga.
+ * <p>
+ * Holds the original request (so a Saga can be finished after a restart), the
+ * furthest state it reached and the booking references of every leg that was
+ * reserved - exactly what compensation needs.
+ * </p>
+ */
+@Entity
+@Table(name = "saga_instance", indexes = @Index(name = "idx_saga_instance_state", columnList = "state, updatedAt"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class SagaInstance implements Persistable<String> {
+
+    @Id
+    private String id;
+
+    private String userId;
+    private String flightId;
+    private String hotelId;
+    private double amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private SagaState state;
+
+    private String flightBookingId;
+    private String hotelBookingId;
+    private String orderId;
+    @Column(length = SagaStep.MAX_MESSAGE_LENGTH)
+    private String message;
+
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    /** Lets {@code save()} INSERT straight away instead of SELECTing first. */
+    @Transient
+    private boolean isNew = true;
+
+    SagaInstance(String id, TripRequest request, Instant createdAt) {
+        this.id = id;
+        this.userId = request.userId();
+        this.flightId = request.flightId();
+        this.hotelId = request.hotelId();
+        this.amount = request.amount();
+        this.state = SagaState.STARTED;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+
+    /**
+     * Applies a journal entry. The state only ever moves forward, so the two legs
+     * of a parallel reservation can be recorded in either order.
+     */
+    void apply(SagaState next, String reference, String message, Instant at) {
+        switch (next) {
+            case FLIGHT_RESERVED -> this.flightBookingId = reference;
+            case HOTEL_RESERVED -> this.hotelBookingId = reference;
+            case CONFIRMED -> this.orderId = reference;
+            default -> {
+            }
+        }
+        if (message != null) {
+            this.message = SagaStep.fit(message);
+        }
+        if (next.ordinal() > state.ordinal()) {
+            this.state = next;
+        }
+        this.updatedAt = at;
+    }
+
+    TripRequest toRequest() {
+        return new TripRequest(flightId, hotelId, userId, amount);
+    }
+
+    SagaStatus toStatus() {
+        return new SagaStatus(id, userId, state, orderId, message, updatedAt);
+    }
+
+    /**
+     * Replays the confirmation of a CONFIRMED Saga, e.g. to rebuild a read model.
+     */
+    BookingConfirmedEvent toConfirmedEvent() {
+        return new BookingConfirmedEvent(orderId, userId, flightId, hotelId, flightBookingId, hotelBookingId,
+                amount, updatedAt);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -0,0 +1,39 @@
+package com.wanderlust.order;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+interface SagaInstanceRepository extends JpaRepository<SagaInstance, String> {
+
+    List<SagaInstance> findByStateInAndUpdatedAtBefore(Collection<SagaState> states, Instant cutoff);
+
+    Slice<SagaInstance> findByState(SagaState state, Pageable pageable);
+
+    /**
+     * Claims a stalled Saga for recovery. Only one node wins, because the row is
+     * only touched if nobody else updated it since we read it.
+     *
+     * @return 1 if we own the Saga now, 0 if someone else got there first.
+     */
+    @Modifying
+    @Transactional
+    @Query("update SagaInstance s set s.updatedAt = :now where s.id = :id and s.updatedAt = :seen")
+    int claim(String id, Instant seen, Instant now);
+
+    /**
+     * Heartbeat of Sagas a node is still working on, so they do not look
+     * stalled to the other nodes.
+     */
+    @Modifying
+    @Transactional
+    @Query("update SagaInstance s set s.updatedAt = :now where s.id in :ids")
+    int touch(Collection<String> ids, Instant now);
+}
@@ -0,0 +1,263 @@
+package com.wanderlust.order;
+
+import com.wanderlust.shared.TripRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Durable journal of every Saga transition ({@code saga_instance} +
+ * {@code saga_step}).
+ * <p>
+ * Writes are <b>group-committed</b>: callers enqueue an entry and block until it
+ * is durable, while a single writer thread drains everything that queued up
+ * during the previous commit and persists it in ONE transaction (one SELECT for
+ * the affected instances, one JDBC batch of step inserts, one batch of instance
+ * updates). A Saga therefore waits for at most one commit per step, and under
+ * load many Sagas share that commit. If a group commit fails, its entries are
+ * committed again one at a time, so only the entry at fault fails.
+ * </p>
+ * <p>
+ * It is also the <b>outbox</b>: a domain event handed in with a transition is
+ * published INSIDE that commit, so Spring Modulith's event publication registry
+ * stores it in the same transaction as the journal row. Either both are
+ * durable or neither is, and listeners only run after the commit.
+ * </p>
+ */
+@Component
+@Slf4j
+public class SagaLog {
+
+    private final SagaInstanceRepository instances;
+    private final SagaStepRepository steps;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxBatchSize;
+    private final BlockingQueue<Entry> pending = new LinkedBlockingQueue<>();
+    private final Timer commitTimer;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public SagaLog(SagaInstanceRepository instances, SagaStepRepository steps,
+            PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+            SagaProperties sagaProperties, MeterRegistry meterRegistry) {
+        this.instances = instances;
+        this.steps = steps;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.maxBatchSize = sagaProperties.logBatchSize();
+        this.commitTimer = Timer.builder("wanderlust.saga.log.commit")
+                .description("Latency of one saga log group commit")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("wanderlust.saga.log.batch.size")
+                .description("Saga transitions persisted per group commit")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startWriter() {
+        writer = Thread.ofPlatform().daemon().name("saga-log-writer").start(this::writeLoop);
+    }
+
+    @PreDestroy
+    void stopWriter() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(5_000);
+        // Whatever is still queued is flushed synchronously on shutdown.
+        List<Entry> rest = new ArrayList<>();
+        pending.drainTo(rest);
+        if (!rest.isEmpty()) {
+            commit(rest);
+        }
+    }
+
+    /**
+     * Journals a new Saga together with its request. Blocks until durable.
+     */
+    public void start(String sagaId, TripRequest request) {
+        append(new Entry(sagaId, SagaState.STARTED, request, null, null, null));
+    }
+
+    /**
+     * Journals a transition. Blocks until durable.
+     *
+     * @param reference The booking reference (FLIGHT_RESERVED / HOTEL_RESERVED)
+     *                  or order id (CONFIRMED) produced by this step.
+     * @param message   Failure reason, if any.
+     */
+    public void record(String sagaId, SagaState state, String reference, String message) {
+        record(sagaId, state, reference, message, null);
+    }
+
+    /**
+     * Journals a transition and publishes {@code event} in the same transaction.
+     * Blocks until durable.
+     */
+    public void record(String sagaId, SagaState state, String reference, String message, Object event) {
+        append(new Entry(sagaId, state, null, reference, message, event));
+    }
+
+    public Optional<SagaInstance> find(String sagaId) {
+        return instances.findById(sagaId);
+    }
+
+    /**
+     * @return Sagas that are not finished but have not moved since {@code cutoff}.
+     */
+    public List<SagaInstance> findStalled(Instant cutoff) {
+        return instances.findByStateInAndUpdatedAtBefore(
+                List.of(SagaState.STARTED, SagaState.FLIGHT_RESERVED, SagaState.HOTEL_RESERVED,
+                        SagaState.CHARGED, SagaState.COMPENSATING),
+                cutoff);
+    }
+
+    /**
+     * @return true if this node won the right to recover the Saga.
+     */
+    public boolean claim(SagaInstance instance) {
+        return instances.claim(instance.getId(), instance.getUpdatedAt(), Instant.now()) == 1;
+    }
+
+    /**
+     * Marks the Sagas as alive (see {@link SagaRecovery}).
+     */
+    public void touch(Collection<String> sagaIds) {
+        instances.touch(sagaIds, Instant.now());
+    }
+
+    private void append(Entry entry) {
+        if (!running) {
+            throw new IllegalStateException("Saga log is shutting down");
+        }
+        pending.add(entry);
+        // stopWriter may have drained the queue for the last time between the check and the add.
+        if (!running && pending.remove(entry)) {
+            throw new IllegalStateException("Saga log is shutting down");
+        }
+        entry.durable().join();
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                // Wait for the first entry, then take everything that queued up behind it.
+                batch.add(pending.take());
+                pending.drainTo(batch, maxBatchSize - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Entry> batch) {
+        try {
+            write(batch);
+            batch.forEach(e -> e.durable().complete(null));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                log.error("Saga log commit for saga {} failed: {}", batch.get(0).sagaId(), e.getMessage());
+                batch.get(0).durable().completeExceptionally(e);
+                return;
+            }
+            // One bad entry must not fail the Sagas it happened to share the commit with.
+            log.warn("Saga log commit of {} entries failed, committing them one by one: {}",
+                    batch.size(), e.getMessage());
+            for (Entry entry : batch) {
+                commit(List.of(entry));
+            }
+        }
+    }
+
+    private void write(List<Entry> batch) {
+        Timer.Sample sample = Timer.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                persist(batch);
+                publish(batch);
+            });
+        } finally {
+            sample.stop(commitTimer);
+            batchSizes.record(batch.size());
+        }
+    }
+
+    private void persist(List<Entry> batch) {
+        List<String> existingIds = batch.stream()
+                .filter(e -> e.request() == null)
+                .map(Entry::sagaId)
+                .distinct()
+                .toList();
+        Map<String, SagaInstance> byId = instances.findAllById(existingIds).stream()
+                .collect(Collectors.toMap(SagaInstance::getId, Function.identity()));
+
+        List<SagaStep> newSteps = new ArrayList<>(batch.size());
+        List<SagaInstance> newInstances = new ArrayList<>();
+        for (Entry entry : batch) {
+            if (entry.request() != null) {
+                SagaInstance created = new SagaInstance(entry.sagaId(), entry.request(), entry.at());
+                byId.put(entry.sagaId(), created);
+                newInstances.add(created);
+            } else {
+                SagaInstance instance = byId.get(entry.sagaId());
+                if (instance == null) {
+                    log.warn("Saga {} is not journaled, dropping transition {}", entry.sagaId(), entry.state());
+                    continue;
+                }
+                instance.apply(entry.state(), entry.reference(), entry.message(), entry.at());
+            }
+            newSteps.add(new SagaStep(entry.sagaId(), entry.state(), entry.reference(), entry.message(),
+                    entry.at()));
+        }
+        // Loaded instances are managed, their changes are flushed as a batch of UPDATEs on commit.
+        instances.saveAll(newInstances);
+        steps.saveAll(newSteps);
+    }
+
+    /**
+     * Hands the batch's events to the registry, which writes them to the outbox
+     * within the current transaction.
+     */
+    private void publish(List<Entry> batch) {
+        for (Entry entry : batch) {
+            if (entry.event() != null) {
+                eventPublisher.publishEvent(entry.event());
+            }
+        }
+    }
+
+    private record Entry(String sagaId, SagaState state, TripRequest request, String reference, String message,
+            Object event, Instant at, CompletableFuture<Void> durable) {
+
+        Entry(String sagaId, SagaState state, TripRequest request, String reference, String message, Object event) {
+            this(sagaId, state, request, reference, message, event, Instant.now(), new CompletableFuture<>());
+        }
+    }
+}
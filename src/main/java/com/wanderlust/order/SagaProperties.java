@@ -0,0 +1,43 @@
+package com.wanderlust.order;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CONFIG: Saga Orchestrator settings ({@code wanderlust.saga.*}).
+ *
+ * @param parallelReservations When true, the flight and hotel legs are reserved
+ *                             concurrently on virtual threads instead of one
+ *                             after the other.
+ * @param asyncBooking         When true, {@code POST /api/order/book} answers
+ *                             202 Accepted right away and the Saga runs in the
+ *                             background.
+ * @param maxConcurrentSagas   How many background Sagas may run at the same time.
+ * @param queueCapacity        How many background Sagas may wait for a slot
+ *                             before new bookings are rejected.
+ * @param statusRetention      How long a finished Saga's status is kept in
+ *                             memory (it stays in the journal afterwards).
+ * @param logBatchSize         Max journal entries persisted per group commit.
+ * @param recoveryInterval     How often to scan the journal for stalled Sagas
+ *                             (and to mark this node's running Sagas as alive,
+ *                             so keep it below the grace period).
+ * @param recoveryGracePeriod  How long an unfinished Saga may stand still
+ *                             before it is considered abandoned.
+ * @param recoveryParallelism  How many stalled Sagas are recovered at once.
+ * @param maxBatchSize         Max trips per {@code POST /api/order/book/batch}.
+ */
+@ConfigurationProperties(prefix = "wanderlust.saga")
+public record SagaProperties(
+        @DefaultValue("true") boolean parallelReservations,
+        @DefaultValue("true") boolean asyncBooking,
+        @DefaultValue("64") int maxConcurrentSagas,
+        @DefaultValue("512") int queueCapacity,
+        @DefaultValue("30m") Duration statusRetention,
+        @DefaultValue("256") int logBatchSize,
+        @DefaultValue("1m") Duration recoveryInterval,
+        @DefaultValue("2m") Duration recoveryGracePeriod,
+        @DefaultValue("8") int recoveryParallelism,
+        @DefaultValue("100") int maxBatchSize) {
+}
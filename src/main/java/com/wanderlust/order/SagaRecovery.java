@@ -0,0 +1,100 @@
+package com.wanderlust.order;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * EXT: CRASH RECOVERY
+ * Periodically looks for Sagas that are not finished but have not moved for
+ * longer than {@code wanderlust.saga.recovery-grace-period} - i.e. Sagas whose
+ * JVM died - and lets the {@link OrderSaga} resume or compensate them.
+ * <p>
+ * The first scan runs right after startup. Stalled Sagas are recovered in
+ * parallel on virtual threads (at most {@code recovery-parallelism} at a time),
+ * and each one is claimed first so two nodes never recover the same Saga.
+ * </p>
+ * <p>
+ * A Saga can stand still without being abandoned: queued in the
+ * {@link SagaExecutor}, or waiting on a slow gateway. Every scan first touches
+ * the Sagas this JVM is still working on (heartbeat, so other nodes do not take
+ * them over) and never recovers those itself.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SagaRecovery {
+
+    private final SagaLog sagaLog;
+    private final SagaTracker sagaTracker;
+    private final OrderSaga orderSaga;
+    private final SagaProperties sagaProperties;
+
+    @Scheduled(initialDelayString = "PT5S", fixedDelayString = "${wanderlust.saga.recovery-interval:PT1M}")
+    void recoverStalledSagas() {
+        heartbeat();
+        List<SagaInstance> stalled;
+        try {
+            stalled = sagaLog.findStalled(Instant.now().minus(sagaProperties.recoveryGracePeriod())).stream()
+                    .filter(saga -> !sagaTracker.isInFlight(saga.getId()))
+                    .toList();
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Saga recovery scan skipped: {}", e.getMessage());
+            return;
+        }
+        if (stalled.isEmpty()) {
+            return;
+        }
+
+        log.info("🔁 Recovering {} stalled saga(s)", stalled.size());
+        Semaphore permits = new Semaphore(sagaProperties.recoveryParallelism());
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (SagaInstance saga : stalled) {
+                scope.execute(() -> {
+                    try {
+                        permits.acquire();
+                        try {
+                            recover(saga);
+                        } finally {
+                            permits.release();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+        }
+    }
+
+    private void heartbeat() {
+        Set<String> inFlight = sagaTracker.inFlight();
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        try {
+            sagaLog.touch(inFlight);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Saga heartbeat skipped: {}", e.getMessage());
+        }
+    }
+
+    private void recover(SagaInstance saga) {
+        try {
+            if (sagaLog.claim(saga)) {
+                orderSaga.recover(saga);
+            }
+        } catch (RuntimeException e) {
+            // Left as-is: the next scan picks it up again.
+            log.error("Recovery of saga {} failed: {}", saga.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.wanderlust.order;
+
+/**
+ * Thrown when the Saga executor is saturated and cannot accept another booking.
+ */
+public class SagaRejectedException extends RuntimeException {
+    public SagaRejectedException(String sagaId) {
+        super("Booking queue is full, saga " + sagaId + " was not started. Please retry shortly.");
+    }
+}
@@ -0,0 +1,36 @@
+package com.wanderlust.order;
+
+/**
+ * The lifecycle of a booking Saga as reported to polling / SSE clients.
+ *
+ * <pre>
+ * STARTED → FLIGHT_RESERVED → HOTEL_RESERVED → CHARGED → CONFIRMED
+ *                    ↘               ↘             ↘
+ *                       COMPENSATING → COMPENSATED
+ * </pre>
+ */
+public enum SagaState {
+    /** Accepted and waiting for (or running on) the Saga executor. */
+    STARTED,
+    FLIGHT_RESERVED,
+    HOTEL_RESERVED,
+    CHARGED,
+    /** Terminal: the trip is booked and paid for. */
+    CONFIRMED,
+    /** Undoing the legs that were already reserved. */
+    COMPENSATING,
+    /**
+     * Terminal: the Saga failed and the cancellation of every reserved leg is
+     * durably queued (see {@link CompensationQueue}).
+     */
+    COMPENSATED,
+    /** Terminal: the Saga failed before anything needed to be rolled back. */
+    FAILED;
+
+    /**
+     * @return true if the Saga will not move out of this state anymore.
+     */
+    public boolean isTerminal() {
+        return this == CONFIRMED || this == COMPENSATED || this == FAILED;
+    }
+}
@@ -0,0 +1,33 @@
+package com.wanderlust.order;
+
+import java.time.Instant;
+
+/**
+ * READ MODEL: Snapshot of a booking Saga, returned by
+ * {@code GET /api/order/{sagaId}} and pushed over the SSE stream.
+ *
+ * @param sagaId    The id handed out by the 202 Accepted response.
+ * @param userId    The user the trip is booked for.
+ * @param state     Where the Saga currently is.
+ * @param orderId   The confirmed order id (only set once CONFIRMED).
+ * @param message   Failure reason for COMPENSATED / FAILED Sagas.
+ * @param updatedAt When the Saga last changed state.
+ */
+public record SagaStatus(String sagaId, String userId, SagaState state, String orderId, String message,
+        Instant updatedAt) {
+
+    static SagaStatus started(String sagaId, String userId) {
+        return new SagaStatus(sagaId, userId, SagaState.STARTED, null, null, Instant.now());
+    }
+
+    /**
+     * The state only moves forward, so the two legs of a parallel reservation can
+     * report in either order.
+     */
+    SagaStatus advance(SagaState next, String orderId, String message) {
+        return new SagaStatus(sagaId, userId, next.ordinal() > state.ordinal() ? next : state,
+                orderId != null ? orderId : this.orderId,
+                message != null ? message : this.message,
+                Instant.now());
+    }
+}
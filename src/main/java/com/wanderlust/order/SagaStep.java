@@ -0,0 +1,71 @@
+package com.wanderlust.order;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * PERSISTENT MODEL: Append-only audit row for every transition of a Saga.
+ * <p>
+ * Ids come from a pooled sequence (not IDENTITY) so Hibernate can batch the
+ * inserts of a whole group commit into a single JDBC batch.
+ * </p>
+ */
+@Entity
+@Table(name = "saga_step", indexes = @Index(name = "idx_saga_step_saga", columnList = "sagaId"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class SagaStep {
+
+    /**
+     * Failure messages come from exceptions and can be arbitrarily long; one
+     * that does not fit would fail the whole group commit it is part of.
+     */
+    static final int MAX_MESSAGE_LENGTH = 255;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saga_step_seq")
+    @SequenceGenerator(name = "saga_step_seq", sequenceName = "saga_step_seq", allocationSize = 100)
+    private Long id;
+
+    private String sagaId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private SagaState state;
+
+    /** Booking reference / order id produced by this step, if any. */
+    private String reference;
+    @Column(length = MAX_MESSAGE_LENGTH)
+    private String message;
+    private Instant recordedAt;
+
+    SagaStep(String sagaId, SagaState state, String reference, String message, Instant recordedAt) {
+        this.sagaId = sagaId;
+        this.state = state;
+        this.reference = reference;
+        this.message = fit(message);
+        this.recordedAt = recordedAt;
+    }
+
+    /**
+     * @return the message, cut to {@link #MAX_MESSAGE_LENGTH} if longer.
+     */
+    static String fit(String message) {
+        return message != null && message.length() > MAX_MESSAGE_LENGTH
+                ? message.substring(0, MAX_MESSAGE_LENGTH - 1) + "…"
+                : message;
+    }
+}
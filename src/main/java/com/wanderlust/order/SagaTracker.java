@@ -0,0 +1,219 @@
+package com.wanderlust.order;
+
+import com.wanderlust.shared.TripRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the latest {@link SagaStatus} of every recent Saga and fans state
+ * changes out to SSE subscribers.
+ * <p>
+ * Every transition is journaled to the {@link SagaLog} BEFORE it is published,
+ * so whatever a client has seen survives a restart. Finished Sagas are kept in
+ * memory for {@code wanderlust.saga.status-retention}, after that their status
+ * is read back from the journal.
+ * </p>
+ * <p>
+ * It also knows which Sagas this JVM is working on (queued, running or being
+ * recovered), so {@link SagaRecovery} leaves those alone and keeps them
+ * looking alive to other nodes.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SagaTracker {
+
+    private static final Duration EMITTER_TIMEOUT = Duration.ofMinutes(5);
+
+    private final SagaProperties sagaProperties;
+    private final SagaLog sagaLog;
+
+    private final Map<String, SagaStatus> statuses = new ConcurrentHashMap<>();
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Registers a new Saga. Fails if it cannot be journaled: we do not start a
+     * booking we would not be able to recover.
+     */
+    public SagaStatus start(String sagaId, TripRequest request) {
+        sagaLog.start(sagaId, request);
+        inFlight.add(sagaId);
+        SagaStatus status = SagaStatus.started(sagaId, request.userId());
+        statuses.put(sagaId, status);
+        return status;
+    }
+
+    /**
+     * This JVM stopped working on the Saga (it finished, failed or was given
+     * up). If it is still unfinished in the journal, it is recovery's business
+     * from now on.
+     */
+    public void done(String sagaId) {
+        inFlight.remove(sagaId);
+    }
+
+    /**
+     * @return true while a Saga is queued, running or being recovered here.
+     */
+    boolean isInFlight(String sagaId) {
+        return inFlight.contains(sagaId);
+    }
+
+    Set<String> inFlight() {
+        return Set.copyOf(inFlight);
+    }
+
+    public void advance(String sagaId, SagaState state) {
+        update(sagaId, state, null, null, null);
+    }
+
+    /**
+     * Records a reserved leg together with its booking reference, which is what
+     * compensation needs after a crash.
+     */
+    public void reserved(String sagaId, SagaState leg, String bookingId) {
+        update(sagaId, leg, bookingId, null, null);
+    }
+
+    /**
+     * Confirms the Saga and publishes its {@link BookingConfirmedEvent} in the
+     * same journal transaction (transactional outbox, see {@link SagaLog}).
+     */
+    public void confirm(String sagaId, BookingConfirmedEvent event) {
+        update(sagaId, SagaState.CONFIRMED, event.bookingId(), null, event);
+    }
+
+    public void fail(String sagaId, SagaState state, String message) {
+        update(sagaId, state, null, message, null);
+    }
+
+    /**
+     * Re-registers a Saga loaded from the journal, e.g. one picked up by recovery.
+     */
+    void resume(SagaInstance instance) {
+        inFlight.add(instance.getId());
+        statuses.put(instance.getId(), instance.toStatus());
+    }
+
+    /**
+     * Marks the Saga FAILED unless it already reached a terminal state. Used as a
+     * safety net for errors the Saga itself did not get to report.
+     * <p>
+     * A CHARGED Saga is left alone: it only lacks its confirmation, which
+     * recovery adds. Marking it FAILED would keep the charge without the trip.
+     * </p>
+     */
+    public void failIfActive(String sagaId, String message) {
+        SagaStatus current = statuses.get(sagaId);
+        if (current == null || current.state().isTerminal() || current.state() == SagaState.CHARGED) {
+            return;
+        }
+        try {
+            fail(sagaId, SagaState.FAILED, message);
+        } catch (RuntimeException e) {
+            // Journal still down: recovery finishes the Saga once this JVM let go of it.
+            log.error("Could not mark saga {} failed: {}", sagaId, e.getMessage());
+        }
+    }
+
+    public Optional<SagaStatus> find(String sagaId) {
+        SagaStatus live = statuses.get(sagaId);
+        if (live != null) {
+            return Optional.of(live);
+        }
+        return sagaLog.find(sagaId).map(SagaInstance::toStatus);
+    }
+
+    /**
+     * Opens an SSE stream for the Saga. The current status is sent right away, so
+     * a client that subscribes late still sees where the Saga is.
+     */
+    public SseEmitter subscribe(String sagaId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT.toMillis());
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(sagaId, id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+
+        // Re-read AFTER registering, so an update racing with us is never lost
+        // (at worst the client sees the same status twice).
+        find(sagaId).ifPresent(current -> {
+            send(emitter, current);
+            if (current.state().isTerminal()) {
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Housekeeping: forget finished Sagas once their retention has passed.
+     */
+    @Scheduled(fixedDelayString = "PT1M")
+    void sweep() {
+        Instant cutoff = Instant.now().minus(sagaProperties.statusRetention());
+        statuses.values().removeIf(s -> s.state().isTerminal() && s.updatedAt().isBefore(cutoff));
+    }
+
+    /**
+     * Journals the transition, then publishes it. A journal failure is thrown to
+     * the Saga: a step that is not durable must not be reported (or built on) as
+     * done, and the Saga has to compensate whatever the journal does not know
+     * about, e.g. a charge whose CHARGED entry was lost.
+     */
+    private void update(String sagaId, SagaState state, String reference, String message, Object event) {
+        try {
+            sagaLog.record(sagaId, state, reference, message, event);
+        } catch (RuntimeException e) {
+            log.error("Could not journal {} for saga {}: {}", state, sagaId, e.getMessage());
+            throw e;
+        }
+
+        String orderId = state == SagaState.CONFIRMED ? reference : null;
+        SagaStatus updated = statuses.computeIfPresent(sagaId, (id, s) -> s.advance(state, orderId, message));
+        if (updated == null) {
+            return;
+        }
+
+        List<SseEmitter> emitters = state.isTerminal()
+                ? subscribers.remove(sagaId)
+                : subscribers.get(sagaId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(emitter, updated);
+            if (state.isTerminal()) {
+                emitter.complete();
+            }
+        }
+    }
+
+    private static void send(SseEmitter emitter, SagaStatus status) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("status")
+                    .id(status.state().name())
+                    .data(status));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the onError/onCompletion callbacks clean up.
+            log.debug("Dropping SSE subscriber for saga {}: {}", status.sagaId(), e.getMessage());
+        }
+    }
+}
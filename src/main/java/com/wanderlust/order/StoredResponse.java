@@ -0,0 +1,27 @@
+package com.wanderlust.order;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * The final answer to an idempotent request, as stored under its
+ * Idempotency-Key so that duplicates get exactly the same response back.
+ *
+ * @param status      HTTP status code.
+ * @param contentType Content type of {@code body}.
+ * @param body        The already-encoded response body.
+ * @param location    The Location header, if any.
+ */
+public record StoredResponse(int status, String contentType, String body, String location) {
+
+    ResponseEntity<String> toResponseEntity() {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status)
+                .contentType(MediaType.parseMediaType(contentType))
+                .header("Idempotent-Replay", "true");
+        if (location != null) {
+            builder.header(HttpHeaders.LOCATION, location);
+        }
+        return builder.body(body);
+    }
+}
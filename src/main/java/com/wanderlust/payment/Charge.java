@@ -0,0 +1,10 @@
+package com.wanderlust.payment;
+
+/**
+ * A single card charge within a batch, see {@link PaymentGateway#chargeAll}.
+ *
+ * @param userId The user to charge.
+ * @param amount The amount to charge (Must be positive).
+ */
+public record Charge(String userId, double amount) {
+}
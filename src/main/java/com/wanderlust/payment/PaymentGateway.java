@@ -1,5 +1,40 @@
 package com.wanderlust.payment;
 
+import com.wanderlust.shared.Status;
+
+import java.util.List;
+
 public interface PaymentGateway {
     void charge(String userId, double amount);
+
+    /**
+     * Gives a charge back. Refunding is idempotent per
+     * {@link Refund#reference()}, so a refund that failed can simply be sent
+     * again.
+     */
+    void refund(Refund refund);
+
+    /**
+     * Submits several charges in ONE round-trip to the payment provider.
+     * Every charge succeeds or fails on its own.
+     *
+     * @return one status per charge, in the same order.
+     */
+    default List<Status> chargeAll(List<Charge> charges) {
+        return charges.stream().map(c -> {
+            try {
+                charge(c.userId(), c.amount());
+                return Status.SUCCESS;
+            } catch (RuntimeException e) {
+                return Status.FAILED;
+            }
+        }).toList();
+    }
+
+    /**
+     * Sends several refunds in ONE round-trip to the payment provider.
+     */
+    default void refundAll(List<Refund> refunds) {
+        refunds.forEach(this::refund);
+    }
 }
@@ -1,10 +1,27 @@
 package com.wanderlust.payment;
 
+import com.wanderlust.shared.GatewayGuard;
+import com.wanderlust.shared.Status;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Component
+@RequiredArgsConstructor
 class PaymentGatewayImpl implements PaymentGateway {
 
+    /** Resilience4j bulkhead / time limiter instance name. */
+    private static final String GATEWAY = "paymentGateway";
+
+    private final GatewayGuard gatewayGuard;
+
+    /** References already refunded: the provider pays each refund out once. */
+    private final Set<String> refunded = ConcurrentHashMap.newKeySet();
+
     /**
      * EXT: END-TO-END FLOW - STEP 2c (Backend)
      * Charging the user's card.
@@ -16,13 +33,72 @@ class PaymentGatewayImpl implements PaymentGateway {
             throw new IllegalArgumentException("Amount must be greater than zero");
         }
 
-        // FLOW: Simulate Network Latency (500ms)
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        // FLOW: Bulkhead + Time Limiter. Never hedged: charging twice is not harmless.
+        gatewayGuard.run(GATEWAY, "charge", () -> {
+            // FLOW: Simulate Network Latency (500ms)
+            simulateRoundTrip();
+            authorize(userId, amount);
+        });
+    }
+
+    /**
+     * EXT: BULK BOOKING
+     * All charges travel in a single request, so the latency is paid once.
+     */
+    @Override
+    public List<Status> chargeAll(List<Charge> charges) {
+        return gatewayGuard.call(GATEWAY, "chargeAll", () -> {
+            // FLOW: Simulate Network Latency (500ms) - once for the whole batch
+            simulateRoundTrip();
+
+            return charges.stream().map(c -> {
+                if (c.amount() <= 0) {
+                    return Status.FAILED;
+                }
+                try {
+                    authorize(c.userId(), c.amount());
+                    return Status.SUCCESS;
+                } catch (PaymentFailedException e) {
+                    return Status.FAILED;
+                }
+            }).toList();
+        });
+    }
+
+    /**
+     * EXT: END-TO-END FLOW - COMPENSATING TRANSACTION
+     * Gives the charge back when the Saga cannot be completed after the card was
+     * charged.
+     */
+    @Override
+    public void refund(Refund refund) {
+        gatewayGuard.run(GATEWAY, "refund", () -> {
+            simulateRoundTrip();
+            payOut(refund);
+        });
+    }
+
+    /**
+     * EXT: COMPENSATION QUEUE
+     * The whole batch of refunds travels in a single request.
+     */
+    @Override
+    public void refundAll(List<Refund> refunds) {
+        gatewayGuard.run(GATEWAY, "refundAll", () -> {
+            simulateRoundTrip();
+            refunds.forEach(this::payOut);
+        });
+    }
+
+    private void payOut(Refund refund) {
+        // Refunding is idempotent: a retried refund is not paid out twice.
+        if (refunded.add(refund.reference())) {
+            System.out.println("💸 Refunded user " + refund.userId() + " amount $" + refund.amount()
+                    + " (Ref: " + refund.reference() + ")");
         }
+    }
 
+    private void authorize(String userId, double amount) {
         // FLOW: Failure Simulation & Business Rules
 
         // 1. Logic: Insufficient Funds Simulation
@@ -46,4 +122,14 @@ class PaymentGatewayImpl implements PaymentGateway {
         // FLOW: Success
         System.out.println("💰 Charged user " + userId + " amount $" + amount);
     }
+
+    private static void simulateRoundTrip() {
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            // Abandoned by the time limiter: do NOT go on and charge.
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Supplier call abandoned");
+        }
+    }
 }
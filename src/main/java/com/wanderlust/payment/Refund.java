@@ -0,0 +1,12 @@
+package com.wanderlust.payment;
+
+/**
+ * Gives a charge back, see {@link PaymentGateway#refund}.
+ *
+ * @param reference Idempotency reference of the refund (the Saga id): the same
+ *                  reference is only ever paid out once.
+ * @param userId    The user who was charged.
+ * @param amount    The amount that was charged.
+ */
+public record Refund(String reference, String userId, double amount) {
+}
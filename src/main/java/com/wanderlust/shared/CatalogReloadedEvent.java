@@ -0,0 +1,11 @@
+package com.wanderlust.shared;
+
+/**
+ * Published after a catalog swapped in freshly loaded data. Anything derived
+ * from the previous data (e.g. {@link ResponseCache} entries) is stale.
+ *
+ * @param catalog Name of the catalog ({@code destinations}).
+ * @param version Version of the data now served; increases on every reload.
+ */
+public record CatalogReloadedEvent(String catalog, long version) {
+}
@@ -0,0 +1,11 @@
+package com.wanderlust.shared;
+
+/**
+ * Thrown when a gateway call was not answered: the gateway's bulkhead is full
+ * or the supplier did not respond within its time limit.
+ */
+public class GatewayCallException extends RuntimeException {
+    public GatewayCallException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
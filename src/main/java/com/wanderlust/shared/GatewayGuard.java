@@ -0,0 +1,310 @@
+package com.wanderlust.shared;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * EXT: GATEWAY ISOLATION (Resilience4j)
+ * Wraps every call to an external supplier (Flight, Hotel, Payment) so that one
+ * slow supplier cannot pin every booking thread:
+ * <ul>
+ * <li>a <b>semaphore bulkhead</b> per gateway caps its concurrent calls, and
+ * callers beyond that fail fast instead of piling up. A call holds its permit
+ * until it has really ended, not until its caller gave up on it, so calls
+ * hanging on the supplier's side count against the cap;</li>
+ * <li>a <b>time limiter</b> per gateway abandons (and interrupts) a call that
+ * takes too long. A call that reserves something on the supplier's side is
+ * abandoned but NOT interrupted: it runs to its end, and if it succeeds after
+ * all, its result is handed to a compensation so the reservation is undone;</li>
+ * <li>optionally, idempotent calls are <b>hedged</b>: if the answer is slower
+ * than the gateway's observed p95 latency, a second attempt races the first and
+ * the faster one wins.</li>
+ * </ul>
+ * Bulkhead and time limiter instances are configured in {@code application.yml}
+ * under {@code resilience4j.*} and are exported to Micrometer by the
+ * Resilience4j starter; the guard adds call latency
+ * ({@code wanderlust.gateway.latency}), hedging counters
+ * ({@code wanderlust.gateway.hedges}) and late answers that had to be undone
+ * ({@code wanderlust.gateway.late}).
+ */
+@Component
+@Slf4j
+public class GatewayGuard {
+
+    private final BulkheadRegistry bulkheads;
+    private final TimeLimiterRegistry timeLimiters;
+    private final GatewayProperties.Hedging hedging;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService callers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("gateway-", 0).factory());
+    private final Map<String, Timer> latencies = new ConcurrentHashMap<>();
+
+    public GatewayGuard(BulkheadRegistry bulkheads, TimeLimiterRegistry timeLimiters,
+            GatewayProperties properties, MeterRegistry meterRegistry) {
+        this.bulkheads = bulkheads;
+        this.timeLimiters = timeLimiters;
+        this.hedging = properties.hedging();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        callers.shutdownNow();
+    }
+
+    /**
+     * Runs one call through the gateway's bulkhead and time limiter.
+     *
+     * @param gateway   The Resilience4j instance name, e.g. {@code flightGateway}.
+     * @param operation The operation, used as a metric tag.
+     * @throws GatewayCallException if the bulkhead is full or the call timed out.
+     */
+    public <T> T call(String gateway, String operation, Supplier<T> call) {
+        return call(gateway, operation, call, null);
+    }
+
+    /**
+     * Like {@link #call(String, String, Supplier)}, for calls whose success has
+     * to be undone when nobody waits for it anymore (e.g. a reservation).
+     * <p>
+     * On timeout the call is abandoned but not interrupted: an interrupt may
+     * arrive after the supplier already booked, and the booking id would be lost
+     * with it. The call runs to its end instead, and a result that arrives after
+     * the caller gave up is handed to {@code compensate}.
+     * </p>
+     *
+     * @param compensate Undoes a late result, or {@code null} to interrupt the
+     *                   call on timeout.
+     */
+    public <T> T call(String gateway, String operation, Supplier<T> call, Consumer<? super T> compensate) {
+        Bulkhead bulkhead = bulkheads.bulkhead(gateway);
+        TimeLimiter timeLimiter = timeLimiters.timeLimiter(gateway);
+        Timer latency = latency(gateway, operation);
+        // Claimed by whoever ends the call: the attempt when it runs, the caller when it
+        // gave up before the attempt even started. Either way the permit is released once.
+        AtomicBoolean claimed = new AtomicBoolean();
+        Supplier<T> task = () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                return latency.record(call);
+            } finally {
+                bulkhead.onComplete();
+            }
+        };
+        try {
+            bulkhead.acquirePermission();
+            try {
+                if (compensate == null) {
+                    return timeLimiter.executeFutureSupplier(() -> callers.submit(task::get));
+                }
+                CompletableFuture<T> attempt = CompletableFuture.supplyAsync(task, callers);
+                try {
+                    // The time limiter cancels a copy: cancelling a CompletableFuture never
+                    // interrupts the task behind it, so the attempt itself runs on.
+                    return timeLimiter.executeFutureSupplier(attempt::copy);
+                } catch (Throwable e) {
+                    compensateLate(gateway, operation, attempt, compensate);
+                    throw e;
+                }
+            } finally {
+                if (claimed.compareAndSet(false, true)) {
+                    bulkhead.onComplete();
+                }
+            }
+        } catch (BulkheadFullException e) {
+            throw new GatewayCallException(gateway + " is saturated, " + operation + " rejected", e);
+        } catch (TimeoutException e) {
+            throw new GatewayCallException(gateway + " did not answer " + operation + " within "
+                    + timeLimiter.getTimeLimiterConfig().getTimeoutDuration().toMillis() + "ms", e);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new GatewayCallException(gateway + " " + operation + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Undoes whatever an abandoned attempt still produces. An attempt that failed
+     * produces nothing, so there is nothing to undo.
+     */
+    private <T> void compensateLate(String gateway, String operation, CompletableFuture<T> attempt,
+            Consumer<? super T> compensate) {
+        attempt.thenAccept(late -> {
+            Counter.builder("wanderlust.gateway.late")
+                    .description("Answers that arrived after the caller gave up and were undone")
+                    .tag("gateway", gateway)
+                    .tag("operation", operation)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("⚠️ {} answered {} after the timeout, undoing the result", gateway, operation);
+            compensate.accept(late);
+        }).exceptionally(error -> {
+            if (!attempt.isCompletedExceptionally()) {
+                log.error("Could not undo the late {} {} result: {}", gateway, operation, error.getMessage());
+            }
+            return null;
+        });
+    }
+
+    public void run(String gateway, String operation, Runnable call) {
+        call(gateway, operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Like {@link #call}, but hedged when {@code wanderlust.gateway.hedging.enabled}:
+     * if no answer arrived after the p95 latency of this operation, a second
+     * attempt is fired and the first successful answer wins.
+     * <p>
+     * Only for idempotent calls. The losing attempt may still produce a result
+     * (e.g. a second reservation), which is handed to {@code discard} once it
+     * arrives so it can be undone.
+     * </p>
+     */
+    public <T> T hedged(String gateway, String operation, Supplier<T> call, Consumer<T> discard) {
+        if (!hedging.enabled()) {
+            return call(gateway, operation, call, discard);
+        }
+
+        CompletableFuture<T> primary = attempt(gateway, operation, call, discard);
+        Duration delay = hedgeDelay(gateway, operation);
+        try {
+            return primary.get(delay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Slower than usual: hedge below.
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.thenAccept(discard);
+            throw new GatewayCallException(gateway + " " + operation + " interrupted", e);
+        }
+
+        hedges(gateway, "fired").increment();
+        log.debug("Hedging {} {} after {}ms", gateway, operation, delay.toMillis());
+        CompletableFuture<T> backup = attempt(gateway, operation, call, discard);
+
+        T winner;
+        try {
+            winner = firstSuccessful(List.of(primary, backup)).join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+        if (backup.isDone() && !backup.isCompletedExceptionally() && backup.join() == winner) {
+            hedges(gateway, "won").increment();
+        }
+
+        // Whichever attempt lost may still land later: undo it.
+        for (CompletableFuture<T> attempt : List.of(primary, backup)) {
+            attempt.thenAccept(result -> {
+                if (result != winner) {
+                    discard.accept(result);
+                }
+            });
+        }
+        return winner;
+    }
+
+    private <T> CompletableFuture<T> attempt(String gateway, String operation, Supplier<T> call,
+            Consumer<T> discard) {
+        // An attempt that times out on its own is not the winner: its late result is discarded too.
+        return CompletableFuture.supplyAsync(() -> call(gateway, operation, call, discard), callers);
+    }
+
+    /**
+     * The observed p95 of this operation, or the initial delay while we have not
+     * seen enough calls yet.
+     */
+    private Duration hedgeDelay(String gateway, String operation) {
+        Timer latency = latency(gateway, operation);
+        if (latency.count() < hedging.minSamples()) {
+            return hedging.initialDelay();
+        }
+        for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.95) {
+                Duration p95 = Duration.ofNanos((long) percentile.value(TimeUnit.NANOSECONDS));
+                return p95.compareTo(hedging.minDelay()) < 0 ? hedging.minDelay() : p95;
+            }
+        }
+        return hedging.initialDelay();
+    }
+
+    private Timer latency(String gateway, String operation) {
+        return latencies.computeIfAbsent(gateway + '.' + operation, key -> Timer
+                .builder("wanderlust.gateway.latency")
+                .description("Latency of calls to an external supplier")
+                .tag("gateway", gateway)
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+    }
+
+    private Counter hedges(String gateway, String result) {
+        return Counter.builder("wanderlust.gateway.hedges")
+                .description("Hedged second attempts (fired) and how many of them answered first (won)")
+                .tag("gateway", gateway)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Completes with the first attempt that succeeds, or fails once all failed.
+     */
+    private static <T> CompletableFuture<T> firstSuccessful(List<CompletableFuture<T>> attempts) {
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> attempt : attempts) {
+            attempt.whenComplete((result, error) -> {
+                if (error == null) {
+                    first.complete(result);
+                } else if (failures.incrementAndGet() == attempts.size()) {
+                    first.completeExceptionally(error);
+                }
+            });
+        }
+        return first;
+    }
+
+    private static RuntimeException unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+        if (cause instanceof RuntimeException e) {
+            return e;
+        }
+        if (cause instanceof Error e) {
+            throw e;
+        }
+        return new GatewayCallException(cause.getMessage(), cause);
+    }
+}
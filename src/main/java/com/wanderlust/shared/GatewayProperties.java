@@ -0,0 +1,36 @@
+package com.wanderlust.shared;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CONFIG: External gateway settings ({@code wanderlust.gateway.*}).
+ * <p>
+ * Bulkheads and time limiters are plain Resilience4j instances named after the
+ * gateway ({@code resilience4j.bulkhead.instances.flightGateway}, ...); only
+ * hedging, which Resilience4j does not offer, is configured here.
+ * </p>
+ *
+ * @param hedging Hedged reserve calls, see {@link GatewayGuard#hedged}.
+ */
+@ConfigurationProperties(prefix = "wanderlust.gateway")
+public record GatewayProperties(@DefaultValue Hedging hedging) {
+
+    /**
+     * @param enabled      When true, an idempotent call that is slower than the
+     *                     gateway's p95 latency gets a second, racing attempt.
+     * @param initialDelay Hedge delay used until enough latencies were observed
+     *                     to know the p95.
+     * @param minDelay     Lower bound of the hedge delay, so a very fast p95 does
+     *                     not double the load on the supplier.
+     * @param minSamples   Observed calls needed before the p95 is trusted.
+     */
+    public record Hedging(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("1s") Duration initialDelay,
+            @DefaultValue("50ms") Duration minDelay,
+            @DefaultValue("20") long minSamples) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.wanderlust.shared;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * EXT: OFFER CACHE
+ * Remembers what a search returned, for {@code wanderlust.offers.ttl}:
+ * <ul>
+ * <li>by normalized query, so a repeated search is answered from memory with
+ * exactly the same offers, and</li>
+ * <li>by offer id, so a booking can look up the offer it refers to in
+ * O(1).</li>
+ * </ul>
+ * Both are Caffeine caches (W-TinyLFU eviction: popular searches survive a
+ * burst of one-off ones), reported as {@code <name>.searches} and
+ * {@code <name>.offers} in the {@code cache.*} metrics.
+ *
+ * @param <K> Normalized search query (must implement equals/hashCode).
+ * @param <R> Search result.
+ * @param <V> Offer.
+ */
+public class OfferCache<K, R, V> {
+
+    private final Cache<K, R> searches;
+    private final Cache<String, V> offers;
+    private final Function<R, List<V>> offersOf;
+    private final Function<V, String> idOf;
+
+    public OfferCache(String name, OfferProperties properties, MeterRegistry meterRegistry,
+            Function<R, List<V>> offersOf, Function<V, String> idOf) {
+        this.offersOf = offersOf;
+        this.idOf = idOf;
+        this.searches = Caffeine.newBuilder()
+                .maximumSize(properties.maxSearches())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        this.offers = Caffeine.newBuilder()
+                .maximumSize(properties.maxOffers())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, searches, name + ".searches");
+        CaffeineCacheMetrics.monitor(meterRegistry, offers, name + ".offers");
+    }
+
+    /**
+     * @return the cached result of {@code query}, or runs {@code search} once
+     *         (concurrent identical searches wait for it) and caches it.
+     */
+    public R search(K query, Function<K, R> search) {
+        return searches.get(query, q -> {
+            R result = search.apply(q);
+            for (V offer : offersOf.apply(result)) {
+                offers.put(idOf.apply(offer), offer);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * @return the offer with this id, if a search returned it within the TTL.
+     */
+    public Optional<V> find(String id) {
+        return Optional.ofNullable(offers.getIfPresent(id));
+    }
+}
@@ -0,0 +1,23 @@
+package com.wanderlust.shared;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CONFIG: Search offer caches ({@code wanderlust.offers.*}).
+ *
+ * @param ttl         How long a search result, and the offers in it, stay
+ *                    valid. Ids handed out by a search can be booked at least
+ *                    that long.
+ * @param maxSearches Search results kept per cache (least valuable ones are
+ *                    evicted first).
+ * @param maxOffers   Offers kept per cache for lookups by id.
+ */
+@ConfigurationProperties(prefix = "wanderlust.offers")
+public record OfferProperties(
+        @DefaultValue("15m") Duration ttl,
+        @DefaultValue("10000") int maxSearches,
+        @DefaultValue("200000") int maxOffers) {
+}
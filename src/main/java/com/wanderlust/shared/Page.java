@@ -0,0 +1,47 @@
+package com.wanderlust.shared;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * SHARED MODEL: One page of search results.
+ *
+ * @param items      The results on this page.
+ * @param nextCursor Pass as {@code cursor} to get the next page; null on the
+ *                   last page.
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+
+    /** {@link #decodeCursor} of a missing cursor: start at the beginning. */
+    public static final long FIRST = -1;
+
+    /**
+     * Keyset cursor: the position of the last item handed out, in the order
+     * {@code order} (so a cursor of one sort order is not used for another).
+     */
+    public static String encodeCursor(Enum<?> order, long position) {
+        String raw = order.ordinal() + ":" + position;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the position in the cursor, or {@link #FIRST} if there is none.
+     * @throws IllegalArgumentException if the cursor was not handed out for
+     *                                  this order.
+     */
+    public static long decodeCursor(String cursor, Enum<?> order) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String[] raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (raw.length == 2 && Integer.parseInt(raw[0]) == order.ordinal()) {
+                return Long.parseLong(raw[1]);
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Invalid cursor for this search");
+    }
+}
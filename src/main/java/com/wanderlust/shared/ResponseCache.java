@@ -0,0 +1,133 @@
+package com.wanderlust.shared;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * EXT: RESPONSE CACHE
+ * Responses of immutable catalog data, serialized ONCE: the JSON bytes (plus
+ * a gzipped copy when worth it) and a strong ETag are kept per catalog
+ * version and key, and every later hit writes the same byte array straight
+ * to the socket without touching Jackson.
+ * <p>
+ * The entity carries its ETag, so Spring MVC answers a matching
+ * {@code If-None-Match} with {@code 304 Not Modified} and no body.
+ * Entries are keyed by catalog version: a reload makes them unreachable and
+ * {@link CatalogReloadedEvent} drops them. Hit/miss rates are in the
+ * {@code cache.*} metrics as {@code responses}.
+ * </p>
+ */
+@Component
+@Slf4j
+public class ResponseCache {
+
+    private static final String GZIP = "gzip";
+
+    private final ObjectMapper objectMapper;
+    private final int gzipMinSize;
+    private final Cache<Key, Encoded> responses;
+
+    public ResponseCache(ObjectMapper objectMapper, ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.gzipMinSize = properties.gzipMinSize();
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.maxEntries())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "responses");
+    }
+
+    /**
+     * @param catalog        Catalog the body is taken from.
+     * @param version        Catalog version, read BEFORE {@code body} runs.
+     * @param key            Identifies the response within the catalog.
+     * @param acceptEncoding The request's {@code Accept-Encoding}, may be null.
+     * @param body           Produces the response body on a miss.
+     * @return the encoded response, with its ETag.
+     */
+    public ResponseEntity<byte[]> respond(String catalog, long version, String key, String acceptEncoding,
+            Supplier<?> body) {
+        Encoded encoded = responses.get(new Key(catalog, version, key), k -> encode(body.get()));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (encoded.gzip() != null && acceptsGzip(acceptEncoding)) {
+            // A different representation needs a different strong ETag
+            return response.eTag(encoded.etag() + "-" + GZIP)
+                    .header(HttpHeaders.CONTENT_ENCODING, GZIP)
+                    .body(encoded.gzip());
+        }
+        return response.eTag(encoded.etag()).body(encoded.json());
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        responses.asMap().keySet().removeIf(k -> k.catalog().equals(event.catalog()));
+        log.info("Dropped cached responses of catalog '{}' (now version {})", event.catalog(), event.version());
+    }
+
+    private Encoded encode(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            byte[] gzip = json.length >= gzipMinSize ? gzip(json) : null;
+            return new Encoded(json, gzip != null && gzip.length < json.length ? gzip : null,
+                    "0" + DigestUtils.md5DigestAsHex(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize catalog response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase(GZIP)) {
+                // "gzip;q=0" means NOT gzip
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private record Key(String catalog, long version, String key) {
+    }
+
+    /**
+     * @param gzip Null when the JSON is too small for gzip to pay off.
+     * @param etag Without quotes; the same for every node serving this data.
+     */
+    private record Encoded(byte[] json, byte[] gzip, String etag) {
+    }
+}
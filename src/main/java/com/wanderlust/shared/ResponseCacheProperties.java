@@ -0,0 +1,16 @@
+package com.wanderlust.shared;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * CONFIG: Pre-serialized catalog responses ({@code wanderlust.responses.*}).
+ *
+ * @param maxEntries  Encoded responses kept in memory.
+ * @param gzipMinSize Responses smaller than this (in bytes) are not gzipped.
+ */
+@ConfigurationProperties(prefix = "wanderlust.responses")
+public record ResponseCacheProperties(
+        @DefaultValue("10000") long maxEntries,
+        @DefaultValue("1024") int gzipMinSize) {
+}
@@ -0,0 +1,7 @@
+package com.wanderlust.weather;
+
+/**
+ * Current conditions at a {@link Place}, as cached.
+ */
+record CurrentWeather(double temperature, int humidity, double windSpeed, String condition) {
+}
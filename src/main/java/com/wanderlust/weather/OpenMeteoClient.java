@@ -0,0 +1,169 @@
+package com.wanderlust.weather;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * REAL WEATHER API: Open-Meteo (free, no auth required)
+ * Protected by Resilience4j Circuit Breaker. Every call that leaves the JVM,
+ * cache misses and background refreshes alike, goes through here, so the
+ * breaker sees (and stops) all of them.
+ * <p>
+ * Responses are read with Jackson's streaming parser straight off the
+ * connection: only the four values we use are decoded, no tree is built.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class OpenMeteoClient {
+
+    /** Test triggers for circuit breaker demo. */
+    static final Set<String> SIMULATED_FAILURES = Set.of("timeoutcity", "errorcity");
+
+    private static final String FORECAST = "/v1/forecast?latitude={latitude}&longitude={longitude}"
+            + "&current=temperature_2m,relative_humidity_2m,wind_speed_10m,weather_code&timezone=auto";
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final RestTemplate restTemplate;
+    private final WeatherProperties weatherProperties;
+
+    @CircuitBreaker(name = "weatherService")
+    public CurrentWeather fetch(Place place) {
+        if ("timeoutcity".equals(place.name())) {
+            try {
+                Thread.sleep(3000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Service Timeout");
+        }
+        if ("errorcity".equals(place.name())) {
+            throw new RuntimeException("API Error");
+        }
+
+        CurrentWeather weather = request(List.of(place)).get(0);
+        log.info("✅ Weather fetched for {}: {}°C", place.name(), weather.temperature());
+        return weather;
+    }
+
+    /**
+     * Current weather for several places in ONE request (Open-Meteo takes
+     * lists of coordinates).
+     *
+     * @return one entry per place, in the same order.
+     */
+    @CircuitBreaker(name = "weatherService")
+    public List<CurrentWeather> fetchAll(List<Place> places) {
+        List<CurrentWeather> weather = request(places);
+        log.info("✅ Weather fetched for {} places in one call", places.size());
+        return weather;
+    }
+
+    private List<CurrentWeather> request(List<Place> places) {
+        // Call Open-Meteo API (FREE, no auth needed)
+        String latitudes = places.stream().map(p -> String.format(Locale.ROOT, "%.4f", p.latitude()))
+                .collect(Collectors.joining(","));
+        String longitudes = places.stream().map(p -> String.format(Locale.ROOT, "%.4f", p.longitude()))
+                .collect(Collectors.joining(","));
+        try {
+            List<CurrentWeather> weather = restTemplate.execute(weatherProperties.baseUrl() + FORECAST,
+                    HttpMethod.GET, null, response -> parse(response.getBody()), latitudes, longitudes);
+            if (weather == null || weather.size() != places.size()) {
+                throw new IllegalStateException("Expected weather for " + places.size() + " places");
+            }
+            return weather;
+        } catch (Exception e) {
+            log.error("Weather API error: {}", e.getMessage());
+            throw new RuntimeException("Weather API failed", e);
+        }
+    }
+
+    /**
+     * One location is answered with an object, several with an array of them.
+     */
+    private List<CurrentWeather> parse(InputStream body) throws IOException {
+        List<CurrentWeather> locations = new ArrayList<>();
+        try (JsonParser parser = JSON.createParser(body)) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    locations.add(parseLocation(parser));
+                }
+            } else if (first == JsonToken.START_OBJECT) {
+                locations.add(parseLocation(parser));
+            }
+        }
+        return locations;
+    }
+
+    private CurrentWeather parseLocation(JsonParser parser) throws IOException {
+        CurrentWeather current = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("current".equals(field)) {
+                current = parseCurrent(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (current == null) {
+            throw new IOException("No current weather in response");
+        }
+        return current;
+    }
+
+    private CurrentWeather parseCurrent(JsonParser parser) throws IOException {
+        double temperature = 0;
+        int humidity = 0;
+        double windSpeed = 0;
+        int weatherCode = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "temperature_2m" -> temperature = parser.getValueAsDouble();
+                case "relative_humidity_2m" -> humidity = parser.getValueAsInt();
+                case "wind_speed_10m" -> windSpeed = parser.getValueAsDouble();
+                case "weather_code" -> weatherCode = parser.getValueAsInt();
+                default -> parser.skipChildren();
+            }
+        }
+        return new CurrentWeather(temperature, humidity, windSpeed, getWeatherCondition(weatherCode));
+    }
+
+    private String getWeatherCondition(int code) {
+        // WMO Weather interpretation codes
+        if (code == 0)
+            return "Clear Sky";
+        if (code <= 3)
+            return "Partly Cloudy";
+        if (code <= 49)
+            return "Foggy";
+        if (code <= 59)
+            return "Drizzle";
+        if (code <= 69)
+            return "Rain";
+        if (code <= 79)
+            return "Snow";
+        if (code <= 99)
+            return "Thunderstorm";
+        return "Unknown";
+    }
+}
@@ -0,0 +1,21 @@
+package com.wanderlust.weather;
+
+/**
+ * Where to get the weather for; equal coordinates share one cache entry.
+ *
+ * @param name Lowercase city name, for logs.
+ */
+record Place(String name, double latitude, double longitude) {
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Place place
+                && latitude == place.latitude
+                && longitude == place.longitude;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(latitude) * 31 + Double.hashCode(longitude);
+    }
+}
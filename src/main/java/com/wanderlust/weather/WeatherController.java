@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -13,6 +14,18 @@ import java.util.Map;
 public class WeatherController {
 
     private final WeatherService weatherService;
+    private final WeatherProperties weatherProperties;
+
+    /**
+     * Weather for a whole trip planner page: {@code ?cities=Bali,Tokyo,Paris}.
+     */
+    @GetMapping
+    public ResponseEntity<?> getWeather(@RequestParam List<String> cities) {
+        if (cities.isEmpty() || cities.size() > weatherProperties.maxCities()) {
+            return ResponseEntity.badRequest().body("Between 1 and " + weatherProperties.maxCities() + " cities");
+        }
+        return ResponseEntity.ok(weatherService.getWeather(cities));
+    }
 
     @GetMapping("/{city}")
     public ResponseEntity<Map<String, Object>> getWeather(@PathVariable String city) {
@@ -0,0 +1,25 @@
+package com.wanderlust.weather;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CONFIG: Weather settings ({@code wanderlust.weather.*}).
+ *
+ * @param baseUrl      Open-Meteo (or a stub of it).
+ * @param refreshAfter Age after which the next read triggers ONE background
+ *                     refresh and still gets the current value.
+ * @param ttl          Age after which a value is not served anymore.
+ * @param maxPlaces    Places kept in the cache.
+ * @param maxCities    Cities one multi-city request may ask for.
+ */
+@ConfigurationProperties(prefix = "wanderlust.weather")
+public record WeatherProperties(
+        @DefaultValue("https://api.open-meteo.com") String baseUrl,
+        @DefaultValue("10m") Duration refreshAfter,
+        @DefaultValue("20m") Duration ttl,
+        @DefaultValue("1000") long maxPlaces,
+        @DefaultValue("50") int maxCities) {
+}
@@ -1,24 +1,45 @@
 package com.wanderlust.weather;
 
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * EXT: WEATHER CACHE
+ * Current conditions change on a ~15 minute scale, so a popular destination
+ * must not cost one Open-Meteo call per page view. Conditions are cached per
+ * coordinate:
+ * <ul>
+ * <li>Concurrent misses for the same place share ONE in-flight fetch.</li>
+ * <li>A value older than {@code refresh-after} is still served, and the
+ * read starts ONE background refresh (stale-while-revalidate). Places that
+ * keep being read are thus refreshed ahead of expiry; places nobody asks
+ * for just expire.</li>
+ * <li>Nothing older than {@code ttl} is served.</li>
+ * <li>Several cities at once: whatever is missing is fetched in ONE
+ * multi-coordinate call.</li>
+ * </ul>
+ * Fetches go through the {@code weatherService} circuit breaker
+ * ({@link OpenMeteoClient}). While it is open a failed refresh keeps the
+ * cached value and a miss gets the fallback.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class WeatherService {
 
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
     // City to coordinates mapping for popular destinations
     private static final Map<String, double[]> CITY_COORDINATES = new HashMap<>() {
         {
@@ -39,57 +60,93 @@ public class WeatherService {
             put("greece", new double[] { 37.9838, 23.7275 });
         }
     };
+    private static final double[] DEFAULT_COORDINATES = { 28.6139, 77.2090 }; // Default to Delhi
+
+    private final OpenMeteoClient openMeteoClient;
+    /** Fetches block on the network: one virtual thread each. */
+    private final ExecutorService fetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AsyncLoadingCache<Place, CurrentWeather> cache;
+
+    public WeatherService(OpenMeteoClient openMeteoClient, WeatherProperties properties,
+            MeterRegistry meterRegistry) {
+        this.openMeteoClient = openMeteoClient;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxPlaces())
+                .refreshAfterWrite(properties.refreshAfter())
+                .expireAfterWrite(properties.ttl())
+                .executor(fetchExecutor)
+                .recordStats()
+                .buildAsync(new CacheLoader<>() {
+                    @Override
+                    public CurrentWeather load(Place place) {
+                        return openMeteoClient.fetch(place);
+                    }
+
+                    @Override
+                    public Map<Place, CurrentWeather> loadAll(Set<? extends Place> places) {
+                        List<Place> missing = List.copyOf(places);
+                        List<CurrentWeather> weather = openMeteoClient.fetchAll(missing);
+                        Map<Place, CurrentWeather> byPlace = new HashMap<>();
+                        for (int i = 0; i < missing.size(); i++) {
+                            byPlace.put(missing.get(i), weather.get(i));
+                        }
+                        return byPlace;
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "weather");
+    }
 
     /**
-     * REAL WEATHER API: Open-Meteo (free, no auth required)
-     * Protected by Resilience4j Circuit Breaker
+     * @return the current weather in {@code city}, or the fallback when
+     *         Open-Meteo cannot be reached and nothing is cached.
      */
-    @CircuitBreaker(name = "weatherService", fallbackMethod = "fallbackWeather")
     public Map<String, Object> getWeather(String city) {
-        // Test triggers for circuit breaker demo
-        if ("TimeoutCity".equalsIgnoreCase(city)) {
-            try {
-                Thread.sleep(3000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            throw new RuntimeException("Service Timeout");
-        }
-        if ("ErrorCity".equalsIgnoreCase(city)) {
-            throw new RuntimeException("API Error");
+        Place place = place(city);
+        try {
+            // Demo failures are never cached: every call goes through the breaker.
+            CurrentWeather current = OpenMeteoClient.SIMULATED_FAILURES.contains(place.name())
+                    ? openMeteoClient.fetch(place)
+                    : cache.get(place).join();
+
+            return weather(city, current);
+        } catch (CompletionException e) {
+            return fallbackWeather(city, e.getCause());
+        } catch (RuntimeException e) {
+            return fallbackWeather(city, e);
         }
+    }
 
-        // Get coordinates for city
-        double[] coords = CITY_COORDINATES.getOrDefault(
-                city.toLowerCase().split(",")[0].trim(),
-                new double[] { 28.6139, 77.2090 } // Default to Delhi
-        );
-
-        // Call Open-Meteo API (FREE, no auth needed)
-        String url = String.format(
-                "https://api.open-meteo.com/v1/forecast?latitude=%.4f&longitude=%.4f&current=temperature_2m,relative_humidity_2m,wind_speed_10m,weather_code&timezone=auto",
-                coords[0], coords[1]);
-
+    /**
+     * EXT: TRIP PLANNER
+     * The weather of several cities, with everything not cached fetched in
+     * ONE upstream call.
+     *
+     * @return one entry per city, in the same order.
+     */
+    public List<Map<String, Object>> getWeather(List<String> cities) {
+        List<Place> places = cities.stream().map(WeatherService::place).toList();
+        Map<Place, CurrentWeather> found;
+        Throwable failure = null;
         try {
-            String response = restTemplate.getForObject(url, String.class);
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode current = root.get("current");
-
-            Map<String, Object> weather = new HashMap<>();
-            weather.put("city", city);
-            weather.put("temperature", current.get("temperature_2m").asDouble());
-            weather.put("humidity", current.get("relative_humidity_2m").asInt());
-            weather.put("windSpeed", current.get("wind_speed_10m").asDouble());
-            weather.put("condition", getWeatherCondition(current.get("weather_code").asInt()));
-            weather.put("source", "Open-Meteo");
-
-            log.info("✅ Weather fetched for {}: {}°C", city, weather.get("temperature"));
-            return weather;
-
-        } catch (Exception e) {
-            log.error("Weather API error: {}", e.getMessage());
-            throw new RuntimeException("Weather API failed", e);
+            found = cache.getAll(places.stream()
+                    .filter(place -> !OpenMeteoClient.SIMULATED_FAILURES.contains(place.name()))
+                    .toList()).join();
+        } catch (CompletionException e) {
+            // Still serve whatever is cached
+            found = cache.synchronous().getAllPresent(places);
+            failure = e.getCause();
         }
+
+        Map<Place, CurrentWeather> weather = found;
+        Throwable cause = failure;
+        return cities.stream().map(city -> {
+            Place place = place(city);
+            if (OpenMeteoClient.SIMULATED_FAILURES.contains(place.name())) {
+                return getWeather(city);
+            }
+            CurrentWeather current = weather.get(place);
+            return current != null ? weather(city, current) : fallbackWeather(city, cause);
+        }).toList();
     }
 
     /**
@@ -110,22 +167,25 @@ public class WeatherService {
         return fallback;
     }
 
-    private String getWeatherCondition(int code) {
-        // WMO Weather interpretation codes
-        if (code == 0)
-            return "Clear Sky";
-        if (code <= 3)
-            return "Partly Cloudy";
-        if (code <= 49)
-            return "Foggy";
-        if (code <= 59)
-            return "Drizzle";
-        if (code <= 69)
-            return "Rain";
-        if (code <= 79)
-            return "Snow";
-        if (code <= 99)
-            return "Thunderstorm";
-        return "Unknown";
+    @PreDestroy
+    void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    private static Map<String, Object> weather(String city, CurrentWeather current) {
+        Map<String, Object> weather = new HashMap<>();
+        weather.put("city", city);
+        weather.put("temperature", current.temperature());
+        weather.put("humidity", current.humidity());
+        weather.put("windSpeed", current.windSpeed());
+        weather.put("condition", current.condition());
+        weather.put("source", "Open-Meteo");
+        return weather;
+    }
+
+    private static Place place(String city) {
+        String name = city.toLowerCase().split(",")[0].trim();
+        double[] coords = CITY_COORDINATES.getOrDefault(name, DEFAULT_COORDINATES);
+        return new Place(name, coords[0], coords[1]);
     }
 }
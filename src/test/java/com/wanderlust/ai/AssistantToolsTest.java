@@ -0,0 +1,208 @@
+package com.wanderlust.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wanderlust.flight.FlightController;
+import com.wanderlust.hotel.HotelController;
+import com.wanderlust.shared.Page;
+import com.wanderlust.weather.WeatherService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The tools as the model calls them, with the catalogs stubbed: one hotel
+ * and one flight offer each, answered at once, and a weather service that
+ * takes far longer than the round's budget.
+ */
+class AssistantToolsTest {
+
+    private static final Duration BUDGET = Duration.ofMillis(200);
+    private static final int MAX_CALLS = 3;
+
+    private final FlightController flightController = mock(FlightController.class);
+    private final HotelController hotelController = mock(HotelController.class);
+    private final WeatherService weatherService = mock(WeatherService.class);
+    /** Rounds stopped so far, with the key values they were stopped with. */
+    private final List<Observation.Context> rounds = new CopyOnWriteArrayList<>();
+    private final CountDownLatch weatherCancelled = new CountDownLatch(1);
+    private AssistantTools assistantTools;
+
+    @BeforeEach
+    void setUp() {
+        when(flightController.searchFlights(anyString(), anyString(), any(), anyInt(), any(), any(), any(),
+                anyString(), any(), any()))
+                .thenAnswer(call -> ResponseEntity.ok(new Page<>(List.of(Map.of("flightId", "F1")), null)));
+        when(hotelController.searchHotels(anyString(), any(), any(), anyInt(), anyInt(), any(), any(), any(),
+                anyString(), any(), any()))
+                .thenAnswer(call -> ResponseEntity.ok(new Page<>(List.of(Map.of("hotelId", "H1")), null)));
+        when(weatherService.getWeather(anyString())).thenAnswer(call -> {
+            try {
+                Thread.sleep(Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                weatherCancelled.countDown();
+                throw e;
+            }
+            return Map.of("city", call.getArgument(0));
+        });
+
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                if (context.getName().equals("wanderlust.assistant.tools")) {
+                    rounds.add(context);
+                }
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        assistantTools = new AssistantTools(flightController, hotelController, weatherService, new ObjectMapper(),
+                observationRegistry, new AssistantToolProperties(BUDGET, 5, MAX_CALLS));
+    }
+
+    @AfterEach
+    void tearDown() {
+        assistantTools.shutdown();
+    }
+
+    @Test
+    void slowSearchIsCancelledAtTheBudgetAndTheRestIsAnswered() throws InterruptedException {
+        AssistantTools.ToolUse use = new AssistantTools.ToolUse();
+
+        long started = System.nanoTime();
+        String result = call(use, "searchTrip", new AssistantTools.TripSearch(
+                List.of(flight("PAR", "ROM")), List.of(hotel("Rome")), List.of("Rome")));
+        Duration took = Duration.ofNanos(System.nanoTime() - started);
+
+        assertThat(took).isGreaterThanOrEqualTo(BUDGET).isLessThan(BUDGET.plusSeconds(2));
+        assertThat(result)
+                .contains("\"flights\":[[{\"flightId\":\"F1\"}]]", "\"hotels\":[[{\"hotelId\":\"H1\"}]]")
+                .contains("\"weather\":{\"error\":\"No answer within 200 ms\"}");
+        assertThat(weatherCancelled.await(5, TimeUnit.SECONDS)).as("weather search interrupted").isTrue();
+        assertThat(rounds).singleElement()
+                .satisfies(round -> assertThat(round.getLowCardinalityKeyValue("timed-out").getValue())
+                        .isEqualTo("true"));
+    }
+
+    @Test
+    void roundWithinTheBudgetIsNotReportedAsTimedOut() {
+        String result = call(new AssistantTools.ToolUse(), "searchHotels", hotel("Rome"));
+
+        assertThat(result).isEqualTo("[{\"hotelId\":\"H1\"}]");
+        assertThat(rounds).singleElement()
+                .satisfies(round -> assertThat(round.getLowCardinalityKeyValue("timed-out").getValue())
+                        .isEqualTo("false"));
+    }
+
+    @Test
+    void tripWithMoreSearchesThanMaxCallsIsRefusedWithoutSearching() {
+        AssistantTools.ToolUse use = new AssistantTools.ToolUse();
+
+        String result = call(use, "searchTrip", new AssistantTools.TripSearch(
+                List.of(flight("PAR", "ROM"), flight("ROM", "PAR")), List.of(hotel("Rome"), hotel("Paris")),
+                null));
+
+        assertThat(result).isEqualTo("{\"error\":\"At most " + MAX_CALLS + " searches per call\"}");
+        verifyNoInteractions(flightController, hotelController, weatherService);
+        assertThat(use.none()).isTrue();
+    }
+
+    @Test
+    void tripWithMaxCallsSearchesRunsThemAll() {
+        String result = call(new AssistantTools.ToolUse(), "searchTrip", new AssistantTools.TripSearch(
+                List.of(flight("PAR", "ROM"), flight("ROM", "PAR")), List.of(hotel("Rome")), null));
+
+        assertThat(result).isEqualTo("{\"flights\":[[{\"flightId\":\"F1\"}],[{\"flightId\":\"F1\"}]],"
+                + "\"hotels\":[[{\"hotelId\":\"H1\"}]]}");
+    }
+
+    @Test
+    void toolUseCountsTheRoundsOfItsRequestOnly() {
+        AssistantTools.ToolUse use = new AssistantTools.ToolUse();
+        AssistantTools.ToolUse other = new AssistantTools.ToolUse();
+        assertThat(use.none()).isTrue();
+
+        call(use, "searchFlights", flight("PAR", "ROM"));
+        call(use, "searchHotels", hotel("Rome"));
+
+        assertThat(use.none()).isFalse();
+        assertThat(use.rounds()).isEqualTo(2);
+        assertThat(other.none()).isTrue();
+    }
+
+    @Test
+    void replyBuiltOnToolResultsIsNotCachedButAPlainOneIs() {
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(eq("Flights from Paris to Rome?"))).thenReturn(List.of(1.0, 0.0));
+        when(embeddingModel.embed(eq("What is the baggage allowance?"))).thenReturn(List.of(0.0, 1.0));
+        SemanticCache cache = new SemanticCache(embeddingModel,
+                new SemanticCacheProperties(true, 0.95, Duration.ofHours(1), 100), new SimpleMeterRegistry());
+        AtomicInteger replies = new AtomicInteger();
+
+        // As AssistantController asks: a fresh ToolUse per request, the model may call the tools.
+        for (int i = 0; i < 2; i++) {
+            AssistantTools.ToolUse use = new AssistantTools.ToolUse();
+            cache.answer("Flights from Paris to Rome?", () -> {
+                call(use, "searchFlights", flight("PAR", "ROM"));
+                return "Take F1, reply " + replies.incrementAndGet();
+            }, use::none);
+        }
+        assertThat(replies.get()).isEqualTo(2);
+
+        for (int i = 0; i < 2; i++) {
+            AssistantTools.ToolUse use = new AssistantTools.ToolUse();
+            cache.answer("What is the baggage allowance?", () -> "Two bags, reply " + replies.incrementAndGet(),
+                    use::none);
+        }
+        assertThat(replies.get()).isEqualTo(3);
+    }
+
+    /**
+     * Calls a tool the way the chat client does: by name, with the
+     * arguments the model gave.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> String call(AssistantTools.ToolUse use, String name, T arguments) {
+        Function<T, String> function = (Function<T, String>) assistantTools.tools(use).stream()
+                .filter(tool -> tool.name().equals(name))
+                .findFirst()
+                .orElseThrow()
+                .function();
+        return function.apply(arguments);
+    }
+
+    private static AssistantTools.FlightSearch flight(String origin, String destination) {
+        return new AssistantTools.FlightSearch(origin, destination, null, null, null, null, null);
+    }
+
+    private static AssistantTools.HotelSearch hotel(String destination) {
+        return new AssistantTools.HotelSearch(destination, null, null, null, null, null, null, null);
+    }
+}
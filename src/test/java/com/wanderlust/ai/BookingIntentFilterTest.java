@@ -0,0 +1,111 @@
+package com.wanderlust.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A streamed reply fed to the filter chunk by chunk, cut at the awkward
+ * places a model's tokens fall on.
+ */
+class BookingIntentFilterTest {
+
+    private static final String BOOKING = "{\"flightId\": \"EK204-20261025-J\", \"hotelId\": \"H456\", "
+            + "\"amount\": 1200.0, \"destination\": \"Paris\"}";
+
+    private final List<String> sent = new ArrayList<>();
+    private final BookingIntentFilter filter = new BookingIntentFilter(new ObjectMapper(), sent::add);
+
+    @Test
+    void textIsPassedOnAsItArrives() {
+        filter.accept("Paris is ");
+        assertThat(sent).containsExactly("Paris is ");
+
+        filter.accept("lovely in May.");
+        filter.finish();
+
+        assertThat(sent).containsExactly("Paris is ", "lovely in May.");
+        assertThat(filter.booking()).isEmpty();
+    }
+
+    @Test
+    void bookingBlockSplitAcrossChunksIsKeptOutOfTheText() {
+        feed("Here is your trip. " + BOOKING + " Enjoy!", 7);
+
+        assertThat(text()).isEqualTo("Here is your trip.  Enjoy!");
+        assertThat(filter.booking()).get()
+                .satisfies(booking -> assertThat(booking)
+                        .containsEntry("flightId", "EK204-20261025-J")
+                        .containsEntry("hotelId", "H456")
+                        .containsEntry("amount", 1200.0));
+    }
+
+    @Test
+    void bracesAndQuotesInsideStringsDoNotEndTheBlock() {
+        String block = "{\"flightId\": \"F}1\", \"hotelId\": \"H{2\", \"note\": \"say \\\"}\\\" twice\"}";
+
+        // One character per chunk: every boundary, including right after the backslash
+        feed("Booked: " + block + ".", 1);
+
+        assertThat(text()).isEqualTo("Booked: .");
+        assertThat(filter.booking()).get()
+                .satisfies(booking -> assertThat(booking)
+                        .containsEntry("flightId", "F}1")
+                        .containsEntry("hotelId", "H{2")
+                        .containsEntry("note", "say \"}\" twice"));
+    }
+
+    @Test
+    void bracesThatAreNotABookingArePassedOnAfterAll() {
+        String reply = "Use a set like {a, b} or JSON like {\"city\": {\"name\": \"Rome\"}} here.";
+
+        feed(reply, 5);
+
+        assertThat(text()).isEqualTo(reply);
+        assertThat(filter.booking()).isEmpty();
+    }
+
+    @Test
+    void onlyTheFirstBookingIsTaken() {
+        String second = BOOKING.replace("H456", "H789");
+
+        feed(BOOKING + " or " + second, 9);
+
+        assertThat(filter.booking()).get().satisfies(booking -> assertThat(booking).containsEntry("hotelId", "H456"));
+        assertThat(text()).isEqualTo(" or " + second);
+    }
+
+    @Test
+    void blockUnterminatedAtTheEndOfTheStreamIsReleasedOnFinish() {
+        feed("Almost: {\"flightId\": \"F1\", \"hotelId\": \"H", 6);
+        assertThat(text()).isEqualTo("Almost: ");
+
+        filter.finish();
+
+        assertThat(text()).isEqualTo("Almost: {\"flightId\": \"F1\", \"hotelId\": \"H");
+        assertThat(filter.booking()).isEmpty();
+    }
+
+    @Test
+    void strayBraceHoldsBackNoMoreThanTheLimit() {
+        String tail = "x".repeat(BookingIntentFilter.MAX_HELD);
+
+        feed("Smile :{ " + tail, 64);
+
+        assertThat(text()).isEqualTo("Smile :{ " + tail);
+    }
+
+    private void feed(String reply, int chunkLength) {
+        for (int i = 0; i < reply.length(); i += chunkLength) {
+            filter.accept(reply.substring(i, Math.min(reply.length(), i + chunkLength)));
+        }
+    }
+
+    private String text() {
+        return String.join("", sent);
+    }
+}
@@ -0,0 +1,197 @@
+package com.wanderlust.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Streams through Spring MVC's async handling, with a sink per question
+ * standing in for the model's token Flux: the events sent, and a slot taken
+ * per open stream and given back however it ends.
+ */
+class ChatStreamerTest {
+
+    private static final int MAX_STREAMS = 2;
+
+    private final SemanticCache semanticCache = mock(SemanticCache.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    /** The model's tokens, by question. */
+    private final Map<String, Sinks.Many<String>> models = new ConcurrentHashMap<>();
+    private ChatStreamer chatStreamer;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        when(semanticCache.lookup(anyString())).thenReturn(new SemanticCache.Lookup(null, 0, null));
+        chatStreamer = new ChatStreamer(semanticCache, new ObjectMapper(),
+                new ChatStreamProperties(Duration.ofMinutes(2), MAX_STREAMS), meterRegistry);
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamEndpoint()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        chatStreamer.shutdown();
+    }
+
+    @Test
+    void tokensAreSentAsTheyArriveAndTheSlotIsFreedOnComplete() throws Exception {
+        MvcResult stream = open("Trip to Paris?");
+        assertThat(active()).isEqualTo(1);
+
+        model("Trip to Paris?").tryEmitNext("Paris is ");
+        await(() -> body(stream).contains("Paris is "));
+        model("Trip to Paris?").tryEmitNext("lovely. {\"flightId\": \"F1\", \"hotelId\": \"H1\"}");
+        model("Trip to Paris?").tryEmitComplete();
+
+        await(() -> active() == 0);
+        assertThat(body(stream))
+                .contains("event:token", "{\"text\":\"Paris is \"}", "{\"text\":\"lovely. \"}")
+                .contains("event:booking", "\"flightId\":\"F1\"")
+                .contains("event:done", "{\"cached\":false}")
+                .doesNotContain("event:error");
+        verify(semanticCache).remember(any(), eq("Paris is lovely. {\"flightId\": \"F1\", \"hotelId\": \"H1\"}"),
+                anyLong());
+    }
+
+    @Test
+    void modelFailingMidwaySendsAnErrorAndFreesTheSlot() throws Exception {
+        MvcResult stream = open("Trip to Rome?");
+        model("Trip to Rome?").tryEmitNext("Rome ");
+
+        model("Trip to Rome?").tryEmitError(new IllegalStateException("model overloaded"));
+
+        await(() -> active() == 0);
+        assertThat(body(stream)).contains("{\"text\":\"Rome \"}", "event:error").doesNotContain("event:done");
+        verify(semanticCache, never()).remember(any(), anyString(), anyLong());
+    }
+
+    @Test
+    void timedOutStreamStopsTheModelAndFreesTheSlot() throws Exception {
+        MvcResult stream = open("Trip to Bali?");
+        model("Trip to Bali?").tryEmitNext("Bali ");
+        await(() -> body(stream).contains("Bali "));
+
+        MockAsyncContext asyncContext = (MockAsyncContext) stream.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        assertThat(active()).isZero();
+        assertThat(model("Trip to Bali?").currentSubscriberCount()).isZero();
+        verify(semanticCache, never()).remember(any(), anyString(), anyLong());
+    }
+
+    @Test
+    void streamsBeyondTheLimitAreRefusedWith503UntilOneEnds() throws Exception {
+        open("Trip to Paris?");
+        open("Trip to Rome?");
+
+        mockMvc.perform(post("/stream").content("Trip to Bali?"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        assertThat(models).doesNotContainKey("Trip to Bali?");
+        assertThat(active()).isEqualTo(MAX_STREAMS);
+
+        model("Trip to Paris?").tryEmitComplete();
+        await(() -> active() == 1);
+        open("Trip to Bali?");
+        assertThat(active()).isEqualTo(MAX_STREAMS);
+    }
+
+    @Test
+    void cachedAnswerIsSentWithoutAskingTheModel() throws Exception {
+        when(semanticCache.lookup("Baggage allowance?"))
+                .thenReturn(new SemanticCache.Lookup(null, 0, "Two checked bags."));
+
+        MvcResult stream = open("Baggage allowance?");
+
+        await(() -> active() == 0);
+        assertThat(body(stream)).contains("{\"text\":\"Two checked bags.\"}", "{\"cached\":true}");
+        assertThat(models).isEmpty();
+        verify(semanticCache, never()).remember(any(), anyString(), anyLong());
+    }
+
+    private MvcResult open(String question) throws Exception {
+        return mockMvc.perform(post("/stream").content(question))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private Sinks.Many<String> model(String question) {
+        return models.computeIfAbsent(question, q -> Sinks.many().unicast().onBackpressureBuffer());
+    }
+
+    private double active() {
+        return meterRegistry.get("wanderlust.assistant.stream.active").gauge().value();
+    }
+
+    private static String body(MvcResult stream) {
+        try {
+            return stream.getResponse().getContentAsString();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * The streaming endpoint of {@code AssistantController}, with the model
+     * replaced by the sinks of this test.
+     */
+    @RestController
+    class StreamEndpoint {
+
+        @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        ResponseEntity<SseEmitter> stream(@RequestBody String question) {
+            return chatStreamer.stream(question, () -> model(question).asFlux())
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, "1")
+                            .build());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.wanderlust.ai;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recall@10 and latency of an HNSW search against the brute-force scan it
+ * replaces, over clustered unit vectors shaped like document embeddings.
+ * {@code mvn test -Pbenchmark -Dtest=HnswIndexBenchmark}; sizes:
+ * {@code -Dbenchmark.vectors=...}, {@code -Dbenchmark.dimensions=...},
+ * {@code -Dbenchmark.queries=...}, {@code -Dbenchmark.ef=64,100,200}.
+ */
+@Tag("benchmark")
+class HnswIndexBenchmark {
+
+    private static final int VECTORS = Integer.getInteger("benchmark.vectors", 10_000);
+    private static final int DIMENSIONS = Integer.getInteger("benchmark.dimensions", 1536);
+    private static final int QUERIES = Integer.getInteger("benchmark.queries", 1_000);
+    private static final int[] EF = Arrays.stream(System.getProperty("benchmark.ef", "32,64,100,200").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+    private static final int K = 10;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recallAndLatencyAgainstBruteForce() throws Exception {
+        try (MappedVectors vectors = new MappedVectors(directory.resolve("vectors.bin"), DIMENSIONS)) {
+            HnswIndex index = new HnswIndex(vectors, 16, 100);
+            Random random = new Random(1);
+            float[][] centres = gaussian(random, Math.max(10, VECTORS / 100));
+            long started = System.nanoTime();
+            for (int i = 0; i < VECTORS; i++) {
+                index.add(near(centres[random.nextInt(centres.length)], random));
+            }
+            long built = System.nanoTime() - started;
+            float[][] queries = new float[QUERIES][];
+            for (int q = 0; q < QUERIES; q++) {
+                queries[q] = near(centres[random.nextInt(centres.length)], random);
+            }
+
+            // Warm-up
+            for (int q = 0; q < Math.min(100, QUERIES); q++) {
+                bruteForce(vectors, queries[q]);
+                index.search(queries[q], K, EF[0], node -> true);
+            }
+
+            long[] scans = new long[QUERIES];
+            int[][] exact = new int[QUERIES][];
+            for (int q = 0; q < QUERIES; q++) {
+                started = System.nanoTime();
+                exact[q] = bruteForce(vectors, queries[q]);
+                scans[q] = System.nanoTime() - started;
+            }
+
+            System.out.printf("%n%10s %10s %10s %14s%n", "vectors", "dims", "queries", "inserts/s");
+            System.out.printf("%10d %10d %10d %14.0f%n", VECTORS, DIMENSIONS, QUERIES, VECTORS / (built / 1e9));
+            System.out.printf("%n%12s %12s %12s %12s%n", "search", "recall@10", "p50 us", "p99 us");
+            System.out.printf("%12s %12.4f %12d %12d%n", "brute force", 1.0, percentile(scans, 50) / 1000,
+                    percentile(scans, 99) / 1000);
+            double bestRecall = 0;
+            for (int ef : EF) {
+                long[] latencies = new long[QUERIES];
+                double recall = 0;
+                for (int q = 0; q < QUERIES; q++) {
+                    started = System.nanoTime();
+                    List<HnswIndex.Neighbor> found = index.search(queries[q], K, ef, node -> true);
+                    latencies[q] = System.nanoTime() - started;
+                    Set<Integer> expected = new HashSet<>();
+                    for (int node : exact[q]) {
+                        expected.add(node);
+                    }
+                    recall += found.stream().filter(neighbor -> expected.contains(neighbor.node())).count()
+                            / (double) K;
+                }
+                recall /= QUERIES;
+                System.out.printf("%12s %12.4f %12d %12d%n", "ef " + ef, recall, percentile(latencies, 50) / 1000,
+                        percentile(latencies, 99) / 1000);
+                bestRecall = Math.max(bestRecall, recall);
+            }
+            assertThat(bestRecall).isGreaterThan(0.95);
+        }
+    }
+
+    private static int[] bruteForce(MappedVectors vectors, float[] query) {
+        PriorityQueue<HnswIndex.Neighbor> best = new PriorityQueue<>(
+                (a, b) -> Float.compare(a.score(), b.score()));
+        for (int node = 0; node < vectors.count(); node++) {
+            float score = vectors.dot(node, query);
+            if (best.size() < K) {
+                best.add(new HnswIndex.Neighbor(node, score));
+            } else if (score > best.peek().score()) {
+                best.poll();
+                best.add(new HnswIndex.Neighbor(node, score));
+            }
+        }
+        return best.stream().mapToInt(HnswIndex.Neighbor::node).toArray();
+    }
+
+    private static long percentile(long[] nanos, int percent) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+
+    private static float[][] gaussian(Random random, int count) {
+        float[][] centres = new float[count][DIMENSIONS];
+        for (float[] centre : centres) {
+            for (int d = 0; d < DIMENSIONS; d++) {
+                centre[d] = (float) random.nextGaussian();
+            }
+        }
+        return centres;
+    }
+
+    /**
+     * A unit vector scattered around {@code centre}.
+     */
+    private static float[] near(float[] centre, Random random) {
+        float[] vector = new float[DIMENSIONS];
+        double norm = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector[d] = centre[d] + (float) (0.7 * random.nextGaussian());
+            norm += vector[d] * vector[d];
+        }
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector[d] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+}
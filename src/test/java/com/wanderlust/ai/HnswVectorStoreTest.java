@@ -0,0 +1,165 @@
+package com.wanderlust.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The in-process vector store in a temporary directory, with a bag-of-words
+ * stand-in for the embedding model: a question finds the document sharing
+ * most of its words.
+ */
+class HnswVectorStoreTest {
+
+    private static final int DIMENSIONS = 64;
+
+    @TempDir
+    Path directory;
+
+    private final EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+    private HnswVectorStore store;
+
+    @BeforeEach
+    void open() throws IOException {
+        when(embeddingModel.embed(anyString())).thenAnswer(call -> bagOfWords(call.getArgument(0)));
+        when(embeddingModel.embed(any(Document.class)))
+                .thenAnswer(call -> bagOfWords(call.<Document>getArgument(0).getContent()));
+        store = store();
+        store.add(List.of(
+                new Document("baggage", "Two checked bags of up to 23 kg each",
+                        Map.of("type", "policy", "year", 2024)),
+                new Document("refunds", "Refunds of cancelled bookings within 14 days",
+                        Map.of("type", "policy", "year", 2022)),
+                new Document("visa", "Check the visa rules before you fly",
+                        Map.of("type", "info", "year", 2023))));
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void closestDocumentComesFirstWithItsDistance() {
+        List<Document> found = store.similaritySearch(SearchRequest.query("how many checked bags").withTopK(2));
+
+        assertThat(found).extracting(Document::getId).first().isEqualTo("baggage");
+        assertThat(found.getFirst().getMetadata()).containsEntry("type", "policy").containsKey("distance");
+        assertThat((float) found.getFirst().getMetadata().get("distance"))
+                .isLessThan((float) found.get(1).getMetadata().get("distance"));
+    }
+
+    @Test
+    void documentsBelowTheSimilarityThresholdAreLeftOut() {
+        List<Document> found = store.similaritySearch(
+                SearchRequest.query("visa rules").withTopK(3).withSimilarityThreshold(0.3));
+
+        assertThat(found).extracting(Document::getId).containsExactly("visa");
+    }
+
+    @Test
+    void filterExpressionIsEvaluatedOnTheMetadata() {
+        List<Document> older = store.similaritySearch(SearchRequest.query("checked bags").withTopK(3)
+                .withFilterExpression("type == 'policy' && year < 2024"));
+        List<Document> info = store.similaritySearch(SearchRequest.query("checked bags").withTopK(3)
+                .withFilterExpression("type in ['info', 'faq']"));
+
+        assertThat(older).extracting(Document::getId).containsExactly("refunds");
+        assertThat(info).extracting(Document::getId).containsExactly("visa");
+    }
+
+    @Test
+    void replacedDocumentIsFoundOnlyInItsNewVersion() {
+        store.add(List.of(new Document("baggage", "One carry-on bag of up to 8 kg", Map.of("type", "policy"))));
+
+        List<Document> found = store.similaritySearch(SearchRequest.query("checked bags 23 kg").withTopK(10));
+
+        assertThat(found).extracting(Document::getId).containsExactlyInAnyOrder("baggage", "refunds", "visa");
+        assertThat(found).filteredOn(document -> document.getId().equals("baggage"))
+                .extracting(Document::getContent).containsExactly("One carry-on bag of up to 8 kg");
+    }
+
+    @Test
+    void deletedDocumentIsNeverReturned() {
+        store.delete(List.of("visa"));
+
+        assertThat(store.similaritySearch(SearchRequest.query("Check the visa rules before you fly").withTopK(10)))
+                .extracting(Document::getId).containsExactlyInAnyOrder("baggage", "refunds");
+        assertThat(store.similaritySearch(SearchRequest.query("visa").withTopK(3)
+                .withFilterExpression("type == 'info'"))).isEmpty();
+    }
+
+    @Test
+    void reopenedStoreHasTheSameDocuments() throws IOException {
+        store.add(List.of(new Document("baggage", "One carry-on bag of up to 8 kg", Map.of("type", "policy"))));
+        store.delete(List.of("visa"));
+        store.upsert(List.of(new Chunk("faq#0", "h0", "Pets travel in the cabin", Map.of("contentHash", "h0"))),
+                List.of(toFloats(bagOfWords("Pets travel in the cabin"))));
+        store.close();
+
+        store = store();
+
+        List<Document> found = store.similaritySearch(SearchRequest.query("carry-on bag").withTopK(10));
+        assertThat(found).extracting(Document::getId).containsExactlyInAnyOrder("baggage", "refunds", "faq#0");
+        assertThat(found.getFirst().getContent()).isEqualTo("One carry-on bag of up to 8 kg");
+        assertThat(store.similaritySearch(SearchRequest.query("pets in the cabin").withTopK(1)))
+                .extracting(Document::getId).containsExactly("faq#0");
+        assertThat(store.ingestedIds()).containsExactly("faq#0");
+    }
+
+    @Test
+    void embeddingOfTheWrongSizeIsRejected() {
+        assertThatThrownBy(() -> store.upsert(List.of(new Chunk("faq#0", "h0", "Pets", Map.of())),
+                List.of(new float[DIMENSIONS / 2])))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("32 dimensions");
+    }
+
+    private HnswVectorStore store() throws IOException {
+        return new HnswVectorStore(embeddingModel, new ObjectMapper(),
+                new VectorStoreProperties("hnsw", directory.toString(), DIMENSIONS, 16, 100, 64),
+                new SimpleMeterRegistry());
+    }
+
+    private static float[] toFloats(List<Double> embedding) {
+        float[] vector = new float[embedding.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = embedding.get(i).floatValue();
+        }
+        return vector;
+    }
+
+    private static List<Double> bagOfWords(String text) {
+        double[] counts = new double[DIMENSIONS];
+        for (String word : text.toLowerCase(Locale.ROOT).replaceAll("[^a-z ]", "").split(" +")) {
+            if (!word.isEmpty()) {
+                counts[Math.floorMod(word.hashCode(), DIMENSIONS)]++;
+            }
+        }
+        List<Double> vector = new ArrayList<>(DIMENSIONS);
+        for (double count : counts) {
+            vector.add(count);
+        }
+        return vector;
+    }
+}
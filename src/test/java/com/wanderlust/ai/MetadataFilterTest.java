@@ -0,0 +1,82 @@
+package com.wanderlust.ai;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.FilterExpressionTextParser;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Filter expressions as callers write them, parsed by Spring AI and
+ * evaluated against document metadata.
+ */
+class MetadataFilterTest {
+
+    private static final Map<String, Object> BAGGAGE = Map.of("type", "policy", "year", 2024,
+            "source", "policy/baggage.md", "weight", 23.0);
+    private static final Map<String, Object> VISA = Map.of("type", "info", "year", 2023L,
+            "source", "visa.txt");
+
+    private final FilterExpressionTextParser parser = new FilterExpressionTextParser();
+
+    @Test
+    void equalityMatchesStringsAndNumbersOfAnyType() {
+        assertThat(matches("type == 'policy'")).accepts(BAGGAGE).rejects(VISA);
+        assertThat(matches("type != 'policy'")).accepts(VISA).rejects(BAGGAGE);
+        // Integer in one, Long in the other, Double in the expression
+        assertThat(matches("year == 2023.0")).accepts(VISA).rejects(BAGGAGE);
+        assertThat(matches("weight == 23")).accepts(BAGGAGE);
+    }
+
+    @Test
+    void comparisonsOrderNumbersAndStrings() {
+        assertThat(matches("year >= 2024")).accepts(BAGGAGE).rejects(VISA);
+        assertThat(matches("year < 2024")).accepts(VISA).rejects(BAGGAGE);
+        assertThat(matches("weight <= 23.5")).accepts(BAGGAGE);
+        assertThat(matches("source > 'q'")).accepts(VISA).rejects(BAGGAGE);
+    }
+
+    @Test
+    void missingKeyMatchesOnlyNegations() {
+        assertThat(matches("weight > 0")).rejects(VISA);
+        assertThat(matches("weight == 23")).rejects(VISA);
+        assertThat(matches("weight != 23")).accepts(VISA);
+    }
+
+    @Test
+    void membershipTests() {
+        assertThat(matches("type in ['policy', 'faq']")).accepts(BAGGAGE).rejects(VISA);
+        assertThat(matches("type nin ['policy', 'faq']")).accepts(VISA).rejects(BAGGAGE);
+        assertThat(matches("year in [2023, 2022]")).accepts(VISA).rejects(BAGGAGE);
+    }
+
+    @Test
+    void booleanOperatorsAndGroups() {
+        assertThat(matches("type == 'policy' && year >= 2024")).accepts(BAGGAGE).rejects(VISA);
+        assertThat(matches("type == 'faq' || year == 2023")).accepts(VISA).rejects(BAGGAGE);
+        assertThat(matches("NOT (type == 'policy')")).accepts(VISA).rejects(BAGGAGE);
+        assertThat(matches("(type == 'faq' || type == 'info') && year < 2024")).accepts(VISA).rejects(BAGGAGE);
+    }
+
+    @Test
+    void quotedKeyIsLookedUpWithoutItsQuotes() {
+        assertThat(matches("'type' == 'policy'")).accepts(BAGGAGE).rejects(VISA);
+    }
+
+    @Test
+    void expressionThatIsNotKeyOperatorValueIsRejected() {
+        Filter.Expression keyToKey = new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("type"),
+                new Filter.Key("source"));
+
+        assertThatThrownBy(() -> MetadataFilter.of(keyToKey).test(BAGGAGE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Predicate<Map<String, Object>> matches(String expression) {
+        return MetadataFilter.of(parser.parse(expression));
+    }
+}
@@ -0,0 +1,128 @@
+package com.wanderlust.ai;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Incremental ingestion: only chunks that are not stored yet are embedded,
+ * and chunks no longer in any document are deleted.
+ */
+class RagDataLoaderTest {
+
+    private static final String CHECKED = "Two checked bags of up to 23 kg each.";
+
+    @TempDir
+    Path documents;
+
+    private final EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+    private final AtomicInteger embedded = new AtomicInteger();
+    private final MemoryChunkStore store = new MemoryChunkStore();
+    private final List<Object> events = new ArrayList<>();
+    private RagDataLoader loader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(embeddingModel.embed(anyList())).thenAnswer(call -> {
+            List<String> texts = call.getArgument(0);
+            embedded.addAndGet(texts.size());
+            return texts.stream().map(text -> List.of((double) text.length(), 1.0)).toList();
+        });
+        Files.createDirectories(documents.resolve("policy"));
+        Files.writeString(documents.resolve("policy/baggage.md"), CHECKED + "\n\nOne carry-on bag.");
+        Files.writeString(documents.resolve("policy/refunds.md"), "Refunds within 14 days.");
+        Files.writeString(documents.resolve("visa.txt"), "Check visa rules before you fly.");
+        loader = new RagDataLoader(embeddingModel, store, new RagProperties(documents.toUri().toString(), 40, 2, 2),
+                new PathMatchingResourcePatternResolver(), events::add, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void firstIngestionEmbedsEveryChunkWithItsTypeAndSource() throws Exception {
+        RagDataLoader.Ingestion ingestion = loader.ingest();
+
+        assertThat(ingestion.files()).isEqualTo(3);
+        assertThat(ingestion.embedded()).isEqualTo(4).isEqualTo(embedded.get());
+        assertThat(store.chunks).hasSize(4);
+        assertThat(store.chunk("One carry-on bag.").metadata())
+                .containsEntry("type", "policy")
+                .containsEntry("source", "policy/baggage.md");
+        assertThat(store.chunk("Check visa rules before you fly.").metadata()).containsEntry("type", "info");
+        assertThat(events).hasSize(1);
+    }
+
+    @Test
+    void unchangedDocumentsAreNotEmbeddedAgain() throws Exception {
+        loader.ingest();
+        embedded.set(0);
+
+        RagDataLoader.Ingestion ingestion = loader.ingest();
+
+        assertThat(ingestion.unchanged()).isEqualTo(4);
+        assertThat(embedded.get()).isZero();
+        assertThat(events).hasSize(1);
+    }
+
+    @Test
+    void onlyChangedChunksAreEmbeddedAndRemovedOnesDeleted() throws Exception {
+        loader.ingest();
+        embedded.set(0);
+        Files.writeString(documents.resolve("policy/baggage.md"), CHECKED + "\n\nNo carry-on bag.");
+        Files.delete(documents.resolve("policy/refunds.md"));
+
+        RagDataLoader.Ingestion ingestion = loader.ingest();
+
+        assertThat(ingestion.embedded()).isEqualTo(1).isEqualTo(embedded.get());
+        assertThat(ingestion.deleted()).isEqualTo(2);
+        assertThat(store.chunks.values()).extracting(Chunk::text)
+                .containsExactlyInAnyOrder(CHECKED, "No carry-on bag.", "Check visa rules before you fly.");
+        assertThat(events).hasSize(2);
+    }
+
+    /**
+     * Stand-in for the vector store table.
+     */
+    private static final class MemoryChunkStore implements ChunkStore {
+
+        final Map<String, Chunk> chunks = new ConcurrentHashMap<>();
+
+        @Override
+        public Set<String> ingestedIds() {
+            return new HashSet<>(chunks.keySet());
+        }
+
+        @Override
+        public void upsert(List<Chunk> batch, List<float[]> embeddings) {
+            assertThat(embeddings).hasSameSizeAs(batch).doesNotContainNull();
+            batch.forEach(chunk -> chunks.put(chunk.id(), chunk));
+        }
+
+        @Override
+        public void delete(Collection<String> ids) {
+            ids.forEach(chunks::remove);
+        }
+
+        Chunk chunk(String text) {
+            return chunks.values().stream().filter(chunk -> chunk.text().equals(text)).findFirst().orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.wanderlust.ai;
+
+import com.wanderlust.shared.CatalogReloadedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The semantic cache with stand-ins for both models: a bag-of-words
+ * embedding (same words, same vector; no shared words, orthogonal) and a
+ * chat model that answers "answer-n" for its n-th call.
+ */
+class SemanticCacheTest {
+
+    private static final int DIMENSIONS = 64;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+    private final ChatStandIn chat = new ChatStandIn();
+
+    @BeforeEach
+    void embedWords() {
+        when(embeddingModel.embed(anyString())).thenAnswer(call -> bagOfWords(call.getArgument(0)));
+    }
+
+    @Test
+    void nearDuplicateQuestionIsAnsweredFromTheCache() {
+        SemanticCache cache = cache(Duration.ofHours(1));
+
+        String first = cache.answer("What is the baggage allowance?", chat);
+        String again = cache.answer("what is the BAGGAGE allowance", chat);
+        String other = cache.answer("Can I cancel my hotel?", chat);
+
+        assertThat(first).isEqualTo("answer-1");
+        assertThat(again).isEqualTo("answer-1");
+        assertThat(other).isEqualTo("answer-2");
+        assertThat(chat.calls.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("wanderlust.assistant.cache").tag("result", "hit").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("wanderlust.assistant.cache.saved").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isGreaterThanOrEqualTo(ChatStandIn.LATENCY_MILLIS);
+    }
+
+    @Test
+    void expiredAnswerGoesBackToTheModel() throws InterruptedException {
+        SemanticCache cache = cache(Duration.ofMillis(50));
+        cache.answer("Which documents do I need for Bali?", chat);
+        Thread.sleep(60);
+
+        assertThat(cache.answer("Which documents do I need for Bali?", chat)).isEqualTo("answer-2");
+    }
+
+    @Test
+    void changedCorpusDropsEveryAnswer() {
+        SemanticCache cache = cache(Duration.ofHours(1));
+        cache.answer("What is the baggage allowance?", chat);
+
+        cache.onCorpusChanged(new CatalogReloadedEvent("destinations", 2));
+        assertThat(cache.answer("What is the baggage allowance?", chat)).isEqualTo("answer-1");
+
+        cache.onCorpusChanged(new CatalogReloadedEvent(RagDataLoader.CORPUS, 2));
+        assertThat(cache.answer("What is the baggage allowance?", chat)).isEqualTo("answer-2");
+    }
+
+    @Test
+    void answerOfAQuestionAskedBeforeTheCorpusChangedIsNotStored() {
+        SemanticCache cache = cache(Duration.ofHours(1));
+        SemanticCache.Lookup lookup = cache.lookup("What is the baggage allowance?");
+
+        // The streamed answer is still being generated when the corpus changes.
+        cache.onCorpusChanged(new CatalogReloadedEvent(RagDataLoader.CORPUS, 2));
+        cache.remember(lookup, "stale", 1_000);
+
+        assertThat(cache.answer("What is the baggage allowance?", chat)).isEqualTo("answer-1");
+    }
+
+    @Test
+    void answerBuiltOnToolResultsIsNotStored() {
+        SemanticCache cache = cache(Duration.ofHours(1));
+
+        // The model searched flights: "answer-1" quotes prices of that moment.
+        cache.answer("Flights from Paris to Rome tomorrow?", chat, () -> false);
+
+        assertThat(meterRegistry.get("wanderlust.assistant.cache.size").gauge().value()).isZero();
+        assertThat(cache.answer("Flights from Paris to Rome tomorrow?", chat)).isEqualTo("answer-2");
+    }
+
+    @Test
+    void questionsGoToTheModelWhenEmbeddingFails() {
+        when(embeddingModel.embed(anyString())).thenThrow(new IllegalStateException("embedding model down"));
+        SemanticCache cache = cache(Duration.ofHours(1));
+
+        cache.answer("What is the baggage allowance?", chat);
+        cache.answer("What is the baggage allowance?", chat);
+
+        assertThat(chat.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void disabledCacheNeitherEmbedsNorStores() {
+        SemanticCache cache = new SemanticCache(embeddingModel,
+                new SemanticCacheProperties(false, 0.95, Duration.ofHours(1), 100), meterRegistry);
+
+        cache.answer("What is the baggage allowance?", chat);
+        cache.answer("What is the baggage allowance?", chat);
+
+        assertThat(chat.calls.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("wanderlust.assistant.cache.size").gauge().value()).isZero();
+    }
+
+    private SemanticCache cache(Duration ttl) {
+        return new SemanticCache(embeddingModel, new SemanticCacheProperties(true, 0.95, ttl, 100), meterRegistry);
+    }
+
+    private static List<Double> bagOfWords(String text) {
+        double[] counts = new double[DIMENSIONS];
+        for (String word : text.toLowerCase(Locale.ROOT).replaceAll("[^a-z ]", "").split(" +")) {
+            if (!word.isEmpty()) {
+                counts[Math.floorMod(word.hashCode(), DIMENSIONS)]++;
+            }
+        }
+        List<Double> vector = new ArrayList<>(DIMENSIONS);
+        for (double count : counts) {
+            vector.add(count);
+        }
+        return vector;
+    }
+
+    /**
+     * Stand-in for the chat model: slow enough to be worth caching.
+     */
+    private static final class ChatStandIn implements Supplier<String> {
+
+        static final long LATENCY_MILLIS = 20;
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String get() {
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "answer-" + calls.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.wanderlust.config;
+
+import com.wanderlust.order.BookingConfirmedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.modulith.events.EventPublication;
+import org.springframework.modulith.events.IncompleteEventPublications;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redelivery must not hand out a second copy of an event whose first delivery
+ * is still under way.
+ */
+class EventOutboxTest {
+
+    private final IncompleteEventPublications incompletePublications = mock(IncompleteEventPublications.class);
+    private final AsyncConfig dispatcher = mock(AsyncConfig.class);
+    private final InFlightEvents inFlightEvents = new InFlightEvents();
+    private final EventOutbox outbox = new EventOutbox(incompletePublications, inFlightEvents, dispatcher,
+            mock(JdbcTemplate.class), new EventProperties(8, 10_000, Duration.ofSeconds(10), Duration.ofMinutes(1),
+                    Duration.ofHours(1)),
+            new SimpleMeterRegistry());
+
+    /** A listener whose delivery we can hold open. */
+    static class Listener {
+        Runnable during = () -> {
+        };
+
+        @ApplicationModuleListener
+        public void on(BookingConfirmedEvent event) {
+            during.run();
+        }
+    }
+
+    @Test
+    void staleEventNobodyHandlesIsRedelivered() {
+        assertThat(redeliveryPicks(publication(confirmed("OR-1"), Duration.ofMinutes(5)))).isTrue();
+    }
+
+    @Test
+    void freshEventIsNotRedelivered() {
+        assertThat(redeliveryPicks(publication(confirmed("OR-1"), Duration.ofSeconds(5)))).isFalse();
+    }
+
+    @Test
+    void staleEventIsNotRedeliveredWhileDeliveriesWaitForTheDispatcher() {
+        when(dispatcher.waitingDeliveries()).thenReturn(3);
+
+        assertThat(redeliveryPicks(publication(confirmed("OR-1"), Duration.ofMinutes(5)))).isFalse();
+    }
+
+    @Test
+    void staleEventIsNotRedeliveredWhileAListenerHandlesIt() {
+        // The redelivered copy is deserialized from the outbox: equal, not the same instance.
+        EventPublication stale = publication(confirmed("OR-1"), Duration.ofMinutes(5));
+        AtomicBoolean pickedWhileRunning = new AtomicBoolean(true);
+        Listener target = new Listener();
+        target.during = () -> pickedWhileRunning.set(redeliveryPicks(stale));
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(inFlightEvents);
+        Listener listener = factory.getProxy();
+
+        listener.on(confirmed("OR-1"));
+
+        assertThat(pickedWhileRunning).isFalse();
+        assertThat(redeliveryPicks(stale)).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean redeliveryPicks(EventPublication publication) {
+        clearInvocations(incompletePublications);
+        outbox.redeliverStale();
+        ArgumentCaptor<Predicate<EventPublication>> filter = ArgumentCaptor.forClass(Predicate.class);
+        verify(incompletePublications).resubmitIncompletePublications(filter.capture());
+        return filter.getValue().test(publication);
+    }
+
+    private static EventPublication publication(Object event, Duration age) {
+        EventPublication publication = mock(EventPublication.class);
+        when(publication.getEvent()).thenReturn(event);
+        when(publication.getPublicationDate()).thenReturn(Instant.now().minus(age));
+        return publication;
+    }
+
+    private static BookingConfirmedEvent confirmed(String bookingId) {
+        return new BookingConfirmedEvent(bookingId, "user-1", "FL-1", "HT-1", "FB-1", "HB-1", 500.0,
+                Instant.parse("2026-05-01T10:00:00Z"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.wanderlust.destination;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Typeahead lookups on the prefix index against the linear scan it replaced
+ * (substring match on name, country and tags of every destination), over a
+ * synthetic catalog of made-up names.
+ * {@code mvn test -Pbenchmark -Dtest=DestinationIndexBenchmark}; sizes:
+ * {@code -Dbenchmark.destinations=...}.
+ */
+@Tag("benchmark")
+class DestinationIndexBenchmark {
+
+    private static final int DESTINATIONS = Integer.getInteger("benchmark.destinations", 100_000);
+    private static final int LOOKUPS = 200_000;
+    private static final int LIMIT = 10;
+    private static final String[] SYLLABLES = { "ba", "li", "pa", "ris", "to", "kyo", "ro", "ma", "san", "ta",
+            "mo", "ni", "ca", "del", "mar", "vi", "en", "na", "lon", "don" };
+    private static final String[] TAGS = { "Beach", "Culture", "Adventure", "Romance", "History", "Food" };
+
+    @Test
+    void prefixIndexAgainstLinearScan() {
+        Random random = new Random(42);
+        List<Destination> destinations = new ArrayList<>(DESTINATIONS);
+        for (int d = 0; d < DESTINATIONS; d++) {
+            String name = word(random) + (random.nextInt(4) == 0 ? " " + word(random) : "");
+            destinations.add(new Destination("d" + d, name, word(random), "", 100, "USD", "", List.of(),
+                    List.of(TAGS[random.nextInt(TAGS.length)]), 4.5, 100));
+        }
+        String[] queries = new String[1_024];
+        for (int q = 0; q < queries.length; q++) {
+            String word = word(random);
+            queries[q] = word.substring(0, 1 + random.nextInt(Math.min(4, word.length())));
+        }
+
+        long started = System.nanoTime();
+        DestinationIndex index = new DestinationIndex(destinations);
+        long built = System.nanoTime() - started;
+
+        // Warm-up
+        long hits = indexed(index, queries, LOOKUPS / 4) + scanned(destinations, queries, LOOKUPS / 4_000);
+
+        started = System.nanoTime();
+        hits += indexed(index, queries, LOOKUPS);
+        long indexTime = System.nanoTime() - started;
+        // The scan is far slower: fewer rounds, scaled per lookup.
+        started = System.nanoTime();
+        hits += scanned(destinations, queries, LOOKUPS / 1_000);
+        long scanTime = System.nanoTime() - started;
+
+        System.out.printf("%n%12s %8s %10s %14s %14s%n",
+                "destinations", "keys", "build ms", "index µs/q", "scan µs/q");
+        System.out.printf("%12d %8d %10d %14.2f %14.2f%n", DESTINATIONS, index.size(), built / 1_000_000,
+                indexTime / 1_000.0 / LOOKUPS, scanTime / 1_000.0 / (LOOKUPS / 1_000));
+        assertThat(hits).isPositive();
+    }
+
+    private static long indexed(DestinationIndex index, String[] queries, int lookups) {
+        long hits = 0;
+        for (int i = 0; i < lookups; i++) {
+            hits += index.lookup(queries[i & (queries.length - 1)], LIMIT).length;
+        }
+        return hits;
+    }
+
+    private static long scanned(List<Destination> destinations, String[] queries, int lookups) {
+        long hits = 0;
+        for (int i = 0; i < lookups; i++) {
+            String query = queries[i & (queries.length - 1)].toLowerCase(Locale.ROOT);
+            int found = 0;
+            for (Destination destination : destinations) {
+                if (destination.name().toLowerCase(Locale.ROOT).contains(query)
+                        || destination.country().toLowerCase(Locale.ROOT).contains(query)
+                        || destination.tags().stream()
+                                .anyMatch(tag -> tag.toLowerCase(Locale.ROOT).contains(query))) {
+                    found++;
+                }
+            }
+            hits += Math.min(found, LIMIT);
+        }
+        return hits;
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        for (int s = 1 + random.nextInt(3); s >= 0; s--) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
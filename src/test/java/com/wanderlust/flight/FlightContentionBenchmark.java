@@ -0,0 +1,96 @@
+package com.wanderlust.flight;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of contention on the seat counters: booking plus cancelling one seat
+ * from 1 to 64 threads, all on ONE hot flight versus spread over the dates
+ * of the window. The gap between the two columns is what the compare-and-set
+ * retries on a single counter cost.
+ * {@code mvn test -Pbenchmark -Dtest=FlightContentionBenchmark}; sizes:
+ * {@code -Dbenchmark.threads=1,2,4,...}, {@code -Dbenchmark.bookings=...}.
+ */
+@Tag("benchmark")
+class FlightContentionBenchmark {
+
+    private static final int[] THREADS = Arrays.stream(
+            System.getProperty("benchmark.threads", "1,2,4,8,16,32,64").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+    private static final int BOOKINGS = Integer.getInteger("benchmark.bookings", 4_000_000);
+    private static final int HORIZON = 180;
+
+    @Test
+    void hotFlightVersusSpreadFlights() throws Exception {
+        FlightInventory inventory = FlightInventoryTest.inventory(HORIZON);
+        LocalDate today = LocalDate.now();
+        String[] hot = { FlightInventoryTest.id(today.plusDays(1)) };
+        String[] spread = new String[HORIZON];
+        for (int day = 0; day < HORIZON; day++) {
+            spread[day] = FlightInventoryTest.id(today.plusDays(day));
+        }
+
+        // Warm-up
+        book(inventory, hot, THREADS[THREADS.length - 1], BOOKINGS / 4);
+        book(inventory, spread, THREADS[THREADS.length - 1], BOOKINGS / 4);
+
+        System.out.printf("%n%10s %18s %18s %12s%n", "threads", "hot bookings/s", "spread bookings/s", "hot/spread");
+        for (int threads : THREADS) {
+            double hotRate = book(inventory, hot, threads, BOOKINGS);
+            double spreadRate = book(inventory, spread, threads, BOOKINGS);
+            System.out.printf("%10d %18.0f %18.0f %12.2f%n", threads, hotRate, spreadRate, hotRate / spreadRate);
+        }
+
+        for (String flight : spread) {
+            assertThat(inventory.seatsLeft(flight)).as(flight).isEqualTo(160);
+        }
+    }
+
+    /**
+     * Takes and returns one seat {@code bookings} times, split over
+     * {@code threads} platform threads released at once.
+     *
+     * @return bookings per second.
+     */
+    private static double book(FlightInventory inventory, String[] flights, int threads, int bookings)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>(threads);
+        long started;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < bookings / threads; i++) {
+                        String flight = flights[random.nextInt(flights.length)];
+                        if (inventory.takeSeats(flight, 1) == FlightInventory.SeatResult.TAKEN) {
+                            inventory.returnSeats(flight, 1);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            started = System.nanoTime();
+            start.countDown();
+        }
+        long elapsed = System.nanoTime() - started;
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        return bookings / threads * threads / (elapsed / 1e9);
+    }
+}
@@ -0,0 +1,67 @@
+package com.wanderlust.flight;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Search latency and footprint of the in-memory flight inventory over the
+ * bundled schedule, and the cost of moving its window by a day. The default
+ * horizon of 450 days gives about 1.1M rows, the size the inventory is meant
+ * for; the run fails on fewer than {@link #MIN_ROWS}.
+ * {@code mvn test -Pbenchmark -Dtest=FlightInventoryBenchmark}; sizes:
+ * {@code -Dbenchmark.searches=...}, {@code -Dbenchmark.horizon=...}.
+ */
+@Tag("benchmark")
+class FlightInventoryBenchmark {
+
+    private static final int SEARCHES = Integer.getInteger("benchmark.searches", 200_000);
+    /** The bundled schedule has about 2,400 rows a day. */
+    private static final int HORIZON = Integer.getInteger("benchmark.horizon", 450);
+    private static final int MIN_ROWS = 1_000_000;
+    private static final String[][] ROUTES = {
+            { "DEL", "BOM" }, { "DEL", "DPS" }, { "SYD", "NRT" }, { "SIN", "LHR" }, { "SIN", "LAX" } };
+
+    @Test
+    void searchAndRoll() throws Exception {
+        long started = System.nanoTime();
+        FlightInventory inventory = FlightInventoryTest.inventory(HORIZON);
+        long built = System.nanoTime() - started;
+        assertThat(inventory.size()).as("rows of a %d-day horizon", HORIZON).isGreaterThanOrEqualTo(MIN_ROWS);
+
+        // Warm-up
+        long results = search(inventory, SEARCHES / 4);
+
+        started = System.nanoTime();
+        results += search(inventory, SEARCHES);
+        long searched = System.nanoTime() - started;
+
+        started = System.nanoTime();
+        inventory.roll(LocalDate.now().plusDays(1));
+        long rolled = System.nanoTime() - started;
+
+        System.out.printf("%n%10s %10s %10s %12s %12s %10s%n",
+                "rows", "KB", "build ms", "searches/s", "µs/search", "roll ms");
+        System.out.printf("%10d %10d %10d %12.0f %12.2f %10.2f%n",
+                inventory.size(), inventory.footprintBytes() / 1024, built / 1_000_000,
+                SEARCHES / (searched / 1e9), searched / 1_000.0 / SEARCHES, rolled / 1e6);
+        assertThat(results).isPositive();
+    }
+
+    private static long search(FlightInventory inventory, int searches) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate today = LocalDate.now();
+        long results = 0;
+        for (int i = 0; i < searches; i++) {
+            String[] route = ROUTES[random.nextInt(ROUTES.length)];
+            FlightSort sort = FlightSort.values()[random.nextInt(FlightSort.values().length)];
+            results += inventory.search(new FlightQuery(route[0], route[1], today.plusDays(random.nextInt(HORIZON)),
+                    1, null, null, null, sort, null, 20)).items().size();
+        }
+        return results;
+    }
+}
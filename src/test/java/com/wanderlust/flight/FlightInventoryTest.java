@@ -0,0 +1,178 @@
+package com.wanderlust.flight;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seats are never oversold, however many bookings race for them, and the
+ * window moves with the date: past days go, new ones open, and seats sold on
+ * the days in between are kept. AI101 (DEL-BOM, daily, 160 economy seats)
+ * comes from the bundled schedule.
+ */
+class FlightInventoryTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Test
+    void racingBookingsNeverOversell() throws Exception {
+        FlightInventory inventory = inventory(7);
+        String flight = id(TODAY.plusDays(1));
+        AtomicInteger taken = new AtomicInteger();
+
+        race(64, 200, () -> {
+            if (inventory.takeSeats(flight, 1) == FlightInventory.SeatResult.TAKEN) {
+                taken.incrementAndGet();
+            }
+        });
+
+        assertThat(taken.get()).isEqualTo(160);
+        assertThat(inventory.seatsLeft(flight)).isZero();
+    }
+
+    @Test
+    void racingTakesAndReturnsAddUp() throws Exception {
+        FlightInventory inventory = inventory(7);
+        String flight = id(TODAY.plusDays(1));
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger lowest = new AtomicInteger(160);
+
+        // Group bookings of 1-4 seats, a third of them cancelled right away.
+        race(64, 2_000, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int seats = 1 + random.nextInt(4);
+            if (inventory.takeSeats(flight, seats) == FlightInventory.SeatResult.TAKEN) {
+                if (random.nextInt(3) == 0) {
+                    inventory.returnSeats(flight, seats);
+                } else {
+                    held.addAndGet(seats);
+                }
+            }
+            lowest.accumulateAndGet(inventory.seatsLeft(flight), Math::min);
+        });
+
+        assertThat(lowest.get()).isNotNegative();
+        assertThat(held.get()).isLessThanOrEqualTo(160);
+        assertThat(inventory.seatsLeft(flight)).isEqualTo(160 - held.get());
+    }
+
+    @Test
+    void returnedSeatsNeverExceedTheCabin() throws Exception {
+        FlightInventory inventory = inventory(7);
+        String flight = id(TODAY.plusDays(1));
+        inventory.takeSeats(flight, 2);
+
+        inventory.returnSeats(flight, 5);
+        assertThat(inventory.seatsLeft(flight)).isEqualTo(160);
+
+        // Stray returns racing on a full flight, e.g. a cancel sent again.
+        race(16, 100, () -> inventory.returnSeats(flight, 1));
+        assertThat(inventory.seatsLeft(flight)).isEqualTo(160);
+    }
+
+    @Test
+    void rollClosesThePastDayAndOpensTheNextOne() throws IOException {
+        FlightInventory inventory = inventory(7);
+        assertThat(search(inventory, TODAY.plusDays(7))).isEmpty();
+
+        inventory.roll(TODAY.plusDays(1));
+
+        assertThat(search(inventory, TODAY)).isEmpty();
+        assertThat(inventory.takeSeats(id(TODAY), 1)).isEqualTo(FlightInventory.SeatResult.UNKNOWN_FLIGHT);
+        assertThat(search(inventory, TODAY.plusDays(7)))
+                .extracting(FlightOffer::flightId)
+                .contains(id(TODAY.plusDays(7)));
+    }
+
+    @Test
+    void seatsSoldStayAcrossARoll() throws IOException {
+        FlightInventory inventory = inventory(180);
+        inventory.takeSeats(id(TODAY.plusDays(3)), 3);
+
+        inventory.roll(TODAY.plusDays(1));
+
+        assertThat(inventory.seatsLeft(id(TODAY.plusDays(3)))).isEqualTo(157);
+    }
+
+    @Test
+    void reopenedDayStartsWithAllSeatsFreeAndItsOwnPrice() throws IOException {
+        FlightInventory inventory = inventory(7);
+        inventory.takeSeats(id(TODAY), 5);
+
+        // A week later, in the slot today used to take.
+        inventory.roll(TODAY.plusDays(1));
+
+        FlightOffer reopened = inventory.find(id(TODAY.plusDays(7))).orElseThrow();
+        assertThat(reopened.seatsAvailable()).isEqualTo(160);
+        assertThat(reopened.departure().date()).isEqualTo(TODAY.plusDays(7).toString());
+        // Same price as an inventory that had the date from the start.
+        assertThat(reopened.price()).isEqualTo(inventory(14).find(id(TODAY.plusDays(7))).orElseThrow().price());
+    }
+
+    @Test
+    void rollAfterDowntimeReopensTheWholeWindow() throws IOException {
+        FlightInventory inventory = inventory(7);
+        inventory.takeSeats(id(TODAY.plusDays(6)), 1);
+
+        inventory.roll(TODAY.plusDays(30));
+
+        for (int day = 0; day < 7; day++) {
+            LocalDate date = TODAY.plusDays(30 + day);
+            assertThat(inventory.seatsLeft(id(date))).as(date.toString()).isEqualTo(160);
+            assertThat(inventory.find(id(date)).orElseThrow().departure().date()).isEqualTo(date.toString());
+        }
+        assertThat(inventory.seatsLeft(id(TODAY.plusDays(29)))).isEqualTo(-1);
+        assertThat(inventory.seatsLeft(id(TODAY.plusDays(37)))).isEqualTo(-1);
+    }
+
+    /**
+     * Runs {@code attempts} on {@code threads} platform threads, all released at once.
+     */
+    private static void race(int threads, int attempts, Runnable attempt) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>(threads);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attempts; i++) {
+                        attempt.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+    }
+
+    static FlightInventory inventory(int horizonDays) throws IOException {
+        return new FlightInventory(new FlightProperties("classpath:flights/", horizonDays, 20, 100),
+                new DefaultResourceLoader(), new SimpleMeterRegistry());
+    }
+
+    static String id(LocalDate date) {
+        return "AI101-" + date.format(DateTimeFormatter.BASIC_ISO_DATE) + "-Y";
+    }
+
+    private static List<FlightOffer> search(FlightInventory inventory, LocalDate date) {
+        return inventory.search(new FlightQuery("DEL", "BOM", date, 1, null, null, null, FlightSort.DEPARTURE,
+                null, 100)).items();
+    }
+}
@@ -0,0 +1,99 @@
+package com.wanderlust.hotel;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Footprint of the room-night calendar and the throughput of its two hot
+ * paths: the availability scan behind a hotel search, and booking plus
+ * cancelling a stay from many threads at once.
+ * {@code mvn test -Pbenchmark -Dtest=HotelAvailabilityBenchmark}; sizes:
+ * {@code -Dbenchmark.hotels=...}, {@code -Dbenchmark.threads=...}.
+ */
+@Tag("benchmark")
+class HotelAvailabilityBenchmark {
+
+    private static final int HOTELS = Integer.getInteger("benchmark.hotels", 100_000);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 16);
+    private static final int HORIZON = 365;
+    private static final int SEARCHES = 2_000;
+    private static final int BOOKINGS = 2_000_000;
+
+    @Test
+    void searchAndBook() throws Exception {
+        int[] totalRooms = new int[HOTELS];
+        for (int hotel = 0; hotel < HOTELS; hotel++) {
+            totalRooms[hotel] = 20 + hotel % 200;
+        }
+        LocalDate today = LocalDate.now();
+        HotelAvailability availability = new HotelAvailability(totalRooms, today, HORIZON);
+        // A destination's worth of hotels per search.
+        int[] destination = new int[Math.min(HOTELS, 1_000)];
+        for (int h = 0; h < destination.length; h++) {
+            destination[h] = h * (HOTELS / destination.length);
+        }
+
+        // Warm-up
+        search(availability, destination, today, SEARCHES / 4);
+        book(availability, today, BOOKINGS / 4);
+
+        long started = System.nanoTime();
+        long rooms = search(availability, destination, today, SEARCHES);
+        long searched = System.nanoTime() - started;
+        started = System.nanoTime();
+        book(availability, today, BOOKINGS);
+        long booked = System.nanoTime() - started;
+
+        System.out.printf("%n%10s %10s %16s %14s %10s%n",
+                "hotels", "KB", "hotel-stays/s", "bookings/s", "threads");
+        System.out.printf("%10d %10d %16.0f %14.0f %10d%n",
+                HOTELS, availability.footprintBytes() / 1024,
+                (double) SEARCHES * destination.length / (searched / 1e9), BOOKINGS / (booked / 1e9), THREADS);
+        assertThat(rooms).isPositive();
+    }
+
+    private static long search(HotelAvailability availability, int[] hotels, LocalDate today, int searches) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long rooms = 0;
+        for (int i = 0; i < searches; i++) {
+            LocalDate checkIn = today.plusDays(random.nextInt(HORIZON - 14));
+            for (int left : availability.roomsLeft(hotels, checkIn, checkIn.plusDays(1 + random.nextInt(14)))) {
+                rooms += left;
+            }
+        }
+        return rooms;
+    }
+
+    private static void book(HotelAvailability availability, LocalDate today, int bookings) throws Exception {
+        List<Future<?>> workers = new ArrayList<>(THREADS);
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < bookings / THREADS; i++) {
+                        // Skewed to a few popular hotels, so counters are contended.
+                        int hotel = random.nextInt(random.nextBoolean() ? 64 : HOTELS);
+                        LocalDate checkIn = today.plusDays(random.nextInt(HORIZON - 7));
+                        LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(7));
+                        if (availability.take(hotel, checkIn, checkOut, 1)) {
+                            availability.giveBack(hotel, checkIn, checkOut, 1);
+                        }
+                    }
+                }));
+            }
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.wanderlust.hotel;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Counters share 64-bit words; each must still behave like its own. The
+ * calendar moves with the date: past nights close, new ones open with every
+ * room free, and rooms taken on the nights in between are kept.
+ */
+class HotelAvailabilityTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Test
+    void stayTakesEveryNightOrNone() {
+        HotelAvailability availability = new HotelAvailability(new int[] { 3 }, TODAY, 10);
+        assertThat(availability.take(0, TODAY.plusDays(2), TODAY.plusDays(3), 3)).isTrue();
+
+        // Night 2 is full: nights 0 and 1 are given back.
+        assertThat(availability.take(0, TODAY, TODAY.plusDays(5), 1)).isFalse();
+
+        assertThat(availability.roomsLeft(0, TODAY, TODAY.plusDays(2))).isEqualTo(3);
+        assertThat(availability.roomsLeft(0, TODAY, TODAY.plusDays(5))).isZero();
+    }
+
+    @Test
+    void neighboursInAWordDoNotLeakIntoEachOther() {
+        // Horizon 3: hotel 1's first night shares a word with hotel 0's nights.
+        HotelAvailability availability = new HotelAvailability(new int[] { 5, HotelAvailability.MAX_ROOMS, 0 },
+                TODAY, 3);
+
+        assertThat(availability.take(0, TODAY, TODAY.plusDays(3), 5)).isTrue();
+        assertThat(availability.take(0, TODAY, TODAY.plusDays(1), 1)).isFalse();
+        assertThat(availability.take(2, TODAY, TODAY.plusDays(1), 1)).isFalse();
+        availability.giveBack(0, TODAY, TODAY.plusDays(3), 5);
+        // Given back twice (at-least-once compensation): capped at the hotel's rooms.
+        availability.giveBack(0, TODAY, TODAY.plusDays(3), 5);
+        availability.giveBack(1, TODAY, TODAY.plusDays(3), 7);
+
+        assertThat(availability.roomsLeft(new int[] { 0, 1, 2 }, TODAY, TODAY.plusDays(3)))
+                .containsExactly(5, HotelAvailability.MAX_ROOMS, 0);
+    }
+
+    @Test
+    void hotelWithMoreRoomsThanACounterHoldsIsRejected() {
+        assertThatThrownBy(() -> new HotelAvailability(new int[] { HotelAvailability.MAX_ROOMS + 1 }, TODAY, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rollClosesThePastNightAndOpensTheNextOne() {
+        HotelAvailability availability = new HotelAvailability(new int[] { 4 }, TODAY, 7);
+        assertThat(availability.roomsLeft(0, TODAY.plusDays(6), TODAY.plusDays(8))).isZero();
+
+        availability.roll(TODAY.plusDays(1));
+
+        assertThat(availability.firstNight()).isEqualTo(TODAY.plusDays(1));
+        assertThat(availability.take(0, TODAY, TODAY.plusDays(1), 1)).isFalse();
+        assertThat(availability.roomsLeft(0, TODAY.plusDays(6), TODAY.plusDays(8))).isEqualTo(4);
+    }
+
+    @Test
+    void roomsTakenStayAcrossARoll() {
+        HotelAvailability availability = new HotelAvailability(new int[] { 4 }, TODAY, 7);
+        availability.take(0, TODAY, TODAY.plusDays(4), 3);
+
+        availability.roll(TODAY.plusDays(1));
+
+        assertThat(availability.roomsLeft(0, TODAY.plusDays(1), TODAY.plusDays(4))).isEqualTo(1);
+        // A stay reaching into the wrapped-around slots: only nights 1-3 are taken.
+        assertThat(availability.roomsLeft(0, TODAY.plusDays(3), TODAY.plusDays(8))).isEqualTo(1);
+        assertThat(availability.roomsLeft(0, TODAY.plusDays(4), TODAY.plusDays(8))).isEqualTo(4);
+    }
+
+    @Test
+    void reopenedNightStartsWithEveryRoomFree() {
+        HotelAvailability availability = new HotelAvailability(new int[] { 4 }, TODAY, 7);
+        // Tonight and the night after the window end share a slot of the ring.
+        availability.take(0, TODAY, TODAY.plusDays(7), 4);
+
+        availability.roll(TODAY.plusDays(1));
+        availability.roll(TODAY.plusDays(2));
+
+        assertThat(availability.roomsLeft(0, TODAY.plusDays(7), TODAY.plusDays(9))).isEqualTo(4);
+        assertThat(availability.take(0, TODAY.plusDays(7), TODAY.plusDays(9), 4)).isTrue();
+        assertThat(availability.roomsLeft(0, TODAY.plusDays(2), TODAY.plusDays(7))).isZero();
+    }
+
+    @Test
+    void rollAfterDowntimeReopensTheWholeWindow() {
+        HotelAvailability availability = new HotelAvailability(new int[] { 4, 2 }, TODAY, 7);
+        availability.take(0, TODAY.plusDays(5), TODAY.plusDays(7), 4);
+        availability.take(1, TODAY, TODAY.plusDays(7), 2);
+
+        availability.roll(TODAY.plusDays(30));
+
+        assertThat(availability.roomsLeft(new int[] { 0, 1 }, TODAY.plusDays(30), TODAY.plusDays(37)))
+                .containsExactly(4, 2);
+        assertThat(availability.roomsLeft(0, TODAY.plusDays(29), TODAY.plusDays(30))).isZero();
+        assertThat(availability.roomsLeft(0, TODAY.plusDays(36), TODAY.plusDays(38))).isZero();
+    }
+
+    @Test
+    void roomsGivenBackAfterARollOnlyReturnNightsStillOpen() {
+        HotelAvailability availability = new HotelAvailability(new int[] { 4 }, TODAY, 7);
+        availability.take(0, TODAY, TODAY.plusDays(3), 2);
+        availability.roll(TODAY.plusDays(1));
+
+        availability.giveBack(0, TODAY, TODAY.plusDays(3), 2);
+
+        assertThat(availability.roomsLeft(0, TODAY.plusDays(1), TODAY.plusDays(8))).isEqualTo(4);
+    }
+
+    @Test
+    void racingStaysOnNeighbouringHotelsNeverOversell() throws Exception {
+        // Four hotels of 7 nights: every word is shared by two hotels.
+        HotelAvailability availability = new HotelAvailability(new int[] { 40, 40, 40, 40 }, TODAY, 7);
+        AtomicInteger[] taken = { new AtomicInteger(), new AtomicInteger(), new AtomicInteger(), new AtomicInteger() };
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(32)) {
+            for (int t = 0; t < 32; t++) {
+                int hotel = t % 4;
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 200; i++) {
+                        if (availability.take(hotel, TODAY.plusDays(i % 3), TODAY.plusDays(i % 3 + 4), 1)) {
+                            taken[hotel].incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+
+        for (int hotel = 0; hotel < 4; hotel++) {
+            // Every stay covers nights 2 and 3.
+            assertThat(taken[hotel].get()).isEqualTo(40);
+            assertThat(availability.roomsLeft(hotel, TODAY.plusDays(2), TODAY.plusDays(4))).isZero();
+            assertThat(availability.roomsLeft(hotel, TODAY, TODAY.plusDays(7))).isZero();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.wanderlust.notification;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal SMTP server on a random local port, standing in for the email
+ * provider. Accepts every message (or, while {@link #failing}, refuses them
+ * with a 451) and keeps what it received.
+ */
+class FakeSmtpServer implements AutoCloseable {
+
+    /** One accepted message. */
+    record Received(List<String> recipients, String data) {
+
+        boolean hasSubject(String subject) {
+            return data.contains("Subject: " + subject);
+        }
+    }
+
+    private final ServerSocket socket;
+    private final Thread acceptor;
+    private final List<Received> received = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile boolean failing;
+
+    FakeSmtpServer() throws IOException {
+        this.socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.acceptor = Thread.ofVirtual().start(this::accept);
+    }
+
+    int port() {
+        return socket.getLocalPort();
+    }
+
+    List<Received> received() {
+        return List.copyOf(received);
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    /** While true, every message is refused with a transient error. */
+    void failing(boolean failing) {
+        this.failing = failing;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        acceptor.interrupt();
+    }
+
+    private void accept() {
+        while (!socket.isClosed()) {
+            try {
+                Socket client = socket.accept();
+                connections.incrementAndGet();
+                Thread.ofVirtual().start(() -> serve(client));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        try (client;
+                BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(),
+                        StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            reply(out, "220 localhost fake ESMTP");
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                    reply(out, "250 localhost");
+                } else if (command.startsWith("MAIL FROM")) {
+                    recipients.clear();
+                    reply(out, "250 OK");
+                } else if (command.startsWith("RCPT TO")) {
+                    recipients.add(line.substring(line.indexOf('<') + 1, line.indexOf('>')));
+                    reply(out, "250 OK");
+                } else if (command.equals("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder data = new StringBuilder();
+                    while (!(line = in.readLine()).equals(".")) {
+                        data.append(line).append('\n');
+                    }
+                    if (failing) {
+                        reply(out, "451 Try again later");
+                    } else {
+                        received.add(new Received(List.copyOf(recipients), data.toString()));
+                        reply(out, "250 OK");
+                    }
+                } else if (command.equals("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    // RSET, NOOP, ...
+                    reply(out, "250 OK");
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Client went away.
+        }
+    }
+
+    private static void reply(PrintWriter out, String line) {
+        out.print(line + "\r\n");
+        out.flush();
+    }
+}
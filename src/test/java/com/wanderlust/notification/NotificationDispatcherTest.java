@@ -0,0 +1,147 @@
+package com.wanderlust.notification;
+
+import com.wanderlust.order.BookingConfirmedEvent;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static com.wanderlust.notification.SmtpNotificationSenderTest.booking;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A confirmation is only done once the (fake) SMTP server accepted it; until
+ * then it is pending in {@code notification_pending}, whatever happens.
+ */
+// application.yml pins the PostgreSQL dialect; H2 needs its own for SKIP LOCKED.
+@DataJpaTest(showSql = false,
+        properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationDispatcherTest {
+
+    @Autowired
+    private PendingNotificationRepository notifications;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private FakeSmtpServer smtp;
+    private final List<NotificationDispatcher> dispatchers = new ArrayList<>();
+
+    @BeforeEach
+    void start() throws Exception {
+        notifications.deleteAll();
+        smtp = new FakeSmtpServer();
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        for (NotificationDispatcher dispatcher : dispatchers) {
+            dispatcher.stopWorker();
+        }
+        smtp.close();
+    }
+
+    @Test
+    void confirmationIsMarkedSentOnceTheProviderTookIt() {
+        NotificationDispatcher dispatcher = dispatcher(SmtpNotificationSenderTest.properties(), true);
+
+        dispatcher.enqueue(booking("OR-1", "alice"));
+        dispatcher.enqueue(booking("OR-2", "alice"));
+
+        await(() -> notifications.countBySentAtIsNull() == 0);
+        assertThat(notifications.count()).isEqualTo(2);
+        // Same user within the coalescing window: one email.
+        assertThat(smtp.received()).hasSize(1);
+        assertThat(smtp.received().get(0).hasSubject("Your 2 trips are booked")).isTrue();
+    }
+
+    @Test
+    void confirmationWhoseAttemptsRanOutStaysPending() {
+        smtp.failing(true);
+        NotificationDispatcher dispatcher = dispatcher(SmtpNotificationSenderTest.properties(), true);
+
+        dispatcher.enqueue(booking("OR-1", "alice"));
+
+        await(() -> notifications.findById("OR-1").orElseThrow().getAttempts() == 2);
+        PendingNotification pending = notifications.findById("OR-1").orElseThrow();
+        assertThat(pending.getSentAt()).isNull();
+        assertThat(pending.getLastError()).isNotBlank();
+        // Tried again after retry-delay (1h), not dropped.
+        assertThat(pending.getNextAttemptAt()).isAfter(Instant.now().plus(Duration.ofMinutes(50)));
+        assertThat(smtp.received()).isEmpty();
+    }
+
+    @Test
+    void confirmationQueuedOnANodeThatDiedIsSentByAnother() {
+        NotificationProperties noLease = new NotificationProperties("smtp", 100, Duration.ofMillis(50), 100, 2,
+                Duration.ofMillis(10), Duration.ofHours(1), Duration.ofSeconds(10), Duration.ZERO,
+                Duration.ofDays(1), "WanderLust <bookings@wanderlust.example>", "wanderlust.example");
+        // Accepted (stored and queued in memory), but the node dies before sending.
+        dispatcher(noLease, false).enqueue(booking("OR-1", "alice"));
+        assertThat(notifications.countBySentAtIsNull()).isEqualTo(1);
+
+        dispatcher(noLease, true).requeueDue();
+
+        await(() -> notifications.countBySentAtIsNull() == 0);
+        assertThat(smtp.received()).hasSize(1);
+    }
+
+    @Test
+    void redeliveredConfirmationIsNotMailedAgain() {
+        NotificationDispatcher dispatcher = dispatcher(SmtpNotificationSenderTest.properties(), true);
+        BookingConfirmedEvent event = booking("OR-1", "alice");
+
+        dispatcher.enqueue(event);
+        await(() -> notifications.countBySentAtIsNull() == 0);
+        dispatcher.enqueue(event);
+        dispatcher.requeueDue();
+
+        assertThat(notifications.count()).isEqualTo(1);
+        assertThat(smtp.received()).hasSize(1);
+    }
+
+    private NotificationDispatcher dispatcher(NotificationProperties properties, boolean running) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.port());
+        NotificationDispatcher dispatcher = new NotificationDispatcher(
+                new SmtpNotificationSender(mailSender, properties), properties, notifications, transactionManager,
+                RateLimiterRegistry.of(RateLimiterConfig.custom()
+                        .limitForPeriod(100)
+                        .limitRefreshPeriod(Duration.ofSeconds(1))
+                        .timeoutDuration(Duration.ZERO)
+                        .build()),
+                new SimpleMeterRegistry());
+        if (running) {
+            dispatcher.startWorker();
+            dispatchers.add(dispatcher);
+        }
+        return dispatcher;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
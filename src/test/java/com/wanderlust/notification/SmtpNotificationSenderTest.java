@@ -0,0 +1,72 @@
+package com.wanderlust.notification;
+
+import com.wanderlust.order.BookingConfirmedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Sends through a real SMTP conversation with {@link FakeSmtpServer}.
+ */
+class SmtpNotificationSenderTest {
+
+    private FakeSmtpServer smtp;
+    private SmtpNotificationSender sender;
+
+    @BeforeEach
+    void start() throws Exception {
+        smtp = new FakeSmtpServer();
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.port());
+        sender = new SmtpNotificationSender(mailSender, properties());
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        smtp.close();
+    }
+
+    @Test
+    void wholeBatchGoesOutOverOneConnection() {
+        sender.send(List.of(
+                new Notification("alice", List.of(booking("OR-1", "alice"), booking("OR-2", "alice"))),
+                new Notification("bob@example.org", List.of(booking("OR-3", "bob@example.org")))));
+
+        assertThat(smtp.connections()).isEqualTo(1);
+        assertThat(smtp.received()).hasSize(2);
+        assertThat(smtp.received().get(0).recipients()).containsExactly("alice@wanderlust.example");
+        assertThat(smtp.received().get(0).hasSubject("Your 2 trips are booked")).isTrue();
+        assertThat(smtp.received().get(1).recipients()).containsExactly("bob@example.org");
+        assertThat(smtp.received().get(1).hasSubject("Your trip is booked: OR-3")).isTrue();
+    }
+
+    @Test
+    void refusedMessageFailsTheSend() {
+        smtp.failing(true);
+
+        assertThatThrownBy(() -> sender.send(List.of(new Notification("alice", List.of(booking("OR-1", "alice"))))))
+                .isInstanceOf(MailException.class);
+        assertThat(smtp.received()).isEmpty();
+    }
+
+    static BookingConfirmedEvent booking(String bookingId, String userId) {
+        return new BookingConfirmedEvent(bookingId, userId, "FL-1", "HT-1", "FB-" + bookingId, "HB-" + bookingId,
+                500.0, Instant.now());
+    }
+
+    static NotificationProperties properties() {
+        return new NotificationProperties("smtp", 100, Duration.ofMillis(50), 100, 2, Duration.ofMillis(10),
+                Duration.ofHours(1), Duration.ofSeconds(10), Duration.ofMinutes(1), Duration.ofDays(1),
+                "WanderLust <bookings@wanderlust.example>", "wanderlust.example");
+    }
+}
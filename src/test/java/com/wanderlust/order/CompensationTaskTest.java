@@ -0,0 +1,35 @@
+package com.wanderlust.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompensationTaskTest {
+
+    private final CompensationTask task = new CompensationTask("saga-1", CompensationTask.Leg.FLIGHT, "FB-1",
+            Instant.now());
+
+    @Test
+    void longErrorIsTruncatedToTheColumn() {
+        task.retryAt(Instant.now(), "<html>" + "x".repeat(10_000) + "</html>");
+
+        assertThat(task.getLastError()).hasSize(CompensationTask.MAX_ERROR_LENGTH).startsWith("<html>xxx").endsWith("…");
+        assertThat(task.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void shortErrorIsKeptAsItIs() {
+        task.retryAt(Instant.now(), "flightGateway is saturated, cancelAll rejected");
+
+        assertThat(task.getLastError()).isEqualTo("flightGateway is saturated, cancelAll rejected");
+    }
+
+    @Test
+    void missingErrorStaysMissing() {
+        task.retryAt(Instant.now(), null);
+
+        assertThat(task.getLastError()).isNull();
+    }
+}
@@ -0,0 +1,156 @@
+package com.wanderlust.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wanderlust.shared.IdGenerator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.ResponseEntity;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Lua scripts against a real Redis (Docker, skipped without it).
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class IdempotencyStoreTest {
+
+    private static final String KEY = "booking-key-1";
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void flush() {
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.delete(KEY);
+    }
+
+    @Test
+    void onlyTheFirstClaimAcquiresTheKey() {
+        IdempotencyStore store = store();
+
+        IdempotencyStore.Claim first = store.claim(KEY);
+        IdempotencyStore.Claim second = store.claim(KEY);
+
+        assertThat(first.outcome()).isEqualTo(IdempotencyStore.Claim.Outcome.ACQUIRED);
+        assertThat(first.token()).isNotBlank();
+        assertThat(second.outcome()).isEqualTo(IdempotencyStore.Claim.Outcome.IN_PROGRESS);
+    }
+
+    @Test
+    void concurrentClaimsAcquireTheKeyOnce() throws Exception {
+        IdempotencyStore store = store();
+        List<Callable<IdempotencyStore.Claim>> clicks = IntStream.range(0, 32)
+                .<Callable<IdempotencyStore.Claim>>mapToObj(i -> () -> store.claim(KEY))
+                .toList();
+
+        List<Future<IdempotencyStore.Claim>> claims;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            claims = executor.invokeAll(clicks);
+        }
+
+        assertThat(claims).filteredOn(claim -> claim.resultNow().outcome()
+                == IdempotencyStore.Claim.Outcome.ACQUIRED).hasSize(1);
+    }
+
+    @Test
+    void completedResponseIsReplayedFromRedis() {
+        IdempotencyStore.Claim claim = store().claim(KEY);
+        store().complete(KEY, claim.token(), ResponseEntity.ok("Booked!"));
+
+        // A fresh store has an empty near-cache, so this answer comes from Redis.
+        IdempotencyStore.Claim duplicate = store().claim(KEY);
+
+        assertThat(duplicate.outcome()).isEqualTo(IdempotencyStore.Claim.Outcome.COMPLETED);
+        assertThat(duplicate.response().status()).isEqualTo(200);
+        assertThat(duplicate.response().body()).isEqualTo("Booked!");
+    }
+
+    @Test
+    void finalResponseIsServedFromTheNearCache() {
+        IdempotencyStore store = store();
+        IdempotencyStore.Claim claim = store.claim(KEY);
+        store.complete(KEY, claim.token(), ResponseEntity.ok("Booked!"));
+        redisTemplate.delete(KEY);
+
+        assertThat(store.claim(KEY).outcome()).isEqualTo(IdempotencyStore.Claim.Outcome.COMPLETED);
+    }
+
+    @Test
+    void staleReleaseKeepsTheKeyOfALaterClaim() {
+        IdempotencyStore store = store();
+        IdempotencyStore.Claim first = store.claim(KEY);
+        store.release(KEY, first.token());
+        IdempotencyStore.Claim second = store.claim(KEY);
+
+        store.release(KEY, first.token());
+
+        assertThat(second.outcome()).isEqualTo(IdempotencyStore.Claim.Outcome.ACQUIRED);
+        assertThat(store.claim(KEY).outcome()).isEqualTo(IdempotencyStore.Claim.Outcome.IN_PROGRESS);
+    }
+
+    @Test
+    void completeAfterReleaseStoresNothing() {
+        IdempotencyStore store = store();
+        IdempotencyStore.Claim claim = store.claim(KEY);
+        store.release(KEY, claim.token());
+
+        store.complete(KEY, claim.token(), ResponseEntity.accepted().body("late"));
+
+        assertThat(redisTemplate.hasKey(KEY)).isFalse();
+        assertThat(store.claim(KEY).outcome()).isEqualTo(IdempotencyStore.Claim.Outcome.ACQUIRED);
+    }
+
+    @Test
+    void releasedAcceptedResponseIsGoneOnEveryNode() {
+        IdempotencyStore node1 = store();
+        IdempotencyStore node2 = store();
+        IdempotencyStore.Claim claim = node1.claim(KEY);
+        node1.complete(KEY, claim.token(), ResponseEntity.accepted().body("queued"));
+        assertThat(node2.claim(KEY).outcome()).isEqualTo(IdempotencyStore.Claim.Outcome.COMPLETED);
+
+        // The saga behind the 202 failed: node2 must not keep replaying the 202.
+        node1.release(KEY, claim.token());
+
+        assertThat(node2.claim(KEY).outcome()).isEqualTo(IdempotencyStore.Claim.Outcome.ACQUIRED);
+    }
+
+    private IdempotencyStore store() {
+        return new IdempotencyStore(redisTemplate, new ObjectMapper(),
+                new IdempotencyProperties(Duration.ofMinutes(10), 100, Duration.ofMinutes(1)), new IdGenerator());
+    }
+}
@@ -0,0 +1,47 @@
+package com.wanderlust.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The itinerary's ETag follows its content, not the moment it was projected.
+ */
+class ItineraryViewTest {
+
+    private static final Instant CONFIRMED_AT = Instant.parse("2026-05-01T10:15:30.123456789Z");
+    private static final BookingConfirmedEvent EVENT = new BookingConfirmedEvent("OR-1", "user-1", "FL-1", "HT-1",
+            "FB-1", "HB-1", 500.0, CONFIRMED_AT);
+
+    @Test
+    void reprojectedItineraryKeepsItsEtag() {
+        ItineraryProjection.Entry live = ItineraryProjection.Entry.of(new ItineraryView(EVENT, Instant.now()));
+        ItineraryProjection.Entry rebuilt = ItineraryProjection.Entry.of(
+                new ItineraryView(EVENT, Instant.now().plus(Duration.ofDays(1))));
+
+        assertThat(rebuilt.etag()).isEqualTo(live.etag());
+    }
+
+    @Test
+    void confirmationTimeIsHashedAtTheStoredPrecision() {
+        // Postgres keeps microseconds: the row read back must hash like the copy cached on write.
+        BookingConfirmedEvent stored = new BookingConfirmedEvent("OR-1", "user-1", "FL-1", "HT-1", "FB-1", "HB-1",
+                500.0, Instant.parse("2026-05-01T10:15:30.123456Z"));
+
+        assertThat(ItineraryProjection.Entry.of(new ItineraryView(stored, Instant.now())).etag())
+                .isEqualTo(ItineraryProjection.Entry.of(new ItineraryView(EVENT, Instant.now())).etag());
+    }
+
+    @Test
+    void differentContentHasADifferentEtag() {
+        BookingConfirmedEvent otherHotel = new BookingConfirmedEvent("OR-1", "user-1", "FL-1", "HT-2", "FB-1",
+                "HB-2", 500.0, CONFIRMED_AT);
+        Instant projectedAt = Instant.now();
+
+        assertThat(ItineraryProjection.Entry.of(new ItineraryView(otherHotel, projectedAt)).etag())
+                .isNotEqualTo(ItineraryProjection.Entry.of(new ItineraryView(EVENT, projectedAt)).etag());
+    }
+}
@@ -0,0 +1,92 @@
+package com.wanderlust.order;
+
+import com.wanderlust.shared.IdGenerator;
+import com.wanderlust.shared.TripRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ordering of the idempotency writes around the background Saga.
+ */
+class OrderControllerTest {
+
+    private static final String KEY = "booking-key-1";
+    private static final String TOKEN = "claim-token";
+    private static final TripRequest TRIP = new TripRequest("FL-1", "HT-1", "user-1", 500.0);
+
+    private final IdempotencyStore idempotencyStore = mock(IdempotencyStore.class);
+    private final OrderSaga orderSaga = mock(OrderSaga.class);
+    private final SagaExecutor sagaExecutor = mock(SagaExecutor.class);
+    private final SagaTracker sagaTracker = mock(SagaTracker.class);
+
+    private OrderController controller;
+
+    @BeforeEach
+    void setUp() {
+        SagaProperties properties = new SagaProperties(true, true, 64, 512, Duration.ofMinutes(30), 256,
+                Duration.ofMinutes(1), Duration.ofMinutes(2), 8, 100);
+        controller = new OrderController(idempotencyStore, orderSaga, sagaExecutor, sagaTracker, properties,
+                new IdGenerator());
+        when(idempotencyStore.claim(KEY)).thenReturn(IdempotencyStore.Claim.acquired(TOKEN));
+        when(sagaTracker.start(anyString(), eq(TRIP)))
+                .thenAnswer(invocation -> SagaStatus.started(invocation.getArgument(0), TRIP.userId()));
+    }
+
+    @Test
+    void acceptedResponseIsStoredBeforeTheSagaCanFailAndReleaseIt() {
+        ResponseEntity<?> response = controller.bookTrip(KEY, TRIP);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+
+        ArgumentCaptor<Runnable> saga = ArgumentCaptor.forClass(Runnable.class);
+        verify(sagaExecutor).submit(anyString(), saga.capture());
+        when(orderSaga.bookTrip(anyString(), eq(TRIP))).thenThrow(new RuntimeException("Flight unavailable"));
+        saga.getValue().run();
+
+        InOrder order = inOrder(idempotencyStore, sagaExecutor);
+        order.verify(idempotencyStore).complete(eq(KEY), eq(TOKEN), any());
+        order.verify(sagaExecutor).submit(anyString(), any());
+        order.verify(idempotencyStore).release(KEY, TOKEN);
+        verify(sagaTracker).done(anyString());
+    }
+
+    @Test
+    void rejectedSagaReleasesTheKeyItStored() {
+        doThrow(new SagaRejectedException("saga-1")).when(sagaExecutor).submit(anyString(), any());
+
+        ResponseEntity<?> response = controller.bookTrip(KEY, TRIP);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        InOrder order = inOrder(idempotencyStore);
+        order.verify(idempotencyStore).complete(eq(KEY), eq(TOKEN), any());
+        order.verify(idempotencyStore).release(KEY, TOKEN);
+    }
+
+    @Test
+    void unjournaledSagaIsNeitherAcceptedNorQueued() {
+        when(sagaTracker.start(anyString(), eq(TRIP))).thenThrow(new IllegalStateException("journal down"));
+
+        assertThatThrownBy(() -> controller.bookTrip(KEY, TRIP)).isInstanceOf(IllegalStateException.class);
+
+        verify(idempotencyStore).release(KEY, TOKEN);
+        verify(idempotencyStore, never()).complete(anyString(), anyString(), any());
+        verify(sagaExecutor, never()).submit(anyString(), any());
+    }
+}
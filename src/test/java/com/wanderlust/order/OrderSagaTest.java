@@ -0,0 +1,194 @@
+package com.wanderlust.order;
+
+import com.wanderlust.flight.FlightGateway;
+import com.wanderlust.hotel.HotelGateway;
+import com.wanderlust.payment.PaymentFailedException;
+import com.wanderlust.payment.PaymentGateway;
+import com.wanderlust.payment.Refund;
+import com.wanderlust.shared.BookingResult;
+import com.wanderlust.shared.IdGenerator;
+import com.wanderlust.shared.TripRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Every combination of leg outcomes, in both reservation modes: whatever
+ * happens, a reservation that was made ends up either in a confirmed order or
+ * in the compensation queue.
+ */
+class OrderSagaTest {
+
+    private static final String SAGA = "saga-1";
+    private static final String FLIGHT_BOOKING = "FB-1";
+    private static final String HOTEL_BOOKING = "HB-1";
+    private static final TripRequest TRIP = new TripRequest("FL-1", "HT-1", "user-1", 500.0);
+
+    /** How a leg's gateway call ends. */
+    enum Leg {
+        RESERVED, UNAVAILABLE, THROWS
+    }
+
+    private final FlightGateway flightGateway = mock(FlightGateway.class);
+    private final HotelGateway hotelGateway = mock(HotelGateway.class);
+    private final PaymentGateway paymentGateway = mock(PaymentGateway.class);
+    private final SagaTracker sagaTracker = mock(SagaTracker.class);
+    private final CompensationQueue compensationQueue = mock(CompensationQueue.class);
+
+    static Stream<Arguments> legOutcomes() {
+        List<Arguments> combinations = new ArrayList<>();
+        for (boolean parallel : new boolean[] { true, false }) {
+            for (Leg flight : Leg.values()) {
+                for (Leg hotel : Leg.values()) {
+                    combinations.add(Arguments.of(parallel, flight, hotel));
+                }
+            }
+        }
+        return combinations.stream();
+    }
+
+    @ParameterizedTest(name = "parallel={0} flight={1} hotel={2}")
+    @MethodSource("legOutcomes")
+    void everyReservedLegIsConfirmedOrCompensated(boolean parallel, Leg flight, Leg hotel) {
+        stub(flightGateway.reserve(TRIP.flightId()), flight, FLIGHT_BOOKING);
+        stub(hotelGateway.reserve(TRIP.hotelId()), hotel, HOTEL_BOOKING);
+        OrderSaga saga = saga(parallel);
+
+        if (flight == Leg.RESERVED && hotel == Leg.RESERVED) {
+            assertThat(saga.bookTrip(SAGA, TRIP)).isNotBlank();
+            verify(sagaTracker).advance(SAGA, SagaState.CHARGED);
+            verify(sagaTracker).confirm(eq(SAGA), any(BookingConfirmedEvent.class));
+            verify(flightGateway).confirmed(FLIGHT_BOOKING);
+            verify(hotelGateway).confirmed(HOTEL_BOOKING);
+            verify(compensationQueue, never()).enqueue(anyString(), any(), any());
+            return;
+        }
+
+        assertThatThrownBy(() -> saga.bookTrip(SAGA, TRIP)).isInstanceOf(RuntimeException.class);
+        verify(paymentGateway, never()).charge(anyString(), anyDouble());
+        verify(sagaTracker, never()).confirm(anyString(), any());
+
+        // Sequential mode never tries the hotel once the flight is gone.
+        boolean hotelTried = parallel || flight == Leg.RESERVED;
+        boolean flightHeld = flight == Leg.RESERVED;
+        boolean hotelHeld = hotelTried && hotel == Leg.RESERVED;
+        if (!hotelTried) {
+            verify(hotelGateway, never()).reserve(anyString());
+        }
+        if (flightHeld || hotelHeld) {
+            verify(compensationQueue).enqueue(SAGA, flightHeld ? FLIGHT_BOOKING : null,
+                    hotelHeld ? HOTEL_BOOKING : null);
+            verify(sagaTracker).advance(SAGA, SagaState.COMPENSATING);
+            verify(sagaTracker).fail(eq(SAGA), eq(SagaState.COMPENSATED), anyString());
+        } else {
+            verify(compensationQueue, never()).enqueue(anyString(), any(), any());
+        }
+    }
+
+    @ParameterizedTest(name = "parallel={0}")
+    @ValueSource(booleans = { true, false })
+    void failedPaymentCompensatesBothLegs(boolean parallel) {
+        stub(flightGateway.reserve(TRIP.flightId()), Leg.RESERVED, FLIGHT_BOOKING);
+        stub(hotelGateway.reserve(TRIP.hotelId()), Leg.RESERVED, HOTEL_BOOKING);
+        doThrow(new IllegalStateException("card declined")).when(paymentGateway).charge(anyString(), anyDouble());
+
+        assertThatThrownBy(() -> saga(parallel).bookTrip(SAGA, TRIP)).isInstanceOf(PaymentFailedException.class);
+
+        verify(compensationQueue).enqueue(SAGA, FLIGHT_BOOKING, HOTEL_BOOKING);
+        verify(sagaTracker).fail(eq(SAGA), eq(SagaState.COMPENSATED), anyString());
+        verify(sagaTracker, never()).advance(SAGA, SagaState.CHARGED);
+    }
+
+    @ParameterizedTest(name = "parallel={0}")
+    @ValueSource(booleans = { true, false })
+    void reservationWhoseJournalEntryFailedIsCompensated(boolean parallel) {
+        stub(flightGateway.reserve(TRIP.flightId()), Leg.RESERVED, FLIGHT_BOOKING);
+        stub(hotelGateway.reserve(TRIP.hotelId()), Leg.RESERVED, HOTEL_BOOKING);
+        doThrow(new IllegalStateException("journal down")).when(sagaTracker)
+                .reserved(SAGA, SagaState.HOTEL_RESERVED, HOTEL_BOOKING);
+
+        assertThatThrownBy(() -> saga(parallel).bookTrip(SAGA, TRIP)).isInstanceOf(RuntimeException.class);
+
+        // The unjournaled hotel is undone on its own, the journaled flight by requireBoth.
+        verify(compensationQueue).enqueue(SAGA, null, HOTEL_BOOKING);
+        verify(compensationQueue).enqueue(SAGA, FLIGHT_BOOKING, null);
+        verify(paymentGateway, never()).charge(anyString(), anyDouble());
+    }
+
+    @ParameterizedTest(name = "parallel={0}")
+    @ValueSource(booleans = { true, false })
+    void flightWhoseJournalEntryFailedIsCompensated(boolean parallel) {
+        stub(flightGateway.reserve(TRIP.flightId()), Leg.RESERVED, FLIGHT_BOOKING);
+        stub(hotelGateway.reserve(TRIP.hotelId()), Leg.UNAVAILABLE, null);
+        doThrow(new IllegalStateException("journal down")).when(sagaTracker)
+                .reserved(SAGA, SagaState.FLIGHT_RESERVED, FLIGHT_BOOKING);
+
+        assertThatThrownBy(() -> saga(parallel).bookTrip(SAGA, TRIP)).isInstanceOf(RuntimeException.class);
+
+        verify(compensationQueue).enqueue(SAGA, FLIGHT_BOOKING, null);
+        verify(compensationQueue, never()).enqueue(eq(SAGA), isNull(), anyString());
+    }
+
+    @ParameterizedTest(name = "parallel={0}")
+    @ValueSource(booleans = { true, false })
+    void chargeWhoseJournalEntryFailedIsRefunded(boolean parallel) {
+        stub(flightGateway.reserve(TRIP.flightId()), Leg.RESERVED, FLIGHT_BOOKING);
+        stub(hotelGateway.reserve(TRIP.hotelId()), Leg.RESERVED, HOTEL_BOOKING);
+        doThrow(new IllegalStateException("journal down")).when(sagaTracker).advance(SAGA, SagaState.CHARGED);
+
+        assertThatThrownBy(() -> saga(parallel).bookTrip(SAGA, TRIP)).hasMessage("journal down");
+
+        verify(compensationQueue).enqueue(SAGA, FLIGHT_BOOKING, HOTEL_BOOKING,
+                new Refund(SAGA, TRIP.userId(), TRIP.amount()));
+        verify(sagaTracker).fail(eq(SAGA), eq(SagaState.COMPENSATED), anyString());
+        verify(sagaTracker, never()).confirm(anyString(), any());
+    }
+
+    @Test
+    void chargeIsRefundedRightAwayWhenTheQueueIsDownToo() {
+        stub(flightGateway.reserve(TRIP.flightId()), Leg.RESERVED, FLIGHT_BOOKING);
+        stub(hotelGateway.reserve(TRIP.hotelId()), Leg.RESERVED, HOTEL_BOOKING);
+        doThrow(new IllegalStateException("journal down")).when(sagaTracker).advance(SAGA, SagaState.CHARGED);
+        doThrow(new IllegalStateException("database down")).when(compensationQueue)
+                .enqueue(anyString(), any(), any(), any());
+
+        assertThatThrownBy(() -> saga(true).bookTrip(SAGA, TRIP)).hasMessage("journal down");
+
+        verify(paymentGateway).refund(new Refund(SAGA, TRIP.userId(), TRIP.amount()));
+    }
+
+    private OrderSaga saga(boolean parallel) {
+        SagaProperties properties = new SagaProperties(parallel, true, 64, 512, Duration.ofMinutes(30), 256,
+                Duration.ofMinutes(1), Duration.ofMinutes(2), 8, 100);
+        return new OrderSaga(flightGateway, hotelGateway, paymentGateway, properties, sagaTracker,
+                compensationQueue, new IdGenerator());
+    }
+
+    private static void stub(BookingResult call, Leg outcome, String bookingId) {
+        switch (outcome) {
+            case RESERVED -> when(call).thenReturn(BookingResult.success(bookingId));
+            case UNAVAILABLE -> when(call).thenReturn(BookingResult.failed("Simulated Failure"));
+            case THROWS -> when(call).thenThrow(new IllegalStateException("Supplier down"));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.wanderlust.order;
+
+import com.wanderlust.shared.IdGenerator;
+import com.wanderlust.shared.TripRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-booking cost of the durable saga journal: the five transitions of a
+ * confirmed booking (STARTED, FLIGHT_RESERVED, HOTEL_RESERVED, CHARGED,
+ * CONFIRMED), each blocking until its group commit is durable.
+ * <p>
+ * Runs against the test database (in-memory H2). For numbers that mean
+ * something in production, point it at Postgres:
+ * {@code mvn test -Pbenchmark -Dtest=SagaLogBenchmark
+ * -Dspring.datasource.url=jdbc:postgresql://localhost:5432/wanderlust ...}
+ * (plus {@code -Dspring.test.database.replace=none}). Sizes:
+ * {@code -Dbenchmark.bookings=...}, {@code -Dbenchmark.threads=...}.
+ * </p>
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@Import({ SagaLog.class, SagaLogBenchmark.Config.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SagaLogBenchmark {
+
+    private static final int BOOKINGS = Integer.getInteger("benchmark.bookings", 2_000);
+    private static final int[] THREADS = { 1, 16, Integer.getInteger("benchmark.threads", 256) };
+    private static final TripRequest TRIP = new TripRequest("FL-1", "HT-1", "user-1", 500.0);
+
+    @Autowired
+    private SagaLog sagaLog;
+    @Autowired
+    private SagaInstanceRepository instances;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final IdGenerator idGenerator = new IdGenerator();
+
+    @TestConfiguration
+    @EnableConfigurationProperties(SagaProperties.class)
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Test
+    void journalOverheadPerBooking() throws Exception {
+        // Warm-up: JIT, connection pool, Hibernate statement caches.
+        run(16, 2_000);
+
+        System.out.printf("%n%-8s %10s %14s %14s %16s%n",
+                "threads", "bookings", "bookings/s", "µs/booking", "entries/commit");
+        for (int threads : THREADS) {
+            double commitsBefore = meterRegistry.timer("wanderlust.saga.log.commit").count();
+            long started = System.nanoTime();
+            run(threads, BOOKINGS);
+            long elapsed = System.nanoTime() - started;
+            double commits = meterRegistry.timer("wanderlust.saga.log.commit").count() - commitsBefore;
+
+            // Wall-clock time per booking as seen by ONE booking thread (its added latency).
+            double perBookingMicros = elapsed / 1_000.0 * threads / BOOKINGS;
+            System.out.printf("%-8d %10d %14.0f %14.1f %16.1f%n", threads, BOOKINGS,
+                    BOOKINGS / (elapsed / 1e9), perBookingMicros, BOOKINGS * 5 / commits);
+        }
+
+        assertThat(instances.count()).isEqualTo(2_000L + (long) BOOKINGS * THREADS.length);
+    }
+
+    private void run(int threads, int bookings) throws Exception {
+        List<Future<?>> workers = new ArrayList<>(threads);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < threads; t++) {
+                int share = bookings / threads + (t < bookings % threads ? 1 : 0);
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < share; i++) {
+                        journalBooking(idGenerator.newId());
+                    }
+                }));
+            }
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+    }
+
+    private void journalBooking(String sagaId) {
+        sagaLog.start(sagaId, TRIP);
+        sagaLog.record(sagaId, SagaState.FLIGHT_RESERVED, "FB-" + sagaId, null);
+        sagaLog.record(sagaId, SagaState.HOTEL_RESERVED, "HB-" + sagaId, null);
+        sagaLog.record(sagaId, SagaState.CHARGED, null, null);
+        sagaLog.record(sagaId, SagaState.CONFIRMED, "OR-" + sagaId, null);
+    }
+}
@@ -0,0 +1,140 @@
+package com.wanderlust.order;
+
+import com.wanderlust.shared.TripRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The group-committed journal against the test database: a bad entry fails
+ * alone, long messages fit their columns, and nobody waits forever on a log
+ * that is shutting down.
+ */
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SagaLogTest {
+
+    private static final TripRequest TRIP = new TripRequest("FL-1", "HT-1", "user-1", 500.0);
+    private static final Object POISON = "poison";
+
+    @Autowired
+    private SagaInstanceRepository instances;
+    @Autowired
+    private SagaStepRepository steps;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final Object gateEvent = new Object();
+    private SagaLog sagaLog;
+
+    @BeforeEach
+    void start() {
+        steps.deleteAll();
+        instances.deleteAll();
+        ApplicationEventPublisher publisher = event -> {
+            if (event == gateEvent) {
+                await(gate);
+            } else if (event == POISON) {
+                throw new IllegalStateException("Outbox rejected the event");
+            }
+        };
+        sagaLog = new SagaLog(instances, steps, transactionManager, publisher, properties(),
+                new SimpleMeterRegistry());
+        sagaLog.startWriter();
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        gate.countDown();
+        sagaLog.stopWriter();
+    }
+
+    @Test
+    void badEntryFailsAloneAndNotTheSagasItSharedTheCommitWith() throws Exception {
+        for (String sagaId : List.of("gate", "saga-1", "saga-2", "saga-3")) {
+            sagaLog.start(sagaId, TRIP);
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Holds the writer in a commit while the next three entries queue up behind it.
+            Future<?> held = executor.submit(() -> sagaLog.record("gate", SagaState.FLIGHT_RESERVED, "FB-0", null,
+                    gateEvent));
+            Thread.sleep(100);
+            Future<?> first = executor.submit(() -> reserve("saga-1", null));
+            Future<?> bad = executor.submit(() -> reserve("saga-2", POISON));
+            Future<?> third = executor.submit(() -> reserve("saga-3", null));
+            Thread.sleep(100);
+            gate.countDown();
+
+            held.get(5, TimeUnit.SECONDS);
+            first.get(5, TimeUnit.SECONDS);
+            third.get(5, TimeUnit.SECONDS);
+            assertThatThrownBy(() -> bad.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("Outbox rejected the event");
+        }
+
+        assertThat(sagaLog.find("saga-1")).get().extracting(SagaInstance::getState)
+                .isEqualTo(SagaState.FLIGHT_RESERVED);
+        assertThat(sagaLog.find("saga-2")).get().extracting(SagaInstance::getState).isEqualTo(SagaState.STARTED);
+        assertThat(sagaLog.find("saga-3")).get().extracting(SagaInstance::getState)
+                .isEqualTo(SagaState.FLIGHT_RESERVED);
+    }
+
+    @Test
+    void longFailureMessageIsTruncatedToItsColumn() {
+        sagaLog.start("saga-1", TRIP);
+
+        sagaLog.record("saga-1", SagaState.FAILED, null, "<html>" + "x".repeat(10_000) + "</html>");
+
+        assertThat(sagaLog.find("saga-1")).get().extracting(SagaInstance::getMessage).asString()
+                .hasSize(SagaStep.MAX_MESSAGE_LENGTH)
+                .startsWith("<html>xxx")
+                .endsWith("…");
+        assertThat(steps.findAll()).extracting(SagaStep::getMessage)
+                .anySatisfy(message -> assertThat(message).hasSize(SagaStep.MAX_MESSAGE_LENGTH));
+    }
+
+    @Test
+    void appendAfterShutdownFailsInsteadOfWaiting() throws InterruptedException {
+        sagaLog.stopWriter();
+
+        assertThatThrownBy(() -> sagaLog.start("saga-1", TRIP))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("shutting down");
+    }
+
+    private void reserve(String sagaId, Object event) {
+        sagaLog.record(sagaId, SagaState.FLIGHT_RESERVED, "FB-" + sagaId, null, event);
+    }
+
+    private static SagaProperties properties() {
+        return new SagaProperties(true, true, 64, 512, Duration.ofMinutes(30), 256, Duration.ofMinutes(1),
+                Duration.ofMinutes(2), 8, 100);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
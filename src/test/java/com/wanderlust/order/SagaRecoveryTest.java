@@ -0,0 +1,83 @@
+package com.wanderlust.order;
+
+import com.wanderlust.shared.TripRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Recovery must only take over Sagas nobody is working on anymore.
+ */
+class SagaRecoveryTest {
+
+    private static final TripRequest TRIP = new TripRequest("FL-1", "HT-1", "user-1", 500.0);
+
+    private final SagaProperties properties = new SagaProperties(true, true, 1, 1, Duration.ofMinutes(30), 256,
+            Duration.ofMinutes(1), Duration.ZERO, 8, 100);
+    private final SagaLog sagaLog = mock(SagaLog.class);
+    private final OrderSaga orderSaga = mock(OrderSaga.class);
+    private final SagaTracker sagaTracker = new SagaTracker(properties, sagaLog);
+    private final SagaRecovery recovery = new SagaRecovery(sagaLog, sagaTracker, orderSaga, properties);
+
+    @Test
+    void queuedSagaIsNotRecovered() {
+        // Accepted and journaled as STARTED, but still waiting for an executor slot.
+        SagaInstance queued = stalled("saga-queued");
+        sagaTracker.start(queued.getId(), TRIP);
+        when(sagaLog.findStalled(any())).thenReturn(List.of(queued));
+
+        recovery.recoverStalledSagas();
+
+        verify(sagaLog, never()).claim(any());
+        verify(orderSaga, never()).recover(any());
+    }
+
+    @Test
+    void sagasInFlightAreMarkedAliveForOtherNodes() {
+        sagaTracker.start("saga-1", TRIP);
+        sagaTracker.start("saga-2", TRIP);
+        sagaTracker.done("saga-2");
+        when(sagaLog.findStalled(any())).thenReturn(List.of());
+
+        recovery.recoverStalledSagas();
+
+        verify(sagaLog).touch(Set.of("saga-1"));
+    }
+
+    @Test
+    void sagaThisNodeLetGoOfIsRecovered() {
+        SagaInstance abandoned = stalled("saga-abandoned");
+        sagaTracker.start(abandoned.getId(), TRIP);
+        sagaTracker.done(abandoned.getId());
+        when(sagaLog.findStalled(any())).thenReturn(List.of(abandoned));
+        when(sagaLog.claim(abandoned)).thenReturn(true);
+
+        recovery.recoverStalledSagas();
+
+        verify(orderSaga).recover(abandoned);
+    }
+
+    @Test
+    void sagaStalledInAnotherJvmIsRecovered() {
+        SagaInstance orphan = stalled("saga-orphan");
+        when(sagaLog.findStalled(any())).thenReturn(List.of(orphan));
+        when(sagaLog.claim(orphan)).thenReturn(true);
+
+        recovery.recoverStalledSagas();
+
+        verify(orderSaga).recover(orphan);
+    }
+
+    private static SagaInstance stalled(String sagaId) {
+        return new SagaInstance(sagaId, TRIP, Instant.now().minus(Duration.ofMinutes(10)));
+    }
+}
@@ -0,0 +1,169 @@
+package com.wanderlust.shared;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A reservation that the supplier made after the caller gave up must be undone,
+ * not lost, and calls the caller gave up on still count against the bulkhead.
+ */
+class GatewayGuardTest {
+
+    private static final String GATEWAY = "flightGateway";
+
+    private static final int MAX_CONCURRENT = 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GatewayGuard guard = new GatewayGuard(BulkheadRegistry.of(BulkheadConfig.custom()
+                    .maxConcurrentCalls(MAX_CONCURRENT)
+                    .maxWaitDuration(Duration.ZERO)
+                    .build()),
+            TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                    .timeoutDuration(Duration.ofMillis(100))
+                    .cancelRunningFuture(true)
+                    .build()),
+            new GatewayProperties(new GatewayProperties.Hedging(false, Duration.ofSeconds(1),
+                    Duration.ofMillis(50), 20)),
+            meterRegistry);
+
+    @AfterEach
+    void shutdown() {
+        guard.shutdown();
+    }
+
+    @Test
+    void reservationThatAnswersAfterTheTimeoutIsCompensated() throws Exception {
+        CompletableFuture<String> compensated = new CompletableFuture<>();
+
+        assertThatThrownBy(() -> guard.call(GATEWAY, "reserve", slow("FB-1"), compensated::complete))
+                .isInstanceOf(GatewayCallException.class)
+                .hasMessageContaining("did not answer");
+
+        assertThat(compensated.get(2, TimeUnit.SECONDS)).isEqualTo("FB-1");
+        assertThat(meterRegistry.counter("wanderlust.gateway.late", "gateway", GATEWAY, "operation", "reserve")
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void unhedgedReservationHandsItsLateResultToDiscard() throws Exception {
+        CompletableFuture<String> discarded = new CompletableFuture<>();
+
+        assertThatThrownBy(() -> guard.hedged(GATEWAY, "reserve", slow("FB-1"), discarded::complete))
+                .isInstanceOf(GatewayCallException.class);
+
+        assertThat(discarded.get(2, TimeUnit.SECONDS)).isEqualTo("FB-1");
+    }
+
+    @Test
+    void answerInTimeIsNotCompensated() {
+        List<String> compensated = new CopyOnWriteArrayList<>();
+
+        assertThat(guard.call(GATEWAY, "reserve", () -> "FB-1", compensated::add)).isEqualTo("FB-1");
+
+        assertThat(compensated).isEmpty();
+    }
+
+    @Test
+    void failedLateCallHasNothingToCompensate() throws Exception {
+        CountDownLatch failed = new CountDownLatch(1);
+        List<String> compensated = new CopyOnWriteArrayList<>();
+
+        assertThatThrownBy(() -> guard.<String>call(GATEWAY, "reserve", () -> {
+            sleep(300);
+            failed.countDown();
+            throw new IllegalStateException("Sold out");
+        }, compensated::add)).isInstanceOf(GatewayCallException.class);
+
+        assertThat(failed.await(2, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(50);
+        assertThat(compensated).isEmpty();
+    }
+
+    @Test
+    void callWithoutCompensationIsInterruptedOnTimeout() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> guard.run(GATEWAY, "charge", () -> {
+            try {
+                Thread.sleep(2_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        })).isInstanceOf(GatewayCallException.class);
+
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void hangingReservationsKeepTheirPermitsAfterTheTimeout() throws Exception {
+        CountDownLatch supplierBack = new CountDownLatch(1);
+        AtomicInteger alive = new AtomicInteger();
+        AtomicInteger mostAlive = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch compensated = new CountDownLatch(MAX_CONCURRENT);
+        Supplier<String> hanging = () -> {
+            mostAlive.accumulateAndGet(alive.incrementAndGet(), Math::max);
+            try {
+                supplierBack.await();
+                return "FB";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "FB";
+            } finally {
+                alive.decrementAndGet();
+            }
+        };
+
+        // Every call times out after 100ms, while its attempt hangs on.
+        for (int i = 0; i < 3 * MAX_CONCURRENT; i++) {
+            try {
+                guard.call(GATEWAY, "reserve", hanging, late -> compensated.countDown());
+            } catch (GatewayCallException e) {
+                if (e.getMessage().contains("saturated")) {
+                    rejected.incrementAndGet();
+                }
+            }
+        }
+
+        assertThat(mostAlive.get()).isEqualTo(MAX_CONCURRENT);
+        assertThat(rejected.get()).isEqualTo(2 * MAX_CONCURRENT);
+
+        // Compensated only after the attempt ended and gave its permit back
+        supplierBack.countDown();
+        assertThat(compensated.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(guard.call(GATEWAY, "reserve", () -> "FB-2", late -> { })).isEqualTo("FB-2");
+    }
+
+    private static Supplier<String> slow(String bookingId) {
+        return () -> {
+            sleep(300);
+            return bookingId;
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted although a compensation was given", e);
+        }
+    }
+}
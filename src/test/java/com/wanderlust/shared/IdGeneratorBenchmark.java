@@ -0,0 +1,63 @@
+package com.wanderlust.shared;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Ids per second from {@link IdGenerator} against {@link UUID#randomUUID()},
+ * from one thread and from many at once.
+ * {@code mvn test -Pbenchmark -Dtest=IdGeneratorBenchmark}; sizes:
+ * {@code -Dbenchmark.ids=...}, {@code -Dbenchmark.threads=...}.
+ */
+@Tag("benchmark")
+class IdGeneratorBenchmark {
+
+    private static final int IDS = Integer.getInteger("benchmark.ids", 4_000_000);
+    private static final int[] THREADS = { 1, 4, Integer.getInteger("benchmark.threads", 16) };
+
+    @Test
+    void idsPerSecond() throws Exception {
+        IdGenerator generator = new IdGenerator();
+        // Warm-up
+        mint(4, IDS / 4, generator::next);
+        mint(4, IDS / 4, UUID::randomUUID);
+
+        System.out.printf("%n%-8s %14s %16s%n", "threads", "UUIDv7 ids/s", "randomUUID ids/s");
+        for (int threads : THREADS) {
+            double v7 = mint(threads, IDS, generator::next);
+            double random = mint(threads, IDS, UUID::randomUUID);
+            System.out.printf("%-8d %14.0f %16.0f%n", threads, v7, random);
+        }
+    }
+
+    /**
+     * @return ids per second over all threads.
+     */
+    private static double mint(int threads, int ids, Supplier<UUID> next) throws Exception {
+        List<Future<Long>> workers = new ArrayList<>(threads);
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    long sink = 0;
+                    for (int i = 0; i < ids / threads; i++) {
+                        sink ^= next.get().getLeastSignificantBits();
+                    }
+                    return sink;
+                }));
+            }
+        }
+        for (Future<Long> worker : workers) {
+            worker.get();
+        }
+        return ids / ((System.nanoTime() - started) / 1e9);
+    }
+}
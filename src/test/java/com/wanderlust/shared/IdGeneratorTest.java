@@ -0,0 +1,60 @@
+package com.wanderlust.shared;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ids from many threads at once: never the same twice, and always increasing
+ * as each thread sees them.
+ */
+class IdGeneratorTest {
+
+    @Test
+    void idsAreUniqueAndIncreasingPerThread() throws Exception {
+        IdGenerator generator = new IdGenerator();
+        int threads = 8;
+        int perThread = 100_000;
+        List<Future<List<UUID>>> workers = new ArrayList<>(threads);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    List<UUID> ids = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(generator.next());
+                    }
+                    return ids;
+                }));
+            }
+        }
+        Set<UUID> all = new HashSet<>();
+        for (Future<List<UUID>> worker : workers) {
+            List<UUID> ids = worker.get();
+            for (int i = 1; i < ids.size(); i++) {
+                assertThat(ids.get(i)).isGreaterThan(ids.get(i - 1));
+            }
+            all.addAll(ids);
+        }
+        assertThat(all).hasSize(threads * perThread);
+    }
+
+    @Test
+    void idIsAVersion7UuidOfNow() {
+        long before = System.currentTimeMillis();
+        UUID id = new IdGenerator().next();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(IdGenerator.timestamp(id)).isBetween(before, System.currentTimeMillis() + 1);
+        assertThat(IdGenerator.fromBytes(IdGenerator.toBytes(id))).isEqualTo(id);
+    }
+}
@@ -0,0 +1,99 @@
+package com.wanderlust.weather;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local HTTP server answering {@code /v1/forecast} like Open-Meteo: one
+ * object for one coordinate, an array for several. Every answer is 1°C
+ * warmer than the one before, so a test can tell a cached value from a
+ * fresh one. Can be made slow ({@link #delay}) or broken ({@link #failing}).
+ */
+class OpenMeteoStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final AtomicInteger temperature = new AtomicInteger(20);
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private volatile long delayMillis;
+    private volatile boolean failing;
+
+    OpenMeteoStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/forecast", this::forecast);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /** Latitudes asked for, one entry per request. */
+    List<String> requests() {
+        return List.copyOf(requests);
+    }
+
+    /** Every answer takes this long. */
+    void delay(long millis) {
+        this.delayMillis = millis;
+    }
+
+    /** While true, every request gets a 503. */
+    void failing(boolean failing) {
+        this.failing = failing;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void forecast(HttpExchange exchange) throws IOException {
+        String latitudes = "";
+        for (String parameter : exchange.getRequestURI().getRawQuery().split("&")) {
+            if (parameter.startsWith("latitude=")) {
+                latitudes = URLDecoder.decode(parameter.substring("latitude=".length()), StandardCharsets.UTF_8);
+            }
+        }
+        requests.add(latitudes);
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failing) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+
+        String[] places = latitudes.split(",");
+        int degrees = temperature.getAndIncrement();
+        StringBuilder body = new StringBuilder(places.length > 1 ? "[" : "");
+        for (int i = 0; i < places.length; i++) {
+            body.append(i > 0 ? "," : "").append(String.format(Locale.ROOT,
+                    "{\"latitude\":%s,\"timezone\":\"GMT\",\"current_units\":{\"temperature_2m\":\"°C\"},"
+                            + "\"current\":{\"time\":\"2026-10-18T12:00\",\"temperature_2m\":%d.0,"
+                            + "\"relative_humidity_2m\":55,\"wind_speed_10m\":9.5,\"weather_code\":0}}",
+                    places[i], degrees));
+        }
+        byte[] bytes = body.append(places.length > 1 ? "]" : "").toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.wanderlust.weather;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The weather cache against a local stand-in for Open-Meteo
+ * ({@link OpenMeteoStub}), over real HTTP.
+ */
+class WeatherServiceTest {
+
+    private OpenMeteoStub openMeteo;
+    private WeatherService weather;
+
+    @BeforeEach
+    void start() throws Exception {
+        openMeteo = new OpenMeteoStub();
+        weather = service(Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void stop() {
+        weather.shutdown();
+        openMeteo.close();
+    }
+
+    @Test
+    void concurrentMissesShareOneFetch() throws Exception {
+        openMeteo.delay(200);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<String, Object>>> readers = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 50; i++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    return weather.getWeather("Paris, France");
+                }));
+            }
+            start.countDown();
+        }
+
+        for (Future<Map<String, Object>> reader : readers) {
+            assertThat(reader.get()).containsEntry("source", "Open-Meteo").containsEntry("temperature", 20.0);
+        }
+        assertThat(openMeteo.requests()).containsExactly("48.8566");
+    }
+
+    @Test
+    void staleValueIsServedWhileOneRefreshRuns() throws Exception {
+        weather.shutdown();
+        weather = service(Duration.ofMillis(100));
+        assertThat(weather.getWeather("Tokyo")).containsEntry("temperature", 20.0);
+        Thread.sleep(150);
+
+        // Past refresh-after: still the old value, and one refresh behind it.
+        assertThat(weather.getWeather("Tokyo")).containsEntry("temperature", 20.0);
+        assertThat(weather.getWeather("Tokyo")).containsEntry("temperature", 20.0);
+        await(() -> weather.getWeather("Tokyo").get("temperature").equals(21.0));
+
+        assertThat(openMeteo.requests()).hasSize(2);
+    }
+
+    @Test
+    void failedRefreshKeepsTheCachedValue() throws Exception {
+        weather.shutdown();
+        weather = service(Duration.ofMillis(100));
+        weather.getWeather("Rome");
+        openMeteo.failing(true);
+        Thread.sleep(150);
+
+        weather.getWeather("Rome");
+        await(() -> openMeteo.requests().size() == 2);
+
+        assertThat(weather.getWeather("Rome"))
+                .containsEntry("source", "Open-Meteo")
+                .containsEntry("temperature", 20.0);
+    }
+
+    @Test
+    void missNobodyCanAnswerGetsTheFallback() {
+        openMeteo.failing(true);
+
+        assertThat(weather.getWeather("London"))
+                .containsEntry("source", "Fallback (Service Unavailable)")
+                .containsEntry("circuitBreakerActive", true);
+    }
+
+    @Test
+    void citiesNotCachedAreFetchedInOneCall() {
+        weather.getWeather("Bali");
+
+        List<Map<String, Object>> trip = weather.getWeather(List.of("Bali", "Dubai", "Sydney"));
+
+        assertThat(trip).extracting(city -> city.get("city")).containsExactly("Bali", "Dubai", "Sydney");
+        assertThat(trip).allSatisfy(city -> assertThat(city).containsEntry("source", "Open-Meteo"));
+        assertThat(openMeteo.requests()).hasSize(2);
+        assertThat(openMeteo.requests().get(1).split(",")).containsExactlyInAnyOrder("25.2048", "-33.8688");
+
+        weather.getWeather(List.of("Dubai", "Sydney"));
+        assertThat(openMeteo.requests()).hasSize(2);
+    }
+
+    private WeatherService service(Duration refreshAfter) {
+        WeatherProperties properties = new WeatherProperties(openMeteo.baseUrl(), refreshAfter,
+                Duration.ofMinutes(20), 1000, 50);
+        RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory());
+        return new WeatherService(new OpenMeteoClient(restTemplate, properties), properties,
+                new SimpleMeterRegistry());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}